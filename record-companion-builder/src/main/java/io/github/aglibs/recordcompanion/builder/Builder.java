@@ -29,9 +29,12 @@ import java.lang.annotation.Target;
  *     .email("john@example.com")
  *     .build();
  * }</pre>
+ *
+ * <p>The annotation is kept in class files, so records compiled earlier (for example by an
+ * incremental build) are still recognized as nested builder-enabled records.
  */
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface Builder {
 
   /**
@@ -43,4 +46,16 @@ public @interface Builder {
    * @return {@code true} if annotations should be copied, {@code false} otherwise
    */
   boolean copyAnnotations() default false;
+
+  /**
+   * Whether to generate a compact builder, for modules with many records where every generated
+   * class adds to class loading time and metaspace.
+   *
+   * <p>A lean builder has no separate {@code XxxUpdater} interface: {@code with} and nested record
+   * setters take the builder itself. The generated sources also leave out javadoc. The {@code
+   * recordcompanion.lean} processor option makes every builder of a compilation lean.
+   *
+   * @return {@code true} to generate a lean builder, {@code false} otherwise
+   */
+  boolean lean() default false;
 }
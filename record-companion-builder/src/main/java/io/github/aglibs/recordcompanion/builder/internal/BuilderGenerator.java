@@ -3,20 +3,36 @@ package io.github.aglibs.recordcompanion.builder.internal;
 import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.NameAllocator;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 import com.squareup.javapoet.TypeVariableName;
 import io.github.aglibs.recordcompanion.builder.Builder;
+import io.github.aglibs.recordcompanion.processor.internal.ClassList;
+import io.github.aglibs.recordcompanion.processor.internal.CompanionIndexGenerator;
+import io.github.aglibs.recordcompanion.processor.internal.InliningReport;
+import io.github.aglibs.recordcompanion.processor.internal.ProcessingProfiler;
+import io.github.aglibs.recordcompanion.processor.internal.RecordModel;
+import io.github.aglibs.recordcompanion.processor.internal.RecordModels;
+import io.github.aglibs.recordcompanion.processor.internal.SourceFileWriter;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.processing.Filer;
 import javax.annotation.processing.ProcessingEnvironment;
 import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.RecordComponentElement;
@@ -24,18 +40,73 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.TypeParameterElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
 
 /** Generates builder pattern implementations for record classes. */
 public class BuilderGenerator {
 
   private static final String BUILDER_SUFFIX = "Builder";
   private static final String UPDATER_SUFFIX = "Updater";
+  private static final String CHECK_SUFFIX = "Check";
+  private static final String RESULT_NAME = "Result";
+  private static final String VALID_CHECK_ANNOTATION =
+      "io.github.aglibs.recordcompanion.validcheck.ValidCheck";
   private static final ClassName CONSUMER_TYPE = ClassName.get("java.util.function", "Consumer");
+  private static final ClassName METRICS_TYPE =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "CompanionMetrics");
+  private static final ClassName BUILD_EVENT_TYPE =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "RecordBuildEvent");
+  private static final TypeName VIOLATIONS_TYPE =
+      ParameterizedTypeName.get(ClassName.get("java.util", "List"), ClassName.get(String.class));
 
   private final ProcessingEnvironment processingEnv;
-
-  public BuilderGenerator(ProcessingEnvironment processingEnv) {
+  private final ProcessingProfiler profiler;
+  private final SourceFileWriter sourceFileWriter;
+  private final CompanionIndexGenerator companionIndex;
+  private final ClassFileGenerator classFileGenerator;
+  private final BuilderSourceEmitter sourceEmitter;
+  private final RecordModels records = new RecordModels();
+  private final Map<TypeElement, Optional<BuilderModel.NestedRecord>> nestedRecords =
+      new HashMap<>();
+  private final Set<String> compiledRecords = new HashSet<>();
+  private final boolean metrics;
+  private final boolean jfr;
+  private final boolean lean;
+
+  BuilderGenerator(
+      ProcessingEnvironment processingEnv,
+      ProcessingProfiler profiler,
+      ClassList classList,
+      InliningReport inliningReport) {
     this.processingEnv = Objects.requireNonNull(processingEnv, "processingEnv cannot be null");
+    this.profiler = Objects.requireNonNull(profiler, "profiler cannot be null");
+    this.sourceFileWriter =
+        new SourceFileWriter(
+            processingEnv,
+            profiler,
+            Objects.requireNonNull(classList, "classList cannot be null"),
+            Objects.requireNonNull(inliningReport, "inliningReport cannot be null"),
+            parallelism(processingEnv));
+    this.companionIndex =
+        CompanionIndexGenerator.create(
+            processingEnv, BuilderProcessor.INDEX_OPTION, "BuilderIndex", "builder.index");
+    this.metrics =
+        Boolean.parseBoolean(processingEnv.getOptions().get(BuilderProcessor.METRICS_OPTION));
+    this.jfr = Boolean.parseBoolean(processingEnv.getOptions().get(BuilderProcessor.JFR_OPTION));
+    this.lean = Boolean.parseBoolean(processingEnv.getOptions().get(BuilderProcessor.LEAN_OPTION));
+    // Metrics and JFR instrumentation is only generated as source
+    this.classFileGenerator =
+        Boolean.parseBoolean(processingEnv.getOptions().get(BuilderProcessor.CLASS_FILES_OPTION))
+                && !metrics
+                && !jfr
+            ? new ClassFileGenerator(processingEnv)
+            : null;
+    this.sourceEmitter =
+        Boolean.parseBoolean(processingEnv.getOptions().get(BuilderProcessor.STREAMING_OPTION))
+                && !metrics
+                && !jfr
+            ? new BuilderSourceEmitter(processingEnv)
+            : null;
   }
 
   private String joinTypeParameters(List<TypeVariableName> typeVariableNames) {
@@ -52,10 +123,6 @@ public class BuilderGenerator {
         : ParameterizedTypeName.get(baseClass, typeVariableNames.toArray(new TypeName[0]));
   }
 
-  private String generateUpdaterParameterName(TypeElement recordElement) {
-    return generateUpdaterParameterName(recordElement.getSimpleName().toString());
-  }
-
   private TypeName createNestedUpdaterType(
       DeclaredType declaredType, ClassName nestedUpdaterClass) {
     List<? extends TypeMirror> nestedTypeArguments = declaredType.getTypeArguments();
@@ -68,14 +135,12 @@ public class BuilderGenerator {
   }
 
   private MethodSpec createNestedSetterMethod(
-      RecordComponentElement component, TypeName updaterInterfaceType, boolean isInterface) {
-    DeclaredType declaredType = (DeclaredType) component.asType();
-    TypeElement nestedRecordElement = (TypeElement) declaredType.asElement();
-    ClassName nestedUpdaterClass = getUpdaterClassName(nestedRecordElement);
-    String updaterParamName = generateUpdaterParameterName(nestedRecordElement);
-    String componentName = component.getSimpleName().toString();
-
-    TypeName nestedUpdaterType = createNestedUpdaterType(declaredType, nestedUpdaterClass);
+      BuilderModel.Component component, TypeName updaterInterfaceType, boolean isInterface) {
+    BuilderModel.NestedRecord nested = component.nested();
+    String updaterParamName = nested.updaterParameterName();
+    String componentName = component.name();
+
+    TypeName nestedUpdaterType = createNestedUpdaterType(nested.type(), nested.updaterClass());
     ParameterizedTypeName nestedUpdaterConsumerType =
         ParameterizedTypeName.get(CONSUMER_TYPE, nestedUpdaterType);
 
@@ -97,10 +162,7 @@ public class BuilderGenerator {
           .addModifiers(Modifier.PUBLIC)
           .addCode(
               generateNestedSetterBody(
-                  componentName,
-                  getBuilderClassName(nestedRecordElement),
-                  updaterParamName,
-                  TypeName.get(component.asType())));
+                  componentName, nested.builderClass(), updaterParamName, component.typeName()));
     }
 
     return methodBuilder.build();
@@ -110,14 +172,135 @@ public class BuilderGenerator {
    * Generates separate builder class and updater interface for the given record.
    *
    * @param recordElement the record element to generate builder and updater for
-   * @throws IOException if there's an error writing the generated files
    * @throws NullPointerException if recordElement is null
    */
-  public void generateBuilderAndUpdaterTypes(TypeElement recordElement) throws IOException {
+  public void generateBuilderAndUpdaterTypes(TypeElement recordElement) {
     Objects.requireNonNull(recordElement, "recordElement cannot be null");
-    String recordName = recordElement.getSimpleName().toString();
-    String packageName =
-        processingEnv.getElementUtils().getPackageOf(recordElement).getQualifiedName().toString();
+    BuilderModel model = createModel(recordElement);
+    profiler.mark(ProcessingProfiler.Phase.MODEL);
+    String recordName = model.recordName();
+    String packageName = model.packageName();
+    List<TypeVariableName> typeVariableNames = model.typeVariables();
+
+    // Create parameterized types if the record has type parameters
+    TypeName recordTypeName =
+        createParameterizedTypeOrSimple(model.recordClass(), typeVariableNames);
+    List<BuilderModel.Component> components = model.components();
+
+    if (classFileGenerator != null && classFileGenerator.supports(model)) {
+      generateClassFiles(model);
+    } else if (sourceEmitter != null && sourceEmitter.supports(model)) {
+      generateStreamedSources(model);
+    } else {
+      // Generate the XxxUpdater interface, which lean builders do without
+      if (!model.lean()) {
+        generateStandaloneUpdaterInterface(
+            recordElement, recordName, packageName, components, typeVariableNames);
+      }
+
+      // Generate the XxxBuilder class (implements XxxUpdater)
+      generateStandaloneBuilderClass(
+          model, recordName, packageName, recordTypeName, components, typeVariableNames);
+    }
+
+    if (companionIndex != null) {
+      ClassName builderClass = model.builderClass();
+      companionIndex.add(
+          recordElement, builderClass, "builder", CodeBlock.of("() -> $T.builder()", builderClass));
+    }
+  }
+
+  /** Generates the updater interface and builder class of a plain record as class files. */
+  private void generateClassFiles(BuilderModel model) {
+    TypeElement recordElement = model.element();
+    if (!model.lean()) {
+      sourceFileWriter.addClassFile(
+          model.updaterClass().reflectionName(), classFileGenerator.updater(model), recordElement);
+    }
+    sourceFileWriter.addClassFile(
+        model.builderClass().reflectionName(), classFileGenerator.builder(model), recordElement);
+  }
+
+  /**
+   * Queues the updater interface and builder class of a record as streamed sources, which are
+   * appended to the writer's buffer when the round is written instead of being built as JavaPoet
+   * specs now.
+   */
+  private void generateStreamedSources(BuilderModel model) {
+    TypeElement recordElement = model.element();
+    if (!model.lean()) {
+      sourceFileWriter.addStreamed(
+          model.updaterClass().canonicalName(),
+          List.of(),
+          recordElement,
+          out -> sourceEmitter.appendUpdater(model, out));
+    }
+    sourceFileWriter.addStreamed(
+        model.builderClass().canonicalName(),
+        model.validCheck() ? List.of(RESULT_NAME) : List.of(),
+        recordElement,
+        out -> sourceEmitter.appendBuilder(model, out));
+  }
+
+  /**
+   * Starts a processing round, dropping the record models resolved in earlier rounds.
+   *
+   * @param builderElements the elements annotated with @Builder in this round
+   */
+  void startRound(Set<? extends Element> builderElements) {
+    for (Element element : builderElements) {
+      if (element instanceof TypeElement typeElement) {
+        compiledRecords.add(typeElement.getQualifiedName().toString());
+      }
+    }
+    records.startRound();
+    nestedRecords.clear();
+  }
+
+  /** Ends a processing round, writing the files generated during the round. */
+  void finishRound() {
+    if (companionIndex != null) {
+      companionIndex.finishRound().ifPresent(sourceFileWriter::add);
+    }
+    sourceFileWriter.flush();
+  }
+
+  /** Releases the threads that rendered generated sources, once processing is over. */
+  void close() {
+    sourceFileWriter.close();
+  }
+
+  /**
+   * Writes the companion index resource once processing is over, if the index is enabled.
+   *
+   * @param filer the filer to create the resource with
+   * @throws IOException if the resource cannot be written
+   */
+  void writeIndex(Filer filer) throws IOException {
+    if (companionIndex != null) {
+      companionIndex.writeResource(filer);
+    }
+  }
+
+  private static int parallelism(ProcessingEnvironment processingEnv) {
+    String value = processingEnv.getOptions().get(BuilderProcessor.PARALLELISM_OPTION);
+    if (value == null) {
+      return Runtime.getRuntime().availableProcessors();
+    }
+    try {
+      return Math.max(1, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.WARNING,
+              "Ignoring " + BuilderProcessor.PARALLELISM_OPTION + "=" + value + ": not a number");
+      return Runtime.getRuntime().availableProcessors();
+    }
+  }
+
+  private BuilderModel createModel(TypeElement recordElement) {
+    RecordModel record = records.get(recordElement);
 
     // Extract copyAnnotations parameter from @Builder annotation
     Builder builderAnnotation = recordElement.getAnnotation(Builder.class);
@@ -134,42 +317,34 @@ public class BuilderGenerator {
                         : TypeVariableName.get(tp))
             .toList();
 
-    ClassName recordClass = ClassName.get(packageName, recordName);
-
-    // Create parameterized types if the record has type parameters
-    TypeName recordTypeName =
-        typeVariableNames.isEmpty()
-            ? recordClass
-            : ParameterizedTypeName.get(recordClass, typeVariableNames.toArray(new TypeName[0]));
-    List<? extends RecordComponentElement> components = recordElement.getRecordComponents();
-
-    // Generate the XxxUpdater interface
-    generateStandaloneUpdaterInterface(recordName, packageName, components, typeVariableNames);
+    List<BuilderModel.Component> components =
+        record.components().stream()
+            .map(component -> new BuilderModel.Component(component, nestedRecord(component.type())))
+            .toList();
 
-    // Generate the XxxBuilder class (implements XxxUpdater)
-    generateStandaloneBuilderClass(
-        recordElement,
-        recordName,
-        packageName,
-        recordTypeName,
-        components,
+    return new BuilderModel(
+        record,
+        copyAnnotations,
+        isLean(record),
+        record.hasAnnotation(VALID_CHECK_ANNOTATION),
         typeVariableNames,
-        copyAnnotations);
+        components);
   }
 
   /** Generates a standalone XxxUpdater interface file. */
   private void generateStandaloneUpdaterInterface(
+      TypeElement recordElement,
       String recordName,
       String packageName,
-      List<? extends RecordComponentElement> components,
-      List<TypeVariableName> typeVariableNames)
-      throws IOException {
+      List<BuilderModel.Component> components,
+      List<TypeVariableName> typeVariableNames) {
 
     String updaterName = recordName + UPDATER_SUFFIX;
 
     TypeSpec.Builder updaterBuilder =
         TypeSpec.interfaceBuilder(updaterName)
             .addModifiers(Modifier.PUBLIC)
+            .addOriginatingElement(recordElement)
             .addJavadoc("Interface for updating $N record values.\n", recordName);
 
     // Add type parameters to the interface
@@ -189,29 +364,24 @@ public class BuilderGenerator {
     // Write the updater interface to a file
     JavaFile javaFile =
         JavaFile.builder(packageName, updaterInterface).skipJavaLangImports(true).build();
-    javaFile.writeTo(processingEnv.getFiler());
+    sourceFileWriter.add(javaFile);
   }
 
   /** Generates a standalone XxxBuilder class file. */
   private void generateStandaloneBuilderClass(
-      TypeElement recordElement,
+      BuilderModel model,
       String recordName,
       String packageName,
       TypeName recordTypeName,
-      List<? extends RecordComponentElement> components,
-      List<TypeVariableName> typeVariableNames,
-      boolean copyAnnotations)
-      throws IOException {
-
-    String builderName = recordName + BUILDER_SUFFIX;
-    String updaterName = recordName + UPDATER_SUFFIX;
-
-    ClassName builderClass = ClassName.get(packageName, builderName);
-    ClassName updaterInterface = ClassName.get(packageName, updaterName);
+      List<BuilderModel.Component> components,
+      List<TypeVariableName> typeVariableNames) {
 
-    // Create the updater interface type for implements clause
-    TypeName updaterInterfaceType =
-        createParameterizedTypeOrSimple(updaterInterface, typeVariableNames);
+    TypeElement recordElement = model.element();
+    boolean copyAnnotations = model.copyAnnotations();
+    String builderName = model.builderClass().simpleName();
+    ClassName builderClass = model.builderClass();
+    // Lean builders are their own updaters
+    ClassName updaterInterface = model.lean() ? builderClass : model.updaterClass();
 
     // Create the builder class type for return types
     TypeName builderClassType = createParameterizedTypeOrSimple(builderClass, typeVariableNames);
@@ -219,8 +389,12 @@ public class BuilderGenerator {
     TypeSpec.Builder builderBuilder =
         TypeSpec.classBuilder(builderName)
             .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-            .addSuperinterface(updaterInterfaceType)
+            .addOriginatingElement(recordElement)
             .addJavadoc("Builder class for {@link $T} record.\n", recordTypeName);
+    if (!model.lean()) {
+      builderBuilder.addSuperinterface(
+          createParameterizedTypeOrSimple(updaterInterface, typeVariableNames));
+    }
 
     // Copy annotations from record to builder class if copyAnnotations is true
     if (copyAnnotations) {
@@ -241,6 +415,12 @@ public class BuilderGenerator {
     // Add build method to builder class
     addBuildMethodToBuilderClass(builderBuilder, recordTypeName, components);
 
+    // Add exception-free validated build for records that also carry @ValidCheck
+    if (model.validCheck()) {
+      addBuildValidatedToBuilderClass(
+          builderBuilder, recordName, packageName, recordTypeName, components, typeVariableNames);
+    }
+
     // Add static factory methods
     builderBuilder.addMethod(generateStaticBuilderMethod(builderClass, typeVariableNames));
     builderBuilder.addMethod(
@@ -250,10 +430,13 @@ public class BuilderGenerator {
         generateStaticWithMethod(recordTypeName, updaterInterface, typeVariableNames));
 
     TypeSpec builder = builderBuilder.build();
+    if (model.lean()) {
+      builder = withoutJavadoc(builder);
+    }
 
     // Write the builder class to a file
     JavaFile javaFile = JavaFile.builder(packageName, builder).skipJavaLangImports(true).build();
-    javaFile.writeTo(processingEnv.getFiler());
+    sourceFileWriter.add(javaFile);
   }
 
   private MethodSpec generateStaticBuilderMethod(
@@ -284,7 +467,7 @@ public class BuilderGenerator {
   private MethodSpec generateStaticBuilderWithExistingMethod(
       TypeName recordTypeName,
       ClassName builderClass,
-      List<? extends RecordComponentElement> components,
+      List<BuilderModel.Component> components,
       List<TypeVariableName> typeVariableNames) {
 
     // Create the Builder return type with proper type parameters
@@ -312,7 +495,7 @@ public class BuilderGenerator {
 
   private CodeBlock generateStaticBuilderWithExistingBody(
       ClassName builderClass,
-      List<? extends RecordComponentElement> components,
+      List<BuilderModel.Component> components,
       List<TypeVariableName> typeVariableNames) {
     CodeBlock.Builder body = CodeBlock.builder();
 
@@ -325,8 +508,8 @@ public class BuilderGenerator {
     }
 
     // Copy all values from existing record
-    for (RecordComponentElement component : components) {
-      String componentName = component.getSimpleName().toString();
+    for (BuilderModel.Component component : components) {
+      String componentName = component.name();
       body.addStatement("builder.$N = existing.$N()", componentName, componentName);
     }
 
@@ -355,7 +538,7 @@ public class BuilderGenerator {
             .addJavadoc(
                 "@param updater a consumer that receives an updater initialized with the existing record's values\n")
             .addJavadoc("@return a new record instance with the applied modifications\n")
-            .addCode(generateStaticWithMethodBody());
+            .addCode(generateStaticWithMethodBody(recordTypeName));
 
     // Add type parameters to the method
     for (TypeVariableName typeVariableName : typeVariableNames) {
@@ -365,12 +548,16 @@ public class BuilderGenerator {
     return methodBuilder.build();
   }
 
-  private CodeBlock generateStaticWithMethodBody() {
+  private CodeBlock generateStaticWithMethodBody(TypeName recordTypeName) {
     CodeBlock.Builder body = CodeBlock.builder();
 
     // Generate Builder type with proper type parameters
     body.addStatement("var builder = builder(existing)");
     body.addStatement("updater.accept(builder)");
+    if (metrics) {
+      body.addStatement(
+          "$T.instance().recordUpdated($T.class)", METRICS_TYPE, rawType(recordTypeName));
+    }
     body.addStatement("return builder.build()");
 
     return body.build();
@@ -379,17 +566,17 @@ public class BuilderGenerator {
   /** Adds setter methods to the updater interface. */
   private void addSetterMethodsToUpdaterInterface(
       TypeSpec.Builder updaterBuilder,
-      List<? extends RecordComponentElement> components,
+      List<BuilderModel.Component> components,
       TypeName updaterInterfaceType) {
-    for (RecordComponentElement component : components) {
-      String componentName = component.getSimpleName().toString();
-      TypeMirror componentType = component.asType();
+    for (BuilderModel.Component component : components) {
+      String componentName = component.name();
+      TypeMirror componentType = component.type();
 
       // Always generate the original setter method
       MethodSpec setterMethod =
           MethodSpec.methodBuilder(componentName)
               .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
-              .addParameter(TypeName.get(componentType), componentName)
+              .addParameter(component.typeName(), componentName)
               .returns(updaterInterfaceType)
               .addJavadoc("Sets the $N value.\n", componentName)
               .addJavadoc("@param $N the new $N value\n", componentName, componentName)
@@ -399,7 +586,7 @@ public class BuilderGenerator {
       updaterBuilder.addMethod(setterMethod);
 
       // Generate overloaded method for @Builder-annotated record types
-      if (isBuilderAnnotatedRecord(component)) {
+      if (component.nested() != null) {
         updaterBuilder.addMethod(createNestedSetterMethod(component, updaterInterfaceType, true));
       }
     }
@@ -407,28 +594,25 @@ public class BuilderGenerator {
 
   /** Adds fields to the builder class. */
   private void addFieldsToBuilderClass(
-      TypeSpec.Builder builderBuilder, List<? extends RecordComponentElement> components) {
-    for (RecordComponentElement component : components) {
-      builderBuilder.addField(
-          TypeName.get(component.asType()), component.getSimpleName().toString(), Modifier.PRIVATE);
+      TypeSpec.Builder builderBuilder, List<BuilderModel.Component> components) {
+    for (BuilderModel.Component component : components) {
+      builderBuilder.addField(component.typeName(), component.name(), Modifier.PRIVATE);
     }
   }
 
   /** Adds setter methods to the builder class. */
   private void addSetterMethodsToBuilderClass(
       TypeSpec.Builder builderBuilder,
-      List<? extends RecordComponentElement> components,
+      List<BuilderModel.Component> components,
       TypeName builderClassType,
       boolean copyAnnotations) {
-    for (RecordComponentElement component : components) {
-      String componentName = component.getSimpleName().toString();
-      TypeMirror componentType = component.asType();
+    for (BuilderModel.Component component : components) {
+      String componentName = component.name();
+      TypeMirror componentType = component.type();
 
       // Always generate the original setter method
       TypeName parameterType =
-          copyAnnotations
-              ? createTypeNameWithAnnotations(componentType)
-              : TypeName.get(componentType);
+          copyAnnotations ? createTypeNameWithAnnotations(componentType) : component.typeName();
 
       MethodSpec.Builder setterMethodBuilder =
           MethodSpec.methodBuilder(componentName)
@@ -440,7 +624,7 @@ public class BuilderGenerator {
 
       // Copy annotations from record component to setter method if copyAnnotations is true
       if (copyAnnotations) {
-        addCopiedAnnotationsToMethod(setterMethodBuilder, component);
+        addCopiedAnnotationsToMethod(setterMethodBuilder, component.element());
       }
 
       MethodSpec setterMethod = setterMethodBuilder.build();
@@ -448,7 +632,7 @@ public class BuilderGenerator {
       builderBuilder.addMethod(setterMethod);
 
       // Generate overloaded method for @Builder-annotated record types
-      if (isBuilderAnnotatedRecord(component)) {
+      if (component.nested() != null) {
         builderBuilder.addMethod(createNestedSetterMethod(component, builderClassType, false));
       }
     }
@@ -458,24 +642,158 @@ public class BuilderGenerator {
   private void addBuildMethodToBuilderClass(
       TypeSpec.Builder builderBuilder,
       TypeName recordTypeName,
-      List<? extends RecordComponentElement> components) {
+      List<BuilderModel.Component> components) {
     CodeBlock.Builder buildMethodBody = CodeBlock.builder();
-    buildMethodBody.add("return new $T(", recordTypeName);
+    buildMethodBody.add("new $T(", recordTypeName);
 
     for (int i = 0; i < components.size(); i++) {
       if (i > 0) buildMethodBody.add(", ");
-      buildMethodBody.add("$N", components.get(i).getSimpleName().toString());
+      buildMethodBody.add("$N", components.get(i).name());
     }
     buildMethodBody.add(")");
 
-    MethodSpec buildMethod =
-        MethodSpec.methodBuilder("build")
-            .addModifiers(Modifier.PUBLIC)
-            .returns(recordTypeName)
-            .addStatement(buildMethodBody.build())
-            .build();
+    MethodSpec.Builder buildMethod =
+        MethodSpec.methodBuilder("build").addModifiers(Modifier.PUBLIC).returns(recordTypeName);
+
+    if (!metrics && !jfr) {
+      buildMethod.addStatement("return $L", buildMethodBody.build());
+      builderBuilder.addMethod(buildMethod.build());
+      return;
+    }
 
-    builderBuilder.addMethod(buildMethod);
+    // Pick local names that cannot shadow the builder fields used as constructor arguments
+    NameAllocator names = new NameAllocator();
+    components.forEach(component -> names.newName(component.name()));
+    String recordVariable = names.newName("record");
+    String eventVariable = names.newName("buildEvent");
+    ClassName recordClass = rawType(recordTypeName);
+
+    // Only allocate the event while a recording has it enabled
+    if (jfr) {
+      buildMethod
+          .addStatement("$T $N = null", BUILD_EVENT_TYPE, eventVariable)
+          .beginControlFlow("if ($T.enabled())", BUILD_EVENT_TYPE)
+          .addStatement("$N = new $T($T.class)", eventVariable, BUILD_EVENT_TYPE, recordClass)
+          .addStatement("$N.begin()", eventVariable)
+          .endControlFlow();
+    }
+    buildMethod.addStatement("$T $N = $L", recordTypeName, recordVariable, buildMethodBody.build());
+    if (jfr) {
+      buildMethod
+          .beginControlFlow("if ($N != null && $N.shouldCommit())", eventVariable, eventVariable)
+          .addStatement("$N.commit()", eventVariable)
+          .endControlFlow();
+    }
+    if (metrics) {
+      buildMethod.addStatement("$T.instance().recordBuilt($T.class)", METRICS_TYPE, recordClass);
+    }
+    buildMethod.addStatement("return $N", recordVariable);
+
+    builderBuilder.addMethod(buildMethod.build());
+  }
+
+  /** Returns the raw class of a possibly parameterized record type, for use in class literals. */
+  private ClassName rawType(TypeName typeName) {
+    return typeName instanceof ParameterizedTypeName parameterizedType
+        ? parameterizedType.rawType
+        : (ClassName) typeName;
+  }
+
+  /**
+   * Adds the nested Result record and the buildValidated method, which runs the generated XxxCheck
+   * before calling the record constructor and reports violations as a value instead of throwing.
+   */
+  private void addBuildValidatedToBuilderClass(
+      TypeSpec.Builder builderBuilder,
+      String recordName,
+      String packageName,
+      TypeName recordTypeName,
+      List<BuilderModel.Component> components,
+      List<TypeVariableName> typeVariableNames) {
+    ClassName resultClass = ClassName.get(packageName, recordName + BUILDER_SUFFIX, RESULT_NAME);
+    TypeName resultType = createParameterizedTypeOrSimple(resultClass, typeVariableNames);
+    ClassName checkClass = ClassName.get(packageName, recordName + CHECK_SUFFIX);
+
+    TypeSpec.Builder resultBuilder =
+        TypeSpec.classBuilder(RESULT_NAME)
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+            .addJavadoc(
+                "Outcome of {@link $N#buildValidated()}: either the record or the violated constraints.\n",
+                recordName + BUILDER_SUFFIX)
+            .addField(recordTypeName, "value", Modifier.PRIVATE, Modifier.FINAL)
+            .addField(VIOLATIONS_TYPE, "violations", Modifier.PRIVATE, Modifier.FINAL)
+            .addMethod(
+                MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PRIVATE)
+                    .addParameter(recordTypeName, "value")
+                    .addParameter(VIOLATIONS_TYPE, "violations")
+                    .addStatement("this.value = value")
+                    .addStatement("this.violations = violations")
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("value")
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(recordTypeName)
+                    .addJavadoc("Returns the built record.\n")
+                    .addJavadoc("@return the record, or {@code null} if validation failed\n")
+                    .addStatement("return value")
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("violations")
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(VIOLATIONS_TYPE)
+                    .addJavadoc("Returns the violated constraints.\n")
+                    .addJavadoc("@return the violations, empty if the record was built\n")
+                    .addStatement("return violations")
+                    .build())
+            .addMethod(
+                MethodSpec.methodBuilder("isValid")
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(boolean.class)
+                    .addJavadoc("Returns whether the record was built.\n")
+                    .addJavadoc("@return {@code true} if no constraint was violated\n")
+                    .addStatement("return violations.isEmpty()")
+                    .build());
+    for (TypeVariableName typeVariableName : typeVariableNames) {
+      resultBuilder.addTypeVariable(typeVariableName);
+    }
+    builderBuilder.addType(resultBuilder.build());
+
+    CodeBlock.Builder arguments = CodeBlock.builder();
+    for (int i = 0; i < components.size(); i++) {
+      if (i > 0) arguments.add(", ");
+      arguments.add("$N", components.get(i).name());
+    }
+    String resultConstructor = typeVariableNames.isEmpty() ? "" : "<>";
+
+    // The arguments read builder fields named after the components, so the local cannot clash
+    NameAllocator names = new NameAllocator();
+    components.forEach(component -> names.newName(component.name()));
+    String violationsName = names.newName("violations");
+
+    builderBuilder.addMethod(
+        MethodSpec.methodBuilder("buildValidated")
+            .addModifiers(Modifier.PUBLIC)
+            .returns(resultType)
+            .addJavadoc(
+                "Validates the current values with {@link $T} and builds the record if they pass.\n\n",
+                checkClass)
+            .addJavadoc(
+                "<p>Unlike {@link #build()}, constraint violations are returned rather than thrown.\n\n")
+            .addJavadoc("@return the built record or the violated constraints\n")
+            .addStatement(
+                "$T $N = $T.violations($L)",
+                VIOLATIONS_TYPE,
+                violationsName,
+                checkClass,
+                arguments.build())
+            .beginControlFlow("if (!$N.isEmpty())", violationsName)
+            .addStatement(
+                "return new $T$L(null, $N)", resultClass, resultConstructor, violationsName)
+            .endControlFlow()
+            .addStatement(
+                "return new $T$L(build(), $N)", resultClass, resultConstructor, violationsName)
+            .build());
   }
 
   /** Generates the method body for nested record setter methods. */
@@ -513,37 +831,110 @@ public class BuilderGenerator {
     return body.build();
   }
 
-  /** Checks if a record component type is a record with @Builder annotation. */
-  private boolean isBuilderAnnotatedRecord(RecordComponentElement component) {
-    TypeMirror componentType = component.asType();
-
+  /**
+   * Returns the nested builder-enabled record a component type refers to, or {@code null} if the
+   * type is not a record with @Builder annotation. Lookups are cached per round, since the same
+   * record types tend to appear as components of many records.
+   *
+   * <p>The type may come from a class file in incremental builds, which is why @Builder has class
+   * retention. It is a dependency of the record being processed, so the record is recompiled when
+   * it changes.
+   */
+  private BuilderModel.NestedRecord nestedRecord(TypeMirror componentType) {
     if (!(componentType instanceof DeclaredType declaredType)) {
-      return false;
+      return null;
     }
 
     TypeElement typeElement = (TypeElement) declaredType.asElement();
+    Optional<BuilderModel.NestedRecord> nested = nestedRecords.get(typeElement);
+    if (nested == null) {
+      // Check if it's a record and has @Builder annotation
+      boolean builderRecord =
+          typeElement.getKind() == ElementKind.RECORD
+              && typeElement.getAnnotation(Builder.class) != null;
+      nested = builderRecord ? Optional.of(createNestedRecord(typeElement)) : Optional.empty();
+      nestedRecords.put(typeElement, nested);
+    }
 
-    // Check if it's a record and has @Builder annotation
-    return typeElement.getKind() == ElementKind.RECORD
-        && typeElement.getAnnotation(Builder.class) != null;
+    // Keep the component's own type arguments, which differ between uses of a generic record
+    return nested
+        .map(
+            record ->
+                new BuilderModel.NestedRecord(
+                    declaredType,
+                    record.builderClass(),
+                    record.updaterClass(),
+                    record.updaterParameterName()))
+        .orElse(null);
   }
 
-  /** Gets the builder class name for a given record type. */
-  private ClassName getBuilderClassName(TypeElement recordElement) {
-    String packageName =
-        processingEnv.getElementUtils().getPackageOf(recordElement).getQualifiedName().toString();
-    String recordName = recordElement.getSimpleName().toString();
-    String builderName = recordName + BUILDER_SUFFIX;
-    return ClassName.get(packageName, builderName);
+  private BuilderModel.NestedRecord createNestedRecord(TypeElement recordElement) {
+    RecordModel record = records.get(recordElement);
+    return new BuilderModel.NestedRecord(
+        (DeclaredType) recordElement.asType(),
+        record.builderClass(),
+        isLean(record) ? record.builderClass() : record.updaterClass(),
+        generateUpdaterParameterName(record.recordName()));
   }
 
-  /** Gets the updater interface name for a given record type. */
-  private ClassName getUpdaterClassName(TypeElement recordElement) {
-    String packageName =
-        processingEnv.getElementUtils().getPackageOf(recordElement).getQualifiedName().toString();
-    String recordName = recordElement.getSimpleName().toString();
-    String updaterName = recordName + UPDATER_SUFFIX;
-    return ClassName.get(packageName, updaterName);
+  /**
+   * Checks whether a builder-enabled record gets a lean builder.
+   *
+   * <p>The recordcompanion.lean option only applies to records processed in this compilation. A
+   * record from the classpath was built with whatever options its own compilation had, so its
+   * builder is lean exactly when no updater interface was generated for it.
+   */
+  private boolean isLean(RecordModel record) {
+    Builder builderAnnotation = record.element().getAnnotation(Builder.class);
+    if (builderAnnotation != null && builderAnnotation.lean()) {
+      return true;
+    }
+    if (compiledRecords.contains(record.element().getQualifiedName().toString())) {
+      return lean;
+    }
+    return processingEnv.getElementUtils().getTypeElement(record.updaterClass().canonicalName())
+        == null;
+  }
+
+  /**
+   * Returns a copy of a class without javadoc on the class, its members and its nested classes, for
+   * lean builders.
+   */
+  private static TypeSpec withoutJavadoc(TypeSpec type) {
+    TypeSpec.Builder copy =
+        TypeSpec.classBuilder(type.name)
+            .addAnnotations(type.annotations)
+            .addModifiers(type.modifiers.toArray(new Modifier[0]))
+            .addTypeVariables(type.typeVariables)
+            .superclass(type.superclass)
+            .addSuperinterfaces(type.superinterfaces);
+    type.originatingElements.forEach(copy::addOriginatingElement);
+    for (FieldSpec field : type.fieldSpecs) {
+      copy.addField(
+          FieldSpec.builder(field.type, field.name)
+              .addAnnotations(field.annotations)
+              .addModifiers(field.modifiers.toArray(new Modifier[0]))
+              .initializer(field.initializer)
+              .build());
+    }
+    for (MethodSpec method : type.methodSpecs) {
+      MethodSpec.Builder methodCopy =
+          method.isConstructor()
+              ? MethodSpec.constructorBuilder()
+              : MethodSpec.methodBuilder(method.name).returns(method.returnType);
+      copy.addMethod(
+          methodCopy
+              .addAnnotations(method.annotations)
+              .addModifiers(method.modifiers)
+              .addTypeVariables(method.typeVariables)
+              .addParameters(method.parameters)
+              .varargs(method.varargs)
+              .addExceptions(method.exceptions)
+              .addCode(method.code)
+              .build());
+    }
+    type.typeSpecs.forEach(nested -> copy.addType(withoutJavadoc(nested)));
+    return copy.build();
   }
 
   /**
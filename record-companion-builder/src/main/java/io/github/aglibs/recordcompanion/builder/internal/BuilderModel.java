@@ -0,0 +1,110 @@
+package io.github.aglibs.recordcompanion.builder.internal;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeVariableName;
+import io.github.aglibs.recordcompanion.processor.internal.RecordModel;
+import java.util.List;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A record as the builder generator sees it: its shared {@link RecordModel} plus the builder
+ * settings and nested records resolved for it.
+ *
+ * @param record the record model
+ * @param copyAnnotations whether {@code @Builder(copyAnnotations = true)} is set
+ * @param lean whether to generate a lean builder without an updater interface
+ * @param validCheck whether the record also carries {@code @ValidCheck}
+ * @param typeVariables the record's type parameters, with annotations if they are copied
+ * @param components the record components in declaration order
+ */
+record BuilderModel(
+    RecordModel record,
+    boolean copyAnnotations,
+    boolean lean,
+    boolean validCheck,
+    List<TypeVariableName> typeVariables,
+    List<Component> components) {
+
+  /** Returns the record element. */
+  TypeElement element() {
+    return record.element();
+  }
+
+  /** Returns the record's package. */
+  String packageName() {
+    return record.packageName();
+  }
+
+  /** Returns the record type, without type arguments. */
+  ClassName recordClass() {
+    return record.recordClass();
+  }
+
+  /** Returns the simple name of the record. */
+  String recordName() {
+    return record.recordName();
+  }
+
+  /** Returns the generated builder class. */
+  ClassName builderClass() {
+    return record.builderClass();
+  }
+
+  /** Returns the generated updater interface. */
+  ClassName updaterClass() {
+    return record.updaterClass();
+  }
+
+  /** Returns the check class generated by the ValidCheck processor. */
+  ClassName checkClass() {
+    return record.checkClass();
+  }
+
+  /**
+   * A record component.
+   *
+   * @param component the component model
+   * @param nested the builder-enabled record this component holds, or {@code null}
+   */
+  record Component(RecordModel.Component component, NestedRecord nested) {
+
+    /** Returns the component element. */
+    RecordComponentElement element() {
+      return component.element();
+    }
+
+    /** Returns the component name. */
+    String name() {
+      return component.name();
+    }
+
+    /** Returns the component type. */
+    TypeMirror type() {
+      return component.type();
+    }
+
+    /** Returns the component type as a JavaPoet type. */
+    TypeName typeName() {
+      return component.typeName();
+    }
+  }
+
+  /**
+   * A {@code @Builder} record used as a component type of another record.
+   *
+   * @param type the component type, including its type arguments
+   * @param builderClass the nested record's generated builder class
+   * @param updaterClass the type nested updaters receive: the nested record's updater interface, or
+   *     its builder if the nested record is lean
+   * @param updaterParameterName the parameter name for updaters of the nested record
+   */
+  record NestedRecord(
+      DeclaredType type,
+      ClassName builderClass,
+      ClassName updaterClass,
+      String updaterParameterName) {}
+}
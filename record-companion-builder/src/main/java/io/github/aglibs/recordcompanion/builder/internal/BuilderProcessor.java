@@ -1,11 +1,16 @@
 package io.github.aglibs.recordcompanion.builder.internal;
 
 import io.github.aglibs.recordcompanion.builder.Builder;
+import io.github.aglibs.recordcompanion.processor.internal.ClassList;
+import io.github.aglibs.recordcompanion.processor.internal.InliningReport;
+import io.github.aglibs.recordcompanion.processor.internal.ProcessingProfiler;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
@@ -17,16 +22,93 @@ import javax.tools.Diagnostic;
  *
  * <p>Processes @Builder annotations on record classes and generates separate Builder classes and
  * Updater interfaces with builder pattern implementations.
+ *
+ * <p>Supported options:
+ *
+ * <ul>
+ *   <li>{@code recordcompanion.metrics} - when {@code true}, generated builders report builds and
+ *       updates to {@code CompanionMetrics} from the record-companion-runtime module
+ *   <li>{@code recordcompanion.jfr} - when {@code true}, generated builders emit a {@code
+ *       RecordBuildEvent} JFR event from {@code build()}
+ *   <li>{@code recordcompanion.lean} - when {@code true}, all builders of the compilation are
+ *       generated as with {@code @Builder(lean = true)}: without updater interfaces and javadoc
+ *   <li>{@code recordcompanion.profile} - when {@code true}, time spent per round, record and phase
+ *       is written to {@code recordcompanion-profile/builder.csv} in the class output
+ *   <li>{@code recordcompanion.parallelism} - the number of threads that render generated sources
+ *       at the end of each round; defaults to the number of available processors
+ *   <li>{@code recordcompanion.classFiles} - experimental; when {@code true}, builders and updaters
+ *       of plain records are written as class files instead of source, saving javac a round of
+ *       parsing and compiling them. Generic records, records with {@code @ValidCheck}, copied
+ *       annotations or nested builder-enabled components, and metrics or JFR instrumentation still
+ *       use source
+ *   <li>{@code recordcompanion.streaming} - experimental; when {@code true}, builders and updaters
+ *       of records without nested builder-enabled components or copied annotations are appended
+ *       straight to a reused buffer instead of being built as JavaPoet specs, with the same output
+ *   <li>{@code recordcompanion.inliningReport} - when {@code true}, the bytecode size of every
+ *       generated method is compared with HotSpot's inlining thresholds in {@code
+ *       recordcompanion-profile/builder-inlining.csv} in the class output, and {@code builder()},
+ *       {@code build()}, {@code with()} and {@code buildValidated()} methods that are too large to
+ *       ever be inlined are reported as warnings
+ *   <li>{@code recordcompanion.classList} - when {@code true}, every generated class is listed in
+ *       {@code META-INF/record-companion/builder.classlist}, a class list for {@code
+ *       -XX:SharedClassListFile}
+ *   <li>{@code recordcompanion.index} - a package name; builders of public records are registered
+ *       in a generated {@code BuilderIndex} class in that package, listed in {@code
+ *       META-INF/record-companion/builder.index} for {@code RecordCompanions}
+ * </ul>
+ *
+ * <p>The processor is registered as dynamic for Gradle incremental compilation: it is isolating,
+ * unless the index or the class list is enabled, which makes it aggregating.
  */
 @SupportedAnnotationTypes("io.github.aglibs.recordcompanion.builder.Builder")
+@SupportedOptions({
+  BuilderProcessor.METRICS_OPTION,
+  BuilderProcessor.JFR_OPTION,
+  BuilderProcessor.LEAN_OPTION,
+  BuilderProcessor.PROFILE_OPTION,
+  BuilderProcessor.PARALLELISM_OPTION,
+  BuilderProcessor.INDEX_OPTION,
+  BuilderProcessor.CLASS_LIST_OPTION,
+  BuilderProcessor.CLASS_FILES_OPTION,
+  BuilderProcessor.STREAMING_OPTION,
+  BuilderProcessor.INLINING_REPORT_OPTION
+})
 public class BuilderProcessor extends AbstractProcessor {
 
+  static final String METRICS_OPTION = "recordcompanion.metrics";
+  static final String JFR_OPTION = "recordcompanion.jfr";
+  static final String LEAN_OPTION = "recordcompanion.lean";
+  static final String PROFILE_OPTION = "recordcompanion.profile";
+  static final String PARALLELISM_OPTION = "recordcompanion.parallelism";
+  static final String INDEX_OPTION = "recordcompanion.index";
+  static final String CLASS_LIST_OPTION = "recordcompanion.classList";
+  static final String CLASS_FILES_OPTION = "recordcompanion.classFiles";
+  static final String STREAMING_OPTION = "recordcompanion.streaming";
+  static final String INLINING_REPORT_OPTION = "recordcompanion.inliningReport";
+
+  private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+  private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
   private BuilderGenerator builderGenerator;
+  private ProcessingProfiler profiler;
+  private ClassList classList;
 
   public BuilderProcessor() {
     // Default constructor
   }
 
+  @Override
+  public Set<String> getSupportedOptions() {
+    Set<String> options = new HashSet<>(super.getSupportedOptions());
+    // Gradle asks dynamic processors for their incremental category once they are initialized
+    boolean aggregating =
+        processingEnv != null
+            && (processingEnv.getOptions().containsKey(INDEX_OPTION)
+                || Boolean.parseBoolean(processingEnv.getOptions().get(CLASS_LIST_OPTION)));
+    options.add(aggregating ? GRADLE_AGGREGATING : GRADLE_ISOLATING);
+    return options;
+  }
+
   @Override
   public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
@@ -35,8 +117,23 @@ public class BuilderProcessor extends AbstractProcessor {
   @Override
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
     if (builderGenerator == null) {
-      builderGenerator = new BuilderGenerator(processingEnv);
+      profiler =
+          new ProcessingProfiler(
+              Boolean.parseBoolean(processingEnv.getOptions().get(PROFILE_OPTION)), "builder.csv");
+      classList =
+          new ClassList(
+              Boolean.parseBoolean(processingEnv.getOptions().get(CLASS_LIST_OPTION)),
+              "builder.classlist");
+      InliningReport inliningReport =
+          new InliningReport(
+              Boolean.parseBoolean(processingEnv.getOptions().get(INLINING_REPORT_OPTION)),
+              "builder-inlining.csv",
+              Set.of("builder", "build", "with", "buildValidated"));
+      inliningReport.start(processingEnv);
+      builderGenerator = new BuilderGenerator(processingEnv, profiler, classList, inliningReport);
     }
+    builderGenerator.startRound(roundEnv.getElementsAnnotatedWith(Builder.class));
+    profiler.startRound();
 
     for (Element element : roundEnv.getElementsAnnotatedWith(Builder.class)) {
       if (element.getKind() != ElementKind.RECORD) {
@@ -51,21 +148,51 @@ public class BuilderProcessor extends AbstractProcessor {
 
       TypeElement recordElement = (TypeElement) element;
 
-      try {
-        builderGenerator.generateBuilderAndUpdaterTypes(recordElement);
-      } catch (IOException e) {
-        processingEnv
-            .getMessager()
-            .printMessage(
-                Diagnostic.Kind.ERROR,
-                "Failed to generate builder and updater types for "
-                    + recordElement.getSimpleName()
-                    + ": "
-                    + e.getMessage(),
-                recordElement);
-      }
+      profiler.startRecord(recordElement);
+      builderGenerator.generateBuilderAndUpdaterTypes(recordElement);
+      profiler.endRecord();
     }
+    builderGenerator.finishRound();
+    profiler.endRound();
 
+    if (roundEnv.processingOver()) {
+      writeIndex();
+      writeClassList();
+      writeProfile();
+      builderGenerator.close();
+    }
     return true;
   }
+
+  private void writeIndex() {
+    try {
+      builderGenerator.writeIndex(processingEnv.getFiler());
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.ERROR, "Failed to write companion index: " + e.getMessage());
+    }
+  }
+
+  private void writeClassList() {
+    try {
+      classList.write(processingEnv.getFiler());
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(Diagnostic.Kind.WARNING, "Failed to write class list: " + e.getMessage());
+    }
+  }
+
+  private void writeProfile() {
+    try {
+      profiler.writeReport(processingEnv.getFiler());
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.WARNING, "Failed to write processing profile: " + e.getMessage());
+    }
+  }
 }
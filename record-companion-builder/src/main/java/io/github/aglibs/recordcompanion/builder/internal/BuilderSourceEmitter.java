@@ -0,0 +1,649 @@
+package io.github.aglibs.recordcompanion.builder.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+
+/**
+ * Appends the source of builders and updaters straight to a character buffer, without building
+ * JavaPoet specs first. The text is the same, byte for byte, as the JavaPoet path writes: imports,
+ * member order, javadoc and the wrapping of long parameter lists at column 100.
+ *
+ * <p>Only records whose generated code needs no JavaPoet name resolution are supported, see {@link
+ * #supports(BuilderModel)}; the generator builds JavaPoet specs for all others. The emitter keeps
+ * scratch state between calls, so it must only be used from one thread at a time.
+ */
+final class BuilderSourceEmitter {
+
+  private static final int COLUMN_LIMIT = 100;
+  private static final String WRAP_MEMBER = "\n      ";
+  private static final String WRAP_NESTED_MEMBER = "\n        ";
+  private static final String RESULT_NAME = "Result";
+  private static final Comparator<TypeElement> BY_QUALIFIED_NAME =
+      (first, second) -> CharSequence.compare(first.getQualifiedName(), second.getQualifiedName());
+
+  private final Elements elements;
+  private final TypeElement consumerElement;
+  private final TypeElement listElement;
+  private final TypeElement stringElement;
+  private final List<TypeElement> referenced = new ArrayList<>();
+  private int parametersMark;
+  private boolean parametersSpace;
+
+  BuilderSourceEmitter(ProcessingEnvironment processingEnv) {
+    this.elements = processingEnv.getElementUtils();
+    this.consumerElement = elements.getTypeElement("java.util.function.Consumer");
+    this.listElement = elements.getTypeElement("java.util.List");
+    this.stringElement = elements.getTypeElement("java.lang.String");
+  }
+
+  /**
+   * Tests whether a record's builder and updater can be streamed: a top-level record in a named
+   * package without copied annotations or nested builder-enabled components, whose component types
+   * and type parameter bounds are all resolved, and whose generated files reference no two types,
+   * type variables or generated classes by the same simple name.
+   */
+  boolean supports(BuilderModel model) {
+    TypeElement recordElement = model.element();
+    if (model.copyAnnotations()
+        || model.packageName().isEmpty()
+        || recordElement.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      return false;
+    }
+    for (BuilderModel.Component component : model.components()) {
+      if (component.nested() != null) {
+        return false;
+      }
+    }
+
+    referenced.clear();
+    if (!collectReferences(model)) {
+      return false;
+    }
+    addReference(recordElement);
+    addReference(consumerElement);
+    if (model.validCheck()) {
+      addReference(listElement);
+      addReference(stringElement);
+    }
+
+    List<? extends TypeParameterElement> typeParameters = recordElement.getTypeParameters();
+    for (int i = 0; i < referenced.size(); i++) {
+      Name name = referenced.get(i).getSimpleName();
+      for (int j = i + 1; j < referenced.size(); j++) {
+        if (referenced.get(j).getSimpleName().contentEquals(name)) {
+          return false;
+        }
+      }
+      if (clashesWithGenerated(model, name) || clashesWithTypeParameter(typeParameters, name)) {
+        return false;
+      }
+    }
+    for (TypeParameterElement typeParameter : typeParameters) {
+      if (clashesWithGenerated(model, typeParameter.getSimpleName())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Appends the source of the updater interface.
+   *
+   * @param model a record model this emitter {@link #supports(BuilderModel)}, without a lean
+   *     builder
+   * @param out the buffer to append to
+   */
+  void appendUpdater(BuilderModel model, StringBuilder out) {
+    TypeElement recordElement = model.element();
+    String updaterName = model.updaterClass().simpleName();
+
+    referenced.clear();
+    collectReferences(model);
+    appendHeader(model, out);
+
+    out.append("/**\n * Interface for updating ")
+        .append(model.recordName())
+        .append(" record values.\n */\npublic interface ")
+        .append(updaterName);
+    appendTypeParameterDeclarations(recordElement, out);
+    out.append(" {\n");
+
+    boolean firstMember = true;
+    for (BuilderModel.Component component : model.components()) {
+      String name = component.name();
+      if (!firstMember) {
+        out.append('\n');
+      }
+      out.append("  /**\n   * Sets the ")
+          .append(name)
+          .append(" value.\n   * @param ")
+          .append(name)
+          .append(" the new ")
+          .append(name)
+          .append(" value\n   * @return this updater for method chaining\n   */\n  ")
+          .append(updaterName);
+      appendTypeArguments(recordElement, out);
+      out.append(' ').append(name);
+      beginParameters(out);
+      appendType(component.type(), out);
+      out.append(' ').append(name);
+      endParameters(out, WRAP_MEMBER, ";");
+      firstMember = false;
+    }
+    out.append("}\n");
+  }
+
+  /**
+   * Appends the source of the builder class.
+   *
+   * @param model a record model this emitter {@link #supports(BuilderModel)}
+   * @param out the buffer to append to
+   */
+  void appendBuilder(BuilderModel model, StringBuilder out) {
+    TypeElement recordElement = model.element();
+    boolean javadoc = !model.lean();
+    String builderName = model.builderClass().simpleName();
+    String updaterName = model.lean() ? builderName : model.updaterClass().simpleName();
+    List<BuilderModel.Component> components = model.components();
+
+    referenced.clear();
+    collectReferences(model);
+    addReference(consumerElement);
+    if (model.validCheck()) {
+      addReference(listElement);
+    }
+    appendHeader(model, out);
+
+    if (javadoc) {
+      out.append("/**\n * Builder class for {@link ");
+      appendRecordType(model, out);
+      out.append("} record.\n */\n");
+    }
+    out.append("public final class ").append(builderName);
+    appendTypeParameterDeclarations(recordElement, out);
+    if (!model.lean()) {
+      out.append(" implements ").append(updaterName);
+      appendTypeArguments(recordElement, out);
+    }
+    out.append(" {\n");
+
+    for (int i = 0; i < components.size(); i++) {
+      BuilderModel.Component component = components.get(i);
+      out.append(i > 0 ? "\n  private " : "  private ");
+      appendType(component.type(), out);
+      out.append(' ').append(component.name()).append(";\n");
+    }
+
+    boolean firstMember = components.isEmpty();
+    for (BuilderModel.Component component : components) {
+      String name = component.name();
+      out.append(firstMember ? "  public " : "\n  public ").append(builderName);
+      appendTypeArguments(recordElement, out);
+      out.append(' ').append(name);
+      beginParameters(out);
+      appendType(component.type(), out);
+      out.append(' ').append(name);
+      endParameters(out, WRAP_MEMBER, " {");
+      out.append("    this.")
+          .append(name)
+          .append(" = ")
+          .append(name)
+          .append(";\n    return this;\n  }\n");
+      firstMember = false;
+    }
+
+    out.append(firstMember ? "  public " : "\n  public ");
+    appendRecordType(model, out);
+    out.append(" build");
+    beginParameters(out);
+    endParameters(out, WRAP_MEMBER, " {");
+    out.append("    return new ");
+    appendRecordType(model, out);
+    appendArguments(components, out);
+    out.append(";\n  }\n");
+
+    if (model.validCheck()) {
+      appendBuildValidated(model, javadoc, out);
+    }
+
+    out.append('\n');
+    if (javadoc) {
+      out.append(
+          "  /**\n   * Creates a new builder instance.\n   * @return a new builder instance\n   */\n");
+    }
+    appendStaticMethodStart(recordElement, out);
+    out.append(builderName);
+    appendTypeArguments(recordElement, out);
+    out.append(" builder");
+    beginParameters(out);
+    endParameters(out, WRAP_MEMBER, " {");
+    out.append("    return new ")
+        .append(builderName)
+        .append(recordElement.getTypeParameters().isEmpty() ? "()" : "<>()")
+        .append(";\n  }\n\n");
+
+    if (javadoc) {
+      out.append(
+          "  /**\n   * Creates a new builder instance initialized with values from an existing"
+              + " record.\n   * @param existing the existing record to copy values from\n   *"
+              + " @return a new builder instance with copied values\n   */\n");
+    }
+    appendStaticMethodStart(recordElement, out);
+    out.append(builderName);
+    appendTypeArguments(recordElement, out);
+    out.append(" builder");
+    beginParameters(out);
+    appendRecordType(model, out);
+    out.append(" existing");
+    endParameters(out, WRAP_MEMBER, " {");
+    out.append("    ").append(builderName);
+    appendTypeArguments(recordElement, out);
+    out.append(" builder = new ")
+        .append(builderName)
+        .append(recordElement.getTypeParameters().isEmpty() ? "()" : "<>()")
+        .append(";\n");
+    for (BuilderModel.Component component : components) {
+      out.append("    builder.")
+          .append(component.name())
+          .append(" = existing.")
+          .append(component.name())
+          .append("();\n");
+    }
+    out.append("    return builder;\n  }\n\n");
+
+    if (javadoc) {
+      out.append(
+          "  /**\n   * Creates a new record instance by applying modifications to an existing"
+              + " record.\n   * @param existing the existing record to base the new record on\n"
+              + "   * @param updater a consumer that receives an updater initialized with the"
+              + " existing record's values\n   * @return a new record instance with the applied"
+              + " modifications\n   */\n");
+    }
+    appendStaticMethodStart(recordElement, out);
+    appendRecordType(model, out);
+    out.append(" with");
+    beginParameters(out);
+    appendRecordType(model, out);
+    out.append(" existing");
+    nextParameter(out, WRAP_MEMBER);
+    out.append("Consumer<").append(updaterName);
+    appendTypeArguments(recordElement, out);
+    out.append("> updater");
+    endParameters(out, WRAP_MEMBER, " {");
+    out.append(
+        "    var builder = builder(existing);\n"
+            + "    updater.accept(builder);\n"
+            + "    return builder.build();\n"
+            + "  }\n");
+
+    if (model.validCheck()) {
+      appendResult(model, javadoc, out);
+    }
+    out.append("}\n");
+  }
+
+  /** Appends the buildValidated method, which runs the generated XxxCheck before building. */
+  private void appendBuildValidated(BuilderModel model, boolean javadoc, StringBuilder out) {
+    TypeElement recordElement = model.element();
+    boolean generic = !recordElement.getTypeParameters().isEmpty();
+    out.append('\n');
+    if (javadoc) {
+      out.append("  /**\n   * Validates the current values with {@link ")
+          .append(model.checkClass().simpleName())
+          .append(
+              "} and builds the record if they pass.\n   *\n   * <p>Unlike {@link #build()},"
+                  + " constraint violations are returned rather than thrown.\n   *\n   * @return"
+                  + " the built record or the violated constraints\n   */\n");
+    }
+    out.append("  public ").append(RESULT_NAME);
+    appendTypeArguments(recordElement, out);
+    out.append(" buildValidated");
+    beginParameters(out);
+    endParameters(out, WRAP_MEMBER, " {");
+    out.append("    List<String> violations = ")
+        .append(model.checkClass().simpleName())
+        .append(".violations");
+    appendArguments(model.components(), out);
+    out.append(";\n    if (!violations.isEmpty()) {\n      return new ")
+        .append(RESULT_NAME)
+        .append(generic ? "<>" : "")
+        .append("(null, violations);\n    }\n    return new ")
+        .append(RESULT_NAME)
+        .append(generic ? "<>" : "")
+        .append("(build(), violations);\n  }\n");
+  }
+
+  /** Appends the nested Result class returned by buildValidated. */
+  private void appendResult(BuilderModel model, boolean javadoc, StringBuilder out) {
+    TypeElement recordElement = model.element();
+    out.append('\n');
+    if (javadoc) {
+      out.append("  /**\n   * Outcome of {@link ")
+          .append(model.builderClass().simpleName())
+          .append("#buildValidated()}: either the record or the violated constraints.\n   */\n");
+    }
+    out.append("  public static final class ").append(RESULT_NAME);
+    appendTypeParameterDeclarations(recordElement, out);
+    out.append(" {\n    private final ");
+    appendRecordType(model, out);
+    out.append(" value;\n\n    private final List<String> violations;\n\n    private ")
+        .append(RESULT_NAME);
+    beginParameters(out);
+    appendRecordType(model, out);
+    out.append(" value");
+    nextParameter(out, WRAP_NESTED_MEMBER);
+    out.append("List<String> violations");
+    endParameters(out, WRAP_NESTED_MEMBER, " {");
+    out.append("      this.value = value;\n      this.violations = violations;\n    }\n\n");
+
+    if (javadoc) {
+      out.append(
+          "    /**\n     * Returns the built record.\n     * @return the record, or {@code null}"
+              + " if validation failed\n     */\n");
+    }
+    out.append("    public ");
+    appendRecordType(model, out);
+    out.append(" value");
+    beginParameters(out);
+    endParameters(out, WRAP_NESTED_MEMBER, " {");
+    out.append("      return value;\n    }\n\n");
+
+    if (javadoc) {
+      out.append(
+          "    /**\n     * Returns the violated constraints.\n     * @return the violations, empty"
+              + " if the record was built\n     */\n");
+    }
+    out.append("    public List<String> violations");
+    beginParameters(out);
+    endParameters(out, WRAP_NESTED_MEMBER, " {");
+    out.append("      return violations;\n    }\n\n");
+
+    if (javadoc) {
+      out.append(
+          "    /**\n     * Returns whether the record was built.\n     * @return {@code true} if"
+              + " no constraint was violated\n     */\n");
+    }
+    out.append("    public boolean isValid");
+    beginParameters(out);
+    endParameters(out, WRAP_NESTED_MEMBER, " {");
+    out.append("      return violations.isEmpty();\n    }\n  }\n");
+  }
+
+  /** Appends the package declaration and the imports of the referenced types. */
+  private void appendHeader(BuilderModel model, StringBuilder out) {
+    out.append("package ").append(model.packageName()).append(";\n\n");
+    referenced.sort(BY_QUALIFIED_NAME);
+    boolean imported = false;
+    for (TypeElement type : referenced) {
+      Name packageName = elements.getPackageOf(type).getQualifiedName();
+      if (!packageName.contentEquals("java.lang")
+          && !packageName.contentEquals(model.packageName())) {
+        out.append("import ").append(type.getQualifiedName()).append(";\n");
+        imported = true;
+      }
+    }
+    if (imported) {
+      out.append('\n');
+    }
+  }
+
+  private void appendStaticMethodStart(TypeElement recordElement, StringBuilder out) {
+    out.append("  public static ");
+    if (!recordElement.getTypeParameters().isEmpty()) {
+      appendTypeParameterDeclarations(recordElement, out);
+      out.append(' ');
+    }
+  }
+
+  private static void appendArguments(List<BuilderModel.Component> components, StringBuilder out) {
+    out.append('(');
+    for (int i = 0; i < components.size(); i++) {
+      if (i > 0) {
+        out.append(", ");
+      }
+      out.append(components.get(i).name());
+    }
+    out.append(')');
+  }
+
+  /** Appends the record type, with its type parameters as type arguments. */
+  private static void appendRecordType(BuilderModel model, StringBuilder out) {
+    out.append(model.recordName());
+    appendTypeArguments(model.element(), out);
+  }
+
+  private static void appendTypeArguments(TypeElement recordElement, StringBuilder out) {
+    List<? extends TypeParameterElement> typeParameters = recordElement.getTypeParameters();
+    if (typeParameters.isEmpty()) {
+      return;
+    }
+    out.append('<');
+    for (int i = 0; i < typeParameters.size(); i++) {
+      if (i > 0) {
+        out.append(", ");
+      }
+      out.append(typeParameters.get(i).getSimpleName());
+    }
+    out.append('>');
+  }
+
+  /** Appends type parameters with their bounds, leaving out an {@code Object} bound as JavaPoet. */
+  private void appendTypeParameterDeclarations(TypeElement recordElement, StringBuilder out) {
+    List<? extends TypeParameterElement> typeParameters = recordElement.getTypeParameters();
+    if (typeParameters.isEmpty()) {
+      return;
+    }
+    out.append('<');
+    for (int i = 0; i < typeParameters.size(); i++) {
+      TypeParameterElement typeParameter = typeParameters.get(i);
+      if (i > 0) {
+        out.append(", ");
+      }
+      out.append(typeParameter.getSimpleName());
+      boolean objectRemoved = false;
+      boolean firstBound = true;
+      for (TypeMirror bound : typeParameter.getBounds()) {
+        if (!objectRemoved && isObject(bound)) {
+          objectRemoved = true;
+          continue;
+        }
+        out.append(firstBound ? " extends " : " & ");
+        appendType(bound, out);
+        firstBound = false;
+      }
+    }
+    out.append('>');
+  }
+
+  /** Appends a type as JavaPoet writes it when all its classes are imported or in scope. */
+  private void appendType(TypeMirror type, StringBuilder out) {
+    switch (type.getKind()) {
+      case BOOLEAN -> out.append("boolean");
+      case BYTE -> out.append("byte");
+      case CHAR -> out.append("char");
+      case SHORT -> out.append("short");
+      case INT -> out.append("int");
+      case LONG -> out.append("long");
+      case FLOAT -> out.append("float");
+      case DOUBLE -> out.append("double");
+      case ARRAY -> {
+        appendType(((ArrayType) type).getComponentType(), out);
+        out.append("[]");
+      }
+      case TYPEVAR -> out.append(((TypeVariable) type).asElement().getSimpleName());
+      case WILDCARD -> {
+        WildcardType wildcard = (WildcardType) type;
+        if (wildcard.getSuperBound() != null) {
+          out.append("? super ");
+          appendType(wildcard.getSuperBound(), out);
+        } else if (wildcard.getExtendsBound() == null || isObject(wildcard.getExtendsBound())) {
+          out.append('?');
+        } else {
+          out.append("? extends ");
+          appendType(wildcard.getExtendsBound(), out);
+        }
+      }
+      default -> {
+        DeclaredType declaredType = (DeclaredType) type;
+        appendClassName((TypeElement) declaredType.asElement(), out);
+        List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+        if (!typeArguments.isEmpty()) {
+          out.append('<');
+          for (int i = 0; i < typeArguments.size(); i++) {
+            if (i > 0) {
+              out.append(", ");
+            }
+            appendType(typeArguments.get(i), out);
+          }
+          out.append('>');
+        }
+      }
+    }
+  }
+
+  /** Appends the simple names of a class and the classes it is nested in. */
+  private static void appendClassName(TypeElement type, StringBuilder out) {
+    Element enclosing = type.getEnclosingElement();
+    if (enclosing instanceof TypeElement enclosingType) {
+      appendClassName(enclosingType, out);
+      out.append('.');
+    }
+    out.append(type.getSimpleName());
+  }
+
+  private void beginParameters(StringBuilder out) {
+    out.append('(');
+    parametersMark = out.length();
+    parametersSpace = false;
+  }
+
+  private void nextParameter(StringBuilder out, String wrap) {
+    out.append(',');
+    wrapSegment(out, wrap);
+    parametersMark = out.length();
+    parametersSpace = true;
+  }
+
+  private void endParameters(StringBuilder out, String wrap, String suffix) {
+    out.append(')').append(suffix);
+    wrapSegment(out, wrap);
+    out.append('\n');
+  }
+
+  /**
+   * Places the text since the last wrapping point: on the same line, after a space for a parameter
+   * separator, or on a continuation line if it would end past the column limit, as JavaPoet's line
+   * wrapper does.
+   */
+  private void wrapSegment(StringBuilder out, String wrap) {
+    int lineStart = out.lastIndexOf("\n", parametersMark - 1) + 1;
+    int end =
+        parametersMark - lineStart + (parametersSpace ? 1 : 0) + out.length() - parametersMark;
+    if (end > COLUMN_LIMIT) {
+      out.insert(parametersMark, wrap);
+    } else if (parametersSpace) {
+      out.insert(parametersMark, ' ');
+    }
+  }
+
+  /** Collects the top-level classes the component types and type parameter bounds refer to. */
+  private boolean collectReferences(BuilderModel model) {
+    for (BuilderModel.Component component : model.components()) {
+      if (!collectReferences(component.type())) {
+        return false;
+      }
+    }
+    for (TypeParameterElement typeParameter : model.element().getTypeParameters()) {
+      for (TypeMirror bound : typeParameter.getBounds()) {
+        if (!collectReferences(bound)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private boolean collectReferences(TypeMirror type) {
+    return switch (type.getKind()) {
+      case BOOLEAN, BYTE, CHAR, SHORT, INT, LONG, FLOAT, DOUBLE, TYPEVAR -> true;
+      case ARRAY -> collectReferences(((ArrayType) type).getComponentType());
+      case WILDCARD -> {
+        WildcardType wildcard = (WildcardType) type;
+        TypeMirror bound =
+            wildcard.getExtendsBound() != null
+                ? wildcard.getExtendsBound()
+                : wildcard.getSuperBound();
+        yield bound == null || collectReferences(bound);
+      }
+      case DECLARED -> {
+        DeclaredType declaredType = (DeclaredType) type;
+        // Inner classes of other types are written with their enclosing type's arguments
+        if (declaredType.getEnclosingType().getKind() != TypeKind.NONE) {
+          yield false;
+        }
+        addReference(topLevel((TypeElement) declaredType.asElement()));
+        for (TypeMirror typeArgument : declaredType.getTypeArguments()) {
+          if (!collectReferences(typeArgument)) {
+            yield false;
+          }
+        }
+        yield true;
+      }
+      default -> false;
+    };
+  }
+
+  private void addReference(TypeElement type) {
+    if (!referenced.contains(type)) {
+      referenced.add(type);
+    }
+  }
+
+  private static TypeElement topLevel(TypeElement type) {
+    TypeElement topLevel = type;
+    while (topLevel.getEnclosingElement() instanceof TypeElement enclosing) {
+      topLevel = enclosing;
+    }
+    return topLevel;
+  }
+
+  private static boolean isObject(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED
+        && ((TypeElement) ((DeclaredType) type).asElement())
+            .getQualifiedName()
+            .contentEquals("java.lang.Object");
+  }
+
+  /** Tests whether a simple name is also the name of a class the generated files declare. */
+  private static boolean clashesWithGenerated(BuilderModel model, Name name) {
+    return name.contentEquals(model.builderClass().simpleName())
+        || name.contentEquals(model.updaterClass().simpleName())
+        || (model.validCheck()
+            && (name.contentEquals(model.checkClass().simpleName())
+                || name.contentEquals(RESULT_NAME)));
+  }
+
+  private static boolean clashesWithTypeParameter(
+      List<? extends TypeParameterElement> typeParameters, Name name) {
+    for (TypeParameterElement typeParameter : typeParameters) {
+      if (typeParameter.getSimpleName().contentEquals(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
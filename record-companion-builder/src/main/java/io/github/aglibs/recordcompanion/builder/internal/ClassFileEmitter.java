@@ -0,0 +1,415 @@
+package io.github.aglibs.recordcompanion.builder.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal class file writer for the {@code recordcompanion.classFiles} option.
+ *
+ * <p>It supports exactly what generated builders need: fields, abstract and concrete methods,
+ * {@code Signature} and {@code MethodParameters} attributes, and straight-line code built from
+ * loads, stores, field access, invocations and returns. Without branches, methods need no {@code
+ * StackMapTable}; the maximum stack depth is tracked while instructions are added. Names are JVM
+ * internal names such as {@code com/example/OrderBuilder}.
+ */
+final class ClassFileEmitter {
+
+  static final int ACC_PUBLIC = 0x0001;
+  static final int ACC_PRIVATE = 0x0002;
+  static final int ACC_STATIC = 0x0008;
+  static final int ACC_FINAL = 0x0010;
+  static final int ACC_SUPER = 0x0020;
+  static final int ACC_BRIDGE = 0x0040;
+  static final int ACC_INTERFACE = 0x0200;
+  static final int ACC_ABSTRACT = 0x0400;
+  static final int ACC_SYNTHETIC = 0x1000;
+
+  private static final int MAGIC = 0xCAFEBABE;
+
+  private final ConstantPool pool = new ConstantPool();
+  private final int majorVersion;
+  private final int access;
+  private final int thisClass;
+  private final int superClass;
+  private final int[] interfaces;
+  private final List<Member> fields = new ArrayList<>();
+  private final List<Member> methods = new ArrayList<>();
+
+  /**
+   * Starts a class file.
+   *
+   * @param majorVersion the class file major version, such as 61 for Java 17
+   * @param access the class access flags
+   * @param name the internal name of the class
+   * @param superName the internal name of the superclass
+   * @param interfaceNames the internal names of the implemented interfaces
+   */
+  ClassFileEmitter(
+      int majorVersion, int access, String name, String superName, String... interfaceNames) {
+    this.majorVersion = majorVersion;
+    this.access = access;
+    this.thisClass = pool.classRef(name);
+    this.superClass = pool.classRef(superName);
+    this.interfaces = new int[interfaceNames.length];
+    for (int i = 0; i < interfaceNames.length; i++) {
+      interfaces[i] = pool.classRef(interfaceNames[i]);
+    }
+  }
+
+  /**
+   * Adds a field.
+   *
+   * @param access the field access flags
+   * @param name the field name
+   * @param descriptor the field descriptor
+   * @param signature the generic signature, or {@code null} if it equals the descriptor
+   */
+  void addField(int access, String name, String descriptor, String signature) {
+    fields.add(new Member(access, name, descriptor, signature, List.of(), null));
+  }
+
+  /**
+   * Adds an abstract method.
+   *
+   * @param access the method access flags, including {@link #ACC_ABSTRACT}
+   * @param name the method name
+   * @param descriptor the method descriptor
+   * @param signature the generic signature, or {@code null} if it equals the descriptor
+   * @param parameterNames the parameter names, recorded in a {@code MethodParameters} attribute
+   */
+  void addAbstractMethod(
+      int access, String name, String descriptor, String signature, List<String> parameterNames) {
+    methods.add(new Member(access, name, descriptor, signature, parameterNames, null));
+  }
+
+  /**
+   * Adds a method with code.
+   *
+   * @param access the method access flags
+   * @param name the method name
+   * @param descriptor the method descriptor
+   * @param signature the generic signature, or {@code null} if it equals the descriptor
+   * @param parameterNames the parameter names, recorded in a {@code MethodParameters} attribute
+   * @return the method's code, to add instructions to
+   */
+  Code addMethod(
+      int access, String name, String descriptor, String signature, List<String> parameterNames) {
+    int locals = ((access & ACC_STATIC) != 0 ? 0 : 1) + argumentSlots(descriptor);
+    Code code = new Code(locals);
+    methods.add(new Member(access, name, descriptor, signature, parameterNames, code));
+    return code;
+  }
+
+  /** Returns the class file bytes. */
+  byte[] toByteArray() {
+    // Members first, since they add the constant pool entries they reference
+    byte[] fieldBytes = members(fields);
+    byte[] methodBytes = members(methods);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeShort(0);
+      out.writeShort(majorVersion);
+      pool.writeTo(out);
+      out.writeShort(access);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(interfaces.length);
+      for (int index : interfaces) {
+        out.writeShort(index);
+      }
+      out.writeShort(fields.size());
+      out.write(fieldBytes);
+      out.writeShort(methods.size());
+      out.write(methodBytes);
+      out.writeShort(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private byte[] members(List<Member> members) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      for (Member member : members) {
+        member.writeTo(out);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /** Returns the number of local variable slots the arguments of a method descriptor take. */
+  static int argumentSlots(String methodDescriptor) {
+    int slots = 0;
+    int i = 1;
+    while (methodDescriptor.charAt(i) != ')') {
+      char kind = methodDescriptor.charAt(i);
+      while (methodDescriptor.charAt(i) == '[') {
+        i++;
+      }
+      if (methodDescriptor.charAt(i) == 'L') {
+        i = methodDescriptor.indexOf(';', i);
+      }
+      i++;
+      slots += kind == 'J' || kind == 'D' ? 2 : 1;
+    }
+    return slots;
+  }
+
+  /** Returns the number of stack slots a value of the given descriptor takes. */
+  static int slots(String descriptor) {
+    return switch (descriptor.charAt(0)) {
+      case 'V' -> 0;
+      case 'J', 'D' -> 2;
+      default -> 1;
+    };
+  }
+
+  /** A field or method. */
+  private final class Member {
+
+    private final int access;
+    private final int name;
+    private final int descriptor;
+    private final int signature;
+    private final int[] parameterNames;
+    private final Code code;
+
+    Member(
+        int access,
+        String name,
+        String descriptor,
+        String signature,
+        List<String> parameterNames,
+        Code code) {
+      this.access = access;
+      this.name = pool.utf8(name);
+      this.descriptor = pool.utf8(descriptor);
+      this.signature = signature != null ? pool.utf8(signature) : 0;
+      this.parameterNames = parameterNames.stream().mapToInt(pool::utf8).toArray();
+      this.code = code;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+      out.writeShort(access);
+      out.writeShort(name);
+      out.writeShort(descriptor);
+      int attributes =
+          (code != null ? 1 : 0) + (signature != 0 ? 1 : 0) + (parameterNames.length > 0 ? 1 : 0);
+      out.writeShort(attributes);
+      if (code != null) {
+        code.writeTo(out);
+      }
+      if (signature != 0) {
+        out.writeShort(pool.utf8("Signature"));
+        out.writeInt(2);
+        out.writeShort(signature);
+      }
+      if (parameterNames.length > 0) {
+        out.writeShort(pool.utf8("MethodParameters"));
+        out.writeInt(1 + 4 * parameterNames.length);
+        out.writeByte(parameterNames.length);
+        for (int parameterName : parameterNames) {
+          out.writeShort(parameterName);
+          out.writeShort(0);
+        }
+      }
+    }
+  }
+
+  /** The straight-line code of a method. */
+  final class Code {
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private int maxLocals;
+    private int stack;
+    private int maxStack;
+
+    private Code(int locals) {
+      this.maxLocals = locals;
+    }
+
+    /**
+     * Loads a local variable of the given descriptor, such as {@code I} or {@code
+     * Ljava/lang/String;}.
+     */
+    Code load(String descriptor, int slot) {
+      int opcode =
+          switch (descriptor.charAt(0)) {
+            case 'Z', 'B', 'C', 'S', 'I' -> 0x15;
+            case 'J' -> 0x16;
+            case 'F' -> 0x17;
+            case 'D' -> 0x18;
+            default -> 0x19;
+          };
+      return local(opcode, slot, slots(descriptor));
+    }
+
+    /** Stores a reference into a local variable. */
+    Code storeReference(int slot) {
+      maxLocals = Math.max(maxLocals, slot + 1);
+      return local(0x3a, slot, -1);
+    }
+
+    Code getField(String owner, String name, String descriptor) {
+      return member(0xb4, pool.member(9, owner, name, descriptor), slots(descriptor) - 1);
+    }
+
+    Code putField(String owner, String name, String descriptor) {
+      return member(0xb5, pool.member(9, owner, name, descriptor), -1 - slots(descriptor));
+    }
+
+    Code invokeVirtual(String owner, String name, String descriptor) {
+      return member(0xb6, pool.member(10, owner, name, descriptor), invocation(descriptor, 1));
+    }
+
+    Code invokeSpecial(String owner, String name, String descriptor) {
+      return member(0xb7, pool.member(10, owner, name, descriptor), invocation(descriptor, 1));
+    }
+
+    Code invokeStatic(String owner, String name, String descriptor) {
+      return member(0xb8, pool.member(10, owner, name, descriptor), invocation(descriptor, 0));
+    }
+
+    Code invokeInterface(String owner, String name, String descriptor) {
+      member(0xb9, pool.member(11, owner, name, descriptor), invocation(descriptor, 1));
+      bytes.write(1 + argumentSlots(descriptor));
+      bytes.write(0);
+      return this;
+    }
+
+    /** Creates an uninitialized instance and duplicates the reference for its constructor. */
+    Code newDup(String type) {
+      member(0xbb, pool.classRef(type), 1);
+      bytes.write(0x59);
+      return push(1);
+    }
+
+    /** Returns a value of the given descriptor, or nothing for {@code V}. */
+    Code returnValue(String descriptor) {
+      int opcode =
+          switch (descriptor.charAt(0)) {
+            case 'V' -> 0xb1;
+            case 'Z', 'B', 'C', 'S', 'I' -> 0xac;
+            case 'J' -> 0xad;
+            case 'F' -> 0xae;
+            case 'D' -> 0xaf;
+            default -> 0xb0;
+          };
+      bytes.write(opcode);
+      return push(-slots(descriptor));
+    }
+
+    private Code local(int opcode, int slot, int stackChange) {
+      if (slot > 0xff) {
+        throw new IllegalArgumentException("Local variable slot out of range: " + slot);
+      }
+      bytes.write(opcode);
+      bytes.write(slot);
+      return push(stackChange);
+    }
+
+    private Code member(int opcode, int index, int stackChange) {
+      bytes.write(opcode);
+      bytes.write(index >> 8);
+      bytes.write(index);
+      return push(stackChange);
+    }
+
+    private int invocation(String descriptor, int receiverSlots) {
+      String returnType = descriptor.substring(descriptor.indexOf(')') + 1);
+      return slots(returnType) - receiverSlots - argumentSlots(descriptor);
+    }
+
+    private Code push(int change) {
+      stack += change;
+      maxStack = Math.max(maxStack, stack);
+      return this;
+    }
+
+    private void writeTo(DataOutputStream out) throws IOException {
+      byte[] code = bytes.toByteArray();
+      out.writeShort(pool.utf8("Code"));
+      out.writeInt(12 + code.length);
+      out.writeShort(maxStack);
+      out.writeShort(maxLocals);
+      out.writeInt(code.length);
+      out.write(code);
+      out.writeShort(0);
+      out.writeShort(0);
+    }
+  }
+
+  /** The constant pool, with one entry per distinct constant. */
+  private static final class ConstantPool {
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private int count = 1;
+
+    int utf8(String value) {
+      Integer index = indexes.get("1:" + value);
+      if (index != null) {
+        return index;
+      }
+      try {
+        out.writeByte(1);
+        out.writeUTF(value);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return add("1:" + value);
+    }
+
+    int classRef(String internalName) {
+      return reference("7:" + internalName, 7, utf8(internalName), -1);
+    }
+
+    int member(int tag, String owner, String name, String descriptor) {
+      int ownerIndex = classRef(owner);
+      int nameAndType =
+          reference("12:" + name + ":" + descriptor, 12, utf8(name), utf8(descriptor));
+      return reference(
+          tag + ":" + owner + "." + name + ":" + descriptor, tag, ownerIndex, nameAndType);
+    }
+
+    private int reference(String key, int tag, int first, int second) {
+      Integer index = indexes.get(key);
+      if (index != null) {
+        return index;
+      }
+      try {
+        out.writeByte(tag);
+        out.writeShort(first);
+        if (second >= 0) {
+          out.writeShort(second);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return add(key);
+    }
+
+    private int add(String key) {
+      int index = count++;
+      indexes.put(key, index);
+      return index;
+    }
+
+    void writeTo(DataOutputStream target) throws IOException {
+      target.writeShort(count);
+      target.write(bytes.toByteArray());
+    }
+  }
+}
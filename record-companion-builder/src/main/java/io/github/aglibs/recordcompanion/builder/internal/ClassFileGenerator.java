@@ -0,0 +1,305 @@
+package io.github.aglibs.recordcompanion.builder.internal;
+
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_ABSTRACT;
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_BRIDGE;
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_FINAL;
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_INTERFACE;
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_PRIVATE;
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_PUBLIC;
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_STATIC;
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_SUPER;
+import static io.github.aglibs.recordcompanion.builder.internal.ClassFileEmitter.ACC_SYNTHETIC;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.Elements;
+
+/**
+ * Generates builders as class files for the experimental {@code recordcompanion.classFiles} option,
+ * so javac does not parse, attribute and compile their source in another round.
+ *
+ * <p>The class files have the same members, generic signatures and bridge methods as the classes
+ * javac compiles from the generated source. Only plain records are supported, see {@link
+ * #supports(BuilderModel)}; the generator writes source for all others.
+ */
+final class ClassFileGenerator {
+
+  private static final String OBJECT = "java/lang/Object";
+  private static final String CONSUMER = "java/util/function/Consumer";
+
+  private final Elements elements;
+  private final int majorVersion;
+
+  ClassFileGenerator(ProcessingEnvironment processingEnv) {
+    this.elements = processingEnv.getElementUtils();
+    // RELEASE_17 is ordinal 17 and class file version 61
+    this.majorVersion = 44 + processingEnv.getSourceVersion().ordinal();
+  }
+
+  /**
+   * Tests whether a record's builder can be generated as a class file: a top-level record without
+   * type parameters, copied annotations, {@code @ValidCheck} or nested builder-enabled components,
+   * whose component types are all resolved.
+   */
+  boolean supports(BuilderModel model) {
+    return model.typeVariables().isEmpty()
+        && !model.copyAnnotations()
+        && !model.validCheck()
+        && model.element().getEnclosingElement().getKind() == ElementKind.PACKAGE
+        && model.components().stream()
+            .allMatch(component -> component.nested() == null && encodable(component.type()));
+  }
+
+  /**
+   * Generates the updater interface.
+   *
+   * @param model a record model this generator {@link #supports(BuilderModel)}
+   * @return the class file bytes
+   */
+  byte[] updater(BuilderModel model) {
+    String updater = internalName(model.updaterClass().reflectionName());
+    ClassFileEmitter emitter =
+        new ClassFileEmitter(
+            majorVersion, ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT, updater, OBJECT);
+    for (BuilderModel.Component component : model.components()) {
+      emitter.addAbstractMethod(
+          ACC_PUBLIC | ACC_ABSTRACT,
+          component.name(),
+          setterDescriptor(component.type(), updater, false),
+          setterSignature(component.type(), updater),
+          List.of(component.name()));
+    }
+    return emitter.toByteArray();
+  }
+
+  /**
+   * Generates the builder class.
+   *
+   * @param model a record model this generator {@link #supports(BuilderModel)}
+   * @return the class file bytes
+   */
+  byte[] builder(BuilderModel model) {
+    String record = internalName(elements.getBinaryName(model.element()).toString());
+    String builder = internalName(model.builderClass().reflectionName());
+    String updater = model.lean() ? builder : internalName(model.updaterClass().reflectionName());
+    String recordType = "L" + record + ";";
+    String builderType = "L" + builder + ";";
+    ClassFileEmitter emitter =
+        model.lean()
+            ? new ClassFileEmitter(
+                majorVersion, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, builder, OBJECT)
+            : new ClassFileEmitter(
+                majorVersion, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, builder, OBJECT, updater);
+    List<BuilderModel.Component> components = model.components();
+
+    for (BuilderModel.Component component : components) {
+      emitter.addField(
+          ACC_PRIVATE, component.name(), descriptor(component.type()), signature(component.type()));
+    }
+
+    emitter
+        .addMethod(ACC_PUBLIC, "<init>", "()V", null, List.of())
+        .load(builderType, 0)
+        .invokeSpecial(OBJECT, "<init>", "()V")
+        .returnValue("V");
+
+    for (BuilderModel.Component component : components) {
+      String type = descriptor(component.type());
+      String setter = setterDescriptor(component.type(), builder, false);
+      emitter
+          .addMethod(
+              ACC_PUBLIC,
+              component.name(),
+              setter,
+              setterSignature(component.type(), builder),
+              List.of(component.name()))
+          .load(builderType, 0)
+          .load(type, 1)
+          .putField(builder, component.name(), type)
+          .load(builderType, 0)
+          .returnValue(builderType);
+    }
+
+    String constructor =
+        components.stream()
+            .map(component -> descriptor(component.type()))
+            .collect(Collectors.joining("", "(", ")V"));
+    ClassFileEmitter.Code build =
+        emitter.addMethod(ACC_PUBLIC, "build", "()" + recordType, null, List.of()).newDup(record);
+    for (BuilderModel.Component component : components) {
+      String type = descriptor(component.type());
+      build.load(builderType, 0).getField(builder, component.name(), type);
+    }
+    build.invokeSpecial(record, "<init>", constructor).returnValue(recordType);
+
+    emitter
+        .addMethod(ACC_PUBLIC | ACC_STATIC, "builder", "()" + builderType, null, List.of())
+        .newDup(builder)
+        .invokeSpecial(builder, "<init>", "()V")
+        .returnValue(builderType);
+
+    ClassFileEmitter.Code copy =
+        emitter
+            .addMethod(
+                ACC_PUBLIC | ACC_STATIC,
+                "builder",
+                "(" + recordType + ")" + builderType,
+                null,
+                List.of("existing"))
+            .newDup(builder)
+            .invokeSpecial(builder, "<init>", "()V")
+            .storeReference(1);
+    for (BuilderModel.Component component : components) {
+      String type = descriptor(component.type());
+      copy.load(builderType, 1)
+          .load(recordType, 0)
+          .invokeVirtual(record, component.name(), "()" + type)
+          .putField(builder, component.name(), type);
+    }
+    copy.load(builderType, 1).returnValue(builderType);
+
+    emitter
+        .addMethod(
+            ACC_PUBLIC | ACC_STATIC,
+            "with",
+            "(" + recordType + "L" + CONSUMER + ";)" + recordType,
+            "(" + recordType + "L" + CONSUMER + "<L" + updater + ";>;)" + recordType,
+            List.of("existing", "updater"))
+        .load(recordType, 0)
+        .invokeStatic(builder, "builder", "(" + recordType + ")" + builderType)
+        .storeReference(2)
+        .load("L" + CONSUMER + ";", 1)
+        .load(builderType, 2)
+        .invokeInterface(CONSUMER, "accept", "(Ljava/lang/Object;)V")
+        .load(builderType, 2)
+        .invokeVirtual(builder, "build", "()" + recordType)
+        .returnValue(recordType);
+
+    // Setters override the updater's with a covariant return type, as javac bridges them
+    if (!model.lean()) {
+      for (BuilderModel.Component component : components) {
+        String type = descriptor(component.type());
+        emitter
+            .addMethod(
+                ACC_PUBLIC | ACC_BRIDGE | ACC_SYNTHETIC,
+                component.name(),
+                setterDescriptor(component.type(), updater, false),
+                null,
+                List.of())
+            .load(builderType, 0)
+            .load(type, 1)
+            .invokeVirtual(
+                builder, component.name(), setterDescriptor(component.type(), builder, false))
+            .returnValue("L" + updater + ";");
+      }
+    }
+    return emitter.toByteArray();
+  }
+
+  private String setterDescriptor(TypeMirror type, String owner, boolean generic) {
+    return "(" + (generic ? signature(type) : descriptor(type)) + ")L" + owner + ";";
+  }
+
+  private String setterSignature(TypeMirror type, String owner) {
+    return signature(type) == null ? null : setterDescriptor(type, owner, true);
+  }
+
+  private static String internalName(String binaryName) {
+    return binaryName.replace('.', '/');
+  }
+
+  private String internalName(TypeElement element) {
+    return internalName(elements.getBinaryName(element).toString());
+  }
+
+  /** Tests whether a type can be written as a descriptor and signature by this generator. */
+  private boolean encodable(TypeMirror type) {
+    return switch (type.getKind()) {
+      case BOOLEAN, BYTE, CHAR, SHORT, INT, LONG, FLOAT, DOUBLE -> true;
+      case ARRAY -> encodable(((ArrayType) type).getComponentType());
+      case DECLARED -> {
+        DeclaredType declaredType = (DeclaredType) type;
+        // Inner classes of parameterized types need nested signatures
+        yield declaredType.getEnclosingType().getKind() == TypeKind.NONE
+            && declaredType.getTypeArguments().stream().allMatch(this::encodableArgument);
+      }
+      default -> false;
+    };
+  }
+
+  private boolean encodableArgument(TypeMirror argument) {
+    if (argument.getKind() == TypeKind.WILDCARD) {
+      WildcardType wildcard = (WildcardType) argument;
+      TypeMirror bound =
+          wildcard.getExtendsBound() != null
+              ? wildcard.getExtendsBound()
+              : wildcard.getSuperBound();
+      return bound == null || encodable(bound);
+    }
+    return (argument.getKind() == TypeKind.DECLARED || argument.getKind() == TypeKind.ARRAY)
+        && encodable(argument);
+  }
+
+  /** Returns the erased descriptor of an {@link #encodable} type. */
+  private String descriptor(TypeMirror type) {
+    return switch (type.getKind()) {
+      case BOOLEAN -> "Z";
+      case BYTE -> "B";
+      case CHAR -> "C";
+      case SHORT -> "S";
+      case INT -> "I";
+      case LONG -> "J";
+      case FLOAT -> "F";
+      case DOUBLE -> "D";
+      case ARRAY -> "[" + descriptor(((ArrayType) type).getComponentType());
+      default -> "L" + internalName((TypeElement) ((DeclaredType) type).asElement()) + ";";
+    };
+  }
+
+  /**
+   * Returns the generic signature of an {@link #encodable} type, or {@code null} if it has no type
+   * arguments and the descriptor suffices.
+   */
+  private String signature(TypeMirror type) {
+    String signature = genericSignature(type);
+    return signature.equals(descriptor(type)) ? null : signature;
+  }
+
+  private String genericSignature(TypeMirror type) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      return "[" + genericSignature(((ArrayType) type).getComponentType());
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      return descriptor(type);
+    }
+    DeclaredType declaredType = (DeclaredType) type;
+    String name = internalName((TypeElement) declaredType.asElement());
+    if (declaredType.getTypeArguments().isEmpty()) {
+      return "L" + name + ";";
+    }
+    StringBuilder signature = new StringBuilder("L").append(name).append('<');
+    for (TypeMirror argument : declaredType.getTypeArguments()) {
+      if (argument.getKind() == TypeKind.WILDCARD) {
+        WildcardType wildcard = (WildcardType) argument;
+        if (wildcard.getExtendsBound() != null) {
+          signature.append('+').append(genericSignature(wildcard.getExtendsBound()));
+        } else if (wildcard.getSuperBound() != null) {
+          signature.append('-').append(genericSignature(wildcard.getSuperBound()));
+        } else {
+          signature.append('*');
+        }
+      } else {
+        signature.append(genericSignature(argument));
+      }
+    }
+    return signature.append(">;").toString();
+  }
+}
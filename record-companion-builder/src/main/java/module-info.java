@@ -3,7 +3,10 @@
  */
 module recordcompanion.builder {
   requires transitive java.compiler;
+  requires static jdk.compiler;
   requires com.squareup.javapoet;
+  // Relocated into the internal package when the jar is packaged
+  requires static recordcompanion.processor.support;
 
   // Export only the public annotation API
   exports io.github.aglibs.recordcompanion.builder;
@@ -0,0 +1,100 @@
+package io.github.aglibs.recordcompanion.processor.internal;
+
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Collects the generated classes for the {@code recordcompanion.classList} option, as a class list
+ * that {@code -XX:SharedClassListFile} accepts when dumping an AppCDS archive.
+ *
+ * <p>The list names every generated top-level and nested class by its JVM internal name, one per
+ * line, such as {@code com/example/OrderBuilder$Result}, in the order the classes were written. It
+ * is a resource under {@code META-INF/record-companion/} in the class output, so it ships in the
+ * jar next to the classes it names. When the option is off, every method returns immediately.
+ */
+public final class ClassList {
+
+  private final boolean enabled;
+  private final String resourceName;
+  private final Set<String> classes = new LinkedHashSet<>();
+  private final Set<Element> origins = new LinkedHashSet<>();
+
+  /**
+   * Creates a class list.
+   *
+   * @param enabled whether to collect classes
+   * @param resourceName the class list file name, such as {@code builder.classlist}
+   */
+  public ClassList(boolean enabled, String resourceName) {
+    this.enabled = enabled;
+    this.resourceName = resourceName;
+  }
+
+  /**
+   * Adds the classes of a generated file.
+   *
+   * @param javaFile the written file
+   */
+  public void add(JavaFile javaFile) {
+    if (!enabled) {
+      return;
+    }
+    String packagePath =
+        javaFile.packageName.isEmpty() ? "" : javaFile.packageName.replace('.', '/') + "/";
+    addType(packagePath + javaFile.typeSpec.name, javaFile.typeSpec);
+    origins.addAll(javaFile.typeSpec.originatingElements);
+  }
+
+  /**
+   * Adds a class written directly as a class file.
+   *
+   * @param binaryName the binary name of the class
+   * @param origin the record the class was generated for
+   */
+  public void addClass(String binaryName, Element origin) {
+    if (!enabled) {
+      return;
+    }
+    classes.add(binaryName.replace('.', '/'));
+    origins.add(origin);
+  }
+
+  private void addType(String internalName, TypeSpec type) {
+    classes.add(internalName);
+    for (TypeSpec nested : type.typeSpecs) {
+      addType(internalName + "$" + nested.name, nested);
+    }
+  }
+
+  /**
+   * Writes the class list, if enabled and any class was generated.
+   *
+   * @param filer the filer to create the resource with
+   * @throws IOException if the resource cannot be written
+   */
+  public void write(Filer filer) throws IOException {
+    if (!enabled || classes.isEmpty()) {
+      return;
+    }
+    FileObject classList =
+        filer.createResource(
+            StandardLocation.CLASS_OUTPUT,
+            "",
+            CompanionIndexGenerator.RESOURCE_DIRECTORY + "/" + resourceName,
+            origins.toArray(new Element[0]));
+    try (Writer writer = classList.openWriter()) {
+      for (String name : classes) {
+        writer.write(name);
+        writer.write('\n');
+      }
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package io.github.aglibs.recordcompanion.processor.internal;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates the companion index enabled by {@code -Arecordcompanion.index=<package>}.
+ *
+ * <p>Each round that generates companions for public top-level records also generates an index
+ * class in the configured package, implementing {@code CompanionIndex} from the
+ * record-companion-runtime module. A type can only be generated once, so the first index is named
+ * after the processor, such as {@code BuilderIndex}, and later rounds append the index number. When
+ * processing is over, the index classes and their records are listed in a resource under {@code
+ * META-INF/record-companion/} in the class output, where {@code RecordCompanions} finds them.
+ *
+ * <p>The index depends on every indexed record, so with this option the processor is aggregating
+ * rather than isolating for Gradle incremental compilation.
+ */
+public final class CompanionIndexGenerator {
+
+  /** The resource directory, relative to the class output. */
+  public static final String RESOURCE_DIRECTORY = "META-INF/record-companion";
+
+  private static final ClassName INDEX_TYPE =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "CompanionIndex");
+  private static final ClassName REGISTRAR_TYPE = INDEX_TYPE.nestedClass("Registrar");
+
+  private final Elements elements;
+  private final String packageName;
+  private final String indexName;
+  private final String resourceName;
+  private final List<Registration> pending = new ArrayList<>();
+  private final List<String> lines = new ArrayList<>();
+  private final List<Element> indexedRecords = new ArrayList<>();
+  private int indexCount;
+
+  private CompanionIndexGenerator(
+      ProcessingEnvironment processingEnv,
+      String packageName,
+      String indexName,
+      String resourceName) {
+    this.elements = processingEnv.getElementUtils();
+    this.packageName = packageName;
+    this.indexName = indexName;
+    this.resourceName = resourceName;
+  }
+
+  /**
+   * Creates the index generator if the index is enabled.
+   *
+   * @param processingEnv the processing environment
+   * @param option the name of the option holding the index package
+   * @param indexName the simple name of the first index class, such as {@code BuilderIndex}
+   * @param resourceName the resource listing the index classes, such as {@code builder.index}
+   * @return the generator, or {@code null} if the option is not set or not a package name
+   */
+  public static CompanionIndexGenerator create(
+      ProcessingEnvironment processingEnv, String option, String indexName, String resourceName) {
+    String value = processingEnv.getOptions().get(option);
+    if (value == null) {
+      return null;
+    }
+    String packageName = value.trim();
+    if (!SourceVersion.isName(packageName)) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.WARNING, "Ignoring " + option + "=" + value + ": not a package name");
+      return null;
+    }
+    return new CompanionIndexGenerator(processingEnv, packageName, indexName, resourceName);
+  }
+
+  /**
+   * Registers the companion of a record with the index of the current round. Records that cannot be
+   * referenced from the index package, because they are not public or are nested, are skipped.
+   *
+   * @param record the record
+   * @param companion the generated companion class
+   * @param method the {@code CompanionIndex.Registrar} method that registers the companion
+   * @param factory the lambda passed to the registrar method
+   */
+  public void add(TypeElement record, ClassName companion, String method, CodeBlock factory) {
+    if (!record.getModifiers().contains(Modifier.PUBLIC)
+        || record.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      return;
+    }
+    String recordName = elements.getBinaryName(record).toString();
+    pending.add(new Registration(record, recordName, method, factory));
+    lines.add("companion " + recordName + " " + companion.reflectionName());
+  }
+
+  /**
+   * Ends a processing round.
+   *
+   * @return the index class of the records added during the round, if any
+   */
+  public Optional<JavaFile> finishRound() {
+    if (pending.isEmpty()) {
+      return Optional.empty();
+    }
+    indexCount++;
+    String name = indexCount == 1 ? indexName : indexName + indexCount;
+    lines.add("registry " + ClassName.get(packageName, name).reflectionName());
+
+    // Lambdas rather than method references, so companion classes load on first use only
+    MethodSpec.Builder register =
+        MethodSpec.methodBuilder("register")
+            .addAnnotation(Override.class)
+            .addModifiers(Modifier.PUBLIC)
+            .addParameter(REGISTRAR_TYPE, "registrar");
+    TypeSpec.Builder index =
+        TypeSpec.classBuilder(name)
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addSuperinterface(INDEX_TYPE)
+            .addJavadoc(
+                "Companion index of $L records, generated by RecordCompanion.\n", pending.size());
+    for (Registration registration : pending) {
+      register.addStatement(
+          "registrar.$N($S, $L)",
+          registration.method(),
+          registration.recordName(),
+          registration.factory());
+      index.addOriginatingElement(registration.record());
+      indexedRecords.add(registration.record());
+    }
+    pending.clear();
+
+    index.addMethod(register.build());
+    return Optional.of(
+        JavaFile.builder(packageName, index.build()).skipJavaLangImports(true).build());
+  }
+
+  /**
+   * Writes the resource listing the index classes and indexed records, if any record was indexed.
+   *
+   * @param filer the filer to create the resource with
+   * @throws IOException if the resource cannot be written
+   */
+  public void writeResource(Filer filer) throws IOException {
+    if (lines.isEmpty()) {
+      return;
+    }
+    FileObject resource =
+        filer.createResource(
+            StandardLocation.CLASS_OUTPUT,
+            "",
+            RESOURCE_DIRECTORY + "/" + resourceName,
+            indexedRecords.toArray(new Element[0]));
+    try (Writer writer = resource.openWriter()) {
+      for (String line : lines) {
+        writer.write(line);
+        writer.write('\n');
+      }
+    }
+  }
+
+  /**
+   * A companion waiting for the index class of its round.
+   *
+   * @param record the record
+   * @param recordName the binary name of the record
+   * @param method the registrar method
+   * @param factory the lambda passed to the registrar method
+   */
+  private record Registration(
+      TypeElement record, String recordName, String method, CodeBlock factory) {}
+}
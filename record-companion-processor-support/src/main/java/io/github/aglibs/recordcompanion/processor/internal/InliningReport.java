@@ -0,0 +1,297 @@
+package io.github.aglibs.recordcompanion.processor.internal;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Compares the bytecode size of every generated method with HotSpot's inlining thresholds, for the
+ * {@code recordcompanion.inliningReport} option.
+ *
+ * <p>javac compiles generated sources only after annotation processing, so the report listens for
+ * its {@code GENERATE} task events and reads each generated class file once it is written. Class
+ * files the processor writes itself are read from their bytes. The report is a CSV resource in the
+ * class output with the columns {@code class,method,descriptor,bytes,inlining}, where {@code
+ * inlining} is
+ *
+ * <ul>
+ *   <li>{@code always} - at most {@code MaxInlineSize} ({@value #MAX_INLINE_SIZE}) bytes, inlined
+ *       at any call site
+ *   <li>{@code hot} - at most {@code FreqInlineSize} ({@value #FREQ_INLINE_SIZE}) bytes, inlined
+ *       only at frequently executed call sites
+ *   <li>{@code never} - larger, never inlined
+ * </ul>
+ *
+ * <p>The thresholds are the HotSpot defaults on x86-64 and AArch64. Hot path methods that are never
+ * inlined are also reported as warnings on their record, so a generator change that grows them is
+ * caught when the code is compiled. The report needs javac's own processing environment; under
+ * another compiler it warns once and stays empty. When the option is off, every method returns
+ * immediately.
+ */
+public final class InliningReport {
+
+  /** HotSpot's default {@code MaxInlineSize}, in bytes of bytecode. */
+  public static final int MAX_INLINE_SIZE = 35;
+
+  /** HotSpot's default {@code FreqInlineSize}, in bytes of bytecode. */
+  public static final int FREQ_INLINE_SIZE = 325;
+
+  private final boolean enabled;
+  private final String reportName;
+  private final Set<String> hotMethods;
+  private final Map<String, Element> origins = new HashMap<>();
+  private final List<String> rows = new ArrayList<>();
+  private Elements elements;
+  private Filer filer;
+  private Messager messager;
+
+  /**
+   * Creates a report.
+   *
+   * @param enabled whether to report
+   * @param reportName the report file name, such as {@code builder-inlining.csv}
+   * @param hotMethods the names of the methods on hot paths, which get a warning when they are
+   *     never inlined
+   */
+  public InliningReport(boolean enabled, String reportName, Set<String> hotMethods) {
+    this.enabled = enabled;
+    this.reportName = reportName;
+    this.hotMethods = hotMethods;
+  }
+
+  /**
+   * Starts listening for the class files javac generates.
+   *
+   * @param processingEnv the processing environment
+   */
+  public void start(ProcessingEnvironment processingEnv) {
+    if (!enabled) {
+      return;
+    }
+    elements = processingEnv.getElementUtils();
+    filer = processingEnv.getFiler();
+    messager = processingEnv.getMessager();
+    try {
+      JavacTask.instance(processingEnv)
+          .addTaskListener(
+              new TaskListener() {
+                @Override
+                public void finished(TaskEvent event) {
+                  if (event.getKind() == TaskEvent.Kind.GENERATE) {
+                    generated(event.getTypeElement());
+                  } else if (event.getKind() == TaskEvent.Kind.COMPILATION) {
+                    writeReport();
+                  }
+                }
+              });
+    } catch (IllegalArgumentException | NoClassDefFoundError e) {
+      messager.printMessage(
+          Diagnostic.Kind.WARNING,
+          "The inlining report is only available when compiling with javac");
+    }
+  }
+
+  /**
+   * Adds a generated source file, whose classes are reported once javac has compiled them.
+   *
+   * @param name the canonical name of the top-level type the file declares
+   * @param origin the record the file was generated for, or {@code null}
+   */
+  public void addSource(String name, Element origin) {
+    if (!enabled) {
+      return;
+    }
+    origins.put(name, origin);
+  }
+
+  /**
+   * Reports the methods of a generated class file.
+   *
+   * @param name the binary name of the class
+   * @param bytes the class file content
+   * @param origin the record the class was generated for, or {@code null}
+   */
+  public void addClassFile(String name, byte[] bytes, Element origin) {
+    if (!enabled) {
+      return;
+    }
+    String simpleName = name.substring(name.lastIndexOf('.') + 1).replace('$', '.');
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      for (MethodSize method : methodSizes(in)) {
+        String inlining =
+            method.bytes() <= MAX_INLINE_SIZE
+                ? "always"
+                : method.bytes() <= FREQ_INLINE_SIZE ? "hot" : "never";
+        rows.add(
+            name
+                + ","
+                + method.name()
+                + ","
+                + method.descriptor()
+                + ","
+                + method.bytes()
+                + ","
+                + inlining);
+        if ("never".equals(inlining) && hotMethods.contains(method.name())) {
+          messager.printMessage(
+              Diagnostic.Kind.WARNING,
+              simpleName
+                  + "."
+                  + method.name()
+                  + " has "
+                  + method.bytes()
+                  + " bytes of bytecode, more than FreqInlineSize ("
+                  + FREQ_INLINE_SIZE
+                  + "), so HotSpot will never inline it",
+              origin);
+        }
+      }
+    } catch (IOException e) {
+      messager.printMessage(
+          Diagnostic.Kind.WARNING, "Failed to read class file " + name + ": " + e.getMessage());
+    }
+  }
+
+  private void generated(TypeElement type) {
+    TypeElement topLevel = type;
+    while (topLevel.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+      topLevel = (TypeElement) topLevel.getEnclosingElement();
+    }
+    String topLevelName = topLevel.getQualifiedName().toString();
+    if (!origins.containsKey(topLevelName)) {
+      return;
+    }
+    String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    String name = elements.getBinaryName(type).toString();
+    String relativeName =
+        (packageName.isEmpty() ? name : name.substring(packageName.length() + 1)) + ".class";
+    try (InputStream in =
+        filer
+            .getResource(StandardLocation.CLASS_OUTPUT, packageName, relativeName)
+            .openInputStream()) {
+      addClassFile(name, in.readAllBytes(), origins.get(topLevelName));
+    } catch (IOException e) {
+      messager.printMessage(
+          Diagnostic.Kind.WARNING, "Failed to read class file " + name + ": " + e.getMessage());
+    }
+  }
+
+  private void writeReport() {
+    try {
+      FileObject report =
+          filer.createResource(
+              StandardLocation.CLASS_OUTPUT,
+              "",
+              ProcessingProfiler.REPORT_DIRECTORY + "/" + reportName);
+      try (Writer writer = report.openWriter()) {
+        writer.write("class,method,descriptor,bytes,inlining\n");
+        for (String row : rows) {
+          writer.write(row);
+          writer.write('\n');
+        }
+      }
+    } catch (IOException e) {
+      messager.printMessage(
+          Diagnostic.Kind.WARNING, "Failed to write inlining report: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Reads the name, descriptor and code length of every method with code in a class file.
+   *
+   * @param in the class file content
+   * @return the methods, in class file order
+   * @throws IOException if the class file is malformed
+   */
+  private static List<MethodSize> methodSizes(DataInputStream in) throws IOException {
+    if (in.readInt() != 0xCAFEBABE) {
+      throw new IOException("Not a class file");
+    }
+    in.readInt(); // Minor and major version
+
+    // Only UTF-8 constants are needed; the others are skipped by their fixed sizes
+    int constantCount = in.readUnsignedShort();
+    String[] utf8 = new String[constantCount];
+    for (int i = 1; i < constantCount; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case 1 -> utf8[i] = in.readUTF();
+        case 7, 8, 16, 19, 20 -> in.skipNBytes(2);
+        case 15 -> in.skipNBytes(3);
+        case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+        case 5, 6 -> {
+          in.skipNBytes(8);
+          i++;
+        }
+        default -> throw new IOException("Unknown constant pool tag " + tag);
+      }
+    }
+
+    in.skipNBytes(6); // Access flags, this class and super class
+    in.skipNBytes(2L * in.readUnsignedShort()); // Interfaces
+    int fieldCount = in.readUnsignedShort();
+    for (int i = 0; i < fieldCount; i++) {
+      in.skipNBytes(6);
+      skipAttributes(in);
+    }
+
+    int methodCount = in.readUnsignedShort();
+    List<MethodSize> methods = new ArrayList<>(methodCount);
+    for (int i = 0; i < methodCount; i++) {
+      in.skipNBytes(2); // Access flags
+      String name = utf8[in.readUnsignedShort()];
+      String descriptor = utf8[in.readUnsignedShort()];
+      int attributeCount = in.readUnsignedShort();
+      for (int j = 0; j < attributeCount; j++) {
+        String attribute = utf8[in.readUnsignedShort()];
+        int length = in.readInt();
+        if ("Code".equals(attribute)) {
+          in.skipNBytes(4); // Max stack and max locals
+          int codeLength = in.readInt();
+          methods.add(new MethodSize(name, descriptor, codeLength));
+          in.skipNBytes(length - 8L);
+        } else {
+          in.skipNBytes(length);
+        }
+      }
+    }
+    return methods;
+  }
+
+  private static void skipAttributes(DataInputStream in) throws IOException {
+    int attributeCount = in.readUnsignedShort();
+    for (int i = 0; i < attributeCount; i++) {
+      in.skipNBytes(2);
+      in.skipNBytes(in.readInt() & 0xFFFFFFFFL);
+    }
+  }
+
+  /**
+   * The bytecode size of a generated method.
+   *
+   * @param name the method name
+   * @param descriptor the method descriptor
+   * @param bytes the length of the method's code
+   */
+  private record MethodSize(String name, String descriptor, int bytes) {}
+}
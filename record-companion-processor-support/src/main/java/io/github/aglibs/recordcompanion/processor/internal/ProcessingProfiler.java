@@ -0,0 +1,161 @@
+package io.github.aglibs.recordcompanion.processor.internal;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Records where annotation processing time goes, per round, record and phase, for the {@code
+ * recordcompanion.profile} option.
+ *
+ * <p>Time is attributed by marks: each {@link #mark(Phase)} charges the time since the previous
+ * mark to a phase of the current record. Time measured outside a record, such as rendering and
+ * writing its files at the end of a round, is charged with {@link #add}. The report is a CSV
+ * resource in the class output with the columns {@code round,record,phase,nanos}; round totals use
+ * an empty record and the phase {@code round}. When profiling is off, every method returns
+ * immediately.
+ */
+public final class ProcessingProfiler {
+
+  /** The report directory, relative to the class output. */
+  public static final String REPORT_DIRECTORY = "recordcompanion-profile";
+
+  /** The phases of generating a record's companions. */
+  public enum Phase {
+    /** Reading the record element into the model the generator works with. */
+    MODEL,
+    /** Building the JavaPoet type specs and rendering them to source text. */
+    BUILD,
+    /** Writing the generated files through the Filer. */
+    WRITE
+  }
+
+  private final boolean enabled;
+  private final String reportName;
+  private final List<String> rows = new ArrayList<>();
+  private final Map<String, long[]> recordNanos = new LinkedHashMap<>();
+  private int round;
+  private long roundStart;
+  private long[] phaseNanos;
+  private long lastMark;
+
+  /**
+   * Creates a profiler.
+   *
+   * @param enabled whether to record timings
+   * @param reportName the report file name, such as {@code builder.csv}
+   */
+  public ProcessingProfiler(boolean enabled, String reportName) {
+    this.enabled = enabled;
+    this.reportName = reportName;
+  }
+
+  /** Starts timing a processing round. */
+  public void startRound() {
+    if (!enabled) {
+      return;
+    }
+    round++;
+    roundStart = System.nanoTime();
+  }
+
+  /** Ends the current round, recording the time of each record and the round's total time. */
+  public void endRound() {
+    if (!enabled) {
+      return;
+    }
+    recordNanos.forEach(
+        (record, nanos) -> {
+          for (Phase phase : Phase.values()) {
+            rows.add(
+                round
+                    + ","
+                    + record
+                    + ","
+                    + phase.name().toLowerCase(Locale.ROOT)
+                    + ","
+                    + nanos[phase.ordinal()]);
+          }
+        });
+    recordNanos.clear();
+    rows.add(round + ",,round," + (System.nanoTime() - roundStart));
+  }
+
+  /** Starts timing the companions of a record. */
+  public void startRecord(TypeElement recordElement) {
+    if (!enabled) {
+      return;
+    }
+    phaseNanos = nanos(recordElement);
+    lastMark = System.nanoTime();
+  }
+
+  /** Charges the time since the previous mark to a phase of the current record. */
+  public void mark(Phase phase) {
+    if (!enabled || phaseNanos == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    phaseNanos[phase.ordinal()] += now - lastMark;
+    lastMark = now;
+  }
+
+  /** Ends the current record, charging the time since the last mark to {@link Phase#BUILD}. */
+  public void endRecord() {
+    if (!enabled || phaseNanos == null) {
+      return;
+    }
+    mark(Phase.BUILD);
+    phaseNanos = null;
+  }
+
+  /**
+   * Charges time measured elsewhere, such as on a rendering thread, to a phase of a record.
+   *
+   * @param recordElement the record, or {@code null} to ignore the time
+   * @param phase the phase
+   * @param nanos the time to charge
+   */
+  public void add(Element recordElement, Phase phase, long nanos) {
+    if (!enabled || !(recordElement instanceof TypeElement typeElement)) {
+      return;
+    }
+    nanos(typeElement)[phase.ordinal()] += nanos;
+  }
+
+  private long[] nanos(TypeElement recordElement) {
+    return recordNanos.computeIfAbsent(
+        recordElement.getQualifiedName().toString(), record -> new long[Phase.values().length]);
+  }
+
+  /**
+   * Writes the report, if profiling is on.
+   *
+   * @param filer the Filer to create the report with
+   * @throws IOException if the report cannot be written
+   */
+  public void writeReport(Filer filer) throws IOException {
+    if (!enabled) {
+      return;
+    }
+    FileObject report =
+        filer.createResource(
+            StandardLocation.CLASS_OUTPUT, "", REPORT_DIRECTORY + "/" + reportName);
+    try (Writer writer = report.openWriter()) {
+      writer.write("round,record,phase,nanos\n");
+      for (String row : rows) {
+        writer.write(row);
+        writer.write('\n');
+      }
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package io.github.aglibs.recordcompanion.processor.internal;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+import java.util.List;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * The parts of a record the generators work with, resolved once per record and round by {@link
+ * RecordModels}.
+ *
+ * @param element the record element
+ * @param recordClass the record type, without type arguments
+ * @param annotations the annotations on the record
+ * @param components the record components in declaration order
+ */
+public record RecordModel(
+    TypeElement element,
+    ClassName recordClass,
+    List<? extends AnnotationMirror> annotations,
+    List<Component> components) {
+
+  private static final String BUILDER_SUFFIX = "Builder";
+  private static final String UPDATER_SUFFIX = "Updater";
+  private static final String CHECK_SUFFIX = "Check";
+
+  /**
+   * Resolves the model of a record.
+   *
+   * @param element the record element
+   * @return the model
+   */
+  public static RecordModel of(TypeElement element) {
+    List<Component> components =
+        element.getRecordComponents().stream()
+            .map(
+                component ->
+                    new Component(
+                        component,
+                        component.getSimpleName().toString(),
+                        component.asType(),
+                        TypeName.get(component.asType()),
+                        component.getAccessor().getAnnotationMirrors()))
+            .toList();
+    return new RecordModel(
+        element, ClassName.get(element), element.getAnnotationMirrors(), components);
+  }
+
+  /** Returns the record's package. */
+  public String packageName() {
+    return recordClass.packageName();
+  }
+
+  /** Returns the simple name of the record. */
+  public String recordName() {
+    return recordClass.simpleName();
+  }
+
+  /** Returns the generated builder class. */
+  public ClassName builderClass() {
+    return companionClass(recordClass, BUILDER_SUFFIX);
+  }
+
+  /** Returns the generated updater interface. */
+  public ClassName updaterClass() {
+    return companionClass(recordClass, UPDATER_SUFFIX);
+  }
+
+  /** Returns the generated check class. */
+  public ClassName checkClass() {
+    return companionClass(recordClass, CHECK_SUFFIX);
+  }
+
+  /**
+   * Checks whether the record is annotated with the annotation of the given name.
+   *
+   * @param annotationName the qualified annotation name
+   * @return {@code true} if the annotation is present
+   */
+  public boolean hasAnnotation(String annotationName) {
+    return annotations.stream()
+        .anyMatch(mirror -> mirror.getAnnotationType().toString().equals(annotationName));
+  }
+
+  /** Returns a generated companion, a top-level class in the record's package. */
+  private static ClassName companionClass(ClassName recordClass, String suffix) {
+    return ClassName.get(recordClass.packageName(), recordClass.simpleName() + suffix);
+  }
+
+  /**
+   * A record component.
+   *
+   * @param element the component element
+   * @param name the component name
+   * @param type the component type
+   * @param typeName the component type as a JavaPoet type
+   * @param annotations the annotations on the component's accessor, where Bean Validation
+   *     constraints end up
+   */
+  public record Component(
+      RecordComponentElement element,
+      String name,
+      TypeMirror type,
+      TypeName typeName,
+      List<? extends AnnotationMirror> annotations) {}
+}
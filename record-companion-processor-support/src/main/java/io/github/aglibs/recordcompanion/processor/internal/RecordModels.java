@@ -0,0 +1,35 @@
+package io.github.aglibs.recordcompanion.processor.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Caches the {@link RecordModel} of each record a generator looks at during a round, whether it is
+ * processed or only a component type of one that is. Elements are only valid within their round, so
+ * the cache is cleared when the next one starts.
+ */
+public final class RecordModels {
+
+  private final Map<TypeElement, RecordModel> models = new HashMap<>();
+
+  /** Creates an empty cache. */
+  public RecordModels() {
+    // Models are added on first use
+  }
+
+  /**
+   * Returns the model of a record, resolving it on first use in the round.
+   *
+   * @param recordElement the record element
+   * @return the model
+   */
+  public RecordModel get(TypeElement recordElement) {
+    return models.computeIfAbsent(recordElement, RecordModel::of);
+  }
+
+  /** Drops the models resolved in earlier rounds. */
+  public void startRound() {
+    models.clear();
+  }
+}
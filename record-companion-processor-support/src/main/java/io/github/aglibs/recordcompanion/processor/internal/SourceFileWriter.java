@@ -0,0 +1,304 @@
+package io.github.aglibs.recordcompanion.processor.internal;
+
+import com.squareup.javapoet.JavaFile;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Writes generated source files, and class files generated with {@code recordcompanion.classFiles},
+ * through the {@link Filer}, keeping files from a previous compilation untouched when their content
+ * did not change.
+ *
+ * <p>Files are queued while a round is generated and written by {@link #flush()}. Rendering a
+ * {@link JavaFile} to source text only reads immutable JavaPoet specs, so it runs on a fork/join
+ * pool; the Filer is not thread-safe, so the rendered files are then written one by one, in the
+ * order they were queued. The pool is created on the first flush that needs it and reused for every
+ * later round, until {@link #close()}. Streamed sources skip JavaPoet: they append their text to
+ * one buffer that is reused for every file, on the writing thread.
+ *
+ * <p>javac only compiles generated sources that are written through the Filer in the current
+ * compilation, so every file is still written. When the previous file has the same bytes, its
+ * modification time is restored afterwards, so timestamp-based up-to-date checks and build caches
+ * downstream see no change.
+ */
+public final class SourceFileWriter {
+
+  private final Filer filer;
+  private final Messager messager;
+  private final ProcessingProfiler profiler;
+  private final ClassList classList;
+  private final InliningReport inliningReport;
+  private final int parallelism;
+  private final List<JavaFile> pending = new ArrayList<>();
+  private final List<ClassFile> pendingClasses = new ArrayList<>();
+  private final List<StreamedFile> pendingStreamed = new ArrayList<>();
+  private final StringBuilder buffer = new StringBuilder(8192);
+  private final char[] chunk = new char[8192];
+  private ForkJoinPool pool;
+
+  /**
+   * Creates a writer.
+   *
+   * @param processingEnv the processing environment
+   * @param profiler the profiler rendering and writing time is charged to
+   * @param classList the class list written files are added to
+   * @param inliningReport the inlining report written files are added to
+   * @param parallelism the number of threads that render source text; 1 renders on the calling
+   *     thread
+   */
+  public SourceFileWriter(
+      ProcessingEnvironment processingEnv,
+      ProcessingProfiler profiler,
+      ClassList classList,
+      InliningReport inliningReport,
+      int parallelism) {
+    this.filer = processingEnv.getFiler();
+    this.messager = processingEnv.getMessager();
+    this.profiler = profiler;
+    this.classList = classList;
+    this.inliningReport = inliningReport;
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Queues a generated source file, to be written by the next {@link #flush()}.
+   *
+   * @param javaFile the file to write; its type's originating elements are passed to the Filer
+   */
+  public void add(JavaFile javaFile) {
+    pending.add(javaFile);
+  }
+
+  /**
+   * Queues a generated class file, to be written by the next {@link #flush()}.
+   *
+   * @param name the binary name of the class
+   * @param bytes the class file content
+   * @param origin the record the class was generated for
+   */
+  public void addClassFile(String name, byte[] bytes, Element origin) {
+    pendingClasses.add(new ClassFile(name, bytes, origin));
+  }
+
+  /**
+   * Queues a streamed source file, to be written by the next {@link #flush()}.
+   *
+   * @param name the canonical name of the type the file declares
+   * @param nestedClasses the simple names of the classes nested in the type
+   * @param origin the record the file was generated for
+   * @param source appends the source text to the buffer it is given
+   */
+  public void addStreamed(
+      String name, List<String> nestedClasses, Element origin, Consumer<StringBuilder> source) {
+    pendingStreamed.add(new StreamedFile(name, nestedClasses, origin, source));
+  }
+
+  /** Renders and writes the queued files, reporting files that cannot be written as errors. */
+  public void flush() {
+    List<ClassFile> classFiles = List.copyOf(pendingClasses);
+    pendingClasses.clear();
+    for (ClassFile classFile : classFiles) {
+      long start = System.nanoTime();
+      try {
+        JavaFileObject file = filer.createClassFile(classFile.name(), classFile.origin());
+        writeKeepingTimestamp(file, classFile.bytes());
+        classList.addClass(classFile.name(), classFile.origin());
+        inliningReport.addClassFile(classFile.name(), classFile.bytes(), classFile.origin());
+      } catch (IOException e) {
+        messager.printMessage(
+            Diagnostic.Kind.ERROR,
+            "Failed to write " + classFile.name() + ": " + e.getMessage(),
+            classFile.origin());
+      }
+      profiler.add(classFile.origin(), ProcessingProfiler.Phase.WRITE, System.nanoTime() - start);
+    }
+
+    List<StreamedFile> streamedFiles = List.copyOf(pendingStreamed);
+    pendingStreamed.clear();
+    for (StreamedFile streamedFile : streamedFiles) {
+      Element origin = streamedFile.origin();
+      long start = System.nanoTime();
+      buffer.setLength(0);
+      streamedFile.source().accept(buffer);
+      long written = System.nanoTime();
+      profiler.add(origin, ProcessingProfiler.Phase.BUILD, written - start);
+      try {
+        JavaFileObject sourceFile = filer.createSourceFile(streamedFile.name(), origin);
+        writeKeepingTimestamp(sourceFile, buffer);
+        classList.addClass(streamedFile.name(), origin);
+        inliningReport.addSource(streamedFile.name(), origin);
+        for (String nestedClass : streamedFile.nestedClasses()) {
+          classList.addClass(streamedFile.name() + "$" + nestedClass, origin);
+        }
+      } catch (IOException e) {
+        messager.printMessage(
+            Diagnostic.Kind.ERROR,
+            "Failed to write " + streamedFile.name() + ": " + e.getMessage(),
+            origin);
+      }
+      profiler.add(origin, ProcessingProfiler.Phase.WRITE, System.nanoTime() - written);
+    }
+
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<JavaFile> files = List.copyOf(pending);
+    pending.clear();
+
+    for (RenderedFile file : render(files)) {
+      Element origin = file.origin();
+      profiler.add(origin, ProcessingProfiler.Phase.BUILD, file.renderNanos());
+      long start = System.nanoTime();
+      try {
+        write(file);
+        classList.add(file.javaFile());
+        inliningReport.addSource(file.name(), origin);
+      } catch (IOException e) {
+        messager.printMessage(
+            Diagnostic.Kind.ERROR,
+            "Failed to write " + file.name() + ": " + e.getMessage(),
+            origin);
+      }
+      profiler.add(origin, ProcessingProfiler.Phase.WRITE, System.nanoTime() - start);
+    }
+  }
+
+  private List<RenderedFile> render(List<JavaFile> files) {
+    if (parallelism <= 1 || files.size() < 2) {
+      return files.stream().map(SourceFileWriter::render).toList();
+    }
+    if (pool == null) {
+      pool = new ForkJoinPool(parallelism);
+    }
+    List<ForkJoinTask<RenderedFile>> tasks =
+        files.stream().map(file -> pool.submit(() -> render(file))).toList();
+    return tasks.stream().map(ForkJoinTask::join).toList();
+  }
+
+  /** Shuts down the rendering pool, if one was created, once processing is over. */
+  public void close() {
+    if (pool != null) {
+      pool.shutdown();
+      pool = null;
+    }
+  }
+
+  private static RenderedFile render(JavaFile javaFile) {
+    long start = System.nanoTime();
+    String source = javaFile.toString();
+    return new RenderedFile(javaFile, source, System.nanoTime() - start);
+  }
+
+  private void write(RenderedFile file) throws IOException {
+    JavaFileObject sourceFile =
+        filer.createSourceFile(
+            file.name(), file.javaFile().typeSpec.originatingElements.toArray(new Element[0]));
+    writeKeepingTimestamp(sourceFile, file.source());
+  }
+
+  private void writeKeepingTimestamp(JavaFileObject file, CharSequence source) throws IOException {
+    // The Filer only truncates the file once it is opened for writing
+    Path previous = existingFile(file.toUri());
+    byte[] previousContent = previous != null ? Files.readAllBytes(previous) : null;
+    FileTime previousTime = previous != null ? Files.getLastModifiedTime(previous) : null;
+
+    try (Writer writer = file.openWriter()) {
+      if (source instanceof StringBuilder text) {
+        // Copy through a reused array, as Writer.append would copy the buffer to a string
+        for (int start = 0; start < text.length(); start += chunk.length) {
+          int end = Math.min(text.length(), start + chunk.length);
+          text.getChars(start, end, chunk, 0);
+          writer.write(chunk, 0, end - start);
+        }
+      } else {
+        writer.append(source);
+      }
+    }
+    restoreTimestamp(previous, previousContent, previousTime);
+  }
+
+  private void writeKeepingTimestamp(JavaFileObject file, byte[] content) throws IOException {
+    Path previous = existingFile(file.toUri());
+    byte[] previousContent = previous != null ? Files.readAllBytes(previous) : null;
+    FileTime previousTime = previous != null ? Files.getLastModifiedTime(previous) : null;
+
+    try (OutputStream out = file.openOutputStream()) {
+      out.write(content);
+    }
+    restoreTimestamp(previous, previousContent, previousTime);
+  }
+
+  private static void restoreTimestamp(Path previous, byte[] previousContent, FileTime previousTime)
+      throws IOException {
+    // Compare bytes, so the check does not depend on the compiler's source encoding
+    if (previousContent != null && Arrays.equals(previousContent, Files.readAllBytes(previous))) {
+      Files.setLastModifiedTime(previous, previousTime);
+    }
+  }
+
+  private static Path existingFile(URI uri) {
+    if (!"file".equals(uri.getScheme())) {
+      return null;
+    }
+    Path path = Path.of(uri);
+    return Files.isRegularFile(path) ? path : null;
+  }
+
+  /**
+   * A generated class file.
+   *
+   * @param name the binary name of the class
+   * @param bytes the class file content
+   * @param origin the record the class was generated for
+   */
+  private record ClassFile(String name, byte[] bytes, Element origin) {}
+
+  /**
+   * A generated source file that appends its own text.
+   *
+   * @param name the canonical name of the type the file declares
+   * @param nestedClasses the simple names of the classes nested in the type
+   * @param origin the record the file was generated for
+   * @param source appends the source text to the buffer it is given
+   */
+  private record StreamedFile(
+      String name, List<String> nestedClasses, Element origin, Consumer<StringBuilder> source) {}
+
+  /**
+   * A generated file rendered to source text.
+   *
+   * @param javaFile the generated file
+   * @param source the source text
+   * @param renderNanos the time spent rendering
+   */
+  private record RenderedFile(JavaFile javaFile, String source, long renderNanos) {
+
+    String name() {
+      return javaFile.packageName.isEmpty()
+          ? javaFile.typeSpec.name
+          : javaFile.packageName + "." + javaFile.typeSpec.name;
+    }
+
+    Element origin() {
+      List<Element> origins = javaFile.typeSpec.originatingElements;
+      return origins.isEmpty() ? null : origins.get(0);
+    }
+  }
+}
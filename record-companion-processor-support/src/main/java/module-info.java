@@ -0,0 +1,13 @@
+/**
+ * RecordCompanion processor support module with the internal classes shared by the processors.
+ *
+ * <p>The builder and ValidCheck processors relocate these classes into their own internal packages
+ * when they are packaged, so the module is never needed at annotation processing time.
+ */
+module recordcompanion.processor.support {
+  requires transitive java.compiler;
+  requires static jdk.compiler;
+  requires transitive com.squareup.javapoet;
+
+  exports io.github.aglibs.recordcompanion.processor.internal;
+}
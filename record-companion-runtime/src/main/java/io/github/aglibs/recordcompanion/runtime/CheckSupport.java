@@ -0,0 +1,84 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared helpers for checks generated with {@code -Arecordcompanion.runtimeHelpers=true}.
+ *
+ * <p>Without the option, every generated check carries its own copy of this plumbing. Calling one
+ * shared copy keeps the generated bytecode smaller, so thousands of checks take less code cache and
+ * metaspace, and the helpers are compiled once and inlined everywhere instead of once per check.
+ * The methods are small, static and monomorphic, so the JIT inlines them like the code they
+ * replace.
+ */
+public final class CheckSupport {
+
+  private CheckSupport() {
+    // Utility class
+  }
+
+  /**
+   * Appends a violation, creating the list on the first one, so valid records allocate nothing.
+   *
+   * @param violations the violations so far, or {@code null} if there are none
+   * @param violation the violation to append
+   * @return the list holding the violations
+   */
+  public static List<String> addViolation(List<String> violations, String violation) {
+    List<String> result = violations == null ? new ArrayList<>() : violations;
+    result.add(violation);
+    return result;
+  }
+
+  /**
+   * Returns the violations collected by {@link #addViolation} as an unmodifiable list.
+   *
+   * @param violations the violations, or {@code null} if there are none
+   * @return the violations, or an empty list
+   */
+  public static List<String> violations(List<String> violations) {
+    return violations == null ? List.of() : List.copyOf(violations);
+  }
+
+  /**
+   * Concatenates the constant text and runtime values of a violation message, such as a message
+   * with tunable bounds. Generated checks call this instead of linking a string concatenation call
+   * site per message.
+   *
+   * @param parts the message parts, converted with {@link String#valueOf(Object)}
+   * @return the message
+   */
+  public static String message(Object... parts) {
+    StringBuilder message = new StringBuilder(64);
+    for (Object part : parts) {
+      message.append(part);
+    }
+    return message.toString();
+  }
+
+  /**
+   * Checks that a column passed to a generated {@code validateColumns} method has as many rows as
+   * the first one.
+   *
+   * @param length the length of the column
+   * @param rows the length of the first column
+   * @throws IllegalArgumentException if the lengths differ
+   */
+  public static void requireRows(int length, int rows) {
+    if (length != rows) {
+      throw new IllegalArgumentException("All columns must have the same length");
+    }
+  }
+
+  /**
+   * Allocates the {@code long} words that hold one bit per row, to be packed by a generated {@code
+   * validateColumns} method and wrapped with {@link java.util.BitSet#valueOf(long[])}.
+   *
+   * @param rows the number of rows
+   * @return the zeroed words
+   */
+  public static long[] rowWords(int rows) {
+    return new long[(rows + 63) >>> 6];
+  }
+}
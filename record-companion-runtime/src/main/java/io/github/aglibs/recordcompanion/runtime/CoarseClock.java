@@ -0,0 +1,84 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Objects;
+
+/**
+ * A {@link Clock} with millisecond resolution that shares one {@link Instant} per millisecond.
+ *
+ * <p>Reading the time calls {@link System#currentTimeMillis()} and only allocates a new instant
+ * when the millisecond has changed since the last read, by any instance. The instant is truncated
+ * to the millisecond, so it is never ahead of the system clock and lags it by less than a
+ * millisecond; {@link ValidationClock} accounts for this when comparing values with it.
+ */
+public final class CoarseClock extends Clock {
+
+  private static volatile Instant last = Instant.ofEpochMilli(System.currentTimeMillis());
+
+  private final ZoneId zone;
+  private volatile Today today;
+
+  private CoarseClock(ZoneId zone) {
+    this.zone = Objects.requireNonNull(zone, "zone cannot be null");
+  }
+
+  /**
+   * Returns a coarse clock in the system default time zone.
+   *
+   * @return the clock
+   */
+  public static CoarseClock systemDefaultZone() {
+    return new CoarseClock(ZoneId.systemDefault());
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  @Override
+  public CoarseClock withZone(ZoneId zone) {
+    return zone.equals(this.zone) ? this : new CoarseClock(zone);
+  }
+
+  @Override
+  public Instant instant() {
+    long millis = System.currentTimeMillis();
+    Instant cached = last;
+    if (cached.toEpochMilli() != millis) {
+      cached = Instant.ofEpochMilli(millis);
+      last = cached;
+    }
+    return cached;
+  }
+
+  @Override
+  public long millis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Returns the current date in this clock's zone. The date is cached until the next midnight.
+   *
+   * @return the current date
+   */
+  public LocalDate today() {
+    Instant now = instant();
+    Today cached = today;
+    if (cached == null || now.isBefore(cached.start) || !now.isBefore(cached.end)) {
+      LocalDate date = LocalDate.ofInstant(now, zone);
+      cached =
+          new Today(
+              date,
+              date.atStartOfDay(zone).toInstant(),
+              date.plusDays(1).atStartOfDay(zone).toInstant());
+      today = cached;
+    }
+    return cached.date;
+  }
+
+  private record Today(LocalDate date, Instant start, Instant end) {}
+}
@@ -0,0 +1,43 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.util.function.Supplier;
+
+/**
+ * Index of generated companions, implemented by the classes the processors generate with {@code
+ * -Arecordcompanion.index=<package>}.
+ *
+ * <p>Each processor lists its index classes in a resource under {@code META-INF/record-companion/},
+ * which {@link RecordCompanions} reads to resolve companions without reflective class lookups.
+ * Generated indexes register companions through lambdas, so a companion class is only loaded when
+ * its builder or check is first used.
+ */
+public interface CompanionIndex {
+
+  /**
+   * Registers the companions of the indexed records.
+   *
+   * @param registrar receives one registration per companion
+   */
+  void register(Registrar registrar);
+
+  /** Receives the companions of an index. */
+  interface Registrar {
+
+    /**
+     * Registers a generated builder.
+     *
+     * @param recordName the binary name of the record
+     * @param factory creates a new, empty builder for the record
+     */
+    void builder(String recordName, Supplier<?> factory);
+
+    /**
+     * Registers a generated check.
+     *
+     * @param recordName the binary name of the record
+     * @param check evaluates the record's constraints
+     * @param <R> the record type
+     */
+    <R> void check(String recordName, RecordCheck<R> check);
+  }
+}
@@ -0,0 +1,55 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+/**
+ * Service provider interface for metrics emitted by generated builders and checks.
+ *
+ * <p>Generated code only calls this interface when the processors run with {@code
+ * -Arecordcompanion.metrics=true}; otherwise no metrics code is generated at all. The active
+ * implementation is resolved once, through {@link java.util.ServiceLoader}, falling back to {@link
+ * CounterMetrics} when no provider is registered.
+ *
+ * <p>Implementations must be thread-safe and should avoid locking, since they are called on every
+ * build and validation.
+ */
+public interface CompanionMetrics {
+
+  /**
+   * Returns the active metrics implementation.
+   *
+   * @return the metrics implementation used by generated code
+   */
+  static CompanionMetrics instance() {
+    return MetricsHolder.INSTANCE;
+  }
+
+  /**
+   * Records that a builder created a record, including builds performed by {@code with(...)}.
+   *
+   * @param recordType the record type that was built
+   */
+  void recordBuilt(Class<?> recordType);
+
+  /**
+   * Records that a record was derived from an existing one through {@code XxxBuilder.with(...)}.
+   *
+   * @param recordType the record type that was updated
+   */
+  void recordUpdated(Class<?> recordType);
+
+  /**
+   * Records that a generated check rejected a set of values.
+   *
+   * @param recordType the record type whose check failed
+   */
+  void recordRejected(Class<?> recordType);
+
+  /**
+   * Records a single failed constraint. Called once per failing constraint of a rejection.
+   *
+   * @param recordType the record type whose check failed
+   * @param component the record component that failed
+   * @param constraint the failed constraint, named after the ValidCheck method, e.g. {@code
+   *     hasLength}
+   */
+  void recordViolation(Class<?> recordType, String component, String constraint);
+}
@@ -0,0 +1,45 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.util.Map;
+
+/** Management interface exposing {@link CounterMetrics} through JMX. */
+public interface CompanionMetricsMXBean {
+
+  /**
+   * Returns the number of records built per record type.
+   *
+   * @return build counts keyed by record class name
+   */
+  Map<String, Long> getBuildCounts();
+
+  /**
+   * Returns the number of {@code with(...)} updates per record type.
+   *
+   * @return update counts keyed by record class name
+   */
+  Map<String, Long> getUpdateCounts();
+
+  /**
+   * Returns the number of rejected validations per record type.
+   *
+   * @return rejection counts keyed by record class name
+   */
+  Map<String, Long> getRejectionCounts();
+
+  /**
+   * Returns the number of failures per constraint.
+   *
+   * @return violation counts keyed by {@code type:component:constraint}
+   */
+  Map<String, Long> getViolationCounts();
+
+  /**
+   * Returns the hit rate of every {@link PatternCache}.
+   *
+   * @return hit rates between 0 and 1, keyed by {@code type:component}
+   */
+  Map<String, Double> getPatternCacheHitRates();
+
+  /** Resets all counters to zero. */
+  void reset();
+}
@@ -0,0 +1,157 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Runtime-tunable constraint bounds for checks generated with {@code
+ * -Arecordcompanion.tunableBounds=true}.
+ *
+ * <p>Each bound is a {@link MutableCallSite} whose target returns a constant. Generated checks hold
+ * the call site's dynamic invoker in a {@code static final} field, so the JIT folds the bound like
+ * a literal. {@link #override} retargets the call site, which deoptimizes only the code that
+ * inlined that bound; there is no volatile read on the validation path.
+ *
+ * <p>Bounds are identified by {@code component:constraint:min} or {@code component:constraint:max},
+ * where the constraint is named after the ValidCheck method, e.g. {@code username:hasLength:max}.
+ */
+public final class ConstraintBounds {
+
+  private static final String CHECK_SUFFIX = "Check";
+  // Held by the record types themselves, so bounds do not keep their class loaders alive
+  private static final ClassValue<ConcurrentMap<String, Bound>> BOUNDS =
+      new ClassValue<>() {
+        @Override
+        protected ConcurrentMap<String, Bound> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private ConstraintBounds() {
+    // Utility class
+  }
+
+  /**
+   * Registers an {@code int} bound and returns an invoker of type {@code ()int} for it. Called from
+   * generated static initializers.
+   *
+   * @param recordType the record type the bound belongs to
+   * @param bound the bound name
+   * @param defaultValue the value declared in the constraint annotation
+   * @return the bound invoker
+   */
+  public static MethodHandle intBound(Class<?> recordType, String bound, int defaultValue) {
+    return register(recordType, bound, int.class, defaultValue);
+  }
+
+  /**
+   * Registers a {@code double} bound and returns an invoker of type {@code ()double} for it. Called
+   * from generated static initializers.
+   *
+   * @param recordType the record type the bound belongs to
+   * @param bound the bound name
+   * @param defaultValue the value declared in the constraint annotation
+   * @return the bound invoker
+   */
+  public static MethodHandle doubleBound(Class<?> recordType, String bound, double defaultValue) {
+    return register(recordType, bound, double.class, defaultValue);
+  }
+
+  /**
+   * Replaces the value of a bound. Validations that start after this call use the new value.
+   *
+   * @param recordType the record type the bound belongs to
+   * @param bound the bound name, e.g. {@code username:hasLength:max}
+   * @param value the new value, converted to the bound's type
+   * @throws IllegalArgumentException if the record has no such tunable bound
+   */
+  public static void override(Class<?> recordType, String bound, Number value) {
+    find(recordType, bound).set(value);
+  }
+
+  /**
+   * Restores a bound to the value declared in its constraint annotation.
+   *
+   * @param recordType the record type the bound belongs to
+   * @param bound the bound name
+   * @throws IllegalArgumentException if the record has no such tunable bound
+   */
+  public static void reset(Class<?> recordType, String bound) {
+    Bound target = find(recordType, bound);
+    target.set(target.defaultValue);
+  }
+
+  /**
+   * Returns the current value of every tunable bound of a record type.
+   *
+   * @param recordType the record type
+   * @return the bound values, sorted by name
+   */
+  public static Map<String, Number> bounds(Class<?> recordType) {
+    initializeCheck(recordType);
+    Map<String, Number> result = new TreeMap<>();
+    BOUNDS.get(recordType).forEach((name, bound) -> result.put(name, bound.value));
+    return result;
+  }
+
+  private static MethodHandle register(
+      Class<?> recordType, String name, Class<?> type, Number defaultValue) {
+    Bound bound =
+        BOUNDS.get(recordType).computeIfAbsent(name, ignored -> new Bound(type, defaultValue));
+    return bound.site.dynamicInvoker();
+  }
+
+  private static Bound find(Class<?> recordType, String name) {
+    initializeCheck(recordType);
+    Bound bound = BOUNDS.get(recordType).get(name);
+    if (bound == null) {
+      throw new IllegalArgumentException(
+          "No tunable bound " + name + " for " + recordType.getName());
+    }
+    return bound;
+  }
+
+  /** Bounds are registered by the check's static initializer, so make sure it has run. */
+  private static void initializeCheck(Class<?> recordType) {
+    String packagePrefix =
+        recordType.getPackageName().isEmpty() ? "" : recordType.getPackageName() + ".";
+    try {
+      Class.forName(
+          packagePrefix + recordType.getSimpleName() + CHECK_SUFFIX,
+          true,
+          recordType.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      throw new IllegalArgumentException("No generated check for " + recordType.getName(), e);
+    }
+  }
+
+  private static final class Bound {
+
+    private final MutableCallSite site;
+    private final Number defaultValue;
+    private volatile Number value;
+
+    Bound(Class<?> type, Number defaultValue) {
+      this.value = convert(type, defaultValue);
+      this.defaultValue = value;
+      this.site = new MutableCallSite(MethodHandles.constant(type, value));
+    }
+
+    synchronized void set(Number newValue) {
+      Class<?> type = site.type().returnType();
+      Number converted = convert(type, newValue);
+      site.setTarget(MethodHandles.constant(type, converted));
+      MutableCallSite.syncAll(new MutableCallSite[] {site});
+      value = converted;
+    }
+
+    private static Number convert(Class<?> type, Number value) {
+      return type == int.class ? (Number) value.intValue() : (Number) value.doubleValue();
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default {@link CompanionMetrics} implementation backed by striped {@link LongAdder} counters.
+ *
+ * <p>Counters are looked up per record type through a {@link ClassValue}, so recording a build or
+ * update is a lock-free increment with no allocation. Violation counters are created on first use
+ * of each {@code (component, constraint)} pair. The record types are also held weakly for the
+ * snapshots, so counters do not keep an undeployed application's class loader alive.
+ */
+public final class CounterMetrics implements CompanionMetrics {
+
+  private final Map<Class<?>, RecordCounters> counters =
+      Collections.synchronizedMap(new WeakHashMap<>());
+  private final ClassValue<RecordCounters> lookup =
+      new ClassValue<>() {
+        @Override
+        protected RecordCounters computeValue(Class<?> type) {
+          return counters.computeIfAbsent(type, ignored -> new RecordCounters());
+        }
+      };
+
+  /** Creates an empty set of counters. */
+  public CounterMetrics() {
+    // Default constructor
+  }
+
+  @Override
+  public void recordBuilt(Class<?> recordType) {
+    lookup.get(recordType).built.increment();
+  }
+
+  @Override
+  public void recordUpdated(Class<?> recordType) {
+    lookup.get(recordType).updated.increment();
+  }
+
+  @Override
+  public void recordRejected(Class<?> recordType) {
+    lookup.get(recordType).rejected.increment();
+  }
+
+  @Override
+  public void recordViolation(Class<?> recordType, String component, String constraint) {
+    lookup
+        .get(recordType)
+        .violations
+        .computeIfAbsent(component, ignored -> new ConcurrentHashMap<>())
+        .computeIfAbsent(constraint, ignored -> new LongAdder())
+        .increment();
+  }
+
+  /**
+   * Returns the number of records built for the given type.
+   *
+   * @param recordType the record type
+   * @return the build count
+   */
+  public long built(Class<?> recordType) {
+    return lookup.get(recordType).built.sum();
+  }
+
+  /**
+   * Returns the number of {@code with(...)} updates for the given type.
+   *
+   * @param recordType the record type
+   * @return the update count
+   */
+  public long updated(Class<?> recordType) {
+    return lookup.get(recordType).updated.sum();
+  }
+
+  /**
+   * Returns the number of rejected validations for the given type.
+   *
+   * @param recordType the record type
+   * @return the rejection count
+   */
+  public long rejected(Class<?> recordType) {
+    return lookup.get(recordType).rejected.sum();
+  }
+
+  /**
+   * Returns the violation counts for the given type, keyed by {@code component:constraint}.
+   *
+   * @param recordType the record type
+   * @return a sorted snapshot of the violation counts
+   */
+  public Map<String, Long> violations(Class<?> recordType) {
+    Map<String, Long> snapshot = new TreeMap<>();
+    lookup
+        .get(recordType)
+        .violations
+        .forEach(
+            (component, constraints) ->
+                constraints.forEach(
+                    (constraint, count) ->
+                        snapshot.put(component + ":" + constraint, count.sum())));
+    return snapshot;
+  }
+
+  /**
+   * Returns a snapshot of one counter for all record types seen so far, keyed by type name.
+   *
+   * @param counter selects the counter to report
+   * @return a sorted snapshot of the counter values
+   */
+  Map<String, Long> snapshot(Counter counter) {
+    Map<String, Long> snapshot = new TreeMap<>();
+    types().forEach((type, values) -> snapshot.put(type.getName(), counter.of(values).sum()));
+    return snapshot;
+  }
+
+  /**
+   * Returns a snapshot of all violation counts, keyed by {@code type:component:constraint}.
+   *
+   * @return a sorted snapshot of the violation counts
+   */
+  Map<String, Long> violationSnapshot() {
+    Map<String, Long> snapshot = new TreeMap<>();
+    for (Class<?> type : types().keySet()) {
+      violations(type).forEach((key, count) -> snapshot.put(type.getName() + ":" + key, count));
+    }
+    return snapshot;
+  }
+
+  /** Resets all counters to zero. */
+  public void reset() {
+    types()
+        .values()
+        .forEach(
+            values -> {
+              values.built.reset();
+              values.updated.reset();
+              values.rejected.reset();
+              values.violations.clear();
+            });
+  }
+
+  /** Copies the record types seen so far, which the weak map only allows while locked. */
+  private Map<Class<?>, RecordCounters> types() {
+    synchronized (counters) {
+      return new HashMap<>(counters);
+    }
+  }
+
+  /** Selects one of the per-record counters. */
+  enum Counter {
+    BUILT,
+    UPDATED,
+    REJECTED;
+
+    LongAdder of(RecordCounters values) {
+      return switch (this) {
+        case BUILT -> values.built;
+        case UPDATED -> values.updated;
+        case REJECTED -> values.rejected;
+      };
+    }
+  }
+
+  /** Counters for a single record type. */
+  static final class RecordCounters {
+    private final LongAdder built = new LongAdder();
+    private final LongAdder updated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> violations =
+        new ConcurrentHashMap<>();
+  }
+}
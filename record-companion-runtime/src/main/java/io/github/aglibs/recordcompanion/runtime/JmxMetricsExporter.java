@@ -0,0 +1,101 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Objects;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exports {@link CounterMetrics} as a JMX MXBean.
+ *
+ * <p>Example usage:
+ *
+ * <pre>{@code
+ * JmxMetricsExporter.register();
+ * // io.github.aglibs.recordcompanion:type=CompanionMetrics is now visible in JConsole/JMC
+ * }</pre>
+ */
+public final class JmxMetricsExporter implements CompanionMetricsMXBean {
+
+  /** The object name used by {@link #register()}. */
+  public static final String OBJECT_NAME = "io.github.aglibs.recordcompanion:type=CompanionMetrics";
+
+  private final CounterMetrics metrics;
+
+  /**
+   * Creates an exporter for the given counters.
+   *
+   * @param metrics the counters to expose
+   */
+  public JmxMetricsExporter(CounterMetrics metrics) {
+    this.metrics = Objects.requireNonNull(metrics, "metrics cannot be null");
+  }
+
+  /**
+   * Registers the active metrics with the platform MBean server under {@link #OBJECT_NAME}.
+   *
+   * @return the registered object name
+   * @throws IllegalStateException if the active {@link CompanionMetrics} is not a {@link
+   *     CounterMetrics}, or registration fails
+   */
+  public static ObjectName register() {
+    if (!(CompanionMetrics.instance() instanceof CounterMetrics counterMetrics)) {
+      throw new IllegalStateException(
+          "Active CompanionMetrics is not a CounterMetrics: "
+              + CompanionMetrics.instance().getClass().getName());
+    }
+    return new JmxMetricsExporter(counterMetrics)
+        .register(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  /**
+   * Registers this exporter with the given MBean server under {@link #OBJECT_NAME}.
+   *
+   * @param server the MBean server
+   * @return the registered object name
+   * @throws IllegalStateException if registration fails
+   */
+  public ObjectName register(MBeanServer server) {
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      return server.registerMBean(this, name).getObjectName();
+    } catch (JMException e) {
+      throw new IllegalStateException("Failed to register " + OBJECT_NAME, e);
+    }
+  }
+
+  @Override
+  public Map<String, Long> getBuildCounts() {
+    return metrics.snapshot(CounterMetrics.Counter.BUILT);
+  }
+
+  @Override
+  public Map<String, Long> getUpdateCounts() {
+    return metrics.snapshot(CounterMetrics.Counter.UPDATED);
+  }
+
+  @Override
+  public Map<String, Long> getRejectionCounts() {
+    return metrics.snapshot(CounterMetrics.Counter.REJECTED);
+  }
+
+  @Override
+  public Map<String, Long> getViolationCounts() {
+    return metrics.violationSnapshot();
+  }
+
+  @Override
+  public Map<String, Double> getPatternCacheHitRates() {
+    return PatternCache.statistics();
+  }
+
+  @Override
+  public void reset() {
+    metrics.reset();
+  }
+}
@@ -0,0 +1,14 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.util.ServiceLoader;
+
+/** Lazily resolves the {@link CompanionMetrics} implementation on first use. */
+final class MetricsHolder {
+
+  static final CompanionMetrics INSTANCE =
+      ServiceLoader.load(CompanionMetrics.class).findFirst().orElseGet(CounterMetrics::new);
+
+  private MetricsHolder() {
+    // Holder class
+  }
+}
@@ -0,0 +1,120 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Bounded cache of regular expression results, used by checks generated with {@code
+ * -Arecordcompanion.patternCache=<size>} for {@code @Pattern} constraints.
+ *
+ * <p>The cache is a direct-mapped table: each string hashes to exactly one slot, and a newer value
+ * simply replaces the previous occupant. Lookups and updates are single lock-free array accesses,
+ * so repeated values cost a hash and an {@code equals} instead of a regex scan. Only {@link String}
+ * values are cached; other character sequences are matched directly.
+ */
+public final class PatternCache {
+
+  private static final ConcurrentMap<String, PatternCache> CACHES = new ConcurrentHashMap<>();
+
+  private final Pattern pattern;
+  private final AtomicReferenceArray<Entry> entries;
+  private final int mask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private PatternCache(Pattern pattern, int size) {
+    this.pattern = pattern;
+    int capacity = Integer.highestOneBit(Math.max(1, size - 1) << 1);
+    this.entries = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Creates a cache for a constraint and registers it for {@link #statistics()}. Called from
+   * generated static initializers.
+   *
+   * @param recordType the record type the constraint belongs to
+   * @param component the constrained record component
+   * @param regex the regular expression of the constraint
+   * @param size the maximum number of cached values, rounded up to a power of two
+   * @return the cache
+   */
+  public static PatternCache create(Class<?> recordType, String component, String regex, int size) {
+    PatternCache cache = new PatternCache(Pattern.compile(regex), size);
+    CACHES.put(recordType.getName() + ":" + component, cache);
+    return cache;
+  }
+
+  /**
+   * Returns the hit rate of every registered cache.
+   *
+   * @return hit rates between 0 and 1, keyed by {@code type:component}
+   */
+  public static Map<String, Double> statistics() {
+    Map<String, Double> result = new TreeMap<>();
+    CACHES.forEach((name, cache) -> result.put(name, cache.hitRate()));
+    return result;
+  }
+
+  /**
+   * Tests whether the whole value matches the pattern.
+   *
+   * @param value the value to test
+   * @return {@code true} if the value matches
+   */
+  public boolean matches(CharSequence value) {
+    if (!(value instanceof String string)) {
+      return pattern.matcher(value).matches();
+    }
+
+    int hash = string.hashCode();
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    Entry entry = entries.getPlain(slot);
+    if (entry != null && entry.value.equals(string)) {
+      hits.increment();
+      return entry.matches;
+    }
+
+    misses.increment();
+    boolean matches = pattern.matcher(string).matches();
+    // Entries are immutable, so a plain write publishes them safely through the final fields
+    entries.setPlain(slot, new Entry(string, matches));
+    return matches;
+  }
+
+  /**
+   * Returns the number of lookups answered from the cache.
+   *
+   * @return the hit count
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that had to run the regex.
+   *
+   * @return the miss count
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the fraction of lookups answered from the cache.
+   *
+   * @return the hit rate between 0 and 1, or 0 if there were no lookups
+   */
+  public double hitRate() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  private record Entry(String value, boolean matches) {}
+}
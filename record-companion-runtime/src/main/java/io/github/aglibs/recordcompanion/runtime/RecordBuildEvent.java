@@ -0,0 +1,60 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted by generated {@code XxxBuilder.build()} methods when the processors run with
+ * {@code -Arecordcompanion.jfr=true}.
+ *
+ * <p>The duration covers the record constructor, including any validation it performs. The event is
+ * disabled by default because builds are frequent; enable it in a JFR settings file with {@code
+ * io.github.aglibs.recordcompanion.RecordBuild#enabled=true}.
+ */
+@Name("io.github.aglibs.recordcompanion.RecordBuild")
+@Label("Record Build")
+@Category({"RecordCompanion"})
+@Description("A record created by a generated builder")
+@Enabled(false)
+@StackTrace(false)
+public final class RecordBuildEvent extends Event {
+
+  private static final EventType TYPE = EventType.getEventType(RecordBuildEvent.class);
+
+  @Label("Record Type")
+  private final Class<?> recordType;
+
+  /**
+   * Returns whether the event is enabled in a running recording. Generated code checks this before
+   * creating an event, so a disabled event costs a field read and a branch, and no allocation.
+   *
+   * @return {@code true} if a recording has the event enabled
+   */
+  public static boolean enabled() {
+    return TYPE.isEnabled();
+  }
+
+  /**
+   * Creates an event for the given record type.
+   *
+   * @param recordType the record type being built
+   */
+  public RecordBuildEvent(Class<?> recordType) {
+    this.recordType = recordType;
+  }
+
+  /**
+   * Returns the record type being built.
+   *
+   * @return the record type
+   */
+  public Class<?> recordType() {
+    return recordType;
+  }
+}
@@ -0,0 +1,20 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.util.List;
+
+/**
+ * The generated {@code XxxCheck.violations(...)} method of a record, applied to a record instance.
+ *
+ * @param <R> the record type
+ */
+@FunctionalInterface
+public interface RecordCheck<R> {
+
+  /**
+   * Evaluates the record's constraints without throwing.
+   *
+   * @param record the record to check
+   * @return the violated constraints in the form {@code "component message"}, or an empty list
+   */
+  List<String> violations(R record);
+}
@@ -0,0 +1,229 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Constant-time lookup of generated builders and checks for generic infrastructure.
+ *
+ * <p>Only records compiled with {@code -Arecordcompanion.index=<package>} can be looked up. The
+ * processors then generate {@link CompanionIndex} classes and list them in {@code
+ * META-INF/record-companion/builder.index} and {@code validcheck.index}. These resources are read
+ * once per class loader, and each listed index is created once. The companions of a record type are
+ * then cached in a {@link ClassValue}, so later lookups cost a single map read and no classpath
+ * scanning or {@code Class.forName} per record.
+ *
+ * <pre>{@code
+ * OrderBuilder builder = RecordCompanions.builder(Order.class, OrderBuilder.class);
+ * List<String> violations = RecordCompanions.check(Order.class).violations(order);
+ * }</pre>
+ */
+public final class RecordCompanions {
+
+  static final List<String> INDEX_RESOURCES =
+      List.of(
+          "META-INF/record-companion/builder.index", "META-INF/record-companion/validcheck.index");
+
+  private static final String REGISTRY_PREFIX = "registry ";
+
+  private static final ClassValue<Companions> COMPANIONS =
+      new ClassValue<>() {
+        @Override
+        protected Companions computeValue(Class<?> type) {
+          return find(type);
+        }
+      };
+
+  // The companions registered by each index class, kept for as long as the class is loaded
+  private static final ClassValue<Map<String, Companions>> INDEXES =
+      new ClassValue<>() {
+        @Override
+        protected Map<String, Companions> computeValue(Class<?> indexType) {
+          return load(indexType);
+        }
+      };
+
+  // The index classes visible from each class loader. A loader keeps its own and its parents'
+  // classes alive, so holding them weakly loses nothing, while holding them strongly would pin it
+  private static final Map<ClassLoader, List<WeakReference<Class<?>>>> INDEX_TYPES =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private RecordCompanions() {
+    // Utility class
+  }
+
+  /**
+   * Creates a new, empty builder for a record.
+   *
+   * <p>Generated builders share no supertype, since builder generation adds no runtime dependency,
+   * so the builder type cannot be derived from the record type. Use {@link #builder(Class, Class)}
+   * when the builder type is known.
+   *
+   * @param recordType the record type
+   * @return a new {@code XxxBuilder} instance
+   * @throws IllegalArgumentException if no indexed builder exists for the type
+   */
+  public static Object builder(Class<?> recordType) {
+    Supplier<?> factory = COMPANIONS.get(recordType).builder();
+    if (factory == null) {
+      throw new IllegalArgumentException("No indexed builder for " + recordType.getName());
+    }
+    return factory.get();
+  }
+
+  /**
+   * Creates a new, empty builder for a record, typed as its generated builder class.
+   *
+   * @param recordType the record type
+   * @param builderType the generated {@code XxxBuilder} class
+   * @param <B> the builder type
+   * @return a new builder
+   * @throws IllegalArgumentException if no indexed builder exists for the record type
+   * @throws ClassCastException if the record's builder is not a {@code builderType}
+   */
+  public static <B> B builder(Class<?> recordType, Class<B> builderType) {
+    return builderType.cast(builder(recordType));
+  }
+
+  /**
+   * Returns the generated check of a record.
+   *
+   * @param recordType the record type
+   * @param <R> the record type
+   * @return the check, delegating to {@code XxxCheck.violations(...)}
+   * @throws IllegalArgumentException if no indexed check exists for the type
+   */
+  @SuppressWarnings("unchecked")
+  public static <R> RecordCheck<R> check(Class<R> recordType) {
+    RecordCheck<?> check = COMPANIONS.get(recordType).check();
+    if (check == null) {
+      throw new IllegalArgumentException("No indexed check for " + recordType.getName());
+    }
+    // Checks are registered under the name of the record type they accept
+    return (RecordCheck<R>) check;
+  }
+
+  /**
+   * Tests whether a record has an indexed builder.
+   *
+   * @param recordType the record type
+   * @return {@code true} if {@link #builder(Class)} succeeds for the type
+   */
+  public static boolean hasBuilder(Class<?> recordType) {
+    return COMPANIONS.get(recordType).builder() != null;
+  }
+
+  /**
+   * Tests whether a record has an indexed check.
+   *
+   * @param recordType the record type
+   * @return {@code true} if {@link #check(Class)} succeeds for the type
+   */
+  public static boolean hasCheck(Class<?> recordType) {
+    return COMPANIONS.get(recordType).check() != null;
+  }
+
+  private static Companions find(Class<?> type) {
+    ClassLoader loader =
+        type.getClassLoader() != null ? type.getClassLoader() : ClassLoader.getSystemClassLoader();
+    Companions found = Companions.NONE;
+    for (Class<?> indexType : indexTypes(loader)) {
+      Companions indexed = INDEXES.get(indexType).get(type.getName());
+      if (indexed != null) {
+        found = found.merge(indexed);
+      }
+    }
+    return found;
+  }
+
+  private static List<Class<?>> indexTypes(ClassLoader loader) {
+    List<WeakReference<Class<?>>> cached =
+        INDEX_TYPES.computeIfAbsent(
+            loader,
+            key ->
+                readIndexTypes(key).stream()
+                    .map(type -> new WeakReference<Class<?>>(type))
+                    .toList());
+    List<Class<?>> types = new ArrayList<>(cached.size());
+    for (WeakReference<Class<?>> reference : cached) {
+      types.add(reference.get());
+    }
+    return types;
+  }
+
+  private static Set<Class<?>> readIndexTypes(ClassLoader loader) {
+    Set<Class<?>> types = new LinkedHashSet<>();
+    for (String resource : INDEX_RESOURCES) {
+      try {
+        for (URL url : Collections.list(loader.getResources(resource))) {
+          try (InputStream in = url.openStream()) {
+            for (String line :
+                new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList()) {
+              if (line.startsWith(REGISTRY_PREFIX)) {
+                String name = line.substring(REGISTRY_PREFIX.length()).strip();
+                types.add(Class.forName(name, false, loader));
+              }
+            }
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Cannot read " + resource, e);
+      } catch (ClassNotFoundException e) {
+        throw new IllegalStateException("Missing companion index listed in " + resource, e);
+      }
+    }
+    return types;
+  }
+
+  private static Map<String, Companions> load(Class<?> indexType) {
+    CompanionIndex index;
+    try {
+      index = indexType.asSubclass(CompanionIndex.class).getConstructor().newInstance();
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      throw new IllegalStateException("Cannot create companion index " + indexType.getName(), e);
+    }
+    Map<String, Companions> companions = new HashMap<>();
+    index.register(
+        new CompanionIndex.Registrar() {
+          @Override
+          public void builder(String recordName, Supplier<?> factory) {
+            companions.merge(recordName, new Companions(factory, null), Companions::merge);
+          }
+
+          @Override
+          public <R> void check(String recordName, RecordCheck<R> check) {
+            companions.merge(recordName, new Companions(null, check), Companions::merge);
+          }
+        });
+    return Map.copyOf(companions);
+  }
+
+  /**
+   * The companions of one record type.
+   *
+   * @param builder creates builders, or {@code null} if the record has no indexed builder
+   * @param check the check, or {@code null} if the record has no indexed check
+   */
+  private record Companions(Supplier<?> builder, RecordCheck<?> check) {
+
+    static final Companions NONE = new Companions(null, null);
+
+    Companions merge(Companions other) {
+      return new Companions(
+          builder != null ? builder : other.builder, check != null ? check : other.check);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event emitted by generated {@code XxxCheck.validate(...)} and {@code require(...)} methods
+ * when a validation takes longer than the event threshold.
+ *
+ * <p>The threshold defaults to 1 ms and can be changed in a JFR settings file with {@code
+ * io.github.aglibs.recordcompanion.SlowValidation#threshold=100 us}. Validations below the
+ * threshold are not recorded.
+ */
+@Name("io.github.aglibs.recordcompanion.SlowValidation")
+@Label("Slow Validation")
+@Category({"RecordCompanion"})
+@Description("A generated record check that exceeded the threshold")
+@Threshold("1 ms")
+@StackTrace(true)
+public final class SlowValidationEvent extends Event {
+
+  private static final EventType TYPE = EventType.getEventType(SlowValidationEvent.class);
+
+  @Label("Record Type")
+  private final Class<?> recordType;
+
+  /**
+   * Returns whether the event is enabled in a running recording. Generated checks only create and
+   * time an event when it is.
+   *
+   * @return {@code true} if a recording has the event enabled
+   */
+  public static boolean enabled() {
+    return TYPE.isEnabled();
+  }
+
+  /**
+   * Creates an event for the given record type.
+   *
+   * @param recordType the record type being validated
+   */
+  public SlowValidationEvent(Class<?> recordType) {
+    this.recordType = recordType;
+  }
+
+  /**
+   * Returns the record type being validated.
+   *
+   * @return the record type
+   */
+  public Class<?> recordType() {
+    return recordType;
+  }
+}
@@ -0,0 +1,77 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, time-limited identity set of record instances that passed validation, used by checks
+ * generated with {@code -Arecordcompanion.validatedCache=<size>}.
+ *
+ * <p>Instances are held through weak references, so the set never keeps a record alive. Like {@link
+ * PatternCache}, the set is a direct-mapped table indexed by identity hash: a newer instance
+ * replaces the previous occupant of its slot, and each lookup is a single lock-free array read.
+ * Entries expire after the configured time to live.
+ */
+public final class ValidatedInstances {
+
+  private final AtomicReferenceArray<Entry> entries;
+  private final int mask;
+  private final long ttlNanos;
+
+  private ValidatedInstances(int size, Duration ttl) {
+    int capacity = Integer.highestOneBit(Math.max(1, size - 1) << 1);
+    this.entries = new AtomicReferenceArray<>(capacity);
+    this.mask = capacity - 1;
+    this.ttlNanos = ttl.toNanos();
+  }
+
+  /**
+   * Creates an empty set. Called from generated static initializers.
+   *
+   * @param size the maximum number of remembered instances, rounded up to a power of two
+   * @param ttl how long an instance is remembered after validation
+   * @return the set
+   */
+  public static ValidatedInstances create(int size, Duration ttl) {
+    return new ValidatedInstances(size, ttl);
+  }
+
+  /**
+   * Tests whether this exact instance passed validation within the time to live.
+   *
+   * @param instance the instance to look up
+   * @return {@code true} if the instance was recently validated
+   */
+  public boolean contains(Object instance) {
+    Entry entry = entries.getPlain(slot(instance));
+    return entry != null
+        && entry.get() == instance
+        && System.nanoTime() - entry.validatedAt < ttlNanos;
+  }
+
+  /**
+   * Remembers an instance that passed validation.
+   *
+   * @param instance the validated instance
+   */
+  public void add(Object instance) {
+    // A racing reader can at worst miss the new entry and validate again
+    entries.setPlain(slot(instance), new Entry(instance, System.nanoTime()));
+  }
+
+  private int slot(Object instance) {
+    int hash = System.identityHashCode(instance);
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  private static final class Entry extends WeakReference<Object> {
+
+    private final long validatedAt;
+
+    Entry(Object instance, long validatedAt) {
+      super(instance);
+      this.validatedAt = validatedAt;
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+/**
+ * The clock used by generated temporal checks ({@code @Past}, {@code @Future} and their {@code
+ * OrPresent} variants).
+ *
+ * <p>Generated checks use this clock when compiled with {@code
+ * -Arecordcompanion.validationClock=true}. It defaults to a {@link CoarseClock} in the system
+ * default zone, for which instants are compared with {@link System#currentTimeMillis()} without
+ * allocating, and only values within the current millisecond are compared with {@link
+ * Instant#now()}. A comparison is therefore never off by the millisecond truncation, in either
+ * direction. Tests and applications can plug in any other clock with {@link #setClock(Clock)}.
+ */
+public final class ValidationClock {
+
+  private static volatile Clock clock = CoarseClock.systemDefaultZone();
+
+  private ValidationClock() {
+    // Utility class
+  }
+
+  /**
+   * Returns the clock used by generated checks.
+   *
+   * @return the current clock
+   */
+  public static Clock clock() {
+    return clock;
+  }
+
+  /**
+   * Replaces the clock used by generated checks, e.g. with {@link Clock#fixed} in tests.
+   *
+   * @param clock the new clock
+   */
+  public static void setClock(Clock clock) {
+    ValidationClock.clock = Objects.requireNonNull(clock, "clock cannot be null");
+  }
+
+  /** Restores the default {@link CoarseClock}. */
+  public static void useCoarseClock() {
+    clock = CoarseClock.systemDefaultZone();
+  }
+
+  /**
+   * Compares an instant with the current time.
+   *
+   * @param value the instant to compare
+   * @return a negative number, zero or a positive number as the value is before, at or after now
+   */
+  public static int compareToNow(Instant value) {
+    return compareToNow(value.getEpochSecond(), value.getNano());
+  }
+
+  /**
+   * Compares an offset date-time with the current time, without converting it to an instant.
+   *
+   * @param value the date-time to compare
+   * @return a negative number, zero or a positive number as the value is before, at or after now
+   */
+  public static int compareToNow(OffsetDateTime value) {
+    return compareToNow(value.toEpochSecond(), value.getNano());
+  }
+
+  /**
+   * Compares a date with the current date in the clock's zone.
+   *
+   * @param value the date to compare
+   * @return a negative number, zero or a positive number as the value is before, on or after today
+   */
+  public static int compareToToday(LocalDate value) {
+    Clock current = clock;
+    LocalDate today =
+        current instanceof CoarseClock coarse ? coarse.today() : LocalDate.now(current);
+    return value.compareTo(today);
+  }
+
+  private static int compareToNow(long epochSecond, int nano) {
+    Clock current = clock;
+    if (!(current instanceof CoarseClock)) {
+      Instant now = current.instant();
+      return compare(epochSecond, nano, now.getEpochSecond(), now.getNano());
+    }
+    // The system time in milliseconds is the start of the current millisecond, so only values
+    // inside that millisecond need the precise time
+    long millis = System.currentTimeMillis();
+    long second = Math.floorDiv(millis, 1000);
+    int start = Math.floorMod(millis, 1000) * 1_000_000;
+    if (compare(epochSecond, nano, second, start) < 0) {
+      return -1;
+    }
+    if (compare(epochSecond, nano, second, start + 1_000_000) >= 0) {
+      return 1;
+    }
+    Instant now = Instant.now();
+    return compare(epochSecond, nano, now.getEpochSecond(), now.getNano());
+  }
+
+  private static int compare(long epochSecond, int nano, long nowSecond, int nowNano) {
+    int seconds = Long.compare(epochSecond, nowSecond);
+    return seconds != 0 ? seconds : Integer.compare(nano, nowNano);
+  }
+}
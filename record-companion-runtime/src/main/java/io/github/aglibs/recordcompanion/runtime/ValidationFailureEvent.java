@@ -0,0 +1,54 @@
+package io.github.aglibs.recordcompanion.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event emitted by generated checks for each failed constraint, when the processors run with
+ * {@code -Arecordcompanion.jfr=true}.
+ */
+@Name("io.github.aglibs.recordcompanion.ValidationFailure")
+@Label("Validation Failure")
+@Category({"RecordCompanion"})
+@Description("A record component that failed a generated check")
+@StackTrace(false)
+public final class ValidationFailureEvent extends Event {
+
+  private static final EventType TYPE = EventType.getEventType(ValidationFailureEvent.class);
+
+  @Label("Record Type")
+  private Class<?> recordType;
+
+  @Label("Component")
+  private String component;
+
+  @Label("Constraint")
+  private String constraint;
+
+  private ValidationFailureEvent() {
+    // Created through emit()
+  }
+
+  /**
+   * Commits a failure event if the event is enabled in the current recording.
+   *
+   * @param recordType the record type whose check failed
+   * @param component the record component that failed
+   * @param constraint the failed constraint, named after the ValidCheck method
+   */
+  public static void emit(Class<?> recordType, String component, String constraint) {
+    if (!TYPE.isEnabled()) {
+      return;
+    }
+    ValidationFailureEvent event = new ValidationFailureEvent();
+    event.recordType = recordType;
+    event.component = component;
+    event.constraint = constraint;
+    event.commit();
+  }
+}
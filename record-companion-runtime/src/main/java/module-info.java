@@ -0,0 +1,9 @@
+/** RecordCompanion runtime module with optional support types for generated code. */
+module recordcompanion.runtime {
+  requires transitive java.management;
+  requires transitive jdk.jfr;
+
+  exports io.github.aglibs.recordcompanion.runtime;
+
+  uses io.github.aglibs.recordcompanion.runtime.CompanionMetrics;
+}
@@ -0,0 +1,226 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Allocation budgets for generated hot paths, measured with {@link
+ * ThreadMXBean#getCurrentThreadAllocatedBytes()} once the JIT has compiled them.
+ *
+ * <p>The records are compiled into a fresh class loader, so the type profiles of their generated
+ * methods only see the workloads below and not the lambdas of other tests in the same JVM. Each
+ * workload runs its operation in a loop inside the compiled code, and budgets are compared with the
+ * allocation of constructing the expected records directly, so they do not depend on object layout.
+ *
+ * <p>The test is tagged {@code allocation}: the default Surefire execution skips it, and the {@code
+ * allocation-budgets} execution runs it in its own JVM.
+ */
+@Tag("allocation")
+class AllocationBudgetTest {
+
+  private static final Map<String, String> SOURCES =
+      Map.of(
+          "alloc.User",
+          """
+          package alloc;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+          import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+          import javax.validation.constraints.Max;
+          import javax.validation.constraints.Min;
+          import javax.validation.constraints.NotBlank;
+          import javax.validation.constraints.NotNull;
+          import javax.validation.constraints.Size;
+
+          @Builder
+          @ValidCheck
+          public record User(
+              @NotBlank @Size(max = 40) String name,
+              @Min(0) @Max(150) int age,
+              @NotNull String email) {}
+          """,
+          "alloc.Address",
+          """
+          package alloc;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+
+          @Builder
+          public record Address(String street, String city) {}
+          """,
+          "alloc.Person",
+          """
+          package alloc;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+
+          @Builder
+          public record Person(String name, Address address) {}
+          """,
+          "alloc.Workloads",
+          """
+          package alloc;
+
+          import java.util.function.IntUnaryOperator;
+
+          public final class Workloads {
+
+            public static volatile Object sink;
+
+            static final User USER = new User("Ada", 36, "ada@example.com");
+            static final Person PERSON = new Person("Ada", new Address("Main Street", "London"));
+
+            public static final class Validate implements IntUnaryOperator {
+              @Override
+              public int applyAsInt(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                  UserCheck.validate(USER.name(), USER.age(), USER.email());
+                }
+                return iterations;
+              }
+            }
+
+            public static final class Violations implements IntUnaryOperator {
+              @Override
+              public int applyAsInt(int iterations) {
+                int count = 0;
+                for (int i = 0; i < iterations; i++) {
+                  count += UserCheck.violations(USER.name(), USER.age(), USER.email()).size();
+                }
+                return count;
+              }
+            }
+
+            public static final class NewUser implements IntUnaryOperator {
+              @Override
+              public int applyAsInt(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                  sink = new User(USER.name(), 37, USER.email());
+                }
+                return iterations;
+              }
+            }
+
+            public static final class With implements IntUnaryOperator {
+              @Override
+              public int applyAsInt(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                  sink = UserBuilder.with(USER, user -> user.age(37));
+                }
+                return iterations;
+              }
+            }
+
+            public static final class Build implements IntUnaryOperator {
+              @Override
+              public int applyAsInt(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                  sink = UserBuilder.builder().name(USER.name()).age(37).email(USER.email()).build();
+                }
+                return iterations;
+              }
+            }
+
+            public static final class NewPerson implements IntUnaryOperator {
+              @Override
+              public int applyAsInt(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                  sink = new Person(PERSON.name(), new Address(PERSON.address().street(), "Paris"));
+                }
+                return iterations;
+              }
+            }
+
+            public static final class NestedWith implements IntUnaryOperator {
+              @Override
+              public int applyAsInt(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                  sink =
+                      PersonBuilder.with(
+                          PERSON, person -> person.address(address -> address.city("Paris")));
+                }
+                return iterations;
+              }
+            }
+          }
+          """);
+
+  private static final int ITERATIONS = 20_000;
+  private static final int WARM_UP_ROUNDS = 20;
+  private static final int MEASURED_ROUNDS = 5;
+
+  private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private static CompilationClassLoader loader;
+
+  @BeforeAll
+  static void compile() {
+    loader = CompilationClassLoader.compile(SOURCES);
+  }
+
+  /**
+   * Runs a workload for a fixed number of warm-up rounds, then returns the fewest bytes it
+   * allocated per operation in the measured rounds.
+   *
+   * <p>The {@code allocation-budgets} Surefire execution runs this test with {@code -Xbatch}, so
+   * the JIT compiles on the calling thread and the workload is compiled by the end of the warm-up
+   * on any machine. Taking the fewest bytes ignores a measured round that includes a
+   * deoptimization.
+   */
+  private static long bytesPerOperation(String workload) throws Exception {
+    assumeTrue(
+        THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled(),
+        "Thread allocation accounting is not available");
+    assumeTrue(ManagementFactory.getCompilationMXBean() != null, "The JIT is disabled");
+    IntUnaryOperator operation =
+        (IntUnaryOperator)
+            loader.loadClass("alloc.Workloads$" + workload).getConstructor().newInstance();
+    for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+      operation.applyAsInt(ITERATIONS);
+    }
+    long fewest = Long.MAX_VALUE;
+    for (int round = 0; round < MEASURED_ROUNDS; round++) {
+      long before = THREADS.getCurrentThreadAllocatedBytes();
+      operation.applyAsInt(ITERATIONS);
+      long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+      fewest = Math.min(fewest, allocated / ITERATIONS);
+    }
+    return fewest;
+  }
+
+  @Test
+  void testValidateAllocatesNothingOnValidInput() throws Exception {
+    assertEquals(0, bytesPerOperation("Validate"));
+  }
+
+  @Test
+  void testViolationsAllocatesNothingOnValidInput() throws Exception {
+    assertEquals(0, bytesPerOperation("Violations"));
+  }
+
+  @Test
+  void testWithAllocatesOnlyTheNewRecord() throws Exception {
+    long record = bytesPerOperation("NewUser");
+
+    assertTrue(record > 0);
+    assertEquals(record, bytesPerOperation("With"));
+    assertEquals(record, bytesPerOperation("Build"));
+  }
+
+  @Test
+  void testNestedWithAllocatesOnlyTheChangedPath() throws Exception {
+    long records = bytesPerOperation("NewPerson");
+
+    assertTrue(records > 0);
+    assertEquals(records, bytesPerOperation("NestedWith"));
+  }
+}
@@ -0,0 +1,289 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.tests.records.AuditEntryBuilder;
+import io.github.aglibs.recordcompanion.tests.records.AuditEntryCheck;
+import io.github.aglibs.recordcompanion.tests.records.ComprehensiveValidationRecordCheck;
+import io.github.aglibs.recordcompanion.tests.records.SimpleUserBuilder;
+import io.github.aglibs.recordcompanion.tests.records.UserProfile;
+import io.github.aglibs.recordcompanion.tests.records.UserProfileBuilder;
+import io.github.aglibs.recordcompanion.tests.records.UserProfileCheck;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the exception-free buildValidated() and the generated violations() method. */
+class BuildValidatedTest {
+
+  private static final String CONSTRAINTS_SOURCE =
+      """
+      package agreement;
+
+      import io.github.aglibs.recordcompanion.builder.Builder;
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import java.math.BigDecimal;
+      import java.time.Instant;
+      import java.time.LocalDate;
+      import java.time.OffsetDateTime;
+      import java.util.List;
+      import java.util.Map;
+      import java.util.Optional;
+      import javax.validation.constraints.*;
+
+      @Builder
+      @ValidCheck
+      public record Constraints(
+          @NotNull String notNull,
+          @NotNull int notNullPrimitive,
+          @NotEmpty String notEmptyText,
+          @NotEmpty List<String> notEmptyList,
+          @NotEmpty Map<String, String> notEmptyMap,
+          @NotEmpty int[] notEmptyArray,
+          @NotEmpty Optional<String> notEmptyOther,
+          @NotBlank String notBlank,
+          @Size(min = 2, max = 3) String size,
+          @Size(min = 1, max = 2) List<String> sizeList,
+          @Pattern(regexp = "[a-z]+") String pattern,
+          @Min(1) int min,
+          @Max(10) Integer max,
+          @Min(1) @Max(10) long range,
+          @DecimalMin("0.5") BigDecimal decimalMin,
+          @DecimalMax("9.5") double decimalMax,
+          @Positive int positive,
+          @Negative int negative,
+          @PositiveOrZero int positiveOrZero,
+          @NegativeOrZero int negativeOrZero,
+          @Email String email,
+          @Digits(integer = 2, fraction = 1) BigDecimal digits,
+          @Past Instant past,
+          @PastOrPresent LocalDate pastOrPresent,
+          @Future OffsetDateTime future,
+          @FutureOrPresent LocalDate futureOrPresent) {}
+      """;
+
+  @Test
+  void testBuildValidatedReturnsRecordForValidInput() {
+    UserProfileBuilder.Result result =
+        UserProfileBuilder.builder()
+            .username("john")
+            .score(50)
+            .metadata(Map.of("key", "value"))
+            .address("Main St")
+            .buildValidated();
+
+    assertTrue(result.isValid());
+    assertTrue(result.violations().isEmpty());
+    assertEquals("john", result.value().username());
+    assertEquals(50, result.value().score());
+  }
+
+  @Test
+  void testBuildValidatedReturnsViolationsInsteadOfThrowing() {
+    UserProfileBuilder.Result result =
+        UserProfileBuilder.builder()
+            .username("jo")
+            .score(150)
+            .metadata(Map.of("key", "value"))
+            .buildValidated();
+
+    assertFalse(result.isValid());
+    assertNull(result.value());
+    assertEquals(
+        List.of("username must have length between 3 and 20", "score must be between 0 and 100"),
+        result.violations());
+  }
+
+  @Test
+  void testBuildValidatedOnUpdatedRecord() {
+    UserProfile original = new UserProfile("john", 50, Map.of("key", "value"), null);
+
+    UserProfileBuilder.Result result =
+        UserProfileBuilder.builder(original).metadata(Map.of()).buildValidated();
+
+    assertEquals(List.of("metadata must not be empty"), result.violations());
+  }
+
+  @Test
+  void testComponentNamedViolations() {
+    assertEquals(
+        List.of("action must be null or not blank", "violations must be null or at least 0"),
+        AuditEntryCheck.violations(" ", -1));
+
+    AuditEntryBuilder.Result result =
+        AuditEntryBuilder.builder().action("login").violations(2).buildValidated();
+
+    assertTrue(result.isValid());
+    assertEquals(2, result.value().violations());
+  }
+
+  @Test
+  void testBuildValidatedWithoutConstraints() {
+    SimpleUserBuilder.Result result =
+        SimpleUserBuilder.builder().name("John").age(25).buildValidated();
+
+    assertTrue(result.isValid());
+    assertEquals("John", result.value().name());
+  }
+
+  @Test
+  void testViolationsEmptyForValidInput() {
+    assertTrue(UserProfileCheck.violations("john", 0, Map.of("k", "v"), null).isEmpty());
+  }
+
+  @Test
+  void testViolationsReportsEachFailedRule() {
+    List<String> violations =
+        ComprehensiveValidationRecordCheck.violations(
+            "",
+            null,
+            null,
+            null,
+            50,
+            null,
+            null,
+            -10,
+            -5,
+            0,
+            -10,
+            new BigDecimal("0.00"),
+            null,
+            null,
+            List.of("tag"),
+            null,
+            Map.of("key", "value"),
+            "user1",
+            25,
+            4.5);
+
+    assertEquals(
+        List.of(
+            "requiredName must not be blank",
+            "requiredName must have length between 1 and 50",
+            "positiveCount must be between 1 and 2147483647",
+            "requiredPrice must be between 0.01 and 999.99",
+            "validatedUsername must match pattern [a-zA-Z]+"),
+        violations);
+  }
+
+  @Test
+  void testBuildValidatedAgreesWithValidateOnEverySupportedAnnotation() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("agreement.Constraints", CONSTRAINTS_SOURCE);
+    Class<?> recordClass = loader.loadClass("agreement.Constraints");
+    Constructor<?> constructor =
+        recordClass.getDeclaredConstructor(
+            Arrays.stream(recordClass.getRecordComponents())
+                .map(RecordComponent::getType)
+                .toArray(Class<?>[]::new));
+    Method validate =
+        loader
+            .loadClass("agreement.ConstraintsCheck")
+            .getMethod("validate", constructor.getParameterTypes());
+    Class<?> builderClass = loader.loadClass("agreement.ConstraintsBuilder");
+    Method builder = builderClass.getMethod("builder", recordClass);
+    Method buildValidated = builderClass.getMethod("buildValidated");
+    Method isValid = buildValidated.getReturnType().getMethod("isValid");
+
+    // The first value of each component is valid, the others are checked one at a time
+    Instant now = Instant.now();
+    LocalDate today = LocalDate.now();
+    List<List<Object>> values =
+        List.of(
+            Arrays.asList("a", null),
+            List.of(1),
+            Arrays.asList("a", "", null),
+            Arrays.asList(List.of("a"), List.of(), null),
+            Arrays.asList(Map.of("k", "v"), Map.of(), null),
+            Arrays.asList(new int[] {1}, new int[0], null),
+            Arrays.asList(Optional.empty(), null),
+            Arrays.asList("a", " ", null),
+            Arrays.asList("ab", "a", "abcd", null),
+            Arrays.asList(List.of("a"), List.of(), List.of("a", "b", "c"), null),
+            Arrays.asList("ab", "A1", null),
+            List.of(1, 0),
+            Arrays.asList(10, 11, null),
+            List.of(5L, 0L, 11L),
+            Arrays.asList(new BigDecimal("0.5"), new BigDecimal("0.49"), null),
+            List.of(9.5, 9.6),
+            List.of(1, 0),
+            List.of(-1, 0),
+            List.of(0, -1),
+            List.of(0, 1),
+            Arrays.asList("a@example.com", "not an email", null),
+            Arrays.asList(
+                new BigDecimal("12.3"), new BigDecimal("123"), new BigDecimal("1.23"), null),
+            Arrays.asList(now.minusSeconds(3600), now.plusSeconds(3600), null),
+            Arrays.asList(today, today.plusDays(1), null),
+            Arrays.asList(
+                OffsetDateTime.now().plusHours(1), OffsetDateTime.now().minusHours(1), null),
+            Arrays.asList(today, today.minusDays(1), null));
+    assertEquals(recordClass.getRecordComponents().length, values.size());
+
+    int invalid = 0;
+    for (int component = 0; component < values.size(); component++) {
+      for (Object value : values.get(component)) {
+        Object[] row = new Object[values.size()];
+        for (int i = 0; i < row.length; i++) {
+          row[i] = i == component ? value : values.get(i).get(0);
+        }
+        boolean rejected;
+        try {
+          validate.invoke(null, row);
+          rejected = false;
+        } catch (InvocationTargetException e) {
+          rejected = true;
+        }
+        Object result = buildValidated.invoke(builder.invoke(null, constructor.newInstance(row)));
+
+        String description = recordClass.getRecordComponents()[component].getName() + "=" + value;
+        assertEquals(!rejected, isValid.invoke(result), description);
+        invalid += rejected ? 1 : 0;
+      }
+    }
+    assertEquals(33, invalid);
+  }
+
+  @Test
+  void testUnsupportedRuleIsRejected() {
+    Compilation compilation =
+        javac()
+            .withProcessors(new ValidCheckProcessor())
+            .compile(
+                JavaFileObjects.forSourceString(
+                    "agreement.Code",
+                    """
+                    package agreement;
+
+                    import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+                    import javax.validation.constraints.Email;
+
+                    @ValidCheck
+                    public record Code(@Email Integer value) {}
+                    """));
+
+    assertEquals(Compilation.Status.FAILURE, compilation.status());
+    assertEquals(
+        List.of(
+            "@ValidCheck cannot check that value must be a well-formed email address: not"
+                + " supported for type java.lang.Integer"),
+        compilation.errors().stream().map(error -> error.getMessage(null)).toList());
+  }
+}
@@ -0,0 +1,169 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.StandardLocation;
+import org.junit.jupiter.api.Test;
+
+/** Tests for builders generated as class files with {@code recordcompanion.classFiles}. */
+class ClassFileGenerationTest {
+
+  private static final String ORDER_SOURCE =
+      """
+      package direct;
+
+      import io.github.aglibs.recordcompanion.builder.Builder;
+      import java.util.List;
+      import java.util.Map;
+
+      @Builder
+      public record Order(
+          String id,
+          int quantity,
+          long total,
+          double rate,
+          boolean paid,
+          byte[] raw,
+          List<String> tags,
+          Map<String, ? extends Number> stats,
+          List<? super Integer> sink,
+          String[][] grid) {
+
+        public static Order demo() {
+          Order order = OrderBuilder.builder().id("A-1").quantity(2).total(30L).rate(1.5).build();
+          return OrderBuilder.with(order, updater -> updater.quantity(3).tags(List.of("rush")));
+        }
+      }
+      """;
+
+  private static final String CLASS_FILES = "-Arecordcompanion.classFiles=true";
+
+  @Test
+  void testPlainRecordBuilderIsWrittenAsClassFile() throws ReflectiveOperationException {
+    Compilation compilation = compile("direct.Order", ORDER_SOURCE, CLASS_FILES);
+
+    assertTrue(compilation.generatedSourceFile("direct.OrderBuilder").isEmpty());
+    assertTrue(compilation.generatedSourceFile("direct.OrderUpdater").isEmpty());
+    assertTrue(
+        compilation
+            .generatedFile(StandardLocation.CLASS_OUTPUT, "direct/OrderBuilder.class")
+            .isPresent());
+
+    // Loading and running the record verifies the generated bytecode
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("direct.Order", ORDER_SOURCE, CLASS_FILES);
+    Object order = loader.loadClass("direct.Order").getMethod("demo").invoke(null);
+    assertEquals(
+        "Order[id=A-1, quantity=3, total=30, rate=1.5, paid=false, raw=null, tags=[rush],"
+            + " stats=null, sink=null, grid=null]",
+        order.toString());
+  }
+
+  @Test
+  void testClassFilesMatchCompiledSource() throws ClassNotFoundException {
+    CompilationClassLoader fromSource =
+        CompilationClassLoader.compile("direct.Order", ORDER_SOURCE);
+    CompilationClassLoader direct =
+        CompilationClassLoader.compile("direct.Order", ORDER_SOURCE, CLASS_FILES);
+
+    for (String name : List.of("direct.OrderBuilder", "direct.OrderUpdater")) {
+      assertEquals(members(fromSource.loadClass(name)), members(direct.loadClass(name)), name);
+    }
+  }
+
+  @Test
+  void testLeanBuilderMatchesCompiledSource() throws ReflectiveOperationException {
+    CompilationClassLoader fromSource =
+        CompilationClassLoader.compile("direct.Order", ORDER_SOURCE, "-Arecordcompanion.lean=true");
+    CompilationClassLoader direct =
+        CompilationClassLoader.compile(
+            "direct.Order", ORDER_SOURCE, "-Arecordcompanion.lean=true", CLASS_FILES);
+
+    assertEquals(
+        members(fromSource.loadClass("direct.OrderBuilder")),
+        members(direct.loadClass("direct.OrderBuilder")));
+    assertEquals(
+        fromSource.loadClass("direct.Order").getMethod("demo").invoke(null).toString(),
+        direct.loadClass("direct.Order").getMethod("demo").invoke(null).toString());
+  }
+
+  @Test
+  void testUnsupportedRecordsFallBackToSource() {
+    Compilation generic =
+        compile(
+            "direct.Pair",
+            """
+            package direct;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+
+            @Builder
+            public record Pair<A, B>(A first, B second) {}
+            """,
+            CLASS_FILES);
+    Compilation validated =
+        compile(
+            "direct.Customer",
+            """
+            package direct;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+            import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+            import javax.validation.constraints.NotBlank;
+
+            @Builder
+            @ValidCheck
+            public record Customer(@NotBlank String name) {}
+            """,
+            CLASS_FILES);
+
+    assertTrue(generic.generatedSourceFile("direct.PairBuilder").isPresent());
+    assertTrue(validated.generatedSourceFile("direct.CustomerBuilder").isPresent());
+  }
+
+  @Test
+  void testInstrumentedBuildersFallBackToSource() {
+    Compilation compilation =
+        compile("direct.Order", ORDER_SOURCE, CLASS_FILES, "-Arecordcompanion.metrics=true");
+
+    assertTrue(compilation.generatedSourceFile("direct.OrderBuilder").isPresent());
+  }
+
+  private static Compilation compile(String className, String source, String... options) {
+    Compilation compilation =
+        javac()
+            .withProcessors(new BuilderProcessor(), new ValidCheckProcessor())
+            .withOptions((Object[]) options)
+            .compile(JavaFileObjects.forSourceString(className, source));
+    assertEquals(
+        Compilation.Status.SUCCESS, compilation.status(), compilation.diagnostics().toString());
+    return compilation;
+  }
+
+  /** Describes the declaration, fields and methods of a class, including bridge methods. */
+  private static List<String> members(Class<?> type) {
+    List<String> members = new ArrayList<>();
+    members.add(Modifier.toString(type.getModifiers()) + " " + type.getName());
+    members.add(Arrays.toString(type.getGenericInterfaces()));
+    for (Field field : type.getDeclaredFields()) {
+      members.add(field.toGenericString());
+    }
+    for (Method method : type.getDeclaredMethods()) {
+      members.add(method.toGenericString() + (method.isBridge() ? " bridge" : ""));
+    }
+    members.sort(null);
+    return members;
+  }
+}
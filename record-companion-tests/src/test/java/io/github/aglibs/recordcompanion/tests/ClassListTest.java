@@ -0,0 +1,100 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.IOException;
+import java.util.List;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the {@code recordcompanion.classList} processor option. */
+class ClassListTest {
+
+  private static final JavaFileObject ORDER =
+      JavaFileObjects.forSourceString(
+          "listed.Order",
+          """
+          package listed;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+          import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+          import javax.validation.constraints.NotBlank;
+
+          @Builder
+          @ValidCheck
+          public record Order(@NotBlank String id, int quantity) {}
+          """);
+
+  private static Compilation compile(String... options) {
+    Compilation compilation =
+        javac()
+            .withProcessors(new BuilderProcessor(), new ValidCheckProcessor())
+            .withOptions((Object[]) options)
+            .compile(ORDER);
+    assertEquals(Compilation.Status.SUCCESS, compilation.status());
+    return compilation;
+  }
+
+  private static List<String> classList(Compilation compilation, String name) throws IOException {
+    return compilation
+        .generatedFile(StandardLocation.CLASS_OUTPUT, "", "META-INF/record-companion/" + name)
+        .orElseThrow()
+        .getCharContent(true)
+        .toString()
+        .lines()
+        .toList();
+  }
+
+  @Test
+  void testClassListNamesEveryGeneratedClass() throws IOException {
+    Compilation compilation = compile("-Arecordcompanion.classList=true");
+
+    assertEquals(
+        List.of("listed/OrderUpdater", "listed/OrderBuilder", "listed/OrderBuilder$Result"),
+        classList(compilation, "builder.classlist"));
+    assertEquals(
+        List.of("listed/OrderCheck", "listed/OrderCheck$Violation"),
+        classList(compilation, "validcheck.classlist"));
+  }
+
+  @Test
+  void testListedClassesExistInTheClassOutput() throws IOException {
+    Compilation compilation =
+        compile(
+            "-Arecordcompanion.classList=true",
+            "-Arecordcompanion.index=listed.index",
+            "-Arecordcompanion.lean=true");
+
+    List<String> classes = classList(compilation, "builder.classlist");
+    assertTrue(classes.contains("listed/index/BuilderIndex"), classes.toString());
+    for (String name : List.of("builder.classlist", "validcheck.classlist")) {
+      for (String internalName : classList(compilation, name)) {
+        assertTrue(
+            compilation
+                .generatedFile(StandardLocation.CLASS_OUTPUT, internalName + ".class")
+                .isPresent(),
+            internalName);
+      }
+    }
+  }
+
+  @Test
+  void testNoClassListByDefault() {
+    Compilation compilation = compile();
+
+    for (String name : List.of("builder.classlist", "validcheck.classlist")) {
+      assertTrue(
+          compilation
+              .generatedFile(StandardLocation.CLASS_OUTPUT, "", "META-INF/record-companion/" + name)
+              .isEmpty(),
+          name);
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.tests.records.UserProfileCheck;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the generated validateColumns() batch entry point. */
+class ColumnValidationTest {
+
+  private static final String READING_SOURCE =
+      """
+      package columns;
+
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import javax.validation.constraints.DecimalMin;
+      import javax.validation.constraints.Max;
+      import javax.validation.constraints.Min;
+      import javax.validation.constraints.NotNull;
+      import javax.validation.constraints.Positive;
+
+      @ValidCheck(columns = true)
+      public record Reading(
+          @Min(0) @Max(100) int level,
+          @DecimalMin("0.5") double ratio,
+          @NotNull String label,
+          @Positive long count) {}
+      """;
+
+  @Test
+  void testReturnsFailingRows() {
+    BitSet failures = UserProfileCheck.validateColumns(new int[] {0, -1, 50, 100, 101});
+
+    assertEquals(BitSet.valueOf(new long[] {0b10010}), failures);
+  }
+
+  @Test
+  void testEmptyColumns() {
+    assertTrue(UserProfileCheck.validateColumns(new int[0]).isEmpty());
+  }
+
+  @Test
+  void testRowsBeyondFirstWord() {
+    int[] scores = IntStream.range(0, 200).map(i -> i % 3 == 0 ? -i - 1 : 1).toArray();
+
+    BitSet failures = UserProfileCheck.validateColumns(scores);
+
+    assertEquals(67, failures.cardinality());
+    assertTrue(failures.get(0));
+    assertTrue(failures.get(198));
+    assertFalse(failures.get(199));
+  }
+
+  @Test
+  void testCombinesColumns() throws Exception {
+    Method validateColumns = compileReading();
+
+    BitSet failures =
+        (BitSet)
+            validateColumns.invoke(
+                null,
+                new int[] {10, 10, 101, 10},
+                new double[] {0.5, 0.4, 1.0, 1.0},
+                new long[] {1, 1, 1, 0});
+
+    assertEquals(BitSet.valueOf(new long[] {0b1110}), failures);
+  }
+
+  @Test
+  void testRejectsColumnsOfDifferentLength() throws Exception {
+    Method validateColumns = compileReading();
+
+    InvocationTargetException failure =
+        assertThrows(
+            InvocationTargetException.class,
+            () -> validateColumns.invoke(null, new int[1], new double[2], new long[1]));
+    assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+  }
+
+  @Test
+  void testNotGeneratedByDefault() {
+    String source =
+        CompilationClassLoader.compile(
+                "columns.Reading", READING_SOURCE.replace("(columns = true)", ""))
+            .generatedSource("columns.ReadingCheck");
+
+    assertFalse(source.contains("validateColumns"));
+  }
+
+  private static Method compileReading() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("columns.Reading", READING_SOURCE);
+    return loader
+        .loadClass("columns.ReadingCheck")
+        .getMethod("validateColumns", int[].class, double[].class, long[].class);
+  }
+}
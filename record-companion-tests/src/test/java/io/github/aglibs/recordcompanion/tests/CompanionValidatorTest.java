@@ -0,0 +1,162 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.tests.records.Person;
+import io.github.aglibs.recordcompanion.tests.records.Phase1TestRecord;
+import io.github.aglibs.recordcompanion.tests.records.UserProfile;
+import io.github.aglibs.recordcompanion.validation.CompanionValidator;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.ElementKind;
+import javax.validation.Path;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import javax.validation.groups.Default;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the Bean Validation bridge over generated checks. */
+class CompanionValidatorTest {
+
+  private final Validator validator = new CompanionValidator();
+
+  /** Returns {@code "property: message"} for each violation. */
+  private static <T> List<String> describe(Set<ConstraintViolation<T>> violations) {
+    return violations.stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .collect(Collectors.toList());
+  }
+
+  /** Returns a user profile that passes its constructor validation. */
+  private static UserProfile validProfile() {
+    return new UserProfile("john", 50, Map.of("key", "value"), null);
+  }
+
+  @Test
+  void testValidRecordHasNoViolations() {
+    assertTrue(validator.validate(validProfile()).isEmpty());
+    assertTrue(CompanionValidator.hasGeneratedCheck(UserProfile.class));
+    assertFalse(CompanionValidator.hasGeneratedCheck(String.class));
+  }
+
+  @Test
+  void testValidateReportsEachViolatedComponent() {
+    Phase1TestRecord record =
+        new Phase1TestRecord(null, "a", "b", "abc", "ABC123", 10, 100, 51, 1, -1, 0, 0);
+
+    Set<ConstraintViolation<Phase1TestRecord>> violations = validator.validate(record);
+
+    assertEquals(
+        List.of(
+            "notNullField: must not be null",
+            "sizeField: must be null or have length between 5 and 10",
+            "minMaxCombinedField: must be between 0 and 50"),
+        describe(violations));
+    ConstraintViolation<Phase1TestRecord> violation = violations.iterator().next();
+    assertSame(record, violation.getRootBean());
+    assertSame(record, violation.getLeafBean());
+    assertNull(violation.getInvalidValue());
+    assertEquals("abc", List.copyOf(violations).get(1).getInvalidValue());
+  }
+
+  @Test
+  void testValidateValueReportsPropertyViolations() {
+    Set<ConstraintViolation<UserProfile>> violations =
+        validator.validateValue(UserProfile.class, "score", 150);
+
+    assertEquals(List.of("score: must be between 0 and 100"), describe(violations));
+    ConstraintViolation<UserProfile> violation = violations.iterator().next();
+    assertEquals(150, violation.getInvalidValue());
+    assertEquals(UserProfile.class, violation.getRootBeanClass());
+    assertNull(violation.getRootBean());
+    Path.Node node = violation.getPropertyPath().iterator().next();
+    assertEquals(ElementKind.PROPERTY, node.getKind());
+    assertEquals("score", node.as(Path.PropertyNode.class).getName());
+  }
+
+  @Test
+  void testValidateValueIgnoresOtherComponents() {
+    assertTrue(validator.validateValue(UserProfile.class, "username", "johnny").isEmpty());
+    assertEquals(
+        List.of("username: must not be null", "username: must have length between 3 and 20"),
+        describe(validator.validateValue(UserProfile.class, "username", null)));
+  }
+
+  @Test
+  void testValidatePropertyFiltersViolations() {
+    UserProfile profile = validProfile();
+
+    assertTrue(validator.validateProperty(profile, "score").isEmpty());
+    assertTrue(validator.validateProperty(profile, "score", Default.class).isEmpty());
+    assertThrows(
+        IllegalArgumentException.class, () -> validator.validateProperty(profile, "missing"));
+  }
+
+  @Test
+  void testUnknownTypesWithoutFallbackAreUnconstrained() {
+    assertTrue(validator.validate("text").isEmpty());
+    assertThrows(ValidationException.class, () -> validator.getConstraintsForClass(Person.class));
+    assertSame(validator, validator.unwrap(CompanionValidator.class));
+  }
+
+  /** Returns a fallback validator that records its calls and reports no violations. */
+  private static Validator recordingFallback(List<String> calls) {
+    return (Validator)
+        Proxy.newProxyInstance(
+            Validator.class.getClassLoader(),
+            new Class<?>[] {Validator.class},
+            (proxy, method, args) -> {
+              calls.add(method.getName() + " " + args[0].getClass().getSimpleName());
+              return Set.of();
+            });
+  }
+
+  @Test
+  void testFallbackHandlesUnknownTypesAndOtherGroups() {
+    List<String> calls = new ArrayList<>();
+    Validator bridged = new CompanionValidator(recordingFallback(calls));
+
+    bridged.validate("text");
+    bridged.validate(validProfile());
+    bridged.validate(validProfile(), Default.class);
+    bridged.validate(validProfile(), Runnable.class);
+
+    assertEquals(List.of("validate String", "validate UserProfile"), calls);
+  }
+
+  @Test
+  void testConstraintsWithoutTranslationGoToFallback() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "partial.Account",
+            """
+            package partial;
+
+            import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+            import javax.validation.constraints.NotNull;
+            import javax.validation.constraints.Null;
+
+            @ValidCheck
+            public record Account(@NotNull String name, @Null String legacyId) {}
+            """);
+    Class<?> type = loader.loadClass("partial.Account");
+    Object account = type.getConstructors()[0].newInstance(null, "old");
+    List<String> calls = new ArrayList<>();
+
+    assertFalse(loader.generatedSource("partial.AccountCheck").contains("class Violation"));
+    assertFalse(CompanionValidator.hasGeneratedCheck(type));
+    new CompanionValidator(recordingFallback(calls)).validate(account);
+    assertEquals(List.of("validate Account"), calls);
+    assertThrows(ValidationException.class, () -> validator.validate(account));
+  }
+}
@@ -0,0 +1,119 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.util.Arrays;
+import java.util.Map;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Loads classes produced by an in-memory compilation, so tests can exercise code generated with
+ * non-default processor options.
+ */
+final class CompilationClassLoader extends ClassLoader {
+
+  private final Compilation compilation;
+
+  private CompilationClassLoader(Compilation compilation) {
+    super(CompilationClassLoader.class.getClassLoader());
+    this.compilation = compilation;
+  }
+
+  /**
+   * Compiles the given source with both processors and the given options.
+   *
+   * @param className the fully qualified name of the source class
+   * @param source the source code
+   * @param options processor options, e.g. {@code -Arecordcompanion.metrics=true}
+   * @return a class loader for the compiled and generated classes
+   */
+  static CompilationClassLoader compile(String className, String source, String... options) {
+    return compile(Map.of(className, source), options);
+  }
+
+  /**
+   * Compiles the given sources together with both processors and the given options.
+   *
+   * @param sources the source code of each class, by fully qualified name
+   * @param options processor options, e.g. {@code -Arecordcompanion.metrics=true}
+   * @return a class loader for the compiled and generated classes
+   */
+  static CompilationClassLoader compile(Map<String, String> sources, String... options) {
+    Compilation compilation =
+        javac()
+            .withProcessors(new BuilderProcessor(), new ValidCheckProcessor())
+            .withOptions(Arrays.asList(options))
+            .compile(
+                sources.entrySet().stream()
+                    .map(
+                        source ->
+                            JavaFileObjects.forSourceString(source.getKey(), source.getValue()))
+                    .toList());
+    assertEquals(
+        Compilation.Status.SUCCESS, compilation.status(), compilation.diagnostics().toString());
+    return new CompilationClassLoader(compilation);
+  }
+
+  /**
+   * Returns the content of a generated source file.
+   *
+   * @param className the fully qualified name of the generated class
+   * @return the generated source
+   */
+  String generatedSource(String className) {
+    try {
+      return compilation
+          .generatedSourceFile(className)
+          .orElseThrow()
+          .getCharContent(true)
+          .toString();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Runs the garbage collector until the referent of a weak or soft reference is collected, or a
+   * number of attempts have failed.
+   *
+   * @param reference the reference to the object expected to be unreachable
+   * @return {@code true} if the object was collected
+   */
+  static boolean isCollected(Reference<?> reference) {
+    for (int attempt = 0; attempt < 20 && reference.get() != null; attempt++) {
+      System.gc();
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return reference.get() == null;
+  }
+
+  @Override
+  protected Class<?> findClass(String name) throws ClassNotFoundException {
+    String path = name.replace('.', '/') + ".class";
+    JavaFileObject file =
+        compilation
+            .generatedFile(StandardLocation.CLASS_OUTPUT, path)
+            .orElseThrow(() -> new ClassNotFoundException(name));
+    try (InputStream in = file.openInputStream()) {
+      byte[] bytes = in.readAllBytes();
+      return defineClass(name, bytes, 0, bytes.length);
+    } catch (IOException e) {
+      throw new ClassNotFoundException(name, e);
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import io.github.aglibs.recordcompanion.tests.records.ContactInfoCheck;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the generated {@code @Email} and {@code @Digits} scanners with the {@code @Pattern}
+ * regexes they replace. Not run by the build; start it with {@code main} from the test classpath.
+ */
+final class FormatScannerBenchmark {
+
+  // A widely copied email regex with nested quantifiers that backtracks exponentially
+  private static final Pattern EMAIL_REGEX =
+      Pattern.compile(
+          "^([a-zA-Z0-9])(([\\-.]|[_]+)?([a-zA-Z0-9]+))*(@){1}[a-z0-9]+[.]{1}"
+              + "(([a-z]{2,3})|([a-z]{2,3}[.]{1}[a-z]{2,3}))$");
+  private static final Pattern DIGITS_REGEX = Pattern.compile("[+-]?\\d{0,5}(\\.\\d{0,2})?");
+
+  private static volatile boolean sink;
+
+  private FormatScannerBenchmark() {}
+
+  public static void main(String[] args) {
+    Predicate<String> emailScanner =
+        email -> ContactInfoCheck.violations(email, null, null, 0, null).isEmpty();
+    Predicate<String> digitsScanner =
+        amount -> ContactInfoCheck.violations("a@b.c", null, amount, 0, null).isEmpty();
+    Predicate<String> emailRegex = email -> EMAIL_REGEX.matcher(email).matches();
+    Predicate<String> digitsRegex = amount -> DIGITS_REGEX.matcher(amount).matches();
+
+    run("email scanner, valid", emailScanner, "john.doe@example.com");
+    run("email regex,   valid", emailRegex, "john.doe@example.com");
+    run("digits scanner, valid", digitsScanner, "-12345.67");
+    run("digits regex,   valid", digitsRegex, "-12345.67");
+    for (int length = 12; length <= 20; length += 4) {
+      String adversarial = "a".repeat(length) + "!";
+      run("email scanner, adversarial " + length, emailScanner, adversarial);
+      run("email regex,   adversarial " + length, emailRegex, adversarial);
+    }
+  }
+
+  private static void run(String name, Predicate<String> check, String input) {
+    // Warm up, then time a fixed budget so slow cases still finish
+    measure(check, input, 200_000_000L);
+    long[] result = measure(check, input, 1_000_000_000L);
+    System.out.printf("%-36s %12.1f ns/op%n", name, (double) result[0] / result[1]);
+  }
+
+  private static long[] measure(Predicate<String> check, String input, long budgetNanos) {
+    long start = System.nanoTime();
+    long elapsed;
+    long operations = 0;
+    do {
+      for (int i = 0; i < 100; i++) {
+        sink = check.test(input);
+      }
+      operations += 100;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < budgetNanos && operations < 10_000_000);
+    return new long[] {elapsed, operations};
+  }
+}
@@ -0,0 +1,131 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.tests.records.ContactInfo;
+import io.github.aglibs.recordcompanion.tests.records.ContactInfoCheck;
+import io.github.aglibs.validcheck.ValidationException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Tests for @Email and @Digits, which are checked by generated scanners instead of regexes. */
+class FormatValidationTest {
+
+  private static List<String> emailViolations(String email) {
+    return ContactInfoCheck.violations(email, null, null, 0, null);
+  }
+
+  private static List<String> amountViolations(String amount) {
+    return ContactInfoCheck.violations("a@b.c", null, amount, 0, null);
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "",
+        "john@example.com",
+        "john.doe+tag@mail.example.com",
+        "o'hara!#$%&*/=?^_`{|}~-@example.com",
+        "user@localhost",
+        "user@my-host.example",
+        "user@[192.168.0.1]",
+        "user@[2001:db8::1]",
+        "jürgen@bücher.de"
+      })
+  void testValidEmails(String email) {
+    assertTrue(emailViolations(email).isEmpty(), email);
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "plain",
+        "@example.com",
+        "user@",
+        ".user@example.com",
+        "user.@example.com",
+        "us..er@example.com",
+        "us er@example.com",
+        "user@-host.com",
+        "user@host-.com",
+        "user@host..com",
+        "user@host.com.",
+        "user@ho_st.com",
+        "user@[]",
+        "user@[1.2.3.4"
+      })
+  void testInvalidEmails(String email) {
+    assertEquals(List.of("email must be a well-formed email address"), emailViolations(email));
+  }
+
+  @Test
+  void testEmailLengthLimits() {
+    String local = "a".repeat(64);
+    String label = "b".repeat(63);
+    assertTrue(emailViolations(local + "@" + label + ".com").isEmpty());
+    assertEquals(1, emailViolations(local + "a@example.com").size());
+    assertEquals(1, emailViolations("a@" + label + "b.com").size());
+    assertEquals(1, emailViolations("a@" + (label + ".").repeat(4) + "com").size());
+  }
+
+  @Test
+  void testEmailRegexpStillApplies() {
+    assertTrue(ContactInfoCheck.violations("a@b.c", "a@example.com", null, 0, null).isEmpty());
+    assertEquals(
+        List.of("workEmail must be null or match pattern .*@example\\.com"),
+        ContactInfoCheck.violations("a@b.c", "a@other.com", null, 0, null));
+    assertEquals(
+        List.of("workEmail must be a well-formed email address"),
+        ContactInfoCheck.violations("a@b.c", "a..b@example.com", null, 0, null));
+  }
+
+  @Test
+  void testAdversarialEmailIsRejectedInLinearTime() {
+    String input = "a".repeat(200_000) + "!".repeat(200_000) + "@" + "a-".repeat(200_000);
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(5), () -> assertEquals(1, emailViolations(input).size()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"0", "12345", "-12345.67", "+1.5", "00012345.10", ".5", "1.", "0.000"})
+  void testValidDigitStrings(String amount) {
+    assertTrue(amountViolations(amount).isEmpty(), amount);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"123456", "1.234", "0.001", "", "-", ".", "1.2.3", "1e5", "12a"})
+  void testInvalidDigitStrings(String amount) {
+    assertEquals(
+        List.of("amount must have at most 5 integer digits and 2 fraction digits"),
+        amountViolations(amount));
+  }
+
+  @Test
+  void testDigitsOnNumbers() {
+    assertTrue(ContactInfoCheck.violations("a@b.c", null, null, -999, null).isEmpty());
+    assertEquals(1, ContactInfoCheck.violations("a@b.c", null, null, 1000, null).size());
+    assertTrue(
+        ContactInfoCheck.violations("a@b.c", null, null, 0, new BigDecimal("1234.50")).isEmpty());
+    assertTrue(
+        ContactInfoCheck.violations("a@b.c", null, null, 0, new BigDecimal("1E+3")).isEmpty());
+    assertEquals(
+        List.of("price must have at most 4 integer digits and 2 fraction digits"),
+        ContactInfoCheck.violations("a@b.c", null, null, 0, new BigDecimal("12345")));
+    assertEquals(
+        1, ContactInfoCheck.violations("a@b.c", null, null, 0, new BigDecimal("1.005")).size());
+  }
+
+  @Test
+  void testConstructorValidates() {
+    assertDoesNotThrow(() -> new ContactInfo("john@example.com", null, "10.00", 5, null));
+    assertThrows(ValidationException.class, () -> new ContactInfo("john@", null, "10.00", 5, null));
+  }
+}
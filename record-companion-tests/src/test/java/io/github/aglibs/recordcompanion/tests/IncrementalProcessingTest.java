@@ -0,0 +1,326 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests that both processors qualify as isolating processors for Gradle incremental compilation
+ * unless the companion index is enabled: every generated file has exactly its record as originating
+ * element, and recompiling one record against the classes of the others regenerates only that
+ * record's companions.
+ */
+class IncrementalProcessingTest {
+
+  private static final JavaFileObject ADDRESS =
+      JavaFileObjects.forSourceString(
+          "incremental.Address",
+          """
+          package incremental;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+          import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+          import javax.validation.constraints.NotBlank;
+
+          @Builder
+          @ValidCheck
+          public record Address(@NotBlank String city) {}
+          """);
+
+  private static final JavaFileObject CUSTOMER =
+      JavaFileObjects.forSourceString(
+          "incremental.Customer",
+          """
+          package incremental;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+          import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+          import javax.validation.constraints.NotBlank;
+
+          @Builder
+          @ValidCheck
+          public record Customer(@NotBlank String name, Address address) {}
+          """);
+
+  @TempDir Path classes;
+
+  @Test
+  void testProcessorsAreRegisteredAsDynamic() throws IOException {
+    assertEquals(
+        Set.of(
+            BuilderProcessor.class.getName() + ",dynamic",
+            ValidCheckProcessor.class.getName() + ",dynamic"),
+        readAll("META-INF/gradle/incremental.annotation.processors"));
+  }
+
+  @Test
+  void testProcessorsAreAggregatingOnlyWithTheIndex() {
+    for (Processor processor : List.of(new BuilderProcessor(), new ValidCheckProcessor())) {
+      assertTrue(
+          supportedOptions(processor, Map.of())
+              .contains("org.gradle.annotation.processing.isolating"));
+    }
+    for (Processor processor : List.of(new BuilderProcessor(), new ValidCheckProcessor())) {
+      Set<String> options =
+          supportedOptions(processor, Map.of("recordcompanion.index", "incremental.index"));
+      assertTrue(options.contains("org.gradle.annotation.processing.aggregating"));
+      assertFalse(options.contains("org.gradle.annotation.processing.isolating"));
+    }
+  }
+
+  @Test
+  void testEachGeneratedFileOriginatesFromItsRecord() {
+    Map<String, List<String>> origins = new TreeMap<>();
+    Compilation compilation = compile(origins, List.of(), ADDRESS, CUSTOMER);
+
+    assertEquals(Compilation.Status.SUCCESS, compilation.status());
+    assertEquals(
+        Map.of(
+            "incremental.AddressBuilder", List.of("incremental.Address"),
+            "incremental.AddressCheck", List.of("incremental.Address"),
+            "incremental.AddressUpdater", List.of("incremental.Address"),
+            "incremental.CustomerBuilder", List.of("incremental.Customer"),
+            "incremental.CustomerCheck", List.of("incremental.Customer"),
+            "incremental.CustomerUpdater", List.of("incremental.Customer")),
+        origins);
+  }
+
+  @Test
+  void testSingleRecordChangeRegeneratesOnlyItsCompanions() throws IOException {
+    writeClasses(compile(new TreeMap<>(), List.of(), ADDRESS, CUSTOMER));
+
+    // Recompile the changed record only, with the unchanged one taken from the class output
+    Map<String, List<String>> origins = new TreeMap<>();
+    Compilation incremental = compile(origins, List.of(classes.toFile()), CUSTOMER);
+
+    assertEquals(
+        Compilation.Status.SUCCESS, incremental.status(), incremental.diagnostics().toString());
+    assertEquals(
+        Set.of(
+            "incremental.CustomerBuilder",
+            "incremental.CustomerCheck",
+            "incremental.CustomerUpdater"),
+        origins.keySet());
+    // The nested builder setter still sees the @Builder annotation of the unchanged record
+    String builder =
+        incremental
+            .generatedSourceFile("incremental.CustomerBuilder")
+            .orElseThrow()
+            .getCharContent(true)
+            .toString();
+    assertTrue(builder.contains("AddressBuilder"), builder);
+  }
+
+  @Test
+  void testLeanOptionDoesNotApplyToRecordsFromTheClasspath() throws IOException {
+    writeClasses(compile(new TreeMap<>(), List.of(), ADDRESS));
+
+    // Address was compiled with an updater interface, which its builder setter must keep using
+    Compilation lean =
+        compile(
+            new TreeMap<>(),
+            List.of(classes.toFile()),
+            List.of("-Arecordcompanion.lean=true"),
+            CUSTOMER);
+
+    assertEquals(Compilation.Status.SUCCESS, lean.status(), lean.diagnostics().toString());
+    String builder =
+        lean.generatedSourceFile("incremental.CustomerBuilder")
+            .orElseThrow()
+            .getCharContent(true)
+            .toString();
+    assertTrue(builder.contains("AddressUpdater"), builder);
+    assertFalse(lean.generatedSourceFile("incremental.CustomerUpdater").isPresent());
+  }
+
+  @Test
+  void testLeanRecordFromTheClasspathIsUpdatedThroughItsBuilder() throws IOException {
+    writeClasses(
+        compile(new TreeMap<>(), List.of(), List.of("-Arecordcompanion.lean=true"), ADDRESS));
+
+    Compilation regular = compile(new TreeMap<>(), List.of(classes.toFile()), CUSTOMER);
+
+    assertEquals(Compilation.Status.SUCCESS, regular.status(), regular.diagnostics().toString());
+    String builder =
+        regular
+            .generatedSourceFile("incremental.CustomerBuilder")
+            .orElseThrow()
+            .getCharContent(true)
+            .toString();
+    assertFalse(builder.contains("AddressUpdater"), builder);
+  }
+
+  /** Writes the class files of a compilation to the class output of later compilations. */
+  private void writeClasses(Compilation compilation) throws IOException {
+    for (JavaFileObject file : compilation.generatedFiles()) {
+      if (file.getKind() == JavaFileObject.Kind.CLASS) {
+        // Paths look like /CLASS_OUTPUT/incremental/Address.class
+        Path target = classes.resolve(file.toUri().getPath().replaceFirst("^/[^/]+/", ""));
+        Files.createDirectories(target.getParent());
+        try (InputStream in = file.openInputStream()) {
+          Files.write(target, in.readAllBytes());
+        }
+      }
+    }
+  }
+
+  private static Compilation compile(
+      Map<String, List<String>> origins, List<File> extraClasspath, JavaFileObject... sources) {
+    return compile(origins, extraClasspath, List.of(), sources);
+  }
+
+  private static Compilation compile(
+      Map<String, List<String>> origins,
+      List<File> extraClasspath,
+      List<String> options,
+      JavaFileObject... sources) {
+    List<File> classpath = new ArrayList<>(extraClasspath);
+    for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      classpath.add(new File(entry));
+    }
+    return javac()
+        .withClasspath(classpath)
+        .withOptions(options)
+        .withProcessors(
+            new RecordingProcessor(new BuilderProcessor(), origins),
+            new RecordingProcessor(new ValidCheckProcessor(), origins))
+        .compile(sources);
+  }
+
+  private static Set<String> supportedOptions(Processor processor, Map<String, String> options) {
+    // Gradle queries the category after initializing the processor, as javac does
+    processor.init(
+        RecordingProcessor.proxy(
+            ProcessingEnvironment.class,
+            (proxy, method, args) -> method.getName().equals("getOptions") ? options : null));
+    return processor.getSupportedOptions();
+  }
+
+  private static Set<String> readAll(String resource) throws IOException {
+    List<String> lines = new ArrayList<>();
+    for (URL url :
+        Collections.list(IncrementalProcessingTest.class.getClassLoader().getResources(resource))) {
+      try (InputStream in = url.openStream()) {
+        new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().forEach(lines::add);
+      }
+    }
+    return lines.stream()
+        .map(String::strip)
+        .filter(line -> line.startsWith("io.github.aglibs.recordcompanion."))
+        .collect(Collectors.toSet());
+  }
+
+  /** Records the originating elements a processor passes to the {@link Filer}, as Gradle does. */
+  private static final class RecordingProcessor implements Processor {
+
+    private final Processor delegate;
+    private final Map<String, List<String>> origins;
+
+    RecordingProcessor(Processor delegate, Map<String, List<String>> origins) {
+      this.delegate = delegate;
+      this.origins = origins;
+    }
+
+    @Override
+    public void init(ProcessingEnvironment processingEnv) {
+      Filer filer = processingEnv.getFiler();
+      Filer recordingFiler =
+          proxy(
+              Filer.class,
+              (proxy, method, args) -> {
+                if (method.getName().equals("createSourceFile")) {
+                  origins.put(
+                      args[0].toString(),
+                      Arrays.stream((Element[]) args[1])
+                          .map(element -> ((TypeElement) element).getQualifiedName().toString())
+                          .toList());
+                }
+                return invoke(method, filer, args);
+              });
+      delegate.init(
+          proxy(
+              ProcessingEnvironment.class,
+              (proxy, method, args) ->
+                  method.getName().equals("getFiler")
+                      ? recordingFiler
+                      : invoke(method, processingEnv, args)));
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      return delegate.process(annotations, roundEnv);
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+      return delegate.getSupportedOptions();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+      return delegate.getSupportedAnnotationTypes();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+      return delegate.getSupportedSourceVersion();
+    }
+
+    @Override
+    public Iterable<? extends Completion> getCompletions(
+        Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+      return delegate.getCompletions(element, annotation, member, userText);
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+      return type.cast(
+          Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
@@ -0,0 +1,165 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the {@code recordcompanion.inliningReport} processor option. */
+class InliningReportTest {
+
+  private static final String OPTION = "-Arecordcompanion.inliningReport=true";
+
+  private static final JavaFileObject ORDER =
+      JavaFileObjects.forSourceString(
+          "inlining.Order",
+          """
+          package inlining;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+          import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+          import javax.validation.constraints.NotBlank;
+
+          @Builder
+          @ValidCheck
+          public record Order(@NotBlank String id, int quantity) {}
+          """);
+
+  private static final JavaFileObject POINT =
+      JavaFileObjects.forSourceString(
+          "inlining.Point",
+          """
+          package inlining;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+
+          @Builder
+          public record Point(int x, int y) {}
+          """);
+
+  private static Compilation compile(JavaFileObject source, String... options) {
+    Compilation compilation =
+        javac()
+            .withProcessors(new BuilderProcessor(), new ValidCheckProcessor())
+            .withOptions((Object[]) options)
+            .compile(source);
+    assertEquals(Compilation.Status.SUCCESS, compilation.status());
+    return compilation;
+  }
+
+  private static List<String> report(Compilation compilation, String name) throws IOException {
+    return compilation
+        .generatedFile(StandardLocation.CLASS_OUTPUT, "", "recordcompanion-profile/" + name)
+        .orElseThrow()
+        .getCharContent(true)
+        .toString()
+        .lines()
+        .toList();
+  }
+
+  private static List<String> warnings(Compilation compilation) {
+    return compilation.warnings().stream()
+        .map(warning -> warning.getMessage(Locale.ROOT))
+        .filter(message -> message.contains("inline"))
+        .toList();
+  }
+
+  @Test
+  void testReportsEveryGeneratedMethod() throws IOException {
+    Compilation compilation = compile(ORDER, OPTION);
+
+    List<String> builderRows = report(compilation, "builder-inlining.csv");
+    assertEquals("class,method,descriptor,bytes,inlining", builderRows.get(0));
+    assertTrue(
+        builderRows.contains("inlining.OrderBuilder,builder,()Linlining/OrderBuilder;,8,always"));
+    assertTrue(
+        builderRows.stream().anyMatch(row -> row.startsWith("inlining.OrderBuilder,build,")));
+    assertTrue(builderRows.stream().anyMatch(row -> row.startsWith("inlining.OrderBuilder,with,")));
+    assertTrue(
+        builderRows.stream().anyMatch(row -> row.startsWith("inlining.OrderBuilder$Result,")));
+    // Updater methods are abstract and have no code
+    assertFalse(builderRows.stream().anyMatch(row -> row.startsWith("inlining.OrderUpdater,")));
+
+    List<String> checkRows = report(compilation, "validcheck-inlining.csv");
+    assertTrue(
+        checkRows.stream().anyMatch(row -> row.startsWith("inlining.OrderCheck,violations,")));
+    assertFalse(checkRows.stream().anyMatch(row -> row.startsWith("inlining.OrderBuilder,")));
+
+    for (String row : builderRows.subList(1, builderRows.size())) {
+      String[] columns = row.split(",");
+      int bytes = Integer.parseInt(columns[3]);
+      String expected = bytes <= 35 ? "always" : bytes <= 325 ? "hot" : "never";
+      assertEquals(expected, columns[4], row);
+    }
+    assertEquals(List.of(), warnings(compilation));
+  }
+
+  @Test
+  void testWarnsAboutHotMethodsThatAreNeverInlined() {
+    String components =
+        IntStream.range(0, 24)
+            .mapToObj(i -> "@NotBlank @Size(min = 2, max = 40) String field" + i)
+            .collect(Collectors.joining(", "));
+    JavaFileObject wide =
+        JavaFileObjects.forSourceString(
+            "inlining.Wide",
+            """
+            package inlining;
+
+            import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+            import javax.validation.constraints.NotBlank;
+            import javax.validation.constraints.Size;
+
+            @ValidCheck
+            public record Wide(%s) {}
+            """
+                .formatted(components));
+
+    List<String> warnings = warnings(compile(wide, OPTION));
+
+    assertTrue(
+        warnings.stream()
+            .anyMatch(
+                warning ->
+                    warning.startsWith("WideCheck.violations has ")
+                        && warning.endsWith(
+                            " bytes of bytecode, more than FreqInlineSize (325), so HotSpot will"
+                                + " never inline it")),
+        warnings.toString());
+    assertEquals(List.of(), warnings(compile(wide)));
+  }
+
+  @Test
+  void testReportsBuildersWrittenAsClassFiles() throws IOException {
+    Compilation compilation = compile(POINT, OPTION, "-Arecordcompanion.classFiles=true");
+
+    List<String> rows = report(compilation, "builder-inlining.csv");
+    assertTrue(rows.contains("inlining.PointBuilder,builder,()Linlining/PointBuilder;,8,always"));
+    assertFalse(rows.stream().anyMatch(row -> row.startsWith("inlining.PointUpdater,")));
+    assertTrue(rows.stream().anyMatch(row -> row.startsWith("inlining.PointBuilder,x,(I)")));
+  }
+
+  @Test
+  void testNoReportWithoutOption() {
+    Compilation compilation = compile(ORDER);
+
+    assertFalse(
+        compilation
+            .generatedFile(
+                StandardLocation.CLASS_OUTPUT, "", "recordcompanion-profile/builder-inlining.csv")
+            .isPresent());
+  }
+}
@@ -0,0 +1,126 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.runtime.RecordBuildEvent;
+import io.github.aglibs.recordcompanion.runtime.SlowValidationEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the recordcompanion.jfr processor option and the runtime JFR events. */
+class JfrTest {
+
+  private static final String ORDER_SOURCE =
+      """
+      package jfr;
+
+      import io.github.aglibs.recordcompanion.builder.Builder;
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import javax.validation.constraints.Min;
+      import javax.validation.constraints.NotNull;
+      import javax.validation.constraints.Size;
+
+      @Builder
+      @ValidCheck
+      public record Order(@NotNull @Size(min = 1, max = 10) String id, @Min(1) int e) {
+        public Order {
+          OrderCheck.validate(id, e);
+        }
+      }
+      """;
+
+  @Test
+  void testJfrCodeNotGeneratedByDefault() {
+    CompilationClassLoader loader = CompilationClassLoader.compile("jfr.Order", ORDER_SOURCE);
+
+    assertFalse(loader.generatedSource("jfr.OrderBuilder").contains("RecordBuildEvent"));
+    assertFalse(loader.generatedSource("jfr.OrderCheck").contains("SlowValidationEvent"));
+  }
+
+  @Test
+  void testEventsAreOnlyCreatedWhileEnabled() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("jfr.Order", ORDER_SOURCE, "-Arecordcompanion.jfr=true");
+
+    assertTrue(
+        loader.generatedSource("jfr.OrderBuilder").contains("if (RecordBuildEvent.enabled()) {"));
+    assertTrue(
+        loader.generatedSource("jfr.OrderCheck").contains("if (SlowValidationEvent.enabled()) {"));
+    assertFalse(RecordBuildEvent.enabled());
+    assertFalse(SlowValidationEvent.enabled());
+
+    try (Recording recording = new Recording()) {
+      recording.enable("io.github.aglibs.recordcompanion.RecordBuild");
+      recording.start();
+      assertTrue(RecordBuildEvent.enabled());
+    }
+    assertFalse(RecordBuildEvent.enabled());
+  }
+
+  @Test
+  void testGeneratedCodeEmitsEvents() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("jfr.Order", ORDER_SOURCE, "-Arecordcompanion.jfr=true");
+    Class<?> builderClass = loader.loadClass("jfr.OrderBuilder");
+    Method validate =
+        loader.loadClass("jfr.OrderCheck").getMethod("validate", String.class, int.class);
+    Path dump = Files.createTempFile("record-companion", ".jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable("io.github.aglibs.recordcompanion.RecordBuild");
+      recording
+          .enable("io.github.aglibs.recordcompanion.SlowValidation")
+          .withThreshold(Duration.ZERO);
+      recording.enable("io.github.aglibs.recordcompanion.ValidationFailure");
+      recording.start();
+
+      Object builder = builderClass.getMethod("builder").invoke(null);
+      builderClass.getMethod("id", String.class).invoke(builder, "A-1");
+      builderClass.getMethod("e", int.class).invoke(builder, 2);
+      builderClass.getMethod("build").invoke(builder);
+      InvocationTargetException failure =
+          assertThrows(InvocationTargetException.class, () -> validate.invoke(null, "", 0));
+      assertEquals("ValidationException", failure.getCause().getClass().getSimpleName());
+
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    try {
+      List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+      assertEquals(1, count(events, "RecordBuild"));
+      // One validation from the builder, one direct call
+      assertEquals(2, count(events, "SlowValidation"));
+      assertEquals(2, count(events, "ValidationFailure"));
+      assertTrue(
+          events.stream()
+              .filter(event -> event.getEventType().getName().endsWith("ValidationFailure"))
+              .anyMatch(
+                  event ->
+                      "id".equals(event.getString("component"))
+                          && "hasLength".equals(event.getString("constraint"))
+                          && "jfr.Order".equals(event.getClass("recordType").getName())));
+    } finally {
+      Files.deleteIfExists(dump);
+    }
+  }
+
+  private static long count(List<RecordedEvent> events, String name) {
+    return events.stream()
+        .filter(
+            event ->
+                event.getEventType().getName().equals("io.github.aglibs.recordcompanion." + name))
+        .count();
+  }
+}
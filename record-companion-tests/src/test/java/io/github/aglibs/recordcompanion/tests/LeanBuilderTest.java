@@ -0,0 +1,82 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.aglibs.recordcompanion.tests.records.LeanAddress;
+import io.github.aglibs.recordcompanion.tests.records.LeanAddressBuilder;
+import io.github.aglibs.recordcompanion.tests.records.LeanCustomer;
+import io.github.aglibs.recordcompanion.tests.records.LeanCustomerBuilder;
+import io.github.aglibs.recordcompanion.tests.records.Shipment;
+import io.github.aglibs.recordcompanion.tests.records.ShipmentBuilder;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.Test;
+
+/** Tests for lean builders, generated for {@code @Builder(lean = true)}. */
+class LeanBuilderTest {
+
+  private static final String ORDER_SOURCE =
+      """
+      package lean;
+
+      import io.github.aglibs.recordcompanion.builder.Builder;
+
+      @Builder
+      public record Order(String id, int quantity) {}
+      """;
+
+  @Test
+  void testLeanBuilderHasNoUpdaterInterface() {
+    assertThrows(
+        ClassNotFoundException.class, () -> Class.forName(LeanAddress.class.getName() + "Updater"));
+    assertEquals(0, LeanAddressBuilder.class.getInterfaces().length);
+  }
+
+  @Test
+  void testWithPassesTheBuilder() {
+    LeanAddress address = new LeanAddress("Main St", "Springfield");
+
+    LeanAddress moved = LeanAddressBuilder.with(address, builder -> builder.city("Shelbyville"));
+
+    assertEquals(new LeanAddress("Main St", "Shelbyville"), moved);
+  }
+
+  @Test
+  void testNestedLeanRecordIsUpdatedThroughItsBuilder() {
+    LeanCustomer customer =
+        LeanCustomerBuilder.builder()
+            .name("Homer")
+            .address(address -> address.street("Evergreen Terrace"))
+            .build();
+
+    assertEquals(new LeanAddress("Evergreen Terrace", null), customer.address());
+    assertEquals(
+        List.of(),
+        LeanCustomerBuilder.builder(customer)
+            .address(address -> address.city("Springfield"))
+            .buildValidated()
+            .violations());
+  }
+
+  @Test
+  void testRegularBuilderUsesLeanNestedBuilder() {
+    Shipment shipment = new Shipment("S-1", new LeanAddress("Main St", "Springfield"));
+
+    Shipment rerouted =
+        ShipmentBuilder.with(
+            shipment, updater -> updater.destination(address -> address.city("Capital City")));
+
+    assertEquals(new LeanAddress("Main St", "Capital City"), rerouted.destination());
+  }
+
+  @Test
+  void testLeanOptionAppliesToAllBuildersAndOmitsJavadoc() {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("lean.Order", ORDER_SOURCE, "-Arecordcompanion.lean=true");
+
+    assertFalse(loader.generatedSource("lean.OrderBuilder").contains("/**"));
+    assertThrows(NoSuchElementException.class, () -> loader.generatedSource("lean.OrderUpdater"));
+  }
+}
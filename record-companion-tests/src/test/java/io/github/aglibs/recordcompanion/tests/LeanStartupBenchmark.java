@@ -0,0 +1,99 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Compares startup cost of regular and lean builders. Not run by the build; start it with {@code
+ * main} from the test classpath, optionally passing the record count.
+ *
+ * <p>Compiles the records of {@link ProcessorThroughputBenchmark} with and without {@code
+ * recordcompanion.lean}, then, in a fresh class loader per run, builds and updates one instance of
+ * every record through its builder. Reports the number of classes loaded, metaspace growth and the
+ * time taken. Runs alternate between the variants, so JIT warm-up does not favour either.
+ */
+final class LeanStartupBenchmark {
+
+  private static final int DEFAULT_RECORDS = 1000;
+  private static final int RUNS = 3;
+
+  private LeanStartupBenchmark() {}
+
+  public static void main(String[] args) throws Exception {
+    int records = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RECORDS;
+    Path workDir = Files.createTempDirectory("lean");
+    List<Path> files = ProcessorThroughputBenchmark.writeSources(records, workDir.resolve("src"));
+    Path regular = workDir.resolve("regular");
+    Path lean = workDir.resolve("lean");
+    ProcessorThroughputBenchmark.compile(files, regular, true);
+    ProcessorThroughputBenchmark.compile(files, lean, true, "-Arecordcompanion.lean=true");
+
+    for (int run = 1; run <= RUNS; run++) {
+      print("regular", run, load(regular.resolve("classes"), records));
+      print("lean", run, load(lean.resolve("classes"), records));
+    }
+  }
+
+  /** Returns {@code {loaded classes, metaspace bytes, nanos}}. */
+  private static long[] load(Path classes, int records) throws Exception {
+    MemoryPoolMXBean metaspace =
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getName().equals("Metaspace"))
+            .findFirst()
+            .orElseThrow();
+    System.gc();
+    long metaspaceBefore = metaspace.getUsage().getUsed();
+    long start = System.nanoTime();
+
+    try (CountingClassLoader loader = new CountingClassLoader(classes.toUri().toURL())) {
+      Consumer<Object> noChange = updater -> {};
+      for (int i = 0; i < records; i++) {
+        String record = String.format(Locale.ROOT, "%s.Record%05d", "throughput", i);
+        Class<?> builderClass = loader.loadClass(record + "Builder");
+        Class<?> recordClass = loader.loadClass(record);
+        Object builder = builderClass.getMethod("builder").invoke(null);
+        Object instance = builderClass.getMethod("build").invoke(builder);
+        Method with = builderClass.getMethod("with", recordClass, Consumer.class);
+        with.invoke(null, instance, noChange);
+      }
+      long nanos = System.nanoTime() - start;
+      return new long[] {loader.loaded, metaspace.getUsage().getUsed() - metaspaceBefore, nanos};
+    }
+  }
+
+  private static void print(String variant, int run, long[] result) {
+    System.out.printf(
+        Locale.ROOT,
+        "%-8s run %d: %6d classes, %8.1f KiB metaspace, %8.1f ms%n",
+        variant,
+        run,
+        result[0],
+        result[1] / 1024.0,
+        result[2] / 1e6);
+  }
+
+  /** Counts the classes it defines itself, that is the compiled records and their companions. */
+  private static final class CountingClassLoader extends URLClassLoader {
+
+    private int loaded;
+
+    CountingClassLoader(URL classes) {
+      super(new URL[] {classes}, LeanStartupBenchmark.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      Class<?> type = super.findClass(name);
+      loaded++;
+      return type;
+    }
+  }
+}
@@ -0,0 +1,157 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.runtime.CompanionMetrics;
+import io.github.aglibs.recordcompanion.runtime.CounterMetrics;
+import io.github.aglibs.recordcompanion.runtime.JmxMetricsExporter;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the recordcompanion.metrics processor option and the runtime counters. */
+class MetricsTest {
+
+  private static final String ORDER_SOURCE =
+      """
+      package metrics;
+
+      import io.github.aglibs.recordcompanion.builder.Builder;
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import javax.validation.constraints.Min;
+      import javax.validation.constraints.NotNull;
+      import javax.validation.constraints.Size;
+
+      @Builder
+      @ValidCheck
+      public record Order(@NotNull @Size(min = 1, max = 10) String id, @Min(1) int quantity) {
+        public Order {
+          OrderCheck.validate(id, quantity);
+        }
+      }
+      """;
+
+  @Test
+  void testMetricsCodeNotGeneratedByDefault() {
+    CompilationClassLoader loader = CompilationClassLoader.compile("metrics.Order", ORDER_SOURCE);
+
+    assertFalse(loader.generatedSource("metrics.OrderBuilder").contains("CompanionMetrics"));
+    assertFalse(loader.generatedSource("metrics.OrderCheck").contains("CompanionMetrics"));
+  }
+
+  @Test
+  void testGeneratedCodeReportsBuildsUpdatesAndViolations() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "metrics.Order", ORDER_SOURCE, "-Arecordcompanion.metrics=true");
+    Class<?> orderClass = loader.loadClass("metrics.Order");
+    Class<?> builderClass = loader.loadClass("metrics.OrderBuilder");
+    Class<?> checkClass = loader.loadClass("metrics.OrderCheck");
+    CounterMetrics metrics = assertInstanceOf(CounterMetrics.class, CompanionMetrics.instance());
+
+    Object order = build(builderClass, "A-1", 2);
+    Consumer<Object> noChanges = updater -> {};
+    builderClass.getMethod("with", orderClass, Consumer.class).invoke(null, order, noChanges);
+
+    assertEquals(2, metrics.built(orderClass));
+    assertEquals(1, metrics.updated(orderClass));
+    assertEquals(0, metrics.rejected(orderClass));
+
+    Method validate = checkClass.getMethod("validate", String.class, int.class);
+    InvocationTargetException failure =
+        assertThrows(InvocationTargetException.class, () -> validate.invoke(null, "", 0));
+    assertEquals("ValidationException", failure.getCause().getClass().getSimpleName());
+    checkClass.getMethod("violations", String.class, int.class).invoke(null, null, 1);
+
+    assertEquals(2, metrics.rejected(orderClass));
+    assertEquals(
+        Map.of("id:hasLength", 2L, "id:notNull", 1L, "quantity:nullOrMin", 1L),
+        metrics.violations(orderClass));
+  }
+
+  @Test
+  void testFailuresAreReportedWithoutEvaluatingConstraintsAgain() {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "metrics.Order", ORDER_SOURCE, "-Arecordcompanion.metrics=true");
+    String source = loader.generatedSource("metrics.OrderCheck");
+
+    // violations() reports each failed rule where it is found
+    String violations = source.substring(source.indexOf("public static List<String> violations("));
+    violations = violations.substring(0, violations.indexOf("\n  }\n"));
+    assertEquals(3, violations.split("reportViolation\\(", -1).length - 1);
+
+    // validate() and require() report from the messages of the thrown exception
+    String report = source.substring(source.indexOf("private static void reportViolations("));
+    report = report.substring(0, report.indexOf("\n  }\n"));
+    assertTrue(report.contains("violation.startsWith(\"'id' must have length between \")"));
+    assertFalse(report.contains("id.length()"));
+    assertFalse(report.contains("quantity >="));
+  }
+
+  @Test
+  void testCounterMetricsReset() {
+    CounterMetrics metrics = new CounterMetrics();
+    metrics.recordBuilt(String.class);
+    metrics.recordViolation(String.class, "value", "notNull");
+
+    metrics.reset();
+
+    assertEquals(0, metrics.built(String.class));
+    assertTrue(metrics.violations(String.class).isEmpty());
+  }
+
+  @Test
+  void testCounterMetricsDoNotPinClassLoaders() throws Exception {
+    CounterMetrics metrics = new CounterMetrics();
+    JmxMetricsExporter exporter = new JmxMetricsExporter(metrics);
+    CompilationClassLoader loader = CompilationClassLoader.compile("metrics.Order", ORDER_SOURCE);
+    metrics.recordBuilt(loader.loadClass("metrics.Order"));
+    metrics.recordViolation(loader.loadClass("metrics.Order"), "id", "notNull");
+    assertEquals(Map.of("metrics.Order", 1L), exporter.getBuildCounts());
+
+    WeakReference<ClassLoader> reference = new WeakReference<>(loader);
+    loader = null;
+
+    assertTrue(CompilationClassLoader.isCollected(reference));
+    assertEquals(Map.of(), exporter.getBuildCounts());
+  }
+
+  @Test
+  void testJmxExporter() throws Exception {
+    CounterMetrics metrics = new CounterMetrics();
+    metrics.recordBuilt(String.class);
+    metrics.recordBuilt(String.class);
+    metrics.recordRejected(Integer.class);
+    metrics.recordViolation(Integer.class, "value", "min");
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+
+    JmxMetricsExporter exporter = new JmxMetricsExporter(metrics);
+    ObjectName name = exporter.register(server);
+
+    assertTrue(server.isRegistered(name));
+    assertEquals(2L, exporter.getBuildCounts().get("java.lang.String"));
+    assertEquals(1L, exporter.getRejectionCounts().get("java.lang.Integer"));
+    assertEquals(Map.of("java.lang.Integer:value:min", 1L), exporter.getViolationCounts());
+
+    server.invoke(name, "reset", null, null);
+    assertEquals(0L, exporter.getBuildCounts().get("java.lang.String"));
+  }
+
+  private static Object build(Class<?> builderClass, String id, int quantity) throws Exception {
+    Object builder = builderClass.getMethod("builder").invoke(null);
+    builderClass.getMethod("id", String.class).invoke(builder, id);
+    builderClass.getMethod("quantity", int.class).invoke(builder, quantity);
+    return builderClass.getMethod("build").invoke(builder);
+  }
+}
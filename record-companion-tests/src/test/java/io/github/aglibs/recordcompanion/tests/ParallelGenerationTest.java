@@ -0,0 +1,77 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests that rendering generated sources in parallel gives the same output as rendering serially,
+ * and that the rendering threads end with processing.
+ */
+class ParallelGenerationTest {
+
+  private static List<JavaFileObject> sources() {
+    return ProcessorThroughputBenchmark.synthesize(60, ProcessorThroughputBenchmark.SEED)
+        .entrySet()
+        .stream()
+        .map(
+            source ->
+                JavaFileObjects.forSourceString(
+                    ProcessorThroughputBenchmark.PACKAGE + "." + source.getKey(),
+                    source.getValue()))
+        .toList();
+  }
+
+  private static Map<String, String> generate(int parallelism) throws IOException {
+    Compilation compilation =
+        javac()
+            .withProcessors(new BuilderProcessor(), new ValidCheckProcessor())
+            .withOptions("-Arecordcompanion.parallelism=" + parallelism)
+            .compile(sources());
+    assertEquals(Compilation.Status.SUCCESS, compilation.status());
+
+    Map<String, String> generated = new TreeMap<>();
+    for (JavaFileObject file : compilation.generatedSourceFiles()) {
+      generated.put(file.getName(), file.getCharContent(true).toString());
+    }
+    return generated;
+  }
+
+  @Test
+  void testParallelRenderingMatchesSerialRendering() throws IOException {
+    Map<String, String> serial = generate(1);
+
+    assertEquals(180, serial.size());
+    assertEquals(serial, generate(4));
+  }
+
+  @Test
+  @Timeout(30)
+  void testRenderingThreadsEndWithProcessing() throws IOException, InterruptedException {
+    generate(4);
+
+    // Workers of a shut down pool end right away, while idle workers of a live pool stay for a
+    // minute, so the timeout fails the test if the pool is left open
+    while (renderingThreads() > 0) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static long renderingThreads() {
+    // Threads of the common pool are named ForkJoinPool.commonPool-worker-N
+    return Thread.getAllStackTraces().keySet().stream()
+        .filter(thread -> thread.getName().matches("ForkJoinPool-\\d+-worker-\\d+"))
+        .count();
+  }
+}
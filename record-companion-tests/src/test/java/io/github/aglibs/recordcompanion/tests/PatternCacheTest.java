@@ -0,0 +1,82 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.runtime.PatternCache;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the recordcompanion.patternCache processor option and PatternCache. */
+class PatternCacheTest {
+
+  private static final String PAYMENT_SOURCE =
+      """
+      package cache;
+
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import javax.validation.constraints.NotNull;
+      import javax.validation.constraints.Pattern;
+
+      @ValidCheck
+      public record Payment(
+          @NotNull @Pattern(regexp = "[A-Z]{3}") String currency,
+          @Pattern(regexp = "[a-z]+") String payee) {}
+      """;
+
+  @Test
+  void testNoCacheByDefault() {
+    CompilationClassLoader loader = CompilationClassLoader.compile("cache.Payment", PAYMENT_SOURCE);
+    String source = loader.generatedSource("cache.PaymentCheck");
+
+    assertFalse(source.contains("PatternCache"));
+    // validate() still checks the direct conditions before building a chain
+    String validate = source.substring(source.indexOf("public static void validate("));
+    assertTrue(
+        validate
+            .substring(0, validate.indexOf("check("))
+            .contains("CURRENCY_PATTERN.matcher(currency).matches()"));
+  }
+
+  @Test
+  void testRepeatedValuesAreServedFromCache() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "cache.Payment", PAYMENT_SOURCE, "-Arecordcompanion.patternCache=64");
+    Class<?> checkClass = loader.loadClass("cache.PaymentCheck");
+    Method validate = checkClass.getMethod("validate", String.class, String.class);
+
+    for (int i = 0; i < 10; i++) {
+      validate.invoke(null, "USD", "alice");
+    }
+    InvocationTargetException failure =
+        assertThrows(InvocationTargetException.class, () -> validate.invoke(null, "usd", null));
+    assertEquals("ValidationException", failure.getCause().getClass().getSimpleName());
+    assertEquals(
+        List.of("currency must match pattern [A-Z]{3}"),
+        checkClass.getMethod("violations", String.class, String.class).invoke(null, "usd", null));
+
+    // The first lookup of each distinct value misses, repeats hit
+    assertEquals(10.0 / 12, PatternCache.statistics().get("cache.Payment:currency"));
+    assertEquals(9.0 / 10, PatternCache.statistics().get("cache.Payment:payee"));
+  }
+
+  @Test
+  void testCacheCountsHitsAndMisses() {
+    PatternCache cache = PatternCache.create(PatternCacheTest.class, "code", "[A-Z]{2}", 4);
+
+    assertTrue(cache.matches("AB"));
+    assertTrue(cache.matches("AB"));
+    assertFalse(cache.matches("abc"));
+    assertFalse(cache.matches("abc"));
+    assertTrue(cache.matches(new StringBuilder("CD")));
+
+    assertEquals(2, cache.hits());
+    assertEquals(2, cache.misses());
+    assertEquals(0.5, cache.hitRate());
+  }
+}
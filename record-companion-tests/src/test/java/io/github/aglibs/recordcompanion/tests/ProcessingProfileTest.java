@@ -0,0 +1,91 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the {@code recordcompanion.profile} processor option. */
+class ProcessingProfileTest {
+
+  private static final JavaFileObject ORDER =
+      JavaFileObjects.forSourceString(
+          "profiled.Order",
+          """
+          package profiled;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+          import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+          import javax.validation.constraints.NotBlank;
+
+          @Builder
+          @ValidCheck
+          public record Order(@NotBlank String id, int quantity) {}
+          """);
+
+  private static Compilation compile(String... options) {
+    Compilation compilation =
+        javac()
+            .withProcessors(new BuilderProcessor(), new ValidCheckProcessor())
+            .withOptions((Object[]) options)
+            .compile(ORDER);
+    assertEquals(Compilation.Status.SUCCESS, compilation.status());
+    return compilation;
+  }
+
+  private static List<String> report(Compilation compilation, String name) throws IOException {
+    return compilation
+        .generatedFile(StandardLocation.CLASS_OUTPUT, "", "recordcompanion-profile/" + name)
+        .orElseThrow()
+        .getCharContent(true)
+        .toString()
+        .lines()
+        .toList();
+  }
+
+  @Test
+  void testProfileReportsEveryPhaseOfEachRecord() throws IOException {
+    Compilation compilation = compile("-Arecordcompanion.profile=true");
+
+    for (String name : List.of("builder.csv", "validcheck.csv")) {
+      List<String> rows = report(compilation, name);
+      assertEquals("round,record,phase,nanos", rows.get(0));
+      Set<String> recordPhases =
+          rows.stream()
+              .skip(1)
+              .map(row -> row.split(","))
+              .filter(columns -> columns[0].equals("1") && !columns[1].isEmpty())
+              .map(columns -> columns[1] + " " + columns[2])
+              .collect(Collectors.toSet());
+      assertEquals(
+          Set.of("profiled.Order model", "profiled.Order build", "profiled.Order write"),
+          recordPhases,
+          name);
+      assertTrue(
+          rows.stream().skip(1).allMatch(row -> Long.parseLong(row.split(",")[3]) >= 0), name);
+      assertTrue(rows.stream().anyMatch(row -> row.startsWith("1,,round,")), name);
+    }
+  }
+
+  @Test
+  void testNoReportWithoutOption() {
+    Compilation compilation = compile();
+
+    assertFalse(
+        compilation
+            .generatedFile(StandardLocation.CLASS_OUTPUT, "", "recordcompanion-profile/builder.csv")
+            .isPresent());
+  }
+}
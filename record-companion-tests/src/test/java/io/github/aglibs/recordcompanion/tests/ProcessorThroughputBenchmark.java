@@ -0,0 +1,382 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+/**
+ * Measures how fast the processors compile large numbers of records. Not run by the build; start it
+ * with {@code main} from the test classpath, optionally passing the record count and a baseline
+ * file.
+ *
+ * <p>The records are synthesized from a fixed seed and vary in width, generics, nesting and
+ * constraint density. They are compiled once without annotation processing and once with both
+ * processors, through {@code javax.tools}. Without a baseline file the result is printed; a missing
+ * baseline file is written; an existing one is compared, and the run exits with status 1 when
+ * throughput or peak heap regress by more than 15%.
+ */
+final class ProcessorThroughputBenchmark {
+
+  static final long SEED = 42;
+  static final String PACKAGE = "throughput";
+
+  private static final int DEFAULT_RECORDS = 2000;
+  private static final int FORMAT_VERSION = 1;
+  private static final double TOLERANCE = 0.15;
+
+  private ProcessorThroughputBenchmark() {}
+
+  public static void main(String[] args) throws IOException {
+    int records = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RECORDS;
+    Path baseline = args.length > 1 ? Path.of(args[1]) : null;
+
+    Path workDir = Files.createTempDirectory("throughput");
+    // Warm up javac and the processors, so the measured run is not dominated by class loading
+    run(Math.min(records, 200), workDir.resolve("warmup"));
+    Result result = run(records, workDir.resolve("measured"));
+    System.out.print(result.toBaseline());
+
+    if (baseline == null) {
+      return;
+    }
+    if (!Files.exists(baseline)) {
+      Files.writeString(baseline, result.toBaseline());
+      System.out.println("Wrote baseline " + baseline);
+      return;
+    }
+    List<String> regressions = result.regressionsAgainst(Result.parse(Files.readString(baseline)));
+    regressions.forEach(System.out::println);
+    if (!regressions.isEmpty()) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Synthesizes the records and compiles them without and with the processors.
+   *
+   * @param records the number of records to synthesize
+   * @param workDir an empty or missing directory for sources and compiler output
+   * @return the measurements
+   * @throws IOException if the sources or outputs cannot be accessed
+   */
+  static Result run(int records, Path workDir) throws IOException {
+    List<Path> files = writeSources(records, workDir.resolve("src"));
+
+    long plainNanos = compile(files, workDir.resolve("plain"), false);
+
+    List<MemoryPoolMXBean> heapPools =
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+    System.gc();
+    heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+    Path processed = workDir.resolve("processed");
+    long compileNanos = compile(files, processed, true);
+    long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+    int generatedFiles = 0;
+    long generatedBytes = 0;
+    try (Stream<Path> generated = Files.walk(processed.resolve("generated"))) {
+      for (Path file : generated.filter(Files::isRegularFile).toList()) {
+        generatedFiles++;
+        generatedBytes += Files.size(file);
+      }
+    }
+    return new Result(
+        records, compileNanos, plainNanos, peakHeapBytes, generatedFiles, generatedBytes);
+  }
+
+  /**
+   * Synthesizes records and writes their sources.
+   *
+   * @param records the number of records
+   * @param sourceRoot the source root to write the {@value #PACKAGE} package to
+   * @return the written source files
+   * @throws IOException if the sources cannot be written
+   */
+  static List<Path> writeSources(int records, Path sourceRoot) throws IOException {
+    Path sources = Files.createDirectories(sourceRoot.resolve(PACKAGE));
+    List<Path> files = new ArrayList<>();
+    for (Map.Entry<String, String> source : synthesize(records, SEED).entrySet()) {
+      Path file = sources.resolve(source.getKey() + ".java");
+      Files.writeString(file, source.getValue());
+      files.add(file);
+    }
+    return files;
+  }
+
+  /**
+   * Synthesizes record sources. Every record carries {@code @Builder} and {@code @ValidCheck};
+   * about one in ten is wide, one in five is generic, and components may hold earlier records, so
+   * nested builders are generated too.
+   *
+   * @param records the number of records
+   * @param seed the random seed, so the same arguments always give the same sources
+   * @return the sources by simple record name, in declaration order
+   */
+  static Map<String, String> synthesize(int records, long seed) {
+    Random random = new Random(seed);
+    Map<String, String> sources = new LinkedHashMap<>();
+    List<String> plainRecords = new ArrayList<>();
+
+    for (int i = 0; i < records; i++) {
+      String name = String.format(Locale.ROOT, "Record%05d", i);
+      boolean generic = random.nextInt(5) == 0;
+      int width = 1 + random.nextInt(i % 10 == 0 ? 40 : 12);
+      double density = random.nextDouble();
+
+      List<String> components = new ArrayList<>();
+      for (int c = 0; c < width; c++) {
+        boolean constrained = random.nextDouble() < density;
+        components.add(component(random, "c" + c, constrained, generic, plainRecords));
+      }
+
+      sources.put(
+          name,
+          """
+          package %s;
+
+          import io.github.aglibs.recordcompanion.builder.Builder;
+          import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+          import java.math.BigDecimal;
+          import java.time.LocalDate;
+          import java.util.List;
+          import javax.validation.constraints.*;
+
+          @Builder
+          @ValidCheck
+          public record %s%s(
+              %s) {}
+          """
+              .formatted(PACKAGE, name, generic ? "<T>" : "", String.join(",\n    ", components)));
+      if (!generic) {
+        plainRecords.add(name);
+      }
+    }
+    return sources;
+  }
+
+  private static String component(
+      Random random, String name, boolean constrained, boolean generic, List<String> records) {
+    int kind = random.nextInt(generic ? 9 : 8);
+    if (kind == 7 && records.isEmpty()) {
+      kind = 0;
+    }
+    return switch (kind) {
+      case 0 ->
+          annotated(
+                  random,
+                  constrained,
+                  "@NotBlank",
+                  "@Size(min = 1, max = 64)",
+                  "@Pattern(regexp = \"[a-z0-9]+\")",
+                  "@Email")
+              + "String "
+              + name;
+      case 1 -> annotated(random, constrained, "@Min(0) @Max(100000)", "@Positive") + "int " + name;
+      case 2 ->
+          annotated(random, constrained, "@PositiveOrZero", "@Max(1000000000L)") + "long " + name;
+      case 3 -> annotated(random, constrained, "@NotNull @Min(1)", "@Negative") + "Integer " + name;
+      case 4 ->
+          annotated(
+                  random,
+                  constrained,
+                  "@Digits(integer = 6, fraction = 2)",
+                  "@DecimalMin(\"0.00\")")
+              + "BigDecimal "
+              + name;
+      case 5 ->
+          annotated(random, constrained, "@NotEmpty", "@Size(max = 10)") + "List<String> " + name;
+      case 6 -> annotated(random, constrained, "@Past", "@FutureOrPresent") + "LocalDate " + name;
+      case 7 ->
+          annotated(random, constrained, "@NotNull")
+              + records.get(random.nextInt(records.size()))
+              + " "
+              + name;
+      default -> annotated(random, constrained, "@NotNull") + "T " + name;
+    };
+  }
+
+  private static String annotated(Random random, boolean constrained, String... annotations) {
+    return constrained ? annotations[random.nextInt(annotations.length)] + " " : "";
+  }
+
+  /**
+   * Compiles sources to {@code classes} and {@code generated} directories under the output.
+   *
+   * @param files the source files
+   * @param output the output directory
+   * @param process whether to run both processors, rather than no annotation processing
+   * @param options additional compiler options, such as processor options
+   * @return the compile time
+   * @throws IOException if the output directories cannot be created
+   */
+  static long compile(List<Path> files, Path output, boolean process, String... options)
+      throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+      List<String> arguments =
+          new ArrayList<>(
+              List.of(
+                  "-classpath",
+                  System.getProperty("java.class.path"),
+                  "-d",
+                  Files.createDirectories(output.resolve("classes")).toString(),
+                  "-s",
+                  Files.createDirectories(output.resolve("generated")).toString()));
+      arguments.addAll(List.of(options));
+      if (!process) {
+        arguments.add("-proc:none");
+      }
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              diagnostics,
+              arguments,
+              null,
+              fileManager.getJavaFileObjectsFromPaths(files));
+      if (process) {
+        task.setProcessors(List.of(new BuilderProcessor(), new ValidCheckProcessor()));
+      }
+
+      long start = System.nanoTime();
+      boolean success = task.call();
+      long elapsed = System.nanoTime() - start;
+      if (!success) {
+        throw new IllegalStateException("Compilation failed: " + diagnostics.getDiagnostics());
+      }
+      return elapsed;
+    }
+  }
+
+  /**
+   * The measurements of one run.
+   *
+   * @param records the number of synthesized records
+   * @param compileNanos the compile time with both processors
+   * @param plainCompileNanos the compile time of the same records without annotation processing
+   * @param peakHeapBytes the peak heap use while compiling with the processors
+   * @param generatedFiles the number of generated source files
+   * @param generatedBytes the total size of the generated source files
+   */
+  record Result(
+      int records,
+      long compileNanos,
+      long plainCompileNanos,
+      long peakHeapBytes,
+      int generatedFiles,
+      long generatedBytes) {
+
+    /** Returns the records compiled per second with both processors. */
+    double recordsPerSecond() {
+      return records * 1e9 / compileNanos;
+    }
+
+    /** Returns the result as {@code key=value} lines in a fixed order. */
+    String toBaseline() {
+      return String.format(
+          Locale.ROOT,
+          """
+          format=%d
+          seed=%d
+          records=%d
+          records_per_second=%.1f
+          compile_millis=%d
+          plain_compile_millis=%d
+          peak_heap_bytes=%d
+          generated_files=%d
+          generated_bytes=%d
+          """,
+          FORMAT_VERSION,
+          SEED,
+          records,
+          recordsPerSecond(),
+          compileNanos / 1_000_000,
+          plainCompileNanos / 1_000_000,
+          peakHeapBytes,
+          generatedFiles,
+          generatedBytes);
+    }
+
+    /**
+     * Parses a result written by {@link #toBaseline()}.
+     *
+     * @throws IllegalArgumentException if the baseline has another format or seed
+     */
+    static Result parse(String baseline) {
+      Map<String, String> values = new LinkedHashMap<>();
+      baseline
+          .lines()
+          .map(String::strip)
+          .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+          .forEach(
+              line -> {
+                int separator = line.indexOf('=');
+                values.put(line.substring(0, separator), line.substring(separator + 1));
+              });
+      if (!String.valueOf(FORMAT_VERSION).equals(values.get("format"))
+          || !String.valueOf(SEED).equals(values.get("seed"))) {
+        throw new IllegalArgumentException("Unsupported baseline: " + values);
+      }
+      return new Result(
+          Integer.parseInt(values.get("records")),
+          Long.parseLong(values.get("compile_millis")) * 1_000_000,
+          Long.parseLong(values.get("plain_compile_millis")) * 1_000_000,
+          Long.parseLong(values.get("peak_heap_bytes")),
+          Integer.parseInt(values.get("generated_files")),
+          Long.parseLong(values.get("generated_bytes")));
+    }
+
+    /**
+     * Compares this result with a baseline of the same record count.
+     *
+     * @return a description of each regression, or an empty list if there is none
+     */
+    List<String> regressionsAgainst(Result baseline) {
+      if (records != baseline.records) {
+        throw new IllegalArgumentException(
+            "Baseline has " + baseline.records + " records, this run has " + records);
+      }
+      List<String> regressions = new ArrayList<>();
+      if (recordsPerSecond() < baseline.recordsPerSecond() * (1 - TOLERANCE)) {
+        regressions.add(
+            String.format(
+                Locale.ROOT,
+                "records_per_second dropped from %.1f to %.1f",
+                baseline.recordsPerSecond(),
+                recordsPerSecond()));
+      }
+      if (peakHeapBytes > baseline.peakHeapBytes * (1 + TOLERANCE)) {
+        regressions.add(
+            "peak_heap_bytes grew from " + baseline.peakHeapBytes + " to " + peakHeapBytes);
+      }
+      if (generatedBytes != baseline.generatedBytes) {
+        // Generator changes legitimately change the output, so this is reported but allowed
+        System.out.println(
+            "generated_bytes changed from " + baseline.generatedBytes + " to " + generatedBytes);
+      }
+      return regressions;
+    }
+  }
+}
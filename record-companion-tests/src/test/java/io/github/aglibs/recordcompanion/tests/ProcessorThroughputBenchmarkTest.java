@@ -0,0 +1,57 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests that the throughput benchmark's records compile and its baseline format round-trips. */
+class ProcessorThroughputBenchmarkTest {
+
+  @TempDir Path workDir;
+
+  @Test
+  void testSynthesizedRecordsCompileWithBothProcessors() throws IOException {
+    ProcessorThroughputBenchmark.Result result = ProcessorThroughputBenchmark.run(120, workDir);
+
+    // Each record gets a builder, an updater and a check class
+    assertEquals(120, result.records());
+    assertEquals(360, result.generatedFiles());
+    assertTrue(result.generatedBytes() > 0);
+    assertTrue(result.peakHeapBytes() > 0);
+  }
+
+  @Test
+  void testSynthesisIsDeterministic() {
+    assertEquals(
+        ProcessorThroughputBenchmark.synthesize(50, ProcessorThroughputBenchmark.SEED),
+        ProcessorThroughputBenchmark.synthesize(50, ProcessorThroughputBenchmark.SEED));
+  }
+
+  @Test
+  void testBaselineRoundTripsAndDetectsRegressions() {
+    ProcessorThroughputBenchmark.Result baseline =
+        new ProcessorThroughputBenchmark.Result(
+            1000, 2_000_000_000L, 1_000_000_000L, 512_000_000L, 3000, 9_000_000L);
+
+    ProcessorThroughputBenchmark.Result parsed =
+        ProcessorThroughputBenchmark.Result.parse(baseline.toBaseline());
+
+    assertEquals(baseline, parsed);
+    assertEquals(List.of(), parsed.regressionsAgainst(baseline));
+    ProcessorThroughputBenchmark.Result slower =
+        new ProcessorThroughputBenchmark.Result(
+            1000, 3_000_000_000L, 1_000_000_000L, 512_000_000L, 3000, 9_000_000L);
+    assertEquals(
+        List.of("records_per_second dropped from 500.0 to 333.3"),
+        slower.regressionsAgainst(baseline));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ProcessorThroughputBenchmark.Result.parse("format=0\nseed=42\n"));
+  }
+}
@@ -0,0 +1,164 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.runtime.RecordCheck;
+import io.github.aglibs.recordcompanion.runtime.RecordCompanions;
+import io.github.aglibs.recordcompanion.tests.records.LeanAddress;
+import io.github.aglibs.recordcompanion.tests.records.LeanCustomer;
+import io.github.aglibs.recordcompanion.tests.records.LeanCustomerCheck;
+import io.github.aglibs.recordcompanion.tests.records.Pair;
+import io.github.aglibs.recordcompanion.tests.records.PairBuilder;
+import io.github.aglibs.recordcompanion.tests.records.Person;
+import io.github.aglibs.recordcompanion.tests.records.PersonBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link RecordCompanions}, resolving the companions of this module's records through the
+ * index generated with {@code -Arecordcompanion.index}.
+ */
+class RecordCompanionsTest {
+
+  private static final String BOX_SOURCE =
+      """
+      package indexed;
+
+      import io.github.aglibs.recordcompanion.builder.Builder;
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import javax.validation.constraints.NotNull;
+
+      @Builder
+      @ValidCheck
+      public record Box<T extends Number>(@NotNull T value, String label) {}
+      """;
+
+  record Unindexed(String name) {}
+
+  /**
+   * Defines this module's records and indexes itself, so they belong to a class loader whose index
+   * resource lookups can be counted.
+   */
+  private static final class CountingLoader extends ClassLoader {
+
+    private static final String PREFIX = "io.github.aglibs.recordcompanion.tests.";
+
+    final AtomicInteger resourceLookups = new AtomicInteger();
+
+    CountingLoader() {
+      super(RecordCompanionsTest.class.getClassLoader());
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!name.startsWith(PREFIX + "records.") && !name.startsWith(PREFIX + "index.")) {
+        return super.loadClass(name, resolve);
+      }
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loaded = findLoadedClass(name);
+        if (loaded != null) {
+          return loaded;
+        }
+        try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+          if (in == null) {
+            throw new ClassNotFoundException(name);
+          }
+          byte[] bytes = in.readAllBytes();
+          return defineClass(name, bytes, 0, bytes.length);
+        } catch (IOException e) {
+          throw new ClassNotFoundException(name, e);
+        }
+      }
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+      resourceLookups.incrementAndGet();
+      return super.getResources(name);
+    }
+  }
+
+  @Test
+  void testBuilderCreatesNewBuilders() {
+    Object builder = RecordCompanions.builder(Person.class);
+
+    assertInstanceOf(PersonBuilder.class, builder);
+    assertNotSame(builder, RecordCompanions.builder(Person.class));
+    assertEquals(
+        new Person("Ada", 36, null), ((PersonBuilder) builder).name("Ada").age(36).build());
+  }
+
+  @Test
+  void testTypedBuilder() {
+    PersonBuilder builder = RecordCompanions.builder(Person.class, PersonBuilder.class);
+
+    assertEquals(new Person("Ada", 36, null), builder.name("Ada").age(36).build());
+    assertThrows(
+        ClassCastException.class, () -> RecordCompanions.builder(Person.class, PairBuilder.class));
+  }
+
+  @Test
+  void testIndexesAreReadOncePerClassLoader() throws Exception {
+    CountingLoader loader = new CountingLoader();
+    String records = CountingLoader.PREFIX + "records.";
+
+    assertTrue(RecordCompanions.hasBuilder(loader.loadClass(records + "Person")));
+    assertTrue(RecordCompanions.hasBuilder(loader.loadClass(records + "Pair")));
+    assertTrue(RecordCompanions.hasCheck(loader.loadClass(records + "LeanCustomer")));
+    assertFalse(RecordCompanions.hasCheck(loader.loadClass(records + "Person")));
+    // One lookup per index resource, made for the first record type only
+    assertEquals(2, loader.resourceLookups.get());
+  }
+
+  @Test
+  void testGenericRecordBuilder() {
+    assertInstanceOf(PairBuilder.class, RecordCompanions.builder(Pair.class));
+  }
+
+  @Test
+  void testCheckDelegatesToGeneratedViolations() {
+    RecordCheck<LeanCustomer> check = RecordCompanions.check(LeanCustomer.class);
+    LeanAddress address = new LeanAddress("Main St", "Springfield");
+
+    assertEquals(List.of(), check.violations(new LeanCustomer("Homer", address)));
+    assertEquals(
+        LeanCustomerCheck.violations(" ", address),
+        check.violations(new LeanCustomer(" ", address)));
+    assertFalse(check.violations(new LeanCustomer(" ", address)).isEmpty());
+  }
+
+  @Test
+  void testRecordsWithoutIndexedCompanionsAreRejected() {
+    assertTrue(RecordCompanions.hasBuilder(Person.class));
+    assertFalse(RecordCompanions.hasCheck(Person.class));
+    assertFalse(RecordCompanions.hasBuilder(String.class));
+    assertThrows(IllegalArgumentException.class, () -> RecordCompanions.check(Person.class));
+    assertThrows(IllegalArgumentException.class, () -> RecordCompanions.builder(Unindexed.class));
+  }
+
+  @Test
+  void testGenericCheckIsIndexedWithWildcards() {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "indexed.Box", BOX_SOURCE, "-Arecordcompanion.index=indexed.companions");
+
+    assertTrue(
+        loader
+            .generatedSource("indexed.companions.CheckIndex")
+            .contains("(Box<?> record) -> BoxCheck.violations(record.value(), record.label())"));
+    assertTrue(
+        loader
+            .generatedSource("indexed.companions.BuilderIndex")
+            .contains("registrar.builder(\"indexed.Box\", () -> BoxBuilder.builder())"));
+  }
+}
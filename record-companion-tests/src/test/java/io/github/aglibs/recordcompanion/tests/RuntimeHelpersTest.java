@@ -0,0 +1,164 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.runtime.CheckSupport;
+import io.github.aglibs.recordcompanion.runtime.ConstraintBounds;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the recordcompanion.runtimeHelpers processor option and CheckSupport. */
+class RuntimeHelpersTest {
+
+  private static final String READING_SOURCE =
+      """
+      package helpers;
+
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import javax.validation.constraints.Max;
+      import javax.validation.constraints.Min;
+      import javax.validation.constraints.NotBlank;
+      import javax.validation.constraints.Size;
+
+      @ValidCheck(columns = true)
+      public record Reading(
+          @NotBlank @Size(min = 2, max = 8) String label,
+          @Min(0) @Max(100) int level,
+          @Min(1) long count) {}
+      """;
+
+  private static final String HELPERS = "-Arecordcompanion.runtimeHelpers=true";
+  private static final String TUNABLE = "-Arecordcompanion.tunableBounds=true";
+
+  @Test
+  void testGeneratedCheckCallsHelpers() {
+    String source =
+        CompilationClassLoader.compile("helpers.Reading", READING_SOURCE, HELPERS)
+            .generatedSource("helpers.ReadingCheck");
+
+    assertTrue(source.contains("CheckSupport.addViolation(violations, "));
+    assertTrue(source.contains("return CheckSupport.violations(violations);"));
+    assertTrue(source.contains("CheckSupport.requireRows(count.length, rows);"));
+    assertTrue(source.contains("long[] words = CheckSupport.rowWords(rows);"));
+    assertFalse(source.contains("private static List<String> addViolation("));
+    assertFalse(source.contains("throw new IllegalArgumentException"));
+  }
+
+  @Test
+  void testChecksDoNotNeedRuntimeByDefault() {
+    String source =
+        CompilationClassLoader.compile("helpers.Reading", READING_SOURCE)
+            .generatedSource("helpers.ReadingCheck");
+
+    assertFalse(source.contains("recordcompanion.runtime"));
+  }
+
+  @Test
+  void testViolationsMatchInlinedChecks() throws Exception {
+    Method inlined = violations(CompilationClassLoader.compile("helpers.Reading", READING_SOURCE));
+    Method shared =
+        violations(CompilationClassLoader.compile("helpers.Reading", READING_SOURCE, HELPERS));
+
+    Object[][] rows = {{"ok", 5, 1L}, {" ", -1, 0L}, {"much too long", 101, 1L}, {null, 0, 2L}};
+    for (Object[] row : rows) {
+      assertEquals(inlined.invoke(null, row), shared.invoke(null, row));
+    }
+    assertEquals(List.of(), shared.invoke(null, rows[0]));
+    assertInstanceOf(List.class, shared.invoke(null, rows[1]));
+    assertThrows(UnsupportedOperationException.class, () -> violations(shared, rows[1]).clear());
+  }
+
+  @Test
+  void testTunableBoundMessagesUseSharedFormatting() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("helpers.Reading", READING_SOURCE, HELPERS, TUNABLE);
+    Class<?> readingClass = loader.loadClass("helpers.Reading");
+    Method violations = violations(loader);
+
+    assertTrue(
+        loader
+            .generatedSource("helpers.ReadingCheck")
+            .contains("CheckSupport.message(\"level must be between \", "));
+    assertEquals(
+        List.of(
+            "label must be null or have length between 2 and 8", "level must be between 0 and 100"),
+        violations.invoke(null, "much too long", 101, 1L));
+
+    ConstraintBounds.override(readingClass, "label:nullOrHasLength:max", 20);
+    ConstraintBounds.override(readingClass, "level:inRange:max", 200);
+    assertEquals(List.of(), violations.invoke(null, "much too long", 101, 1L));
+    ConstraintBounds.override(readingClass, "level:inRange:min", 150);
+    assertEquals(
+        List.of("level must be between 150 and 200"),
+        violations.invoke(null, "much too long", 101, 1L));
+  }
+
+  @Test
+  void testColumnsMatchInlinedChecks() throws Exception {
+    Method inlined =
+        validateColumns(CompilationClassLoader.compile("helpers.Reading", READING_SOURCE));
+    Method shared =
+        validateColumns(CompilationClassLoader.compile("helpers.Reading", READING_SOURCE, HELPERS));
+    int[] levels = new int[130];
+    long[] counts = new long[130];
+    for (int i = 0; i < levels.length; i++) {
+      levels[i] = i % 7 == 0 ? 101 : i % 100;
+      counts[i] = i % 5 == 0 ? 0 : 1;
+    }
+
+    BitSet failures = (BitSet) shared.invoke(null, levels, counts);
+
+    assertEquals(inlined.invoke(null, levels, counts), failures);
+    assertTrue(failures.get(0));
+    assertTrue(failures.get(126));
+    assertFalse(failures.get(1));
+    InvocationTargetException thrown =
+        assertThrows(
+            InvocationTargetException.class, () -> shared.invoke(null, new int[2], new long[3]));
+    assertInstanceOf(IllegalArgumentException.class, thrown.getCause());
+    assertEquals("All columns must have the same length", thrown.getCause().getMessage());
+  }
+
+  @Test
+  void testCheckSupport() {
+    List<String> violations = CheckSupport.addViolation(null, "a");
+    assertEquals(ArrayList.class, violations.getClass());
+    assertTrue(CheckSupport.addViolation(violations, "b") == violations);
+    assertEquals(List.of("a", "b"), CheckSupport.violations(violations));
+    assertEquals(List.of(), CheckSupport.violations(null));
+
+    assertEquals("x between 1 and 2.5", CheckSupport.message("x between ", 1, " and ", 2.5));
+    assertEquals("", CheckSupport.message());
+
+    assertEquals(0, CheckSupport.rowWords(0).length);
+    assertEquals(1, CheckSupport.rowWords(64).length);
+    assertEquals(2, CheckSupport.rowWords(65).length);
+    CheckSupport.requireRows(3, 3);
+    assertThrows(IllegalArgumentException.class, () -> CheckSupport.requireRows(2, 3));
+  }
+
+  private static Method violations(CompilationClassLoader loader) throws Exception {
+    return loader
+        .loadClass("helpers.ReadingCheck")
+        .getMethod("violations", String.class, int.class, long.class);
+  }
+
+  private static Method validateColumns(CompilationClassLoader loader) throws Exception {
+    return loader
+        .loadClass("helpers.ReadingCheck")
+        .getMethod("validateColumns", int[].class, long[].class);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<String> violations(Method violations, Object[] row) throws Exception {
+    return (List<String>) violations.invoke(null, row);
+  }
+}
@@ -0,0 +1,102 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the sampled validate() mode configured through {@code @ValidCheck} attributes. */
+class SampledValidationTest {
+
+  private static final String MESSAGE_SOURCE =
+      """
+      package sampling;
+
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import javax.validation.constraints.Min;
+
+      @ValidCheck(sampleRate = %s, sampleAfter = %d)
+      public record Message(@Min(1) int sequence) {}
+      """;
+
+  @Test
+  void testSamplingCodeNotGeneratedByDefault() {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("sampling.Message", MESSAGE_SOURCE.formatted("1.0", 0));
+
+    String source = loader.generatedSource("sampling.MessageCheck");
+    assertFalse(source.contains("sampledFailures"));
+    assertFalse(source.contains("ThreadLocalRandom"));
+  }
+
+  @Test
+  void testValidatesUntilSuccessStreakThenSamples() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("sampling.Message", MESSAGE_SOURCE.formatted("1e-12", 2));
+    Class<?> checkClass = loader.loadClass("sampling.MessageCheck");
+    Method validate = checkClass.getMethod("validate", int.class);
+    Method sampledFailures = checkClass.getMethod("sampledFailures");
+
+    // Every call is validated until two consecutive successes
+    assertThrows(InvocationTargetException.class, () -> validate.invoke(null, 0));
+    validate.invoke(null, 1);
+    assertThrows(InvocationTargetException.class, () -> validate.invoke(null, 0));
+    assertEquals(2L, sampledFailures.invoke(null));
+    validate.invoke(null, 1);
+    validate.invoke(null, 1);
+
+    // Afterwards almost no call is sampled at this rate
+    for (int i = 0; i < 1000; i++) {
+      validate.invoke(null, 0);
+    }
+    assertEquals(2L, sampledFailures.invoke(null));
+
+    // The always-validating methods are unaffected
+    assertEquals(
+        1, ((List<?>) checkClass.getMethod("violations", int.class).invoke(null, 0)).size());
+  }
+
+  @Test
+  void testFullRateWithoutStreakReportsEveryFailure() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("sampling.Message", MESSAGE_SOURCE.formatted("0.999999", 0));
+    Class<?> checkClass = loader.loadClass("sampling.MessageCheck");
+    Method validate = checkClass.getMethod("validate", int.class);
+
+    assertFalse(loader.generatedSource("sampling.MessageCheck").contains("SUCCESS_STREAK"));
+    int thrown = 0;
+    for (int i = 0; i < 100; i++) {
+      try {
+        validate.invoke(null, 0);
+      } catch (InvocationTargetException e) {
+        thrown++;
+      }
+    }
+    assertEquals((long) thrown, checkClass.getMethod("sampledFailures").invoke(null));
+    assertTrue(thrown > 90);
+  }
+
+  @Test
+  void testInvalidSampleRateIsRejected() {
+    Compilation compilation =
+        javac()
+            .withProcessors(new ValidCheckProcessor())
+            .compile(
+                JavaFileObjects.forSourceString(
+                    "sampling.Message", MESSAGE_SOURCE.formatted("1.5", 0)));
+
+    assertEquals(Compilation.Status.FAILURE, compilation.status());
+    assertTrue(
+        compilation.errors().stream()
+            .anyMatch(error -> error.getMessage(null).contains("sampleRate must be in (0, 1]")));
+  }
+}
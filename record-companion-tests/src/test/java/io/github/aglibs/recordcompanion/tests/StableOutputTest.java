@@ -0,0 +1,147 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Tests that recompiling unchanged records leaves the generated sources on disk untouched. */
+class StableOutputTest {
+
+  private static final FileTime PREVIOUS_BUILD = FileTime.fromMillis(1_000_000_000_000L);
+
+  @TempDir Path root;
+
+  private Path sources;
+  private Path generated;
+
+  @BeforeEach
+  void writeSources() throws IOException {
+    sources = Files.createDirectories(root.resolve("src/stable"));
+    generated = Files.createDirectories(root.resolve("generated"));
+    writeRecord("Item", "@NotBlank String name");
+    writeRecord("Order", "@NotBlank String id, Item item");
+  }
+
+  @Test
+  void testUnchangedRecordsKeepTheirGeneratedFiles() throws IOException {
+    compile();
+    Map<String, String> contents = contents();
+    markAsPreviousBuild();
+
+    compile();
+
+    assertEquals(contents, contents());
+    assertEquals(6, contents.size());
+    generatedFiles()
+        .forEach(file -> assertEquals(PREVIOUS_BUILD, lastModified(file), file.toString()));
+  }
+
+  @Test
+  void testChangedRecordRewritesOnlyItsGeneratedFiles() throws IOException {
+    compile();
+    markAsPreviousBuild();
+
+    writeRecord("Order", "@NotBlank String id, Item item, int quantity");
+    compile();
+
+    for (Path file : generatedFiles()) {
+      if (file.getFileName().toString().startsWith("Order")) {
+        assertNotEquals(PREVIOUS_BUILD, lastModified(file), file.toString());
+      } else {
+        assertEquals(PREVIOUS_BUILD, lastModified(file), file.toString());
+      }
+    }
+    assertTrue(
+        Files.readString(generated.resolve("stable/OrderBuilder.java")).contains("quantity"));
+  }
+
+  private void writeRecord(String name, String components) throws IOException {
+    Files.writeString(
+        sources.resolve(name + ".java"),
+        """
+        package stable;
+
+        import io.github.aglibs.recordcompanion.builder.Builder;
+        import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+        import javax.validation.constraints.NotBlank;
+
+        @Builder
+        @ValidCheck
+        public record %s(%s) {}
+        """
+            .formatted(name, components));
+  }
+
+  private void compile() throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      Path classes = Files.createDirectories(root.resolve("classes"));
+      Iterable<? extends JavaFileObject> units;
+      try (Stream<Path> files = Files.list(sources)) {
+        units = fileManager.getJavaFileObjectsFromPaths(files.toList());
+      }
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              null,
+              List.of(
+                  "-classpath",
+                  System.getProperty("java.class.path"),
+                  "-d",
+                  classes.toString(),
+                  "-s",
+                  generated.toString()),
+              null,
+              units);
+      task.setProcessors(List.of(new BuilderProcessor(), new ValidCheckProcessor()));
+      assertTrue(task.call());
+    }
+  }
+
+  private List<Path> generatedFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(generated)) {
+      return files.filter(Files::isRegularFile).sorted().toList();
+    }
+  }
+
+  private Map<String, String> contents() throws IOException {
+    Map<String, String> contents = new TreeMap<>();
+    for (Path file : generatedFiles()) {
+      contents.put(generated.relativize(file).toString(), Files.readString(file));
+    }
+    return contents;
+  }
+
+  private void markAsPreviousBuild() throws IOException {
+    for (Path file : generatedFiles()) {
+      Files.setLastModifiedTime(file, PREVIOUS_BUILD);
+    }
+  }
+
+  private static FileTime lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+import io.github.aglibs.recordcompanion.builder.internal.BuilderProcessor;
+import io.github.aglibs.recordcompanion.validcheck.internal.ValidCheckProcessor;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.tools.JavaFileObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Tests that streamed builder and updater sources are the same as those rendered by JavaPoet. */
+class StreamingSourceTest {
+
+  private static final String STREAMING_ON = "-Arecordcompanion.streaming=true";
+
+  private static Map<String, String> generate(List<JavaFileObject> sources, String... options)
+      throws IOException {
+    Compilation compilation =
+        javac()
+            .withProcessors(new BuilderProcessor(), new ValidCheckProcessor())
+            .withOptions((Object[]) options)
+            .compile(sources);
+    assertEquals(
+        Compilation.Status.SUCCESS, compilation.status(), compilation.diagnostics().toString());
+
+    Map<String, String> generated = new TreeMap<>();
+    for (JavaFileObject file : compilation.generatedSourceFiles()) {
+      generated.put(file.getName(), file.getCharContent(true).toString());
+    }
+    return generated;
+  }
+
+  private static JavaFileObject source(String className, String source) {
+    return JavaFileObjects.forSourceString("streaming." + className, source);
+  }
+
+  /** Generates the sources with and without streaming and asserts that every file is the same. */
+  private static Map<String, String> assertSameOutput(
+      List<JavaFileObject> sources, String... options) throws IOException {
+    Map<String, String> javaPoet = generate(sources, options);
+    List<String> streamingOptions = new ArrayList<>(List.of(options));
+    streamingOptions.add(STREAMING_ON);
+
+    assertEquals(javaPoet, generate(sources, streamingOptions.toArray(String[]::new)));
+    return javaPoet;
+  }
+
+  @Test
+  void testSynthesizedRecordsMatchJavaPoet() throws IOException {
+    List<JavaFileObject> sources =
+        ProcessorThroughputBenchmark.synthesize(60, ProcessorThroughputBenchmark.SEED)
+            .entrySet()
+            .stream()
+            .map(
+                source ->
+                    JavaFileObjects.forSourceString(
+                        ProcessorThroughputBenchmark.PACKAGE + "." + source.getKey(),
+                        source.getValue()))
+            .toList();
+
+    assertSameOutput(sources);
+  }
+
+  /** Record shapes the emitter streams, and shapes it leaves to JavaPoet. */
+  private static List<JavaFileObject> shapes() {
+    return List.of(
+        source(
+            "Empty",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+
+            @Builder
+            public record Empty() {}
+            """),
+        source(
+            "Bounded",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+            import java.io.Serializable;
+            import java.util.List;
+            import java.util.Map;
+
+            @Builder
+            public record Bounded<
+                    K extends Comparable<? super K> & Serializable,
+                    V extends Object,
+                    W extends List<? extends Map.Entry<K, ? super V>>>(
+                K key, V value, W entries, Map<?, ? extends Object>[] maps) {}
+            """),
+        source(
+            "VeryLongRecordNameThatForcesJavaPoetToWrapTheParameterListsOfGeneratedMethods",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+            import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+            import java.util.Map;
+            import java.util.concurrent.ConcurrentHashMap;
+            import javax.validation.constraints.NotNull;
+
+            @Builder
+            @ValidCheck
+            public record VeryLongRecordNameThatForcesJavaPoetToWrapTheParameterListsOfGeneratedMethods<
+                    ALongTypeParameterName extends Comparable<ALongTypeParameterName>>(
+                @NotNull ConcurrentHashMap<String, Map<ALongTypeParameterName, Thread.State>>
+                    aComponentNameThatIsLongEnoughToPushTheSetterPastTheColumnLimit,
+                int[][] grid) {}
+            """),
+        source(
+            "Lean",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+            import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+            import javax.validation.constraints.NotBlank;
+
+            @Builder(lean = true)
+            @ValidCheck
+            public record Lean<T>(@NotBlank String name, T value, Lean.Kind kind) {
+              public enum Kind {
+                A,
+                B
+              }
+            }
+            """),
+        source(
+            "Clash",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+
+            @Builder
+            public record Clash(java.util.List<String> items, java.awt.List awtList) {}
+            """),
+        source(
+            "Primitives",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+
+            @Builder
+            public record Primitives(
+                boolean flag,
+                byte small,
+                short medium,
+                char letter,
+                int count,
+                long total,
+                float ratio,
+                double amount,
+                Integer boxed,
+                String[] names) {}
+            """),
+        source(
+            "Parent",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+
+            @Builder
+            public record Parent(String name, Primitives child) {}
+            """),
+        source(
+            "Copied",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+            import javax.validation.constraints.NotNull;
+
+            @Builder(copyAnnotations = true)
+            public record Copied(@NotNull String name, int size) {}
+            """),
+        source(
+            "Validated",
+            """
+            package streaming;
+
+            import io.github.aglibs.recordcompanion.builder.Builder;
+            import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+            import javax.validation.constraints.Min;
+            import javax.validation.constraints.Size;
+
+            @Builder
+            @ValidCheck
+            public record Validated(@Size(min = 1, max = 5) String code, @Min(0) int level) {}
+            """));
+  }
+
+  @Test
+  void testUnusualShapesMatchJavaPoet() throws IOException {
+    assertEquals(20, assertSameOutput(shapes()).size());
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+      strings = {
+        "-Arecordcompanion.lean=true",
+        "-Arecordcompanion.index=streaming.index",
+        "-Arecordcompanion.classList=true"
+      })
+  void testShapesMatchJavaPoetWithOption(String option) throws IOException {
+    assertSameOutput(shapes(), option);
+  }
+}
@@ -0,0 +1,134 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.runtime.CoarseClock;
+import io.github.aglibs.recordcompanion.runtime.ValidationClock;
+import io.github.aglibs.recordcompanion.tests.records.ScheduledTask;
+import io.github.aglibs.recordcompanion.tests.records.ScheduledTaskCheck;
+import io.github.aglibs.validcheck.ValidationException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for @Past/@PastOrPresent/@Future/@FutureOrPresent and the validation clock. */
+class TemporalValidationTest {
+
+  private static final Instant NOW = Instant.parse("2024-06-15T12:00:00Z");
+
+  @BeforeEach
+  void fixClock() {
+    ValidationClock.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @AfterEach
+  void restoreClock() {
+    ValidationClock.useCoarseClock();
+  }
+
+  @Test
+  void testValidTemporalValues() {
+    assertDoesNotThrow(
+        () ->
+            new ScheduledTask(
+                NOW,
+                OffsetDateTime.parse("2024-06-15T13:59:59+02:00"),
+                LocalDate.parse("2024-06-16"),
+                NOW));
+  }
+
+  @Test
+  void testNullTemporalValuesAreValid() {
+    assertDoesNotThrow(() -> new ScheduledTask(NOW, null, null, null));
+  }
+
+  @Test
+  void testInvalidTemporalValues() {
+    assertThrows(
+        ValidationException.class, () -> new ScheduledTask(NOW.plusMillis(1), null, null, null));
+    assertThrows(
+        ValidationException.class,
+        () ->
+            new ScheduledTask(NOW, OffsetDateTime.parse("2024-06-15T14:00:00+02:00"), null, null));
+    assertThrows(
+        ValidationException.class,
+        () -> new ScheduledTask(NOW, null, LocalDate.parse("2024-06-15"), null));
+    assertThrows(
+        ValidationException.class, () -> new ScheduledTask(NOW, null, null, NOW.minusSeconds(1)));
+  }
+
+  @Test
+  void testViolationsDescribeTemporalRules() {
+    assertEquals(
+        List.of(
+            "createdAt must be in the past or present",
+            "lastRun must be in the past",
+            "dueDate must be in the future",
+            "deadline must be in the future or present"),
+        ScheduledTaskCheck.violations(
+            NOW.plusSeconds(1),
+            OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC),
+            LocalDate.parse("2024-06-01"),
+            NOW.minusSeconds(1)));
+  }
+
+  @Test
+  void testCoarseClockTracksSystemTime() throws InterruptedException {
+    CoarseClock clock = CoarseClock.systemDefaultZone();
+    Instant first = clock.instant();
+    Thread.sleep(20);
+
+    Instant second = clock.instant();
+    assertTrue(second.isAfter(first));
+    assertTrue(Duration.between(second, Instant.now()).abs().toMillis() < 1000);
+    assertSame(clock.today(), clock.today());
+    assertEquals(LocalDate.now(clock.getZone()), clock.today());
+  }
+
+  @Test
+  void testCoarseClockComparisonsAreExact() {
+    ValidationClock.useCoarseClock();
+
+    for (int i = 0; i < 10_000; i++) {
+      Instant now = Instant.now();
+      assertTrue(ValidationClock.compareToNow(now) <= 0);
+      assertTrue(ValidationClock.compareToNow(now.minusNanos(1)) < 0);
+      assertTrue(ValidationClock.compareToNow(OffsetDateTime.ofInstant(now, ZoneOffset.UTC)) <= 0);
+    }
+    assertTrue(ValidationClock.compareToNow(Instant.now().plusSeconds(1)) > 0);
+    assertEquals(0, ValidationClock.compareToToday(LocalDate.now()));
+  }
+
+  @Test
+  void testSystemClockByDefault() {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "clock.Event",
+            """
+            package clock;
+
+            import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+            import java.time.Instant;
+            import javax.validation.constraints.PastOrPresent;
+
+            @ValidCheck
+            public record Event(@PastOrPresent Instant at) {}
+            """);
+
+    String source = loader.generatedSource("clock.EventCheck");
+    assertFalse(source.contains("ValidationClock"));
+    assertTrue(source.contains("at.compareTo(Instant.now()) <= 0"));
+  }
+}
@@ -0,0 +1,109 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.runtime.ConstraintBounds;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the recordcompanion.tunableBounds processor option and ConstraintBounds. */
+class TunableBoundsTest {
+
+  private static final String MESSAGE_SOURCE =
+      """
+      package tunable;
+
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import java.math.BigDecimal;
+      import javax.validation.constraints.DecimalMax;
+      import javax.validation.constraints.Max;
+      import javax.validation.constraints.NotNull;
+      import javax.validation.constraints.Size;
+
+      @ValidCheck
+      public record Message(
+          @NotNull @Size(min = 1, max = 5) String text,
+          @Max(10) int priority,
+          @DecimalMax("9.5") BigDecimal price) {}
+      """;
+
+  @Test
+  void testBoundsAreLiteralsByDefault() {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile("tunable.Message", MESSAGE_SOURCE);
+
+    assertFalse(loader.generatedSource("tunable.MessageCheck").contains("ConstraintBounds"));
+  }
+
+  @Test
+  void testOverrideChangesValidationAndMessages() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "tunable.Message", MESSAGE_SOURCE, "-Arecordcompanion.tunableBounds=true");
+    Class<?> messageClass = loader.loadClass("tunable.Message");
+    Class<?> checkClass = loader.loadClass("tunable.MessageCheck");
+    Method validate = checkClass.getMethod("validate", String.class, int.class, BigDecimal.class);
+    Method violations =
+        checkClass.getMethod("violations", String.class, int.class, BigDecimal.class);
+
+    assertEquals(
+        Map.of(
+            "price:nullOrMax:max", 9.5,
+            "priority:nullOrMax:max", 10,
+            "text:hasLength:max", 5,
+            "text:hasLength:min", 1),
+        ConstraintBounds.bounds(messageClass));
+    assertThrows(
+        InvocationTargetException.class,
+        () -> validate.invoke(null, "too long", 20, BigDecimal.TEN));
+
+    ConstraintBounds.override(messageClass, "text:hasLength:max", 10);
+    ConstraintBounds.override(messageClass, "priority:nullOrMax:max", 50);
+    ConstraintBounds.override(messageClass, "price:nullOrMax:max", 10.5);
+
+    validate.invoke(null, "too long", 20, BigDecimal.TEN);
+    assertEquals(
+        List.of("text must have length between 1 and 10"),
+        violations.invoke(null, "much too long", 20, BigDecimal.TEN));
+
+    ConstraintBounds.reset(messageClass, "text:hasLength:max");
+    assertEquals(5, ConstraintBounds.bounds(messageClass).get("text:hasLength:max"));
+    assertThrows(
+        InvocationTargetException.class,
+        () -> validate.invoke(null, "too long", 20, BigDecimal.TEN));
+  }
+
+  @Test
+  void testUnknownBoundIsRejected() {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "tunable.Message", MESSAGE_SOURCE, "-Arecordcompanion.tunableBounds=true");
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> ConstraintBounds.override(loader.loadClass("tunable.Message"), "text:max", 1));
+    assertThrows(
+        IllegalArgumentException.class, () -> ConstraintBounds.override(String.class, "x", 1));
+  }
+
+  @Test
+  void testBoundsDoNotPinClassLoaders() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "tunable.Message", MESSAGE_SOURCE, "-Arecordcompanion.tunableBounds=true");
+    ConstraintBounds.override(loader.loadClass("tunable.Message"), "priority:nullOrMax:max", 20);
+
+    WeakReference<ClassLoader> reference = new WeakReference<>(loader);
+    loader = null;
+
+    assertTrue(CompilationClassLoader.isCollected(reference));
+  }
+}
@@ -0,0 +1,160 @@
+package io.github.aglibs.recordcompanion.tests;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.aglibs.recordcompanion.runtime.ValidatedInstances;
+import io.github.aglibs.recordcompanion.runtime.ValidationClock;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the recordcompanion.validatedCache processor option and ValidatedInstances. */
+class ValidatedInstancesTest {
+
+  private static final String RESERVATION_SOURCE =
+      """
+      package validated;
+
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import java.time.Instant;
+      import java.util.List;
+      import javax.validation.constraints.Future;
+      import javax.validation.constraints.NotNull;
+
+      @ValidCheck
+      public record Reservation(@NotNull String id, @Future Instant start, @NotNull List<String> guests) {}
+      """;
+
+  private static final String BATCH_SOURCE =
+      """
+      package validated;
+
+      import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+      import java.util.List;
+      import javax.validation.constraints.NotEmpty;
+      import javax.validation.constraints.NotNull;
+
+      @ValidCheck
+      public record Batch(@NotNull String id, @NotEmpty List<String> items) {}
+      """;
+
+  private static final Instant NOW = Instant.parse("2024-06-15T12:00:00Z");
+
+  @BeforeEach
+  void fixClock() {
+    ValidationClock.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+  }
+
+  @AfterEach
+  void restoreClock() {
+    ValidationClock.useCoarseClock();
+  }
+
+  private static CompilationClassLoader compileReservation(String... options) {
+    List<String> all = new ArrayList<>(List.of(options));
+    all.add("-Arecordcompanion.validationClock=true");
+    return CompilationClassLoader.compile(
+        "validated.Reservation", RESERVATION_SOURCE, all.toArray(new String[0]));
+  }
+
+  @Test
+  void testNoInstanceMethodByDefault() {
+    CompilationClassLoader loader = compileReservation();
+
+    assertFalse(
+        loader.generatedSource("validated.ReservationCheck").contains("ValidatedInstances"));
+  }
+
+  @Test
+  void testRepeatedInstanceIsNotValidatedAgain() throws Exception {
+    CompilationClassLoader loader = compileReservation("-Arecordcompanion.validatedCache=16");
+    Class<?> reservationClass = loader.loadClass("validated.Reservation");
+    Constructor<?> constructor =
+        reservationClass.getConstructor(String.class, Instant.class, List.class);
+    Method validate =
+        loader.loadClass("validated.ReservationCheck").getMethod("validate", reservationClass);
+
+    // Moving the clock past the start shows whether the second call validated again
+    Instant start = NOW.plus(Duration.ofHours(1));
+    Object reservation = constructor.newInstance("r-1", start, List.of());
+    validate.invoke(null, reservation);
+    ValidationClock.setClock(Clock.fixed(start.plus(Duration.ofHours(1)), ZoneOffset.UTC));
+    validate.invoke(null, reservation);
+
+    // An equal but distinct instance is validated
+    Object copy = constructor.newInstance("r-1", start, List.of());
+    assertThrows(InvocationTargetException.class, () -> validate.invoke(null, copy));
+  }
+
+  @Test
+  void testExpiredInstanceIsValidatedAgain() throws Exception {
+    CompilationClassLoader loader =
+        compileReservation(
+            "-Arecordcompanion.validatedCache=16", "-Arecordcompanion.validatedCacheTtl=PT0S");
+    Class<?> reservationClass = loader.loadClass("validated.Reservation");
+    Method validate =
+        loader.loadClass("validated.ReservationCheck").getMethod("validate", reservationClass);
+
+    Instant start = NOW.plus(Duration.ofHours(1));
+    Object reservation =
+        reservationClass
+            .getConstructor(String.class, Instant.class, List.class)
+            .newInstance("r-1", start, List.of());
+    validate.invoke(null, reservation);
+    ValidationClock.setClock(Clock.fixed(start.plus(Duration.ofHours(1)), ZoneOffset.UTC));
+
+    assertThrows(InvocationTargetException.class, () -> validate.invoke(null, reservation));
+  }
+
+  @Test
+  void testMutableComponentsAreNotRemembered() throws Exception {
+    CompilationClassLoader loader =
+        CompilationClassLoader.compile(
+            "validated.Batch", BATCH_SOURCE, "-Arecordcompanion.validatedCache=16");
+    Class<?> batchClass = loader.loadClass("validated.Batch");
+    Class<?> checkClass = loader.loadClass("validated.BatchCheck");
+
+    // items could be emptied after validation, so no instance overload is generated
+    assertFalse(loader.generatedSource("validated.BatchCheck").contains("ValidatedInstances"));
+    assertThrows(NoSuchMethodException.class, () -> checkClass.getMethod("validate", batchClass));
+
+    List<String> items = new ArrayList<>(List.of("a"));
+    Object batch = batchClass.getConstructor(String.class, List.class).newInstance("b-1", items);
+    Method validate = checkClass.getMethod("validate", String.class, List.class);
+    Method id = batchClass.getMethod("id");
+    Method batchItems = batchClass.getMethod("items");
+    validate.invoke(null, id.invoke(batch), batchItems.invoke(batch));
+    items.clear();
+
+    assertThrows(
+        InvocationTargetException.class,
+        () -> validate.invoke(null, id.invoke(batch), batchItems.invoke(batch)));
+  }
+
+  @Test
+  void testSetIsBoundedAndUsesIdentity() {
+    ValidatedInstances validated = ValidatedInstances.create(4, Duration.ofMinutes(1));
+    Object[] instances = new Object[64];
+    Arrays.setAll(instances, i -> new Object());
+
+    for (Object instance : instances) {
+      validated.add(instance);
+    }
+
+    assertTrue(validated.contains(instances[63]));
+    assertTrue(Arrays.stream(instances).filter(validated::contains).count() <= 4);
+    assertFalse(validated.contains(new String("x")));
+  }
+}
@@ -0,0 +1,11 @@
+package io.github.aglibs.recordcompanion.tests.records;
+
+import io.github.aglibs.recordcompanion.builder.Builder;
+import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+
+/** A record with a component named like the local variable of the generated violations(). */
+@Builder
+@ValidCheck
+public record AuditEntry(@NotBlank String action, @Min(0) int violations) {}
@@ -0,0 +1,21 @@
+package io.github.aglibs.recordcompanion.tests.records;
+
+import io.github.aglibs.recordcompanion.builder.Builder;
+import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+import java.math.BigDecimal;
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.Email;
+import javax.validation.constraints.NotNull;
+
+@Builder
+@ValidCheck
+public record ContactInfo(
+    @NotNull @Email String email,
+    @Email(regexp = ".*@example\\.com") String workEmail,
+    @Digits(integer = 5, fraction = 2) String amount,
+    @Digits(integer = 3, fraction = 0) int quantity,
+    @Digits(integer = 4, fraction = 2) BigDecimal price) {
+  public ContactInfo {
+    ContactInfoCheck.validate(email, workEmail, amount, quantity, price);
+  }
+}
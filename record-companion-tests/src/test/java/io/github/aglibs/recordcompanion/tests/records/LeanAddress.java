@@ -0,0 +1,6 @@
+package io.github.aglibs.recordcompanion.tests.records;
+
+import io.github.aglibs.recordcompanion.builder.Builder;
+
+@Builder(lean = true)
+public record LeanAddress(String street, String city) {}
@@ -0,0 +1,9 @@
+package io.github.aglibs.recordcompanion.tests.records;
+
+import io.github.aglibs.recordcompanion.builder.Builder;
+import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+import javax.validation.constraints.NotBlank;
+
+@Builder(lean = true)
+@ValidCheck
+public record LeanCustomer(@NotBlank String name, LeanAddress address) {}
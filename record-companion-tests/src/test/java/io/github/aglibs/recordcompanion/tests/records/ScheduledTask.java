@@ -0,0 +1,24 @@
+package io.github.aglibs.recordcompanion.tests.records;
+
+import io.github.aglibs.recordcompanion.builder.Builder;
+import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import javax.validation.constraints.Future;
+import javax.validation.constraints.FutureOrPresent;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Past;
+import javax.validation.constraints.PastOrPresent;
+
+@Builder
+@ValidCheck
+public record ScheduledTask(
+    @NotNull @PastOrPresent Instant createdAt,
+    @Past OffsetDateTime lastRun,
+    @Future LocalDate dueDate,
+    @FutureOrPresent Instant deadline) {
+  public ScheduledTask {
+    ScheduledTaskCheck.validate(createdAt, lastRun, dueDate, deadline);
+  }
+}
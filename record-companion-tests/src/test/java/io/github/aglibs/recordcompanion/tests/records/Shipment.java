@@ -0,0 +1,6 @@
+package io.github.aglibs.recordcompanion.tests.records;
+
+import io.github.aglibs.recordcompanion.builder.Builder;
+
+@Builder
+public record Shipment(String id, LeanAddress destination) {}
@@ -11,7 +11,7 @@ import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 
 @Builder
-@ValidCheck
+@ValidCheck(columns = true)
 public record UserProfile(
     @NotNull @Size(min = 3, max = 20) String username,
     @Min(0) @Max(100) int score,
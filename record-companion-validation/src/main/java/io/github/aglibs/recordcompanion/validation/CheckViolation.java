@@ -0,0 +1,94 @@
+package io.github.aglibs.recordcompanion.validation;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.ValidationException;
+import javax.validation.metadata.ConstraintDescriptor;
+
+/**
+ * A {@link ConstraintViolation} reported by a generated check. Generated checks carry no constraint
+ * metadata, so {@link #getConstraintDescriptor()} returns {@code null} and the message template is
+ * the already interpolated message.
+ *
+ * @param <T> the root bean type
+ */
+final class CheckViolation<T> implements ConstraintViolation<T> {
+
+  private final String message;
+  private final T rootBean;
+  private final Class<T> rootBeanClass;
+  private final Path propertyPath;
+  private final Object invalidValue;
+
+  CheckViolation(
+      String message, T rootBean, Class<T> rootBeanClass, String property, Object invalidValue) {
+    this.message = message;
+    this.rootBean = rootBean;
+    this.rootBeanClass = rootBeanClass;
+    this.propertyPath = new PropertyPath(property);
+    this.invalidValue = invalidValue;
+  }
+
+  @Override
+  public String getMessage() {
+    return message;
+  }
+
+  @Override
+  public String getMessageTemplate() {
+    return message;
+  }
+
+  @Override
+  public T getRootBean() {
+    return rootBean;
+  }
+
+  @Override
+  public Class<T> getRootBeanClass() {
+    return rootBeanClass;
+  }
+
+  @Override
+  public Object getLeafBean() {
+    return rootBean;
+  }
+
+  @Override
+  public Object[] getExecutableParameters() {
+    return null;
+  }
+
+  @Override
+  public Object getExecutableReturnValue() {
+    return null;
+  }
+
+  @Override
+  public Path getPropertyPath() {
+    return propertyPath;
+  }
+
+  @Override
+  public Object getInvalidValue() {
+    return invalidValue;
+  }
+
+  @Override
+  public ConstraintDescriptor<?> getConstraintDescriptor() {
+    return null;
+  }
+
+  @Override
+  public <U> U unwrap(Class<U> type) {
+    if (type.isInstance(this)) {
+      return type.cast(this);
+    }
+    throw new ValidationException("Cannot unwrap to " + type.getName());
+  }
+
+  @Override
+  public String toString() {
+    return propertyPath + " " + message;
+  }
+}
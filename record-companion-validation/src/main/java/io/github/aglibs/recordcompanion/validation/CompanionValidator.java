@@ -0,0 +1,174 @@
+package io.github.aglibs.recordcompanion.validation;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import javax.validation.ConstraintViolation;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import javax.validation.executable.ExecutableValidator;
+import javax.validation.groups.Default;
+import javax.validation.metadata.BeanDescriptor;
+
+/**
+ * A Bean Validation {@link Validator} that validates records through their generated {@code
+ * XxxCheck} classes.
+ *
+ * <p>The check of each class is looked up once and cached in a {@link ClassValue}, bound to the
+ * record accessors with method handles, so validating a record costs one call into the generated
+ * {@code violations(..., Consumer)} method, which reports each violation with its component.
+ * Objects without a generated check, records with constraints their check cannot evaluate,
+ * validation of groups other than {@link Default}, metadata and executable validation go to the
+ * fallback validator, typically the one of a reflective provider:
+ *
+ * <pre>{@code
+ * Validator validator =
+ *     new CompanionValidator(Validation.buildDefaultValidatorFactory().getValidator());
+ * }</pre>
+ *
+ * <p>Without a fallback, objects without a generated check are treated as unconstrained, and
+ * validating a record whose check cannot evaluate all of its constraints fails.
+ */
+public final class CompanionValidator implements Validator {
+
+  private static final ClassValue<Optional<GeneratedCheck>> CHECKS =
+      new ClassValue<>() {
+        @Override
+        protected Optional<GeneratedCheck> computeValue(Class<?> type) {
+          return GeneratedCheck.find(type);
+        }
+      };
+
+  private final Validator fallback;
+
+  /** Creates a validator without fallback. */
+  public CompanionValidator() {
+    this(null);
+  }
+
+  /**
+   * Creates a validator that delegates to another validator when no generated check applies.
+   *
+   * @param fallback the validator for other objects, or {@code null} for none
+   */
+  public CompanionValidator(Validator fallback) {
+    this.fallback = fallback;
+  }
+
+  /**
+   * Returns whether a type is validated through a generated check.
+   *
+   * @param type the type to test
+   * @return {@code true} if the type is a record with a generated {@code XxxCheck} class that
+   *     evaluates all of its constraints
+   */
+  public static boolean hasGeneratedCheck(Class<?> type) {
+    return CHECKS.get(type).filter(GeneratedCheck::isComplete).isPresent();
+  }
+
+  @Override
+  public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+    Objects.requireNonNull(object, "object");
+    Optional<GeneratedCheck> check = generatedCheck(object.getClass(), groups);
+    if (check.isEmpty()) {
+      return fallback != null ? fallback.validate(object, groups) : Set.of();
+    }
+    return violations(object, check.get().violations(object), check.get());
+  }
+
+  @Override
+  public <T> Set<ConstraintViolation<T>> validateProperty(
+      T object, String propertyName, Class<?>... groups) {
+    Objects.requireNonNull(object, "object");
+    Objects.requireNonNull(propertyName, "propertyName");
+    Optional<GeneratedCheck> check = generatedCheck(object.getClass(), groups);
+    if (check.isEmpty()) {
+      return fallback != null ? fallback.validateProperty(object, propertyName, groups) : Set.of();
+    }
+    check.get().indexOf(propertyName);
+    List<GeneratedCheck.Violation> violations = check.get().violations(object);
+    violations.removeIf(violation -> !violation.property().equals(propertyName));
+    return violations(object, violations, check.get());
+  }
+
+  @Override
+  public <T> Set<ConstraintViolation<T>> validateValue(
+      Class<T> beanType, String propertyName, Object value, Class<?>... groups) {
+    Objects.requireNonNull(beanType, "beanType");
+    Objects.requireNonNull(propertyName, "propertyName");
+    Optional<GeneratedCheck> check = generatedCheck(beanType, groups);
+    if (check.isEmpty()) {
+      return fallback != null
+          ? fallback.validateValue(beanType, propertyName, value, groups)
+          : Set.of();
+    }
+    Set<ConstraintViolation<T>> result = new LinkedHashSet<>();
+    for (GeneratedCheck.Violation violation : check.get().violations(propertyName, value)) {
+      result.add(
+          new CheckViolation<>(violation.message(), null, beanType, violation.property(), value));
+    }
+    return result;
+  }
+
+  @Override
+  public BeanDescriptor getConstraintsForClass(Class<?> clazz) {
+    return requireFallback("Constraint metadata").getConstraintsForClass(clazz);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> type) {
+    if (type.isInstance(this)) {
+      return type.cast(this);
+    }
+    if (fallback != null) {
+      return fallback.unwrap(type);
+    }
+    throw new ValidationException("Cannot unwrap to " + type.getName());
+  }
+
+  @Override
+  public ExecutableValidator forExecutables() {
+    return requireFallback("Executable validation").forExecutables();
+  }
+
+  private Optional<GeneratedCheck> generatedCheck(Class<?> type, Class<?>... groups) {
+    // Generated checks evaluate the default group only
+    for (Class<?> group : groups) {
+      if (group != Default.class && fallback != null) {
+        return Optional.empty();
+      }
+    }
+    Optional<GeneratedCheck> check = CHECKS.get(type);
+    if (check.isPresent() && !check.get().isComplete()) {
+      // A partial check would silently skip constraints, so only the fallback validates the type
+      requireFallback("Validating " + type.getName() + " beyond its generated check");
+      return Optional.empty();
+    }
+    return check;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> Set<ConstraintViolation<T>> violations(
+      T object, List<GeneratedCheck.Violation> violations, GeneratedCheck check) {
+    if (violations.isEmpty()) {
+      return Set.of();
+    }
+    Class<T> type = (Class<T>) object.getClass();
+    Set<ConstraintViolation<T>> result = new LinkedHashSet<>();
+    for (GeneratedCheck.Violation violation : violations) {
+      Object value = check.value(object, violation.property());
+      result.add(
+          new CheckViolation<>(violation.message(), object, type, violation.property(), value));
+    }
+    return result;
+  }
+
+  private Validator requireFallback(String feature) {
+    if (fallback == null) {
+      throw new ValidationException(feature + " requires a fallback validator");
+    }
+    return fallback;
+  }
+}
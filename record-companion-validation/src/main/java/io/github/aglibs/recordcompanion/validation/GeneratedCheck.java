@@ -0,0 +1,205 @@
+package io.github.aglibs.recordcompanion.validation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import javax.validation.ValidationException;
+
+/**
+ * The structured {@code violations(..., Consumer)} method of a record's {@code XxxCheck} class,
+ * bound to the record's accessors.
+ *
+ * <p>The processor only generates that method when the check evaluates every constraint of the
+ * record. A check without it is partial and must not stand in for a Bean Validation provider.
+ */
+final class GeneratedCheck {
+
+  private static final String CHECK_SUFFIX = "Check";
+  private static final String VIOLATION_SUFFIX = "$Violation";
+
+  private final Class<?> recordType;
+  private final Map<String, Integer> componentIndexes = new LinkedHashMap<>();
+  private final Class<?>[] componentTypes;
+  private final MethodHandle[] accessors;
+  // (Object[], Consumer)void: violations over explicit component values
+  private final MethodHandle violationsOfValues;
+  // (Object, Consumer)void: violations of a record instance
+  private final MethodHandle violationsOfRecord;
+  // (Object)String: the component and message of an XxxCheck.Violation
+  private final MethodHandle violationComponent;
+  private final MethodHandle violationMessage;
+
+  private GeneratedCheck(Class<?> recordType, Class<?> checkType)
+      throws ReflectiveOperationException {
+    this.recordType = recordType;
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    RecordComponent[] components = recordType.getRecordComponents();
+    componentTypes = new Class<?>[components.length];
+    accessors = new MethodHandle[components.length];
+    for (int i = 0; i < components.length; i++) {
+      componentIndexes.put(components[i].getName(), i);
+      componentTypes[i] = components[i].getType();
+      accessors[i] = lookup.unreflect(components[i].getAccessor());
+    }
+
+    Class<?> violationType =
+        Class.forName(checkType.getName() + VIOLATION_SUFFIX, true, checkType.getClassLoader());
+    MethodType accessorType = MethodType.methodType(String.class, Object.class);
+    violationComponent =
+        lookup
+            .findVirtual(violationType, "component", MethodType.methodType(String.class))
+            .asType(accessorType);
+    violationMessage =
+        lookup
+            .findVirtual(violationType, "message", MethodType.methodType(String.class))
+            .asType(accessorType);
+
+    Class<?>[] parameterTypes = Arrays.copyOf(componentTypes, components.length + 1);
+    parameterTypes[components.length] = Consumer.class;
+    MethodHandle violations =
+        lookup.findStatic(
+            checkType, "violations", MethodType.methodType(void.class, parameterTypes));
+    Class<?>[] genericTypes = new Class<?>[components.length + 1];
+    Arrays.fill(genericTypes, Object.class);
+    genericTypes[components.length] = Consumer.class;
+    violationsOfValues =
+        violations
+            .asType(MethodType.methodType(void.class, genericTypes))
+            .asSpreader(0, Object[].class, components.length);
+
+    // Feed every parameter from the matching accessor, then collapse them into one record argument
+    MethodHandle ofRecord = MethodHandles.filterArguments(violations, 0, accessors);
+    int[] reorder = new int[components.length + 1];
+    reorder[components.length] = 1;
+    ofRecord =
+        MethodHandles.permuteArguments(
+            ofRecord, MethodType.methodType(void.class, recordType, Consumer.class), reorder);
+    violationsOfRecord =
+        ofRecord.asType(MethodType.methodType(void.class, Object.class, Consumer.class));
+  }
+
+  // A partial check, which only records that the generated class exists
+  private GeneratedCheck(Class<?> recordType) {
+    this.recordType = recordType;
+    this.componentTypes = null;
+    this.accessors = null;
+    this.violationsOfValues = null;
+    this.violationsOfRecord = null;
+    this.violationComponent = null;
+    this.violationMessage = null;
+  }
+
+  /**
+   * Finds the generated check of a type.
+   *
+   * @return the check, or empty if the type is not a record or has no public {@code XxxCheck}
+   */
+  static Optional<GeneratedCheck> find(Class<?> type) {
+    if (!type.isRecord()) {
+      return Optional.empty();
+    }
+    String checkName = type.getPackageName() + "." + type.getSimpleName() + CHECK_SUFFIX;
+    Class<?> checkType;
+    try {
+      checkType = Class.forName(checkName, true, type.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(new GeneratedCheck(type, checkType));
+    } catch (ClassNotFoundException | NoSuchMethodException e) {
+      return Optional.of(new GeneratedCheck(type));
+    } catch (IllegalAccessException e) {
+      return Optional.empty();
+    } catch (ReflectiveOperationException e) {
+      throw new ValidationException("Cannot bind " + checkName, e);
+    }
+  }
+
+  /** Returns whether the check evaluates every constraint of the record. */
+  boolean isComplete() {
+    return violationsOfRecord != null;
+  }
+
+  /** Returns the violations of a record instance. */
+  List<Violation> violations(Object record) {
+    List<Violation> violations = new ArrayList<>();
+    invoke(violationsOfRecord, record, collector(violations));
+    return violations;
+  }
+
+  /**
+   * Returns the violations of a single component value, evaluated with every other component set to
+   * {@code null} or zero.
+   */
+  List<Violation> violations(String property, Object value) {
+    int index = indexOf(property);
+    Object[] values = new Object[componentTypes.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] =
+          componentTypes[i].isPrimitive()
+              ? Array.get(Array.newInstance(componentTypes[i], 1), 0)
+              : null;
+    }
+    values[index] = value;
+    List<Violation> violations = new ArrayList<>();
+    invoke(violationsOfValues, values, collector(violations));
+    violations.removeIf(violation -> !violation.property().equals(property));
+    return violations;
+  }
+
+  /** Returns the current value of a component. */
+  Object value(Object record, String property) {
+    return invoke(accessors[indexOf(property)], record);
+  }
+
+  /** Checks that the record has a component with the given name. */
+  int indexOf(String property) {
+    Integer index = componentIndexes.get(property);
+    if (index == null) {
+      throw new IllegalArgumentException(
+          recordType.getName() + " has no record component named " + property);
+    }
+    return index;
+  }
+
+  private Consumer<Object> collector(List<Violation> violations) {
+    return violation ->
+        violations.add(
+            new Violation(
+                (String) invoke(violationComponent, violation),
+                (String) invoke(violationMessage, violation)));
+  }
+
+  private static Object invoke(MethodHandle handle, Object argument) {
+    try {
+      return handle.invoke(argument);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new ValidationException(e);
+    }
+  }
+
+  private static void invoke(MethodHandle handle, Object argument, Consumer<Object> consumer) {
+    try {
+      handle.invoke(argument, consumer);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new ValidationException(e);
+    }
+  }
+
+  /** A violated constraint of one record component. */
+  record Violation(String property, String message) {}
+}
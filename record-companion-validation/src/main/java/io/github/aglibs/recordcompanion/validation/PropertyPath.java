@@ -0,0 +1,84 @@
+package io.github.aglibs.recordcompanion.validation;
+
+import java.util.Iterator;
+import java.util.List;
+import javax.validation.ElementKind;
+import javax.validation.Path;
+
+/** A path of a single record component, the only kind of path generated checks report. */
+final class PropertyPath implements Path {
+
+  private final Node node;
+
+  PropertyPath(String name) {
+    this.node = new PropertyNode(name);
+  }
+
+  @Override
+  public Iterator<Node> iterator() {
+    return List.of(node).iterator();
+  }
+
+  @Override
+  public String toString() {
+    return node.getName();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof PropertyPath other && node.getName().equals(other.node.getName());
+  }
+
+  @Override
+  public int hashCode() {
+    return node.getName().hashCode();
+  }
+
+  private record PropertyNode(String name) implements Path.PropertyNode {
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public boolean isInIterable() {
+      return false;
+    }
+
+    @Override
+    public Integer getIndex() {
+      return null;
+    }
+
+    @Override
+    public Object getKey() {
+      return null;
+    }
+
+    @Override
+    public ElementKind getKind() {
+      return ElementKind.PROPERTY;
+    }
+
+    @Override
+    public <T extends Node> T as(Class<T> nodeType) {
+      return nodeType.cast(this);
+    }
+
+    @Override
+    public Class<?> getContainerClass() {
+      return null;
+    }
+
+    @Override
+    public Integer getTypeArgumentIndex() {
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+}
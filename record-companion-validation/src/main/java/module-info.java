@@ -0,0 +1,6 @@
+/** RecordCompanion bridge exposing generated ValidCheck classes as a Bean Validation Validator. */
+module recordcompanion.validation {
+  requires transitive java.validation;
+
+  exports io.github.aglibs.recordcompanion.validation;
+}
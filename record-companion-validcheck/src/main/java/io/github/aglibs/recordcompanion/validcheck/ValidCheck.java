@@ -39,6 +39,14 @@ import java.lang.annotation.Target;
  *   <li>{@code @Negative} - Maps to {@code .inRange(value, Integer.MIN_VALUE, -1, fieldName)}
  *   <li>{@code @PositiveOrZero} - Maps to {@code .inRange(value, 0, Integer.MAX_VALUE, fieldName)}
  *   <li>{@code @NegativeOrZero} - Maps to {@code .inRange(value, Integer.MIN_VALUE, 0, fieldName)}
+ *   <li>{@code @Past}, {@code @PastOrPresent}, {@code @Future}, {@code @FutureOrPresent} on {@code
+ *       Instant}, {@code LocalDate} and {@code OffsetDateTime} - Maps to {@code .assertTrue(...)}
+ *       with a comparison against the system clock, or against {@code ValidationClock} from
+ *       record-companion-runtime with {@code -Arecordcompanion.validationClock=true}
+ *   <li>{@code @Email} on {@code CharSequence} - Maps to {@code .assertTrue(...)} with a generated
+ *       linear-time scanner; a non-default {@code regexp} is checked as {@code @Pattern}
+ *   <li>{@code @Digits(integer, fraction)} on {@code CharSequence}, {@code BigDecimal} and integral
+ *       types - Maps to {@code .assertTrue(...)} with a generated digit counter
  * </ul>
  *
  * <p><strong>Null-Safe Validation:</strong> Fields without {@code @NotNull} automatically use
@@ -63,14 +71,22 @@ import java.lang.annotation.Target;
  * }
  * }</pre>
  *
- * <p>The generated {@code UserProfileCheck} class provides three static methods:
+ * <p>The generated {@code UserProfileCheck} class provides four static methods:
  *
  * <ul>
  *   <li>{@code check(...)} - Returns {@code BatchValidator} for manual validation control
  *   <li>{@code require(...)} - Returns {@code Validator} for immediate validation with chaining
  *   <li>{@code validate(...)} - Convenience method that validates and throws on failure
+ *   <li>{@code violations(...)} - Evaluates the constraints directly and returns the violated ones
+ *       as a list, without throwing; takes all record components
+ *   <li>{@code violations(..., Consumer)} - Reports each violated constraint as a {@code Violation}
+ *       with its component, rule and message; only generated when every constraint of the record is
+ *       translated
  * </ul>
  *
+ * <p>If the record is also annotated with {@code @Builder}, the generated builder gets a {@code
+ * buildValidated()} method that calls {@code violations(...)} before constructing the record.
+ *
  * <p><strong>Generated validation chain example:</strong>
  *
  * <pre>{@code
@@ -82,9 +98,45 @@ import java.lang.annotation.Target;
  *     .matches(address, ".*", "address");
  * }</pre>
  *
+ * <p><strong>Columnar validation:</strong> with {@link #columns()}, the generated class also gets
+ * {@code validateColumns(...)}, which checks the range constraints of primitive components over one
+ * array per component.
+ *
+ * <p><strong>Sampled validation:</strong> for trusted internal traffic, {@link #sampleRate()} and
+ * {@link #sampleAfter()} make {@code validate(...)} check only a fraction of calls. Failures found
+ * by sampled calls are counted by the generated {@code sampledFailures()} method. The other
+ * generated methods always validate.
+ *
  * @since 0.1.1
  * @see <a href="https://github.com/validcheck/validcheck">ValidCheck Library</a>
  */
 @Target(ElementType.TYPE)
 @Retention(RetentionPolicy.SOURCE)
-public @interface ValidCheck {}
+public @interface ValidCheck {
+
+  /**
+   * Fraction of {@code validate(...)} calls that are fully validated, in {@code (0, 1]}. The
+   * default of {@code 1.0} validates every call and generates no sampling code.
+   *
+   * @return the sample rate
+   */
+  double sampleRate() default 1.0;
+
+  /**
+   * Number of consecutive successful {@code validate(...)} calls required before sampling starts.
+   * Any failure resets the count, so every call is validated again until the streak is rebuilt.
+   * Only used when {@link #sampleRate()} is below {@code 1.0}.
+   *
+   * @return the number of consecutive successes before sampling
+   */
+  int sampleAfter() default 0;
+
+  /**
+   * Whether to generate {@code validateColumns(...)}, which takes one array per primitive component
+   * with range constraints and returns the failing rows as a {@code BitSet}. Off by default, since
+   * it adds a method to the check class that only batch workloads call.
+   *
+   * @return {@code true} to generate columnar validation
+   */
+  boolean columns() default false;
+}
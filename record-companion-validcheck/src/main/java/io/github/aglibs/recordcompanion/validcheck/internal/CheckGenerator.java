@@ -1,23 +1,63 @@
 package io.github.aglibs.recordcompanion.validcheck.internal;
 
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.NameAllocator;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+import io.github.aglibs.recordcompanion.processor.internal.ClassList;
+import io.github.aglibs.recordcompanion.processor.internal.CompanionIndexGenerator;
+import io.github.aglibs.recordcompanion.processor.internal.InliningReport;
+import io.github.aglibs.recordcompanion.processor.internal.ProcessingProfiler;
+import io.github.aglibs.recordcompanion.processor.internal.RecordModel;
+import io.github.aglibs.recordcompanion.processor.internal.RecordModels;
+import io.github.aglibs.recordcompanion.processor.internal.SourceFileWriter;
+import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
 import java.io.IOException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import javax.annotation.processing.Filer;
 import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.RecordComponentElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
 import javax.validation.constraints.DecimalMax;
 import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.Email;
+import javax.validation.constraints.Future;
+import javax.validation.constraints.FutureOrPresent;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Negative;
@@ -25,6 +65,8 @@ import javax.validation.constraints.NegativeOrZero;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Past;
+import javax.validation.constraints.PastOrPresent;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
@@ -33,36 +75,261 @@ import javax.validation.constraints.Size;
 /** Generates check classes for ValidCheck integration based on Bean Validation annotations. */
 public class CheckGenerator {
 
-  private static final String CHECK_SUFFIX = "Check";
   private static final ClassName VALIDCHECK_CLASS =
       ClassName.get("io.github.aglibs.validcheck", "ValidCheck");
   private static final ClassName BATCH_VALIDATOR =
       ClassName.get("io.github.aglibs.validcheck", "BatchValidator");
   private static final ClassName VALIDATOR =
       ClassName.get("io.github.aglibs.validcheck", "Validator");
+  private static final ClassName LIST_TYPE = ClassName.get("java.util", "List");
+  private static final ClassName ARRAY_LIST_TYPE = ClassName.get("java.util", "ArrayList");
+  private static final TypeName VIOLATIONS_TYPE =
+      ParameterizedTypeName.get(LIST_TYPE, ClassName.get(String.class));
+  private static final ClassName VALIDATION_EXCEPTION =
+      ClassName.get("io.github.aglibs.validcheck", "ValidationException");
+  private static final ClassName METRICS_TYPE =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "CompanionMetrics");
+  private static final ClassName SLOW_VALIDATION_EVENT =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "SlowValidationEvent");
+  private static final ClassName FAILURE_EVENT =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "ValidationFailureEvent");
+  private static final ClassName RANDOM_TYPE =
+      ClassName.get("java.util.concurrent", "ThreadLocalRandom");
+  private static final ClassName LONG_ADDER_TYPE =
+      ClassName.get("java.util.concurrent.atomic", "LongAdder");
+  private static final ClassName ATOMIC_INTEGER_TYPE =
+      ClassName.get("java.util.concurrent.atomic", "AtomicInteger");
+  private static final String FAILURES_FIELD = "SAMPLED_FAILURES";
+  private static final String STREAK_FIELD = "SUCCESS_STREAK";
+  private static final ClassName METHOD_HANDLE_TYPE =
+      ClassName.get("java.lang.invoke", "MethodHandle");
+  private static final ClassName CONSTRAINT_BOUNDS_TYPE =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "ConstraintBounds");
+  private static final Map<String, List<String>> TUNABLE_BOUNDS =
+      Map.of(
+          "hasLength", List.of("min", "max"),
+          "nullOrHasLength", List.of("min", "max"),
+          "hasSize", List.of("min", "max"),
+          "nullOrHasSize", List.of("min", "max"),
+          "inRange", List.of("min", "max"),
+          "min", List.of("min"),
+          "nullOrMin", List.of("min"),
+          "max", List.of("max"),
+          "nullOrMax", List.of("max"));
+  private static final ClassName CHECK_SUPPORT_TYPE =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "CheckSupport");
+  private static final ClassName VALIDATED_INSTANCES_TYPE =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "ValidatedInstances");
+  private static final String VALIDATED_FIELD = "VALIDATED";
+  private static final Duration DEFAULT_VALIDATED_CACHE_TTL = Duration.ofMinutes(1);
+  private static final Set<String> TEMPORAL_TYPES =
+      Set.of("java.time.Instant", "java.time.LocalDate", "java.time.OffsetDateTime");
+  private static final Set<String> IMMUTABLE_TYPES =
+      Set.of(
+          "java.lang.String",
+          "java.lang.Boolean",
+          "java.lang.Character",
+          "java.lang.Byte",
+          "java.lang.Short",
+          "java.lang.Integer",
+          "java.lang.Long",
+          "java.lang.Float",
+          "java.lang.Double",
+          "java.math.BigDecimal",
+          "java.math.BigInteger",
+          "java.util.UUID");
+  private static final Set<String> CONDITION_METHODS =
+      Set.of("past", "pastOrPresent", "future", "futureOrPresent", "email", "digits");
+  private static final ClassName BIT_SET_TYPE = ClassName.get("java.util", "BitSet");
+  private static final String BUILDER_ANNOTATION =
+      "io.github.aglibs.recordcompanion.builder.Builder";
+  private static final ClassName CONSUMER_TYPE = ClassName.get("java.util.function", "Consumer");
+  private static final String VIOLATION_NAME = "Violation";
+  private static final String CONSTRAINT_ANNOTATION = "javax.validation.Constraint";
+  private static final String VALID_ANNOTATION = "javax.validation.Valid";
+  private static final Set<String> TRANSLATED_CONSTRAINTS =
+      Set.of(
+          NotNull.class.getCanonicalName(),
+          NotEmpty.class.getCanonicalName(),
+          NotBlank.class.getCanonicalName(),
+          Size.class.getCanonicalName(),
+          Pattern.class.getCanonicalName(),
+          Min.class.getCanonicalName(),
+          Max.class.getCanonicalName(),
+          DecimalMin.class.getCanonicalName(),
+          DecimalMax.class.getCanonicalName(),
+          Positive.class.getCanonicalName(),
+          Negative.class.getCanonicalName(),
+          PositiveOrZero.class.getCanonicalName(),
+          NegativeOrZero.class.getCanonicalName(),
+          Email.class.getCanonicalName(),
+          Digits.class.getCanonicalName(),
+          Past.class.getCanonicalName(),
+          PastOrPresent.class.getCanonicalName(),
+          Future.class.getCanonicalName(),
+          FutureOrPresent.class.getCanonicalName());
+  private static final Set<String> TEMPORAL_CONSTRAINTS =
+      Set.of(
+          Past.class.getCanonicalName(),
+          PastOrPresent.class.getCanonicalName(),
+          Future.class.getCanonicalName(),
+          FutureOrPresent.class.getCanonicalName());
 
   private final ProcessingEnvironment processingEnv;
+  private final ProcessingProfiler profiler;
+  private final SourceFileWriter sourceFileWriter;
+  private final CompanionIndexGenerator companionIndex;
+  private final KnownTypes knownTypes;
+  private final RecordModels records = new RecordModels();
+  private final boolean metrics;
+  private final boolean jfr;
+  private final boolean tunableBounds;
+  private final boolean runtimeHelpers;
+  private final int patternCacheSize;
+  private final boolean validationClock;
+  private final int validatedCacheSize;
+  private final Duration validatedCacheTtl;
 
-  public CheckGenerator(ProcessingEnvironment processingEnv) {
+  CheckGenerator(
+      ProcessingEnvironment processingEnv,
+      ProcessingProfiler profiler,
+      ClassList classList,
+      InliningReport inliningReport) {
     this.processingEnv = Objects.requireNonNull(processingEnv, "processingEnv cannot be null");
+    this.profiler = Objects.requireNonNull(profiler, "profiler cannot be null");
+    int parallelism = sizeOption(processingEnv, ValidCheckProcessor.PARALLELISM_OPTION);
+    this.sourceFileWriter =
+        new SourceFileWriter(
+            processingEnv,
+            profiler,
+            Objects.requireNonNull(classList, "classList cannot be null"),
+            Objects.requireNonNull(inliningReport, "inliningReport cannot be null"),
+            parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.companionIndex =
+        CompanionIndexGenerator.create(
+            processingEnv, ValidCheckProcessor.INDEX_OPTION, "CheckIndex", "validcheck.index");
+    this.knownTypes = new KnownTypes(processingEnv);
+    this.metrics =
+        Boolean.parseBoolean(processingEnv.getOptions().get(ValidCheckProcessor.METRICS_OPTION));
+    this.jfr = Boolean.parseBoolean(processingEnv.getOptions().get(ValidCheckProcessor.JFR_OPTION));
+    this.tunableBounds =
+        Boolean.parseBoolean(
+            processingEnv.getOptions().get(ValidCheckProcessor.TUNABLE_BOUNDS_OPTION));
+    this.runtimeHelpers =
+        Boolean.parseBoolean(
+            processingEnv.getOptions().get(ValidCheckProcessor.RUNTIME_HELPERS_OPTION));
+    this.patternCacheSize = sizeOption(processingEnv, ValidCheckProcessor.PATTERN_CACHE_OPTION);
+    this.validationClock =
+        Boolean.parseBoolean(
+            processingEnv.getOptions().get(ValidCheckProcessor.VALIDATION_CLOCK_OPTION));
+    this.validatedCacheSize = sizeOption(processingEnv, ValidCheckProcessor.VALIDATED_CACHE_OPTION);
+    this.validatedCacheTtl = validatedCacheTtl(processingEnv);
   }
 
-  public void generateCheck(TypeElement recordElement) throws IOException {
-    String className = recordElement.getSimpleName() + CHECK_SUFFIX;
-    String packageName = processingEnv.getElementUtils().getPackageOf(recordElement).toString();
+  private static int sizeOption(ProcessingEnvironment processingEnv, String option) {
+    String value = processingEnv.getOptions().get(option);
+    if (value == null) {
+      return 0;
+    }
+    try {
+      return Math.max(0, Integer.parseInt(value.trim()));
+    } catch (NumberFormatException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.WARNING, "Ignoring " + option + "=" + value + ": not a number");
+      return 0;
+    }
+  }
 
-    List<? extends RecordComponentElement> components = recordElement.getRecordComponents();
-    List<ValidatedComponent> validatedComponents = extractValidatedComponents(components);
+  private static Duration validatedCacheTtl(ProcessingEnvironment processingEnv) {
+    String value = processingEnv.getOptions().get(ValidCheckProcessor.VALIDATED_CACHE_TTL_OPTION);
+    if (value == null) {
+      return DEFAULT_VALIDATED_CACHE_TTL;
+    }
+    try {
+      return Duration.parse(value.trim());
+    } catch (DateTimeParseException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.WARNING,
+              "Ignoring "
+                  + ValidCheckProcessor.VALIDATED_CACHE_TTL_OPTION
+                  + "="
+                  + value
+                  + ": not an ISO-8601 duration");
+      return DEFAULT_VALIDATED_CACHE_TTL;
+    }
+  }
 
-    // Only generate if there are components with validation annotations
-    if (validatedComponents.isEmpty()) {
+  /** Prepares for a new processing round, dropping types resolved in the previous one. */
+  void startRound() {
+    knownTypes.clear();
+    records.startRound();
+  }
+
+  /** Ends a processing round, writing the check classes generated during the round. */
+  void finishRound() {
+    if (companionIndex != null) {
+      companionIndex.finishRound().ifPresent(sourceFileWriter::add);
+    }
+    sourceFileWriter.flush();
+  }
+
+  /** Releases the threads that rendered generated sources, once processing is over. */
+  void close() {
+    sourceFileWriter.close();
+  }
+
+  /**
+   * Writes the companion index resource once processing is over, if the index is enabled.
+   *
+   * @param filer the filer to create the resource with
+   * @throws IOException if the resource cannot be written
+   */
+  void writeIndex(Filer filer) throws IOException {
+    if (companionIndex != null) {
+      companionIndex.writeResource(filer);
+    }
+  }
+
+  public void generateCheck(TypeElement recordElement) {
+    RecordModel model = records.get(recordElement);
+    ClassName recordClass = model.recordClass();
+    String recordName = model.recordName();
+    String className = model.checkClass().simpleName();
+    String packageName = model.packageName();
+
+    List<ValidatedComponent> validatedComponents = extractValidatedComponents(model.components());
+
+    // Records that also carry @Builder always get a check class, since the generated builder's
+    // buildValidated() delegates to violations()
+    boolean builderCompanion = model.hasAnnotation(BUILDER_ANNOTATION);
+    profiler.mark(ProcessingProfiler.Phase.MODEL);
+
+    // Otherwise only generate if there are components with validation annotations
+    if (validatedComponents.isEmpty() && !builderCompanion) {
+      return;
+    }
+
+    ValidCheck settings = recordElement.getAnnotation(ValidCheck.class);
+    if (!(settings.sampleRate() > 0 && settings.sampleRate() <= 1) || settings.sampleAfter() < 0) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.ERROR,
+              "@ValidCheck sampleRate must be in (0, 1] and sampleAfter must not be negative",
+              recordElement);
       return;
     }
+    boolean sampled = settings.sampleRate() < 1;
 
     TypeSpec.Builder checkClass =
         TypeSpec.classBuilder(className)
             .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-            .addJavadoc("Generated check class for $L record.\n\n", recordElement.getSimpleName())
+            .addOriginatingElement(recordElement)
+            .addJavadoc("Generated check class for $L record.\n\n", recordName)
             .addJavadoc(
                 "<p>This class provides validation methods that map Bean Validation annotations to ValidCheck API\n")
             .addJavadoc("calls for components with validation annotations.\n");
@@ -75,41 +342,316 @@ public class CheckGenerator {
             .build();
     checkClass.addMethod(constructor);
 
+    // Every rule must have a direct condition, checked before bounds become tunable expressions
+    if (!checkSupported(
+        validatedComponents,
+        new ConditionGenerator(
+            processingEnv, knownTypes, recordClass, patternCacheSize, validationClock))) {
+      return;
+    }
+
+    // Read numeric bounds through runtime-tunable constants
+    if (tunableBounds) {
+      validatedComponents = makeBoundsTunable(recordClass, validatedComponents, checkClass);
+    }
+
+    // Add violations method, which evaluates the constraints directly without throwing
+    ConditionGenerator conditions =
+        new ConditionGenerator(
+            processingEnv, knownTypes, recordClass, patternCacheSize, validationClock);
+    checkClass.addMethod(createViolationsMethod(model, validatedComponents, conditions));
+    if ((metrics || jfr) && !validatedComponents.isEmpty()) {
+      checkClass.addMethod(createReportViolationMethod(recordClass));
+    }
+    if (!runtimeHelpers) {
+      checkClass.addMethod(createAddViolationMethod());
+    }
+
+    // Structured violations are only offered when they cover every constraint of the record, so
+    // the Bean Validation bridge can leave other records to its fallback validator
+    if (checksEveryConstraint(model)) {
+      ClassName violationClass = ClassName.get(packageName, className, VIOLATION_NAME);
+      checkClass.addType(createViolationType(recordName));
+      checkClass.addMethod(
+          createStructuredViolationsMethod(model, validatedComponents, conditions, violationClass));
+    }
+
+    if (validatedComponents.isEmpty()) {
+      writeCheckClass(model, checkClass, conditions);
+      return;
+    }
+
     // Generate method parameters and validation chain
     List<ParameterSpec> parameters = generateParameters(validatedComponents);
-    CodeBlock validationChain = generateValidationChain(validatedComponents);
+    List<TypeVariableName> typeVariables =
+        recordElement.getTypeParameters().stream().map(TypeVariableName::get).toList();
+    CodeBlock validationChain = generateValidationChain(validatedComponents, conditions);
+
+    // Add metrics and JFR reporting for failed validations
+    if (metrics || jfr) {
+      checkClass.addMethod(
+          createReportViolationsMethod(recordClass, validatedComponents, conditions));
+    }
 
     // Add check method
     MethodSpec checkMethod =
-        createCheckMethod(parameters, validationChain, recordElement.getSimpleName().toString());
+        withTypeVariables(
+            createCheckMethod(parameters, validationChain, recordName), typeVariables);
     checkClass.addMethod(checkMethod);
 
     // Add require method
     MethodSpec requireMethod =
-        createRequireMethod(parameters, validationChain, recordElement.getSimpleName().toString());
+        withTypeVariables(
+            createRequireMethod(parameters, validationChain, recordName, recordClass),
+            typeVariables);
     checkClass.addMethod(requireMethod);
 
     // Add validate method
     MethodSpec validateMethod =
-        createValidateMethod(parameters, recordElement.getSimpleName().toString());
+        withTypeVariables(
+            createValidateMethod(
+                parameters,
+                recordName,
+                recordClass,
+                sampled ? settings : null,
+                createFastPath(validatedComponents, conditions)),
+            typeVariables);
     checkClass.addMethod(validateMethod);
 
+    // Add columnar batch validation for primitive range constraints, if requested
+    MethodSpec validateColumnsMethod =
+        settings.columns() ? createValidateColumnsMethod(validatedComponents, recordName) : null;
+    if (validateColumnsMethod != null) {
+      checkClass.addMethod(validateColumnsMethod);
+    }
+
+    // Add sampling state for validate
+    if (sampled) {
+      addSamplingMembers(checkClass, settings);
+    }
+
+    // Add instance validation backed by the validated-instance cache
+    if (validatedCacheSize > 0) {
+      MethodSpec validateInstanceMethod =
+          createValidateInstanceMethod(model, validatedComponents, parameters);
+      if (validateInstanceMethod != null) {
+        checkClass.addField(
+            FieldSpec.builder(
+                    VALIDATED_INSTANCES_TYPE,
+                    VALIDATED_FIELD,
+                    Modifier.PRIVATE,
+                    Modifier.STATIC,
+                    Modifier.FINAL)
+                .initializer(
+                    "$T.create($L, $T.ofMillis($LL))",
+                    VALIDATED_INSTANCES_TYPE,
+                    validatedCacheSize,
+                    Duration.class,
+                    validatedCacheTtl.toMillis())
+                .build());
+        checkClass.addMethod(validateInstanceMethod);
+      }
+    }
+
     // Add buildValidation method
-    MethodSpec buildValidationMethod = createBuildValidationMethod(parameters, validationChain);
+    MethodSpec buildValidationMethod =
+        withTypeVariables(createBuildValidationMethod(parameters, validationChain), typeVariables);
     checkClass.addMethod(buildValidationMethod);
 
-    JavaFile javaFile = JavaFile.builder(packageName, checkClass.build()).indent("  ").build();
-    javaFile.writeTo(processingEnv.getFiler());
+    writeCheckClass(model, checkClass, conditions);
+  }
+
+  private void writeCheckClass(
+      RecordModel model, TypeSpec.Builder checkClass, ConditionGenerator conditions) {
+    checkClass.addFields(conditions.fields());
+    checkClass.addMethods(conditions.methods());
+    TypeSpec check = checkClass.build();
+    JavaFile javaFile = JavaFile.builder(model.packageName(), check).indent("  ").build();
+    sourceFileWriter.add(javaFile);
+
+    if (companionIndex != null) {
+      ClassName checkType = model.checkClass();
+      companionIndex.add(model.element(), checkType, "check", createIndexedCheck(model, checkType));
+    }
+  }
+
+  /** Creates the lambda that applies {@code violations(...)} to a record instance. */
+  private static CodeBlock createIndexedCheck(RecordModel model, ClassName checkType) {
+    ClassName recordClass = model.recordClass();
+    TypeName recordType =
+        model.element().getTypeParameters().isEmpty()
+            ? recordClass
+            : ParameterizedTypeName.get(
+                recordClass,
+                model.element().getTypeParameters().stream()
+                    .map(parameter -> WildcardTypeName.subtypeOf(Object.class))
+                    .toArray(TypeName[]::new));
+    CodeBlock arguments =
+        model.components().stream()
+            .map(component -> CodeBlock.of("record.$N()", component.name()))
+            .collect(CodeBlock.joining(", "));
+    return CodeBlock.of("($T record) -> $T.violations($L)", recordType, checkType, arguments);
+  }
+
+  /** Declares the record's type parameters on a method whose parameters may use them. */
+  private static MethodSpec withTypeVariables(
+      MethodSpec method, List<TypeVariableName> typeVariables) {
+    return typeVariables.isEmpty()
+        ? method
+        : method.toBuilder().addTypeVariables(typeVariables).build();
+  }
+
+  /**
+   * Returns whether the check evaluates every Bean Validation constraint of the record.
+   * Class-level, container element, cascaded and group-restricted constraints are not translated,
+   * nor are constraints without a ValidCheck counterpart or on component types their translation
+   * skips.
+   */
+  private boolean checksEveryConstraint(RecordModel model) {
+    if (model.annotations().stream().anyMatch(this::isConstraint)) {
+      return false;
+    }
+    List<AnnotationMirror> annotations = new ArrayList<>();
+    for (VariableElement field : ElementFilter.fieldsIn(model.element().getEnclosedElements())) {
+      if (!field.getModifiers().contains(Modifier.STATIC)) {
+        annotations.addAll(field.getAnnotationMirrors());
+      }
+    }
+    for (RecordModel.Component component : model.components()) {
+      TypeMirror type = component.type();
+      if (hasNestedConstraints(type)) {
+        return false;
+      }
+      for (AnnotationMirror annotation : component.annotations()) {
+        if (!isTranslated(annotation, type)) {
+          return false;
+        }
+      }
+    }
+    return annotations.stream().allMatch(annotation -> isTranslated(annotation, null));
+  }
+
+  /**
+   * Returns whether an annotation of a record member is no constraint or one the check evaluates.
+   * Fields only carry constraints that their accessors carry as well, so their type is not needed.
+   */
+  private boolean isTranslated(AnnotationMirror annotation, TypeMirror type) {
+    String name = annotation.getAnnotationType().toString();
+    if (name.equals(VALID_ANNOTATION)) {
+      return false;
+    }
+    if (!isConstraint(annotation)) {
+      return true;
+    }
+    if (!TRANSLATED_CONSTRAINTS.contains(name) || hasGroups(annotation)) {
+      return false;
+    }
+    if (type == null) {
+      return true;
+    }
+    // Mirrors the type tests of extractValidationRules, which skips these combinations
+    String typeName = type.toString();
+    if (name.equals(Size.class.getCanonicalName())
+        && !(typeName.contains("Collection")
+            || typeName.contains("List")
+            || typeName.contains("Set"))
+        && typeName.contains("Map")) {
+      return false;
+    }
+    return !TEMPORAL_CONSTRAINTS.contains(name)
+        || (type instanceof DeclaredType declaredType
+            && TEMPORAL_TYPES.contains(
+                ((TypeElement) declaredType.asElement()).getQualifiedName().toString()));
+  }
+
+  /** Returns whether an annotation is a constraint or a list of repeated constraints. */
+  private boolean isConstraint(AnnotationMirror annotation) {
+    if (annotation.getAnnotationType().asElement().getAnnotationMirrors().stream()
+        .anyMatch(meta -> meta.getAnnotationType().toString().equals(CONSTRAINT_ANNOTATION))) {
+      return true;
+    }
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        annotation.getElementValues().entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals("value")
+          && entry.getValue().getValue() instanceof List<?> values
+          && values.stream()
+              .anyMatch(
+                  value ->
+                      ((AnnotationValue) value).getValue() instanceof AnnotationMirror nested
+                          && isConstraint(nested))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean hasGroups(AnnotationMirror annotation) {
+    return annotation.getElementValues().entrySet().stream()
+        .anyMatch(
+            entry ->
+                entry.getKey().getSimpleName().contentEquals("groups")
+                    && !((List<?>) entry.getValue().getValue()).isEmpty());
+  }
+
+  /** Returns whether type arguments or array components carry constraints or {@code @Valid}. */
+  private boolean hasNestedConstraints(TypeMirror type) {
+    List<TypeMirror> nested = new ArrayList<>();
+    if (type instanceof DeclaredType declaredType) {
+      nested.addAll(declaredType.getTypeArguments());
+    } else if (type instanceof ArrayType arrayType) {
+      nested.add(arrayType.getComponentType());
+    }
+    for (TypeMirror element : nested) {
+      for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+        if (annotation.getAnnotationType().toString().equals(VALID_ANNOTATION)
+            || isConstraint(annotation)) {
+          return true;
+        }
+      }
+      if (hasNestedConstraints(element)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reports an error for every rule that cannot be evaluated directly for its component type, so
+   * {@code violations()} and {@code buildValidated()} never skip a rule that {@code validate()}
+   * enforces.
+   *
+   * @return {@code true} if every rule is supported
+   */
+  private boolean checkSupported(
+      List<ValidatedComponent> validatedComponents, ConditionGenerator conditions) {
+    boolean supported = true;
+    for (ValidatedComponent component : validatedComponents) {
+      for (ValidationRule rule : component.rules()) {
+        if (!conditions.supports(component.element(), rule.method(), rule.args())) {
+          processingEnv
+              .getMessager()
+              .printMessage(
+                  Diagnostic.Kind.ERROR,
+                  "@ValidCheck cannot check that "
+                      + ConditionGenerator.describe(rule.fieldName(), rule.method(), rule.args())
+                      + ": not supported for type "
+                      + processingEnv.getTypeUtils().erasure(component.element().asType()),
+                  component.element());
+          supported = false;
+        }
+      }
+    }
+    return supported;
   }
 
   private List<ValidatedComponent> extractValidatedComponents(
-      List<? extends RecordComponentElement> components) {
+      List<RecordModel.Component> components) {
     List<ValidatedComponent> validatedComponents = new ArrayList<>();
 
-    for (RecordComponentElement component : components) {
-      List<ValidationRule> rules = extractValidationRules(component);
+    for (RecordModel.Component component : components) {
+      List<ValidationRule> rules = extractValidationRules(component.element());
       if (!rules.isEmpty()) {
-        validatedComponents.add(new ValidatedComponent(component, rules));
+        validatedComponents.add(new ValidatedComponent(component.element(), rules));
       }
     }
 
@@ -274,6 +816,44 @@ public class CheckGenerator {
       rules.add(new ValidationRule("inRange", componentName, List.of(Integer.MIN_VALUE, 0)));
     }
 
+    // Check for @Email, evaluated by a generated linear-time scanner
+    Email emailAnnotation = accessor.getAnnotation(Email.class);
+    if (emailAnnotation != null) {
+      rules.add(new ValidationRule("email", componentName, List.of()));
+      if (!emailAnnotation.regexp().equals(".*")) {
+        String method = isNullable ? "nullOrMatches" : "matches";
+        rules.add(new ValidationRule(method, componentName, List.of(emailAnnotation.regexp())));
+      }
+    }
+
+    // Check for @Digits, evaluated by a generated linear-time scanner
+    Digits digitsAnnotation = accessor.getAnnotation(Digits.class);
+    if (digitsAnnotation != null) {
+      rules.add(
+          new ValidationRule(
+              "digits",
+              componentName,
+              List.of(digitsAnnotation.integer(), digitsAnnotation.fraction())));
+    }
+
+    // Check for temporal constraints, supported on Instant, LocalDate and OffsetDateTime
+    if (component.asType() instanceof DeclaredType declaredType
+        && TEMPORAL_TYPES.contains(
+            ((TypeElement) declaredType.asElement()).getQualifiedName().toString())) {
+      if (accessor.getAnnotation(Past.class) != null) {
+        rules.add(new ValidationRule("past", componentName, List.of()));
+      }
+      if (accessor.getAnnotation(PastOrPresent.class) != null) {
+        rules.add(new ValidationRule("pastOrPresent", componentName, List.of()));
+      }
+      if (accessor.getAnnotation(Future.class) != null) {
+        rules.add(new ValidationRule("future", componentName, List.of()));
+      }
+      if (accessor.getAnnotation(FutureOrPresent.class) != null) {
+        rules.add(new ValidationRule("futureOrPresent", componentName, List.of()));
+      }
+    }
+
     return rules;
   }
 
@@ -287,12 +867,21 @@ public class CheckGenerator {
     return parameters;
   }
 
-  private CodeBlock generateValidationChain(List<ValidatedComponent> validatedComponents) {
+  private CodeBlock generateValidationChain(
+      List<ValidatedComponent> validatedComponents, ConditionGenerator conditions) {
     CodeBlock.Builder chain = CodeBlock.builder();
     chain.add("return validator");
 
     for (ValidatedComponent component : validatedComponents) {
       for (ValidationRule rule : component.rules()) {
+        if (isCheckedAsCondition(component, rule)) {
+          CodeBlock condition =
+              conditions.condition(component.element(), rule.method(), rule.args());
+          if (condition != null) {
+            chain.add("\n        .assertTrue($L, $S)", condition, rule.fieldName());
+          }
+          continue;
+        }
         chain.add("\n        .$L($L", rule.method(), rule.fieldName());
         for (Object arg : rule.args()) {
           if (arg instanceof String) {
@@ -309,6 +898,16 @@ public class CheckGenerator {
     return chain.build();
   }
 
+  /**
+   * Returns whether the chain checks a rule with {@code assertTrue}, as ValidCheck has no temporal
+   * or format methods and treats arrays as never empty.
+   */
+  private static boolean isCheckedAsCondition(ValidatedComponent component, ValidationRule rule) {
+    return CONDITION_METHODS.contains(rule.method())
+        || (rule.method().equals("notEmpty")
+            && component.element().asType().getKind() == TypeKind.ARRAY);
+  }
+
   private MethodSpec createCheckMethod(
       List<ParameterSpec> parameters, CodeBlock validationChain, String recordName) {
     MethodSpec.Builder method =
@@ -328,13 +927,16 @@ public class CheckGenerator {
         "return ($T) buildValidation($T.check(), $L)",
         BATCH_VALIDATOR,
         VALIDCHECK_CLASS,
-        parameters.stream().map(p -> p.name).reduce((a, b) -> a + ", " + b).orElse(""));
+        joinParameterNames(parameters));
 
     return method.build();
   }
 
   private MethodSpec createRequireMethod(
-      List<ParameterSpec> parameters, CodeBlock validationChain, String recordName) {
+      List<ParameterSpec> parameters,
+      CodeBlock validationChain,
+      String recordName,
+      ClassName recordClass) {
     MethodSpec.Builder method =
         MethodSpec.methodBuilder("require")
             .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
@@ -349,21 +951,34 @@ public class CheckGenerator {
     }
     method.addJavadoc("@return Validator for chaining additional validations\n");
 
-    method.addStatement(
-        "return buildValidation($T.require(), $L)",
-        VALIDCHECK_CLASS,
-        parameters.stream().map(p -> p.name).reduce((a, b) -> a + ", " + b).orElse(""));
+    String arguments = joinParameterNames(parameters);
+    addObservedValidation(
+        method,
+        recordClass,
+        parameters,
+        CodeBlock.builder()
+            .addStatement("return buildValidation($T.require(), $L)", VALIDCHECK_CLASS, arguments)
+            .build());
 
     return method.build();
   }
 
-  private MethodSpec createValidateMethod(List<ParameterSpec> parameters, String recordName) {
+  private MethodSpec createValidateMethod(
+      List<ParameterSpec> parameters,
+      String recordName,
+      ClassName recordClass,
+      ValidCheck sampling,
+      CodeBlock fastPath) {
     MethodSpec.Builder method =
         MethodSpec.methodBuilder("validate")
             .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
             .returns(void.class)
             .addJavadoc(
                 "Convenience method that validates $L and throws on failure.\n\n", recordName);
+    if (sampling != null) {
+      method.addJavadoc(
+          "<p>Only a sample of calls is validated, see {@link #sampledFailures()}.\n\n");
+    }
 
     for (ParameterSpec param : parameters) {
       method.addParameter(param);
@@ -371,13 +986,482 @@ public class CheckGenerator {
           "@param $L the $L to validate (from validation annotations)\n", param.name, param.name);
     }
 
-    method.addStatement(
-        "check($L).validate()",
-        parameters.stream().map(p -> p.name).reduce((a, b) -> a + ", " + b).orElse(""));
+    String arguments = joinParameterNames(parameters);
+    CodeBlock statement =
+        CodeBlock.builder().addStatement("check($L).validate()", arguments).build();
+    if (fastPath != null) {
+      // Valid input is confirmed by the direct conditions; the chain only builds the exception
+      statement =
+          CodeBlock.builder()
+              .beginControlFlow("if (!($L))", fastPath)
+              .add(statement)
+              .endControlFlow()
+              .build();
+    }
+    if (sampling == null) {
+      addObservedValidation(method, recordClass, parameters, statement);
+      return method.build();
+    }
+
+    // Skip unsampled calls once the success streak is long enough
+    CodeBlock skip =
+        CodeBlock.of("$T.current().nextDouble() >= $L", RANDOM_TYPE, sampling.sampleRate());
+    if (sampling.sampleAfter() > 0) {
+      skip = CodeBlock.of("$N.get() >= $L && $L", STREAK_FIELD, sampling.sampleAfter(), skip);
+    }
+    method.beginControlFlow("if ($L)", skip).addStatement("return").endControlFlow();
+
+    NameAllocator names = new NameAllocator();
+    parameters.forEach(parameter -> names.newName(parameter.name));
+    String exceptionName = names.newName("failure");
+
+    method.beginControlFlow("try");
+    addObservedValidation(method, recordClass, parameters, statement);
+    method
+        .nextControlFlow("catch ($T $N)", VALIDATION_EXCEPTION, exceptionName)
+        .addStatement("$N.increment()", FAILURES_FIELD);
+    if (sampling.sampleAfter() > 0) {
+      method.addStatement("$N.set(0)", STREAK_FIELD);
+    }
+    method.addStatement("throw $N", exceptionName).endControlFlow();
+
+    // Stop counting once sampling has started, so the hot path only reads the streak
+    if (sampling.sampleAfter() > 0) {
+      method
+          .beginControlFlow("if ($N.get() < $L)", STREAK_FIELD, sampling.sampleAfter())
+          .addStatement("$N.incrementAndGet()", STREAK_FIELD)
+          .endControlFlow();
+    }
 
     return method.build();
   }
 
+  /**
+   * Creates {@code validateColumns}, which checks the range rules of primitive numeric components
+   * over one array per component and returns the failing rows.
+   *
+   * <p>The rows are processed 64 at a time. The inner loop compares with non-short-circuit
+   * operators and ORs each result into a local {@code long}, which is stored once per 64 rows, so
+   * the loop has no branches and no memory writes for the JIT to order.
+   *
+   * @return the method, or {@code null} if no primitive component has range rules
+   */
+  private MethodSpec createValidateColumnsMethod(
+      List<ValidatedComponent> validatedComponents, String recordName) {
+    Map<String, List<RangeCheck>> columnChecks = new LinkedHashMap<>();
+    List<ParameterSpec> columns = new ArrayList<>();
+    for (ValidatedComponent component : validatedComponents) {
+      TypeKind kind = component.element().asType().getKind();
+      if (!kind.isPrimitive() || kind == TypeKind.BOOLEAN || kind == TypeKind.CHAR) {
+        continue;
+      }
+      List<RangeCheck> checks = new ArrayList<>();
+      for (ValidationRule rule : component.rules()) {
+        switch (rule.method()) {
+          case "min", "nullOrMin" -> checks.add(new RangeCheck(">=", rule.args().get(0)));
+          case "max", "nullOrMax" -> checks.add(new RangeCheck("<=", rule.args().get(0)));
+          case "inRange" -> {
+            checks.add(new RangeCheck(">=", rule.args().get(0)));
+            checks.add(new RangeCheck("<=", rule.args().get(1)));
+          }
+          default -> {
+            // Not a range rule
+          }
+        }
+      }
+      if (!checks.isEmpty()) {
+        String name = component.element().getSimpleName().toString();
+        columnChecks.put(name, checks);
+        columns.add(
+            ParameterSpec.builder(
+                    ArrayTypeName.of(TypeName.get(component.element().asType())), name)
+                .build());
+      }
+    }
+    if (columns.isEmpty()) {
+      return null;
+    }
+
+    NameAllocator names = new NameAllocator();
+    columns.forEach(column -> names.newName(column.name));
+    String rows = names.newName("rows");
+    String words = names.newName("words");
+    String word = names.newName("word");
+    String start = names.newName("start");
+    String end = names.newName("end");
+    String mask = names.newName("mask");
+    String row = names.newName("row");
+    String failed = names.newName("failed");
+
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("validateColumns")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(BIT_SET_TYPE)
+            .addJavadoc(
+                "Checks the range constraints of $L over columns of primitive values.\n\n",
+                recordName)
+            .addJavadoc(
+                "<p>Row {@code i} consists of element {@code i} of every column. Other constraints\n")
+            .addJavadoc("are not evaluated.\n\n");
+    for (ParameterSpec column : columns) {
+      method.addParameter(column);
+      method.addJavadoc("@param $L the $L column\n", column.name, column.name);
+    }
+    method
+        .addJavadoc("@return the indexes of the rows that violate a range constraint\n")
+        .addJavadoc(
+            "@throws IllegalArgumentException if the columns do not have the same length\n");
+
+    String first = columns.get(0).name;
+    method.addStatement("int $N = $N.length", rows, first);
+    for (ParameterSpec column : columns.subList(1, columns.size())) {
+      if (runtimeHelpers) {
+        method.addStatement("$T.requireRows($N.length, $N)", CHECK_SUPPORT_TYPE, column.name, rows);
+        continue;
+      }
+      method
+          .beginControlFlow("if ($N.length != $N)", column.name, rows)
+          .addStatement(
+              "throw new $T($S)",
+              IllegalArgumentException.class,
+              "All columns must have the same length")
+          .endControlFlow();
+    }
+    if (runtimeHelpers) {
+      method.addStatement("long[] $N = $T.rowWords($N)", words, CHECK_SUPPORT_TYPE, rows);
+    } else {
+      method.addStatement("long[] $N = new long[($N + 63) >>> 6]", words, rows);
+    }
+
+    // Build the mask of one word in a local, then read each column element once per row and
+    // combine every range check for it
+    method
+        .beginControlFlow("for (int $N = 0; $N < $N.length; $N++)", word, word, words, word)
+        .addStatement("int $N = $N << 6", start, word)
+        .addStatement("int $N = $T.min($N + 64, $N)", end, Math.class, start, rows)
+        .addStatement("long $N = 0L", mask)
+        .beginControlFlow("for (int $N = $N; $N < $N; $N++)", row, start, row, end, row);
+    CodeBlock.Builder condition = CodeBlock.builder();
+    for (ParameterSpec column : columns) {
+      String value = names.newName(column.name + "Value");
+      method.addStatement(
+          "$T $N = $N[$N]", ((ArrayTypeName) column.type).componentType, value, column.name, row);
+      for (RangeCheck check : columnChecks.get(column.name)) {
+        if (!condition.isEmpty()) {
+          condition.add(" & ");
+        }
+        condition.add("$N $L $L", value, check.operator(), check.bound());
+      }
+    }
+    // A long shift only uses the low six bits of the row, which select its bit within the word
+    method
+        .addStatement("boolean $N = !($L)", failed, condition.build())
+        .addStatement("$N |= ($N ? 1L : 0L) << $N", mask, failed, row)
+        .endControlFlow()
+        .addStatement("$N[$N] = $N", words, word, mask)
+        .endControlFlow();
+    method.addStatement("return $T.valueOf($N)", BIT_SET_TYPE, words);
+
+    return method.build();
+  }
+
+  /**
+   * Combines the direct conditions of every rule, so {@code validate} can accept valid input
+   * without building a validation chain.
+   *
+   * @return the combined condition, or {@code null} if every rule always holds
+   */
+  private CodeBlock createFastPath(
+      List<ValidatedComponent> validatedComponents, ConditionGenerator conditions) {
+    CodeBlock.Builder fastPath = CodeBlock.builder();
+    for (ValidatedComponent component : validatedComponents) {
+      for (ValidationRule rule : component.rules()) {
+        CodeBlock condition = conditions.condition(component.element(), rule.method(), rule.args());
+        if (condition == null) {
+          // The rule always holds for the component type
+          continue;
+        }
+        if (!fastPath.isEmpty()) {
+          fastPath.add("$W&& ");
+        }
+        fastPath.add("($L)", condition);
+      }
+    }
+    return fastPath.isEmpty() ? null : fastPath.build();
+  }
+
+  /**
+   * Creates {@code validate(Xxx record)}, which validates the components of a record instance and
+   * remembers the instance, so repeated calls with the same instance return immediately.
+   *
+   * <p>Remembering an instance assumes it stays valid, so the method is only generated when no
+   * validated component can change after validation, see {@link #hasFixedState}.
+   *
+   * @return the method, or {@code null} if it would clash with the component overload or a
+   *     validated component could change
+   */
+  private MethodSpec createValidateInstanceMethod(
+      RecordModel model,
+      List<ValidatedComponent> validatedComponents,
+      List<ParameterSpec> parameters) {
+    if (!hasFixedState(validatedComponents)) {
+      return null;
+    }
+
+    // A single component whose type accepts the record would make the overloads ambiguous
+    TypeMirror recordType = model.element().asType();
+    Types types = processingEnv.getTypeUtils();
+    if (parameters.size() == 1
+        && model.components().stream()
+            .filter(component -> component.name().equals(parameters.get(0).name))
+            .anyMatch(
+                component ->
+                    types.isAssignable(
+                        types.erasure(recordType), types.erasure(component.type())))) {
+      return null;
+    }
+
+    String recordName = model.recordName();
+    NameAllocator names = new NameAllocator();
+    parameters.forEach(parameter -> names.newName(parameter.name));
+    String instance =
+        names.newName(Character.toLowerCase(recordName.charAt(0)) + recordName.substring(1));
+
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("validate")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(void.class)
+            .addJavadoc("Validates a $L instance and throws on failure.\n\n", recordName)
+            .addJavadoc(
+                "<p>Instances that passed recently are remembered by identity and not validated\n")
+            .addJavadoc("again.\n\n")
+            .addJavadoc("@param $N the instance to validate\n", instance);
+    for (TypeParameterElement typeParameter : model.element().getTypeParameters()) {
+      method.addTypeVariable(TypeVariableName.get(typeParameter));
+    }
+    method.addParameter(TypeName.get(recordType), instance);
+
+    String accessors =
+        parameters.stream()
+            .map(parameter -> instance + "." + parameter.name + "()")
+            .reduce((a, b) -> a + ", " + b)
+            .orElse("");
+    return method
+        .beginControlFlow("if ($N.contains($N))", VALIDATED_FIELD, instance)
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("validate($L)", accessors)
+        .addStatement("$N.add($N)", VALIDATED_FIELD, instance)
+        .build();
+  }
+
+  /**
+   * Returns whether the validated state of a record is fixed once it is constructed: each validated
+   * component either only has null checks, which its final field settles, or has an immutable type.
+   * A list, map, array or builder can change after validation and become invalid.
+   */
+  private boolean hasFixedState(List<ValidatedComponent> validatedComponents) {
+    return validatedComponents.stream()
+        .allMatch(
+            component ->
+                component.rules().stream().allMatch(rule -> rule.method().equals("notNull"))
+                    || isImmutable(component.element().asType(), new HashSet<>()));
+  }
+
+  /**
+   * Returns whether values of a type cannot change: primitives, boxed types, strings, enums, {@code
+   * java.time} values, a few other JDK value types and records of such types.
+   */
+  private boolean isImmutable(TypeMirror type, Set<TypeElement> visited) {
+    if (type.getKind().isPrimitive()) {
+      return true;
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      // Arrays are mutable, and a type variable can stand for any type
+      return false;
+    }
+    TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+    if (IMMUTABLE_TYPES.contains(element.getQualifiedName().toString())
+        || element.getKind() == ElementKind.ENUM
+        || processingEnv
+            .getElementUtils()
+            .getPackageOf(element)
+            .getQualifiedName()
+            .contentEquals("java.time")) {
+      return true;
+    }
+    if (element.getKind() != ElementKind.RECORD) {
+      return false;
+    }
+    // A record referring back to itself is as immutable as its other components
+    return !visited.add(element)
+        || records.get(element).components().stream()
+            .allMatch(component -> isImmutable(component.type(), visited));
+  }
+
+  /** Adds the failure counter, its accessor and the success streak used by sampled validate. */
+  private void addSamplingMembers(TypeSpec.Builder checkClass, ValidCheck sampling) {
+    checkClass.addField(
+        FieldSpec.builder(
+                LONG_ADDER_TYPE, FAILURES_FIELD, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer("new $T()", LONG_ADDER_TYPE)
+            .build());
+    if (sampling.sampleAfter() > 0) {
+      checkClass.addField(
+          FieldSpec.builder(
+                  ATOMIC_INTEGER_TYPE,
+                  STREAK_FIELD,
+                  Modifier.PRIVATE,
+                  Modifier.STATIC,
+                  Modifier.FINAL)
+              .initializer("new $T()", ATOMIC_INTEGER_TYPE)
+              .build());
+    }
+    checkClass.addMethod(
+        MethodSpec.methodBuilder("sampledFailures")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(long.class)
+            .addJavadoc(
+                "Returns the number of failures detected by sampled {@code validate} calls.\n\n")
+            .addJavadoc("@return the sampled failure count\n")
+            .addStatement("return $N.sum()", FAILURES_FIELD)
+            .build());
+  }
+
+  /**
+   * Adds a validation statement, wrapped with violation reporting and JFR timing when the metrics
+   * or JFR options are enabled.
+   */
+  private void addObservedValidation(
+      MethodSpec.Builder method,
+      ClassName recordClass,
+      List<ParameterSpec> parameters,
+      CodeBlock statement) {
+    if (!metrics && !jfr) {
+      method.addCode(statement);
+      return;
+    }
+
+    // Pick local names that cannot clash with the component parameters
+    NameAllocator names = new NameAllocator();
+    parameters.forEach(parameter -> names.newName(parameter.name));
+    String eventName = names.newName("validationEvent");
+    String exceptionName = names.newName("e");
+
+    // Only allocate the event while a recording has it enabled
+    if (jfr) {
+      method
+          .addStatement("$T $N = null", SLOW_VALIDATION_EVENT, eventName)
+          .beginControlFlow("if ($T.enabled())", SLOW_VALIDATION_EVENT)
+          .addStatement("$N = new $T($T.class)", eventName, SLOW_VALIDATION_EVENT, recordClass)
+          .addStatement("$N.begin()", eventName)
+          .endControlFlow();
+    }
+    method
+        .beginControlFlow("try")
+        .addCode(statement)
+        .nextControlFlow("catch ($T $N)", VALIDATION_EXCEPTION, exceptionName)
+        .addStatement("reportViolations($N.getErrors())", exceptionName)
+        .addStatement("throw $N", exceptionName);
+    if (jfr) {
+      method
+          .nextControlFlow("finally")
+          .beginControlFlow("if ($N != null && $N.shouldCommit())", eventName, eventName)
+          .addStatement("$N.commit()", eventName)
+          .endControlFlow();
+    }
+    method.endControlFlow();
+  }
+
+  /**
+   * Replaces the numeric bounds of size, length and range rules with reads of {@code
+   * ConstraintBounds} call sites, adding the call site fields and read helpers to the check class.
+   */
+  private List<ValidatedComponent> makeBoundsTunable(
+      ClassName recordClass,
+      List<ValidatedComponent> validatedComponents,
+      TypeSpec.Builder checkClass) {
+    Map<String, Object> registered = new HashMap<>();
+    Set<Class<?>> boundTypes = new HashSet<>();
+    List<ValidatedComponent> result = new ArrayList<>();
+
+    for (ValidatedComponent component : validatedComponents) {
+      List<ValidationRule> rules = new ArrayList<>();
+      for (ValidationRule rule : component.rules()) {
+        List<String> boundNames = TUNABLE_BOUNDS.get(rule.method());
+        if (boundNames == null) {
+          rules.add(rule);
+          continue;
+        }
+
+        List<Object> args = new ArrayList<>();
+        for (int i = 0; i < rule.args().size(); i++) {
+          Object arg = rule.args().get(i);
+          String boundName = rule.fieldName() + ":" + rule.method() + ":" + boundNames.get(i);
+          String fieldName =
+              ConditionGenerator.toConstantName(rule.fieldName())
+                  + "_"
+                  + ConditionGenerator.toConstantName(rule.method())
+                  + "_"
+                  + boundNames.get(i).toUpperCase(Locale.ROOT);
+          Class<?> boundType = arg instanceof Integer ? int.class : double.class;
+
+          // A repeated rule with a different bound would share the call site, so keep it literal
+          if (registered.containsKey(boundName) && !registered.get(boundName).equals(arg)) {
+            args.add(arg);
+            continue;
+          }
+          if (registered.put(boundName, arg) == null) {
+            checkClass.addField(
+                FieldSpec.builder(
+                        METHOD_HANDLE_TYPE,
+                        fieldName,
+                        Modifier.PRIVATE,
+                        Modifier.STATIC,
+                        Modifier.FINAL)
+                    .initializer(
+                        "$T.$LBound($T.class, $S, $L)",
+                        CONSTRAINT_BOUNDS_TYPE,
+                        boundType,
+                        recordClass,
+                        boundName,
+                        arg)
+                    .build());
+          }
+          boundTypes.add(boundType);
+          args.add(CodeBlock.of("$LBound($N)", boundType, fieldName));
+        }
+        rules.add(new ValidationRule(rule.method(), rule.fieldName(), List.copyOf(args)));
+      }
+      result.add(new ValidatedComponent(component.element(), rules));
+    }
+
+    for (Class<?> boundType : List.of(int.class, double.class)) {
+      if (boundTypes.contains(boundType)) {
+        checkClass.addMethod(createBoundReadMethod(boundType));
+      }
+    }
+    return result;
+  }
+
+  private MethodSpec createBoundReadMethod(Class<?> boundType) {
+    return MethodSpec.methodBuilder(boundType + "Bound")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(boundType)
+        .addParameter(METHOD_HANDLE_TYPE, "bound")
+        .addJavadoc("Reads a tunable bound; constant-folded when the handle is a constant.\n")
+        .beginControlFlow("try")
+        .addStatement("return ($T) bound.invokeExact()", boundType)
+        .nextControlFlow("catch ($T e)", Throwable.class)
+        .addStatement("throw new $T(e)", IllegalStateException.class)
+        .endControlFlow()
+        .build();
+  }
+
+  private String joinParameterNames(List<ParameterSpec> parameters) {
+    return parameters.stream().map(p -> p.name).reduce((a, b) -> a + ", " + b).orElse("");
+  }
+
   private MethodSpec createBuildValidationMethod(
       List<ParameterSpec> parameters, CodeBlock validationChain) {
     MethodSpec.Builder method =
@@ -399,7 +1483,303 @@ public class CheckGenerator {
     return method.build();
   }
 
+  private MethodSpec createViolationsMethod(
+      RecordModel model,
+      List<ValidatedComponent> validatedComponents,
+      ConditionGenerator conditions) {
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("violations")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .returns(VIOLATIONS_TYPE)
+            .addJavadoc(
+                "Evaluates $L constraints without creating validators or throwing exceptions.\n\n",
+                model.recordName())
+            .addJavadoc(
+                "<p>Takes every record component in declaration order, so callers holding a full\n")
+            .addJavadoc("record state (such as a builder) can pass it through unchanged.\n\n");
+
+    for (TypeParameterElement typeParameter : model.element().getTypeParameters()) {
+      method.addTypeVariable(TypeVariableName.get(typeParameter));
+    }
+    // Parameters hold component names, so the local variable gets a name that cannot clash
+    NameAllocator names = new NameAllocator();
+    for (RecordModel.Component component : model.components()) {
+      String name = names.newName(component.name());
+      method.addParameter(component.typeName(), name);
+      method.addJavadoc("@param $L the $L value\n", name, name);
+    }
+    method.addJavadoc(
+        "@return the violated constraints, or an empty list if all constraints are satisfied\n");
+    String violationsName = names.newName("violations");
+
+    method.addStatement("$T $N = null", VIOLATIONS_TYPE, violationsName);
+    for (ValidatedComponent component : validatedComponents) {
+      for (ValidationRule rule : component.rules()) {
+        CodeBlock condition = conditions.condition(component.element(), rule.method(), rule.args());
+        if (condition == null) {
+          // The rule always holds for the component type
+          continue;
+        }
+        CodeBlock message =
+            ConditionGenerator.message(
+                rule.fieldName(), rule.method(), rule.args(), runtimeHelpers);
+        method.beginControlFlow("if (!($L))", condition);
+        if (metrics || jfr) {
+          method.addStatement("reportViolation($S, $S)", rule.fieldName(), rule.method());
+        }
+        if (runtimeHelpers) {
+          method.addStatement(
+              "$N = $T.addViolation($N, $L)",
+              violationsName,
+              CHECK_SUPPORT_TYPE,
+              violationsName,
+              message);
+        } else {
+          method.addStatement("$N = addViolation($N, $L)", violationsName, violationsName, message);
+        }
+        method.endControlFlow();
+      }
+    }
+    if (metrics && !validatedComponents.isEmpty()) {
+      method
+          .beginControlFlow("if ($N != null)", violationsName)
+          .addStatement("$T.instance().recordRejected($T.class)", METRICS_TYPE, model.recordClass())
+          .endControlFlow();
+    }
+    if (runtimeHelpers) {
+      method.addStatement("return $T.violations($N)", CHECK_SUPPORT_TYPE, violationsName);
+    } else {
+      method.addStatement(
+          "return $N == null ? $T.of() : $T.copyOf($N)",
+          violationsName,
+          LIST_TYPE,
+          LIST_TYPE,
+          violationsName);
+    }
+
+    return method.build();
+  }
+
+  private MethodSpec createStructuredViolationsMethod(
+      RecordModel model,
+      List<ValidatedComponent> validatedComponents,
+      ConditionGenerator conditions,
+      ClassName violationClass) {
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("violations")
+            .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+            .addJavadoc(
+                "Evaluates $L constraints like {@link #violations}, reporting each violated\n",
+                model.recordName())
+            .addJavadoc("constraint with its component and rule instead of as a summary.\n\n")
+            .addJavadoc(
+                "<p>Only generated when this class evaluates every constraint of the record.\n\n");
+
+    for (TypeParameterElement typeParameter : model.element().getTypeParameters()) {
+      method.addTypeVariable(TypeVariableName.get(typeParameter));
+    }
+    // Parameters hold component names, so the other names get ones that cannot clash
+    NameAllocator names = new NameAllocator();
+    for (RecordModel.Component component : model.components()) {
+      String name = names.newName(component.name());
+      method.addParameter(component.typeName(), name);
+      method.addJavadoc("@param $L the $L value\n", name, name);
+    }
+    String consumerName = names.newName("consumer");
+    String violatedName = names.newName("violated");
+    method.addParameter(
+        ParameterizedTypeName.get(CONSUMER_TYPE, WildcardTypeName.supertypeOf(violationClass)),
+        consumerName);
+    method.addJavadoc(
+        "@param $L receives the violated constraints in declaration order\n", consumerName);
+
+    boolean report = metrics && !validatedComponents.isEmpty();
+    if (report) {
+      method.addStatement("boolean $N = false", violatedName);
+    }
+    for (ValidatedComponent component : validatedComponents) {
+      for (ValidationRule rule : component.rules()) {
+        CodeBlock condition = conditions.condition(component.element(), rule.method(), rule.args());
+        if (condition == null) {
+          // The rule always holds for the component type
+          continue;
+        }
+        method.beginControlFlow("if (!($L))", condition);
+        method.addStatement(
+            "$N.accept(new $T($S, $S, $L))",
+            consumerName,
+            violationClass,
+            rule.fieldName(),
+            rule.method(),
+            ConditionGenerator.description(rule.method(), rule.args(), runtimeHelpers));
+        if (metrics || jfr) {
+          method.addStatement("reportViolation($S, $S)", rule.fieldName(), rule.method());
+        }
+        if (report) {
+          method.addStatement("$N = true", violatedName);
+        }
+        method.endControlFlow();
+      }
+    }
+    if (report) {
+      method
+          .beginControlFlow("if ($N)", violatedName)
+          .addStatement("$T.instance().recordRejected($T.class)", METRICS_TYPE, model.recordClass())
+          .endControlFlow();
+    }
+
+    return method.build();
+  }
+
+  private TypeSpec createViolationType(String recordName) {
+    ClassName string = ClassName.get(String.class);
+    return TypeSpec.classBuilder(VIOLATION_NAME)
+        .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+        .addJavadoc("A violated constraint of a $L component.\n", recordName)
+        .addField(string, "component", Modifier.PRIVATE, Modifier.FINAL)
+        .addField(string, "constraint", Modifier.PRIVATE, Modifier.FINAL)
+        .addField(string, "message", Modifier.PRIVATE, Modifier.FINAL)
+        .addMethod(
+            MethodSpec.constructorBuilder()
+                .addModifiers(Modifier.PRIVATE)
+                .addParameter(string, "component")
+                .addParameter(string, "constraint")
+                .addParameter(string, "message")
+                .addStatement("this.component = component")
+                .addStatement("this.constraint = constraint")
+                .addStatement("this.message = message")
+                .build())
+        .addMethod(
+            MethodSpec.methodBuilder("component")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(string)
+                .addJavadoc("Returns the name of the record component.\n")
+                .addJavadoc("@return the component name\n")
+                .addStatement("return component")
+                .build())
+        .addMethod(
+            MethodSpec.methodBuilder("constraint")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(string)
+                .addJavadoc("Returns the violated rule, named after its ValidCheck method.\n")
+                .addJavadoc("@return the rule, such as {@code notNull} or {@code hasLength}\n")
+                .addStatement("return constraint")
+                .build())
+        .addMethod(
+            MethodSpec.methodBuilder("message")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(string)
+                .addJavadoc("Returns the violation message, without the component name.\n")
+                .addJavadoc("@return the message, such as {@code must not be null}\n")
+                .addStatement("return message")
+                .build())
+        .addMethod(
+            MethodSpec.methodBuilder("toString")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(string)
+                .addStatement("return component + \" \" + message")
+                .build())
+        .build();
+  }
+
+  /**
+   * Creates {@code reportViolations}, which reports a rejection from the messages of a thrown
+   * {@code ValidationException} instead of evaluating the constraints again.
+   *
+   * <p>ValidCheck reports each failed rule as the quoted component name followed by the rule's
+   * text, so the failed rule is found by the constant start of its message. Rules checked with
+   * {@code assertTrue} all read {@code must be true}, so when a component has several of them, the
+   * first is reported.
+   */
+  private MethodSpec createReportViolationsMethod(
+      ClassName recordClass,
+      List<ValidatedComponent> validatedComponents,
+      ConditionGenerator conditions) {
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("reportViolations")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(VIOLATIONS_TYPE, "violations")
+            .addJavadoc(
+                "Reports a rejection and each failed constraint to the enabled observers.\n");
+    if (metrics) {
+      method.addStatement("$T.instance().recordRejected($T.class)", METRICS_TYPE, recordClass);
+    }
+
+    Map<String, ValidationRule> rules = new LinkedHashMap<>();
+    for (ValidatedComponent component : validatedComponents) {
+      for (ValidationRule rule : component.rules()) {
+        String start;
+        if (isCheckedAsCondition(component, rule)) {
+          if (conditions.condition(component.element(), rule.method(), rule.args()) == null) {
+            // The rule always holds, so the chain does not check it
+            continue;
+          }
+          start = "must be true";
+        } else {
+          start = ConditionGenerator.messageStart(rule.method(), rule.args().size());
+        }
+        rules.putIfAbsent("'" + rule.fieldName() + "' " + start, rule);
+      }
+    }
+
+    method.beginControlFlow("for (String violation : violations)");
+    boolean first = true;
+    for (Map.Entry<String, ValidationRule> entry : rules.entrySet()) {
+      String condition = "violation.startsWith($S)";
+      if (first) {
+        method.beginControlFlow("if (" + condition + ")", entry.getKey());
+        first = false;
+      } else {
+        method.nextControlFlow("else if (" + condition + ")", entry.getKey());
+      }
+      method.addStatement(
+          "reportViolation($S, $S)", entry.getValue().fieldName(), entry.getValue().method());
+    }
+    if (!first) {
+      method.endControlFlow();
+    }
+    return method.endControlFlow().build();
+  }
+
+  /** Creates {@code reportViolation}, which reports one failed constraint. */
+  private MethodSpec createReportViolationMethod(ClassName recordClass) {
+    MethodSpec.Builder method =
+        MethodSpec.methodBuilder("reportViolation")
+            .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+            .addParameter(String.class, "component")
+            .addParameter(String.class, "constraint")
+            .addJavadoc("Reports a failed constraint to the enabled observers.\n");
+    if (metrics) {
+      method.addStatement(
+          "$T.instance().recordViolation($T.class, component, constraint)",
+          METRICS_TYPE,
+          recordClass);
+    }
+    if (jfr) {
+      method.addStatement("$T.emit($T.class, component, constraint)", FAILURE_EVENT, recordClass);
+    }
+    return method.build();
+  }
+
+  private MethodSpec createAddViolationMethod() {
+    return MethodSpec.methodBuilder("addViolation")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(VIOLATIONS_TYPE)
+        .addParameter(VIOLATIONS_TYPE, "violations")
+        .addParameter(String.class, "violation")
+        .addStatement(
+            "$T result = violations == null ? new $T<>() : violations",
+            VIOLATIONS_TYPE,
+            ARRAY_LIST_TYPE)
+        .addStatement("result.add(violation)")
+        .addStatement("return result")
+        .build();
+  }
+
   private record ValidatedComponent(RecordComponentElement element, List<ValidationRule> rules) {}
 
   private record ValidationRule(String method, String fieldName, List<Object> args) {}
+
+  private record RangeCheck(String operator, Object bound) {}
 }
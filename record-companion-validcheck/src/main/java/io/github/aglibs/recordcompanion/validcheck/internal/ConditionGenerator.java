@@ -0,0 +1,487 @@
+package io.github.aglibs.recordcompanion.validcheck.internal;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.Name;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+
+/**
+ * Translates validation rules into plain Java boolean expressions.
+ *
+ * <p>The expressions evaluate a rule directly against a component value, without going through the
+ * ValidCheck API, so generated code can test constraints without allocating validators or throwing
+ * exceptions. Constants needed by the expressions (compiled patterns, decimal bounds) are collected
+ * as static fields for the generated class. A new instance is used for every generated class.
+ */
+final class ConditionGenerator {
+
+  private static final ClassName PATTERN_CLASS = ClassName.get("java.util.regex", "Pattern");
+  private static final ClassName PATTERN_CACHE_CLASS =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "PatternCache");
+  private static final ClassName VALIDATION_CLOCK_CLASS =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "ValidationClock");
+  private static final ClassName CHECK_SUPPORT_CLASS =
+      ClassName.get("io.github.aglibs.recordcompanion.runtime", "CheckSupport");
+  private static final ClassName INSTANT_CLASS = ClassName.get("java.time", "Instant");
+  private static final ClassName LOCAL_DATE_CLASS = ClassName.get("java.time", "LocalDate");
+  private static final ClassName BIG_DECIMAL_CLASS = ClassName.get("java.math", "BigDecimal");
+
+  /** Stands for a rule that always holds for the component type, such as a primitive notNull. */
+  private static final CodeBlock ALWAYS = CodeBlock.of("true");
+
+  private static final Set<TypeKind> INTEGRAL_KINDS =
+      Set.of(TypeKind.BYTE, TypeKind.SHORT, TypeKind.INT, TypeKind.LONG);
+  private static final Set<String> BOXED_TYPES =
+      Set.of(
+          "java.lang.Byte",
+          "java.lang.Short",
+          "java.lang.Integer",
+          "java.lang.Long",
+          "java.lang.Float",
+          "java.lang.Double");
+
+  private final Types types;
+  private final KnownTypes knownTypes;
+  private final ClassName recordClass;
+  private final int patternCacheSize;
+  private final boolean validationClock;
+  private final List<FieldSpec> fields = new ArrayList<>();
+  private final Map<String, Integer> fieldCounters = new HashMap<>();
+  private final Map<List<Object>, CodeBlock> conditions = new HashMap<>();
+  private final Map<String, MethodSpec> methods = new LinkedHashMap<>();
+
+  /**
+   * Creates a generator for one check class.
+   *
+   * @param processingEnv the processing environment
+   * @param knownTypes the well-known types of the current round
+   * @param recordClass the record the check class belongs to
+   * @param patternCacheSize the {@code PatternCache} size for {@code @Pattern} rules, or 0 to match
+   *     without a cache
+   * @param validationClock whether temporal rules compare with {@code ValidationClock} instead of
+   *     the system clock
+   */
+  ConditionGenerator(
+      ProcessingEnvironment processingEnv,
+      KnownTypes knownTypes,
+      ClassName recordClass,
+      int patternCacheSize,
+      boolean validationClock) {
+    Objects.requireNonNull(processingEnv, "processingEnv cannot be null");
+    this.types = processingEnv.getTypeUtils();
+    this.knownTypes = Objects.requireNonNull(knownTypes, "knownTypes cannot be null");
+    this.recordClass = Objects.requireNonNull(recordClass, "recordClass cannot be null");
+    this.patternCacheSize = patternCacheSize;
+    this.validationClock = validationClock;
+  }
+
+  /** Returns the static fields referenced by the conditions generated so far. */
+  List<FieldSpec> fields() {
+    return List.copyOf(fields);
+  }
+
+  /** Returns the static helper methods referenced by the conditions generated so far. */
+  List<MethodSpec> methods() {
+    return List.copyOf(methods.values());
+  }
+
+  /**
+   * Creates an expression that is {@code true} when the component value satisfies the rule.
+   *
+   * @param component the record component being validated
+   * @param method the ValidCheck method name the rule maps to
+   * @param args the rule arguments, as passed to the ValidCheck method
+   * @return the condition, or {@code null} if the rule always holds for the component type
+   * @throws IllegalArgumentException if the rule cannot be evaluated for the component type, see
+   *     {@link #supports}
+   */
+  CodeBlock condition(RecordComponentElement component, String method, List<Object> args) {
+    CodeBlock condition = lookup(component, method, args);
+    if (condition == null) {
+      throw new IllegalArgumentException(
+          "Cannot evaluate " + method + " for " + component.getSimpleName());
+    }
+    return condition == ALWAYS ? null : condition;
+  }
+
+  /**
+   * Returns whether a rule can be evaluated directly for the component type. Generated checks must
+   * not contain rules that cannot, since their violations would go unreported.
+   *
+   * @param component the record component being validated
+   * @param method the ValidCheck method name the rule maps to
+   * @param args the rule arguments, as passed to the ValidCheck method
+   * @return {@code true} if {@link #condition} can translate the rule
+   */
+  boolean supports(RecordComponentElement component, String method, List<Object> args) {
+    return lookup(component, method, args) != null;
+  }
+
+  private CodeBlock lookup(RecordComponentElement component, String method, List<Object> args) {
+    // Cache per rule, so repeated requests reuse the same constant fields
+    List<Object> key = List.of(component.getSimpleName().toString(), method, args);
+    if (!conditions.containsKey(key)) {
+      conditions.put(key, createCondition(component, method, args));
+    }
+    return conditions.get(key);
+  }
+
+  private CodeBlock createCondition(
+      RecordComponentElement component, String method, List<Object> args) {
+    TypeMirror type = component.asType();
+    String name = component.getSimpleName().toString();
+    boolean primitive = type.getKind().isPrimitive();
+
+    return switch (method) {
+      case "notNull" -> primitive ? ALWAYS : CodeBlock.of("$N != null", name);
+      case "notEmpty" -> primitive ? ALWAYS : notNull(primitive, name, notEmpty(type, name));
+      case "notBlank" -> notNull(primitive, name, notBlank(type, name));
+      case "nullOrNotBlank" -> nullOr(primitive, name, notBlank(type, name));
+      case "hasLength" -> notNull(primitive, name, between(length(type, name), args));
+      case "nullOrHasLength" -> nullOr(primitive, name, between(length(type, name), args));
+      case "hasSize" -> notNull(primitive, name, between(CodeBlock.of("$N.size()", name), args));
+      case "nullOrHasSize" ->
+          nullOr(primitive, name, between(CodeBlock.of("$N.size()", name), args));
+      case "matches" -> notNull(primitive, name, matches(component, args));
+      case "nullOrMatches" -> nullOr(primitive, name, matches(component, args));
+      case "min" -> notNull(primitive, name, compare(component, ">=", args.get(0)));
+      case "nullOrMin" -> nullOr(primitive, name, compare(component, ">=", args.get(0)));
+      case "max" -> notNull(primitive, name, compare(component, "<=", args.get(0)));
+      case "nullOrMax" -> nullOr(primitive, name, compare(component, "<=", args.get(0)));
+      case "inRange" -> notNull(primitive, name, inRange(component, args));
+      case "email" -> nullOr(primitive, name, email(component));
+      case "digits" -> nullOr(primitive, name, digits(component, args));
+      case "past" -> nullOr(primitive, name, temporal(component, "<"));
+      case "pastOrPresent" -> nullOr(primitive, name, temporal(component, "<="));
+      case "future" -> nullOr(primitive, name, temporal(component, ">"));
+      case "futureOrPresent" -> nullOr(primitive, name, temporal(component, ">="));
+      default -> null;
+    };
+  }
+
+  /**
+   * Describes a rule in the form used for violation summaries, e.g. {@code "username must have
+   * length between 3 and 20"}.
+   */
+  static String describe(String fieldName, String method, List<Object> args) {
+    return fieldName + " " + describe(method, args);
+  }
+
+  /** Describes a rule without the component name, e.g. {@code "must not be null"}. */
+  private static String describe(String method, List<Object> args) {
+    return switch (method) {
+      case "notNull" -> "must not be null";
+      case "notEmpty" -> "must not be empty";
+      case "notBlank" -> "must not be blank";
+      case "nullOrNotBlank" -> "must be null or not blank";
+      case "hasLength" -> "must have length between " + args.get(0) + " and " + args.get(1);
+      case "nullOrHasLength" ->
+          "must be null or have length between " + args.get(0) + " and " + args.get(1);
+      case "hasSize" -> "must have size between " + args.get(0) + " and " + args.get(1);
+      case "nullOrHasSize" ->
+          "must be null or have size between " + args.get(0) + " and " + args.get(1);
+      case "matches" -> "must match pattern " + args.get(0);
+      case "nullOrMatches" -> "must be null or match pattern " + args.get(0);
+      case "min" -> "must be at least " + args.get(0);
+      case "nullOrMin" -> "must be null or at least " + args.get(0);
+      case "max" -> "must be at most " + args.get(0);
+      case "nullOrMax" -> "must be null or at most " + args.get(0);
+      case "inRange" -> "must be between " + args.get(0) + " and " + args.get(1);
+      case "email" -> "must be a well-formed email address";
+      case "digits" ->
+          "must have at most "
+              + args.get(0)
+              + " integer digits and "
+              + args.get(1)
+              + " fraction digits";
+      case "past" -> "must be in the past";
+      case "pastOrPresent" -> "must be in the past or present";
+      case "future" -> "must be in the future";
+      case "futureOrPresent" -> "must be in the future or present";
+      default -> "must satisfy " + method;
+    };
+  }
+
+  /**
+   * Creates an expression for the {@link #describe} text. Arguments that are {@link CodeBlock}
+   * expressions, such as tunable bounds, are concatenated at runtime, by {@code
+   * CheckSupport.message} when {@code runtimeHelpers} is set; everything else is a constant string.
+   */
+  static CodeBlock message(
+      String fieldName, String method, List<Object> args, boolean runtimeHelpers) {
+    return text(fieldName + " ", method, args, runtimeHelpers);
+  }
+
+  /**
+   * Creates an expression for the rule description without the component name, see {@link
+   * #message}.
+   */
+  static CodeBlock description(String method, List<Object> args, boolean runtimeHelpers) {
+    return text("", method, args, runtimeHelpers);
+  }
+
+  /**
+   * Returns the constant start of the {@link #describe} text, before the first argument, such as
+   * {@code must have length between }. ValidCheck chain methods report the same text after the
+   * quoted component name.
+   */
+  static String messageStart(String method, int argCount) {
+    List<Object> placeholders = Collections.nCopies(argCount, "\0");
+    return describe(method, placeholders).split("\0", -1)[0];
+  }
+
+  private static CodeBlock text(
+      String prefix, String method, List<Object> args, boolean runtimeHelpers) {
+    List<Object> placeholders = new ArrayList<>();
+    for (int i = 0; i < args.size(); i++) {
+      placeholders.add(args.get(i) instanceof CodeBlock ? "\0" + i + "\0" : args.get(i));
+    }
+
+    // The text alternates between constant parts and argument indexes
+    String[] parts = (prefix + describe(method, placeholders)).split("\0", -1);
+    if (runtimeHelpers && parts.length > 1) {
+      CodeBlock.Builder message =
+          CodeBlock.builder().add("$T.message($S", CHECK_SUPPORT_CLASS, parts[0]);
+      for (int i = 1; i < parts.length; i += 2) {
+        message.add(", $L", args.get(Integer.parseInt(parts[i])));
+        if (!parts[i + 1].isEmpty()) {
+          message.add(", $S", parts[i + 1]);
+        }
+      }
+      return message.add(")").build();
+    }
+    CodeBlock.Builder message = CodeBlock.builder().add("$S", parts[0]);
+    for (int i = 1; i < parts.length; i += 2) {
+      message.add(" + $L", args.get(Integer.parseInt(parts[i])));
+      if (!parts[i + 1].isEmpty()) {
+        message.add(" + $S", parts[i + 1]);
+      }
+    }
+    return message.build();
+  }
+
+  private CodeBlock notNull(boolean primitive, String name, CodeBlock check) {
+    if (check == null || primitive) {
+      return check;
+    }
+    return check == ALWAYS
+        ? CodeBlock.of("$N != null", name)
+        : CodeBlock.of("$N != null && $L", name, check);
+  }
+
+  private CodeBlock nullOr(boolean primitive, String name, CodeBlock check) {
+    if (check == null || check == ALWAYS || primitive) {
+      return check;
+    }
+    return CodeBlock.of("($N == null || $L)", name, check);
+  }
+
+  private CodeBlock notEmpty(TypeMirror type, String name) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      return CodeBlock.of("$N.length > 0", name);
+    }
+    if (isSubtype(type, "java.lang.CharSequence")) {
+      return CodeBlock.of("$N.length() > 0", name);
+    }
+    if (isSubtype(type, "java.util.Collection") || isSubtype(type, "java.util.Map")) {
+      return CodeBlock.of("!$N.isEmpty()", name);
+    }
+    // ValidCheck's notEmpty only requires other types to be non-null
+    return ALWAYS;
+  }
+
+  private CodeBlock notBlank(TypeMirror type, String name) {
+    if (isSubtype(type, "java.lang.String")) {
+      return CodeBlock.of("!$N.isBlank()", name);
+    }
+    if (isSubtype(type, "java.lang.CharSequence")) {
+      return CodeBlock.of("!$N.toString().isBlank()", name);
+    }
+    return null;
+  }
+
+  private CodeBlock length(TypeMirror type, String name) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      return CodeBlock.of("$N.length", name);
+    }
+    return isSubtype(type, "java.lang.CharSequence") ? CodeBlock.of("$N.length()", name) : null;
+  }
+
+  private CodeBlock between(CodeBlock value, List<Object> args) {
+    if (value == null) {
+      return null;
+    }
+    return CodeBlock.of("$L >= $L && $L <= $L", value, args.get(0), value, args.get(1));
+  }
+
+  private CodeBlock matches(RecordComponentElement component, List<Object> args) {
+    if (!isSubtype(component.asType(), "java.lang.CharSequence")) {
+      return null;
+    }
+    if (patternCacheSize > 0) {
+      String fieldName =
+          addField(
+              component,
+              "PATTERN_CACHE",
+              PATTERN_CACHE_CLASS,
+              CodeBlock.of(
+                  "$T.create($T.class, $S, $S, $L)",
+                  PATTERN_CACHE_CLASS,
+                  recordClass,
+                  component.getSimpleName(),
+                  args.get(0),
+                  patternCacheSize));
+      return CodeBlock.of("$N.matches($N)", fieldName, component.getSimpleName());
+    }
+    String fieldName =
+        addField(
+            component,
+            "PATTERN",
+            PATTERN_CLASS,
+            CodeBlock.of("$T.compile($S)", PATTERN_CLASS, args.get(0)));
+    return CodeBlock.of("$N.matcher($N).matches()", fieldName, component.getSimpleName());
+  }
+
+  private CodeBlock inRange(RecordComponentElement component, List<Object> args) {
+    CodeBlock lower = compare(component, ">=", args.get(0));
+    CodeBlock upper = compare(component, "<=", args.get(1));
+    return lower == null || upper == null ? null : CodeBlock.of("$L && $L", lower, upper);
+  }
+
+  /**
+   * Compares a temporal value with the current time, read from {@code ValidationClock} when the
+   * validation clock option is set and from the system clock otherwise.
+   */
+  private CodeBlock temporal(RecordComponentElement component, String operator) {
+    TypeMirror type = component.asType();
+    Name name = component.getSimpleName();
+    boolean date = isSubtype(type, LOCAL_DATE_CLASS.canonicalName());
+
+    CodeBlock comparison;
+    if (validationClock) {
+      comparison =
+          CodeBlock.of(
+              "$T.$L($N)", VALIDATION_CLOCK_CLASS, date ? "compareToToday" : "compareToNow", name);
+    } else if (date) {
+      comparison = CodeBlock.of("$N.compareTo($T.now())", name, LOCAL_DATE_CLASS);
+    } else if (isSubtype(type, INSTANT_CLASS.canonicalName())) {
+      comparison = CodeBlock.of("$N.compareTo($T.now())", name, INSTANT_CLASS);
+    } else {
+      comparison = CodeBlock.of("$N.toInstant().compareTo($T.now())", name, INSTANT_CLASS);
+    }
+    return CodeBlock.of("$L $L 0", comparison, operator);
+  }
+
+  private CodeBlock email(RecordComponentElement component) {
+    if (!isSubtype(component.asType(), "java.lang.CharSequence")) {
+      return null;
+    }
+    methods.computeIfAbsent("isEmail", ignored -> FormatScanners.email());
+    return CodeBlock.of("isEmail($N)", component.getSimpleName());
+  }
+
+  private CodeBlock digits(RecordComponentElement component, List<Object> args) {
+    TypeMirror type = component.asType();
+    Name name = component.getSimpleName();
+    if (isSubtype(type, "java.lang.CharSequence")) {
+      methods.computeIfAbsent("hasDigits(CharSequence)", ignored -> FormatScanners.digits());
+      return CodeBlock.of("hasDigits($N, $L, $L)", name, args.get(0), args.get(1));
+    }
+    if (isSubtype(type, BIG_DECIMAL_CLASS.canonicalName())) {
+      methods.computeIfAbsent("hasDigits(BigDecimal)", ignored -> FormatScanners.decimalDigits());
+      return CodeBlock.of("hasDigits($N, $L, $L)", name, args.get(0), args.get(1));
+    }
+    if (INTEGRAL_KINDS.contains(unboxedKind(type))) {
+      methods.computeIfAbsent("hasDigits(long)", ignored -> FormatScanners.integralDigits());
+      return CodeBlock.of("hasDigits($N, $L)", name, args.get(0));
+    }
+    return null;
+  }
+
+  private TypeKind unboxedKind(TypeMirror type) {
+    if (type.getKind().isPrimitive()) {
+      return type.getKind();
+    }
+    return isBoxed(type) ? types.unboxedType(type).getKind() : TypeKind.NONE;
+  }
+
+  private CodeBlock compare(RecordComponentElement component, String operator, Object bound) {
+    TypeMirror type = component.asType();
+    String name = component.getSimpleName().toString();
+
+    if (type.getKind().isPrimitive() || isBoxed(type)) {
+      return CodeBlock.of("$N $L $L", name, operator, bound);
+    }
+    if (isSubtype(type, BIG_DECIMAL_CLASS.canonicalName()) && bound instanceof CodeBlock) {
+      // Tunable bounds can change at runtime, so they cannot be cached in a field
+      return CodeBlock.of(
+          "$N.compareTo($T.valueOf($L)) $L 0", name, BIG_DECIMAL_CLASS, bound, operator);
+    }
+    if (isSubtype(type, BIG_DECIMAL_CLASS.canonicalName())) {
+      String fieldName =
+          addField(
+              component,
+              "BOUND",
+              BIG_DECIMAL_CLASS,
+              CodeBlock.of("$T.valueOf($L)", BIG_DECIMAL_CLASS, bound));
+      return CodeBlock.of("$N.compareTo($N) $L 0", name, fieldName, operator);
+    }
+    if (isSubtype(type, "java.lang.Number")) {
+      return CodeBlock.of("$N.doubleValue() $L $L", name, operator, bound);
+    }
+    return null;
+  }
+
+  private String addField(
+      RecordComponentElement component, String suffix, ClassName fieldType, CodeBlock initializer) {
+    String baseName = toConstantName(component.getSimpleName().toString()) + "_" + suffix;
+    int index = fieldCounters.merge(baseName, 1, Integer::sum);
+    String fieldName = index == 1 ? baseName : baseName + "_" + index;
+
+    fields.add(
+        FieldSpec.builder(fieldType, fieldName, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer(initializer)
+            .build());
+    return fieldName;
+  }
+
+  private boolean isBoxed(TypeMirror type) {
+    return type instanceof DeclaredType declaredType
+        && BOXED_TYPES.contains(
+            ((TypeElement) declaredType.asElement()).getQualifiedName().toString());
+  }
+
+  private boolean isSubtype(TypeMirror type, String className) {
+    return knownTypes.isSubtype(type, className);
+  }
+
+  /** Converts a camelCase component name to UPPER_SNAKE_CASE, e.g. userName -> USER_NAME. */
+  static String toConstantName(String componentName) {
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i < componentName.length(); i++) {
+      char c = componentName.charAt(i);
+      if (Character.isUpperCase(c) && i > 0) {
+        result.append('_');
+      }
+      result.append(Character.toUpperCase(c));
+    }
+    return result.toString();
+  }
+}
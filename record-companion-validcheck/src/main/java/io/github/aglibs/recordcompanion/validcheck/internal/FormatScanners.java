@@ -0,0 +1,179 @@
+package io.github.aglibs.recordcompanion.validcheck.internal;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.MethodSpec;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Creates the private static helper methods that generated check classes use for {@code @Email} and
+ * {@code @Digits}. The helpers scan their input once, char by char, so unlike the equivalent
+ * regular expressions their cost is linear in the input length and cannot backtrack.
+ */
+final class FormatScanners {
+
+  private static final ClassName BIG_DECIMAL_CLASS = ClassName.get("java.math", "BigDecimal");
+
+  // Characters allowed in the local part of an address besides letters and digits (RFC 5322 atext)
+  private static final String LOCAL_PART_SYMBOLS = "!#$%&'*+/=?^_`{|}~-";
+
+  private FormatScanners() {}
+
+  /**
+   * Creates {@code isEmail(CharSequence)}, accepting a dot-atom local part of at most 64 chars, an
+   * {@code @} and a domain of at most 255 chars made of hostname labels or an IP literal. The empty
+   * string is accepted, as by the Bean Validation reference implementation.
+   */
+  static MethodSpec email() {
+    return MethodSpec.methodBuilder("isEmail")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(boolean.class)
+        .addParameter(CharSequence.class, "value")
+        .addStatement("int length = value.length()")
+        .beginControlFlow("if (length == 0)")
+        .addStatement("return true")
+        .endControlFlow()
+        .addStatement("int at = length - 1")
+        .beginControlFlow("while (at >= 0 && value.charAt(at) != '@')")
+        .addStatement("at--")
+        .endControlFlow()
+        .beginControlFlow("if (at < 1 || at > 64 || at == length - 1 || length - at - 1 > 255)")
+        .addStatement("return false")
+        .endControlFlow()
+        .addComment("Local part: dot-separated atoms")
+        .addStatement("char previous = '.'")
+        .beginControlFlow("for (int i = 0; i < at; i++)")
+        .addStatement("char c = value.charAt(i)")
+        .beginControlFlow("if (c == '.')")
+        .beginControlFlow("if (previous == '.')")
+        .addStatement("return false")
+        .endControlFlow()
+        .nextControlFlow(
+            "else if (!Character.isLetterOrDigit(c) && c < 0x80 && $S.indexOf(c) < 0)",
+            LOCAL_PART_SYMBOLS)
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("previous = c")
+        .endControlFlow()
+        .beginControlFlow("if (previous == '.')")
+        .addStatement("return false")
+        .endControlFlow()
+        .addComment("Domain: an IP literal or dot-separated hostname labels")
+        .beginControlFlow("if (value.charAt(at + 1) == '[')")
+        .beginControlFlow("if (length - at < 4 || value.charAt(length - 1) != ']')")
+        .addStatement("return false")
+        .endControlFlow()
+        .beginControlFlow("for (int i = at + 2; i < length - 1; i++)")
+        .addStatement("char c = value.charAt(i)")
+        .beginControlFlow("if (Character.digit(c, 16) < 0 && c != ':' && c != '.')")
+        .addStatement("return false")
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("return true")
+        .endControlFlow()
+        .addStatement("int label = 0")
+        .addStatement("previous = '.'")
+        .beginControlFlow("for (int i = at + 1; i < length; i++)")
+        .addStatement("char c = value.charAt(i)")
+        .beginControlFlow("if (c == '.')")
+        .beginControlFlow("if (label == 0 || previous == '-')")
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("label = 0")
+        .nextControlFlow("else if (c == '-')")
+        .beginControlFlow("if (label == 0)")
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("label++")
+        .nextControlFlow("else if (Character.isLetterOrDigit(c) || c >= 0x80)")
+        .addStatement("label++")
+        .nextControlFlow("else")
+        .addStatement("return false")
+        .endControlFlow()
+        .beginControlFlow("if (label > 63)")
+        .addStatement("return false")
+        .endControlFlow()
+        .addStatement("previous = c")
+        .endControlFlow()
+        .addStatement("return label > 0 && previous != '-'")
+        .build();
+  }
+
+  /**
+   * Creates {@code hasDigits(CharSequence, int, int)}, accepting an optionally signed decimal
+   * number whose significant integer and fraction digits fit the given limits. Leading integer
+   * zeros and trailing fraction zeros are not counted, matching {@code BigDecimal} semantics.
+   */
+  static MethodSpec digits() {
+    return MethodSpec.methodBuilder("hasDigits")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(boolean.class)
+        .addParameter(CharSequence.class, "value")
+        .addParameter(int.class, "integer")
+        .addParameter(int.class, "fraction")
+        .addStatement("int length = value.length()")
+        .addStatement(
+            "int i = length > 0 && (value.charAt(0) == '+' || value.charAt(0) == '-') ? 1 : 0")
+        .addStatement("int integerDigits = 0")
+        .addStatement("int fractionDigits = 0")
+        .addStatement("int pendingZeros = 0")
+        .addStatement("boolean anyDigit = false")
+        .addStatement("boolean inFraction = false")
+        .beginControlFlow("for (; i < length; i++)")
+        .addStatement("char c = value.charAt(i)")
+        .beginControlFlow("if (c == '.' && !inFraction)")
+        .addStatement("inFraction = true")
+        .nextControlFlow("else if (c < '0' || c > '9')")
+        .addStatement("return false")
+        .nextControlFlow("else if (inFraction)")
+        .addStatement("anyDigit = true")
+        .beginControlFlow("if (c == '0')")
+        .addStatement("pendingZeros++")
+        .nextControlFlow("else")
+        .addStatement("fractionDigits += pendingZeros + 1")
+        .addStatement("pendingZeros = 0")
+        .endControlFlow()
+        .nextControlFlow("else")
+        .addStatement("anyDigit = true")
+        .beginControlFlow("if (integerDigits > 0 || c != '0')")
+        .addStatement("integerDigits++")
+        .endControlFlow()
+        .endControlFlow()
+        .beginControlFlow("if (integerDigits > integer || fractionDigits > fraction)")
+        .addStatement("return false")
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("return anyDigit")
+        .build();
+  }
+
+  /** Creates {@code hasDigits(long, int)}, checking the number of digits of an integral value. */
+  static MethodSpec integralDigits() {
+    return MethodSpec.methodBuilder("hasDigits")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(boolean.class)
+        .addParameter(long.class, "value")
+        .addParameter(int.class, "integer")
+        .addStatement("int digits = 0")
+        .beginControlFlow("while (value != 0)")
+        .addStatement("value /= 10")
+        .addStatement("digits++")
+        .endControlFlow()
+        .addStatement("return digits <= integer")
+        .build();
+  }
+
+  /** Creates {@code hasDigits(BigDecimal, int, int)}, ignoring trailing fraction zeros. */
+  static MethodSpec decimalDigits() {
+    return MethodSpec.methodBuilder("hasDigits")
+        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+        .returns(boolean.class)
+        .addParameter(BIG_DECIMAL_CLASS, "value")
+        .addParameter(int.class, "integer")
+        .addParameter(int.class, "fraction")
+        .addStatement("$T stripped = value.stripTrailingZeros()", BIG_DECIMAL_CLASS)
+        .addStatement("int scale = Math.max(stripped.scale(), 0)")
+        .addStatement(
+            "return stripped.precision() - stripped.scale() <= integer && scale <= fraction")
+        .build();
+  }
+}
@@ -0,0 +1,52 @@
+package io.github.aglibs.recordcompanion.validcheck.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Well-known types looked up by name, resolved at most once per round.
+ *
+ * <p>Conditions test component types against the same handful of JDK and ValidCheck types for every
+ * rule, so the resolved types are shared by all records of a round instead of being looked up again
+ * for each rule.
+ */
+final class KnownTypes {
+
+  private final Elements elements;
+  private final Types types;
+  private final Map<String, Optional<TypeMirror>> erasedTypes = new HashMap<>();
+
+  KnownTypes(ProcessingEnvironment processingEnv) {
+    this.elements = processingEnv.getElementUtils();
+    this.types = processingEnv.getTypeUtils();
+  }
+
+  /** Forgets the resolved types, since type elements are only valid within one round. */
+  void clear() {
+    erasedTypes.clear();
+  }
+
+  /** Returns whether the type is a declared type assignable to the named class. */
+  boolean isSubtype(TypeMirror type, String className) {
+    return type.getKind() == TypeKind.DECLARED
+        && erasedType(className)
+            .filter(supertype -> types.isAssignable(types.erasure(type), supertype))
+            .isPresent();
+  }
+
+  private Optional<TypeMirror> erasedType(String className) {
+    return erasedTypes.computeIfAbsent(
+        className,
+        name -> {
+          TypeElement typeElement = elements.getTypeElement(name);
+          return Optional.ofNullable(typeElement).map(element -> types.erasure(element.asType()));
+        });
+  }
+}
@@ -1,11 +1,16 @@
 package io.github.aglibs.recordcompanion.validcheck.internal;
 
+import io.github.aglibs.recordcompanion.processor.internal.ClassList;
+import io.github.aglibs.recordcompanion.processor.internal.InliningReport;
+import io.github.aglibs.recordcompanion.processor.internal.ProcessingProfiler;
 import io.github.aglibs.recordcompanion.validcheck.ValidCheck;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.Set;
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
@@ -17,16 +22,103 @@ import javax.tools.Diagnostic;
  *
  * <p>Processes @ValidCheck annotations on record classes and generates Check classes with
  * ValidCheck integration for Bean Validation annotations.
+ *
+ * <p>Supported options:
+ *
+ * <ul>
+ *   <li>{@code recordcompanion.metrics} - when {@code true}, generated checks report rejections and
+ *       failed constraints to {@code CompanionMetrics} from the record-companion-runtime module
+ *   <li>{@code recordcompanion.jfr} - when {@code true}, generated checks emit {@code
+ *       SlowValidationEvent} and {@code ValidationFailureEvent} JFR events
+ *   <li>{@code recordcompanion.tunableBounds} - when {@code true}, numeric constraint bounds are
+ *       read from {@code ConstraintBounds} and can be overridden at runtime
+ *   <li>{@code recordcompanion.runtimeHelpers} - when {@code true}, generated checks call the
+ *       shared {@code CheckSupport} helpers instead of carrying their own copies
+ *   <li>{@code recordcompanion.patternCache} - a positive size enables a {@code PatternCache} of
+ *       that many entries per {@code @Pattern} constraint
+ *   <li>{@code recordcompanion.validationClock} - when {@code true}, temporal constraints compare
+ *       with {@code ValidationClock} instead of the system clock, so tests can fix the time
+ *   <li>{@code recordcompanion.validatedCache} - a positive size adds {@code validate(Xxx record)},
+ *       which remembers up to that many validated instances in {@code ValidatedInstances}, to
+ *       checks of records whose validated components cannot change, such as strings, boxed values
+ *       and enums; a component with more than null checks on a list, map or array leaves it out
+ *   <li>{@code recordcompanion.validatedCacheTtl} - how long validated instances are remembered, as
+ *       an ISO-8601 duration; defaults to {@code PT1M}
+ *   <li>{@code recordcompanion.profile} - when {@code true}, time spent per round, record and phase
+ *       is written to {@code recordcompanion-profile/validcheck.csv} in the class output
+ *   <li>{@code recordcompanion.parallelism} - the number of threads that render generated sources
+ *       at the end of each round; defaults to the number of available processors
+ *   <li>{@code recordcompanion.inliningReport} - when {@code true}, the bytecode size of every
+ *       generated method is compared with HotSpot's inlining thresholds in {@code
+ *       recordcompanion-profile/validcheck-inlining.csv} in the class output, and {@code
+ *       validate()}, {@code violations()}, {@code buildValidation()}, {@code check()} and {@code
+ *       require()} methods that are too large to ever be inlined are reported as warnings
+ *   <li>{@code recordcompanion.classList} - when {@code true}, every generated class is listed in
+ *       {@code META-INF/record-companion/validcheck.classlist}, a class list for {@code
+ *       -XX:SharedClassListFile}
+ *   <li>{@code recordcompanion.index} - a package name; checks of public records are registered in
+ *       a generated {@code CheckIndex} class in that package, listed in {@code
+ *       META-INF/record-companion/validcheck.index} for {@code RecordCompanions}
+ * </ul>
+ *
+ * <p>The processor is registered as dynamic for Gradle incremental compilation: it is isolating,
+ * unless the index or the class list is enabled, which makes it aggregating.
  */
 @SupportedAnnotationTypes("io.github.aglibs.recordcompanion.validcheck.ValidCheck")
+@SupportedOptions({
+  ValidCheckProcessor.METRICS_OPTION,
+  ValidCheckProcessor.JFR_OPTION,
+  ValidCheckProcessor.TUNABLE_BOUNDS_OPTION,
+  ValidCheckProcessor.RUNTIME_HELPERS_OPTION,
+  ValidCheckProcessor.PATTERN_CACHE_OPTION,
+  ValidCheckProcessor.VALIDATION_CLOCK_OPTION,
+  ValidCheckProcessor.VALIDATED_CACHE_OPTION,
+  ValidCheckProcessor.VALIDATED_CACHE_TTL_OPTION,
+  ValidCheckProcessor.PROFILE_OPTION,
+  ValidCheckProcessor.PARALLELISM_OPTION,
+  ValidCheckProcessor.INDEX_OPTION,
+  ValidCheckProcessor.CLASS_LIST_OPTION,
+  ValidCheckProcessor.INLINING_REPORT_OPTION
+})
 public class ValidCheckProcessor extends AbstractProcessor {
 
+  static final String METRICS_OPTION = "recordcompanion.metrics";
+  static final String JFR_OPTION = "recordcompanion.jfr";
+  static final String TUNABLE_BOUNDS_OPTION = "recordcompanion.tunableBounds";
+  static final String RUNTIME_HELPERS_OPTION = "recordcompanion.runtimeHelpers";
+  static final String PATTERN_CACHE_OPTION = "recordcompanion.patternCache";
+  static final String VALIDATION_CLOCK_OPTION = "recordcompanion.validationClock";
+  static final String VALIDATED_CACHE_OPTION = "recordcompanion.validatedCache";
+  static final String VALIDATED_CACHE_TTL_OPTION = "recordcompanion.validatedCacheTtl";
+  static final String PROFILE_OPTION = "recordcompanion.profile";
+  static final String PARALLELISM_OPTION = "recordcompanion.parallelism";
+  static final String INDEX_OPTION = "recordcompanion.index";
+  static final String CLASS_LIST_OPTION = "recordcompanion.classList";
+  static final String INLINING_REPORT_OPTION = "recordcompanion.inliningReport";
+
+  private static final String GRADLE_ISOLATING = "org.gradle.annotation.processing.isolating";
+  private static final String GRADLE_AGGREGATING = "org.gradle.annotation.processing.aggregating";
+
   private CheckGenerator checkGenerator;
+  private ProcessingProfiler profiler;
+  private ClassList classList;
 
   public ValidCheckProcessor() {
     // Default constructor
   }
 
+  @Override
+  public Set<String> getSupportedOptions() {
+    Set<String> options = new HashSet<>(super.getSupportedOptions());
+    // Gradle asks dynamic processors for their incremental category once they are initialized
+    boolean aggregating =
+        processingEnv != null
+            && (processingEnv.getOptions().containsKey(INDEX_OPTION)
+                || Boolean.parseBoolean(processingEnv.getOptions().get(CLASS_LIST_OPTION)));
+    options.add(aggregating ? GRADLE_AGGREGATING : GRADLE_ISOLATING);
+    return options;
+  }
+
   @Override
   public SourceVersion getSupportedSourceVersion() {
     return SourceVersion.latestSupported();
@@ -35,8 +127,24 @@ public class ValidCheckProcessor extends AbstractProcessor {
   @Override
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
     if (checkGenerator == null) {
-      checkGenerator = new CheckGenerator(processingEnv);
+      profiler =
+          new ProcessingProfiler(
+              Boolean.parseBoolean(processingEnv.getOptions().get(PROFILE_OPTION)),
+              "validcheck.csv");
+      classList =
+          new ClassList(
+              Boolean.parseBoolean(processingEnv.getOptions().get(CLASS_LIST_OPTION)),
+              "validcheck.classlist");
+      InliningReport inliningReport =
+          new InliningReport(
+              Boolean.parseBoolean(processingEnv.getOptions().get(INLINING_REPORT_OPTION)),
+              "validcheck-inlining.csv",
+              Set.of("validate", "violations", "buildValidation", "check", "require"));
+      inliningReport.start(processingEnv);
+      checkGenerator = new CheckGenerator(processingEnv, profiler, classList, inliningReport);
     }
+    checkGenerator.startRound();
+    profiler.startRound();
 
     for (Element element : roundEnv.getElementsAnnotatedWith(ValidCheck.class)) {
       if (element.getKind() != ElementKind.RECORD) {
@@ -51,21 +159,51 @@ public class ValidCheckProcessor extends AbstractProcessor {
 
       TypeElement recordElement = (TypeElement) element;
 
-      try {
-        checkGenerator.generateCheck(recordElement);
-      } catch (IOException e) {
-        processingEnv
-            .getMessager()
-            .printMessage(
-                Diagnostic.Kind.ERROR,
-                "Failed to generate check class for "
-                    + recordElement.getSimpleName()
-                    + ": "
-                    + e.getMessage(),
-                recordElement);
-      }
+      profiler.startRecord(recordElement);
+      checkGenerator.generateCheck(recordElement);
+      profiler.endRecord();
     }
+    checkGenerator.finishRound();
+    profiler.endRound();
 
+    if (roundEnv.processingOver()) {
+      writeIndex();
+      writeClassList();
+      writeProfile();
+      checkGenerator.close();
+    }
     return true;
   }
+
+  private void writeIndex() {
+    try {
+      checkGenerator.writeIndex(processingEnv.getFiler());
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.ERROR, "Failed to write companion index: " + e.getMessage());
+    }
+  }
+
+  private void writeClassList() {
+    try {
+      classList.write(processingEnv.getFiler());
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(Diagnostic.Kind.WARNING, "Failed to write class list: " + e.getMessage());
+    }
+  }
+
+  private void writeProfile() {
+    try {
+      profiler.writeReport(processingEnv.getFiler());
+    } catch (IOException e) {
+      processingEnv
+          .getMessager()
+          .printMessage(
+              Diagnostic.Kind.WARNING, "Failed to write processing profile: " + e.getMessage());
+    }
+  }
 }
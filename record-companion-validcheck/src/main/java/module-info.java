@@ -2,7 +2,10 @@
 module recordcompanion.validcheck {
   requires transitive java.compiler;
   requires java.validation;
+  requires static jdk.compiler;
   requires com.squareup.javapoet;
+  // Relocated into the internal package when the jar is packaged
+  requires static recordcompanion.processor.support;
 
   // Export only the public annotation API
   exports io.github.aglibs.recordcompanion.validcheck;